@@ -22,6 +22,12 @@ public class MateCachedDispatchNode extends CachedDispatchNode {
     ih = IntercessionHandling.createForMethodActivation(SMethod.getSignature(method));
   }
 
+  protected MateCachedDispatchNode(final DispatchGuard guard, final MateCachedDispatchNode entry) {
+    super(guard, entry);
+    method = entry.method;
+    ih = entry.ih;
+  }
+
   @Override
   public Object executeDispatch(final VirtualFrame frame,
       final DynamicObject environment, final ExecutionLevel exLevel, final Object[] arguments) {
@@ -37,12 +43,21 @@ public class MateCachedDispatchNode extends CachedDispatchNode {
         return nextInCache.executeDispatch(frame, environment, exLevel, arguments);
       }
     } catch (InvalidAssumptionException e) {
-      CompilerDirectives.transferToInterpreter();
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      if (guard.generalize() != null) {
+        return generalizeGuard().
+            executeDispatch(frame, environment, exLevel, arguments);
+      }
       return replace(nextInCache).
           executeDispatch(frame, environment, exLevel, arguments);
     }
   }
 
+  @Override
+  protected CachedDispatchNode withGuard(final DispatchGuard newGuard) {
+    return new MateCachedDispatchNode(newGuard, this);
+  }
+
   /*public Object executeBasicDispatch(final VirtualFrame frame,
       final DynamicObject environment, final ExecutionLevel exLevel, final Object[] arguments) {
     return super.executeDispatch(frame, environment, exLevel, arguments);
@@ -19,9 +19,9 @@ import som.vm.Universe;
 import som.vm.constants.Classes;
 import som.vm.constants.ExecutionLevel;
 import som.vm.constants.Nil;
-import som.vmobjects.MockJavaObject;
 import som.vmobjects.SArray;
 import som.vmobjects.SBlock;
+import som.vmobjects.SContext;
 import som.vmobjects.SInvokable;
 import som.vmobjects.SInvokable.SMethod;
 import som.vmobjects.SObject;
@@ -98,16 +98,10 @@ public abstract class MateAbstractReflectiveDispatch extends Node {
 
   public abstract static class MateDispatchLocalVarRead extends
       MateDispatchFieldRead {
-    final DynamicObject context;
-
-    public MateDispatchLocalVarRead() {
-      context = Universe.getCurrent().getObjectMemory().getGlobal(Universe.getCurrent().symbolFor("Context"));
-    }
-
     @Override
     protected Object[] computeArgumentsForMetaDispatch(final VirtualFrame frame, final Object[] arguments) {
       return new Object[]{SArguments.getEnvironment(frame), ExecutionLevel.Meta, arguments[0],
-          arguments[1], new MockJavaObject(frame.materialize(), context)};
+          arguments[1], new SContext(frame.materialize())};
     }
   }
 
@@ -117,7 +111,7 @@ public abstract class MateAbstractReflectiveDispatch extends Node {
     protected Object[] computeArgumentsForMetaDispatch(final VirtualFrame frame, final Object[] arguments) {
       return new Object[]{SArguments.getEnvironment(frame), ExecutionLevel.Meta, arguments[0],
           arguments[1],
-          new MockJavaObject(frame.materialize(), context),
+          new SContext(frame.materialize()),
           ((ExpressionNode) arguments[2]).executeGeneric(frame)};
     }
   }
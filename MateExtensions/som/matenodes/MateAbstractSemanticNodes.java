@@ -8,6 +8,7 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeCost;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Location;
 import com.oracle.truffle.api.object.ObjectType;
 import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.profiles.BranchProfile;
@@ -18,6 +19,7 @@ import som.matenodes.MateAbstractSemanticNodesFactory.MateEnvironmentSemanticChe
 import som.matenodes.MateAbstractSemanticNodesFactory.MateGlobalSemanticCheckNodeGen;
 import som.matenodes.MateAbstractSemanticNodesFactory.MateObjectSemanticInEnvCheckNodeGen;
 import som.matenodes.MateAbstractSemanticNodesFactory.MateObjectSemanticInObjCheckNodeGen;
+import som.matenodes.MateAbstractSemanticNodesFactory.MateOperationTableNodeGen;
 import som.matenodes.MateAbstractSemanticNodesFactory.MateSemanticCheckNodeGen;
 import som.matenodes.MateAbstractSemanticNodesFactory.MateSemanticsBaselevelNodeGen;
 import som.matenodes.MateAbstractSemanticNodesFactory.MateSemanticsBaselevelNodeUnoptNodeGen;
@@ -27,6 +29,7 @@ import som.vm.constants.ExecutionLevel;
 import som.vm.constants.Nil;
 import som.vm.constants.ReflectiveOp;
 import som.vmobjects.SMateEnvironment;
+import som.vmobjects.SMateEnvironment.OperationTable;
 import som.vmobjects.SReflectiveObject;
 import som.vmobjects.SReflectiveObjectEnvInObj;
 
@@ -41,11 +44,58 @@ public abstract class MateAbstractSemanticNodes extends Node {
     return SMateEnvironment.methodImplementing(environment, this.reflectiveOperation);
   }
 
+  private static final Assumption[] NO_ASSUMPTIONS = new Assumption[0];
+
+  /**
+   * Cached methods are only valid as long as the operation table of their
+   * environment, see {@link SMateEnvironment.OperationTable}.
+   */
+  protected static Assumption[] operationTableAssumptions(final DynamicObject environment) {
+    if (environment == null || environment == Nil.nilObject) {
+      return NO_ASSUMPTIONS;
+    }
+    return SMateEnvironment.getOperationTable(environment).getAssumptions();
+  }
+
   @Override
   public NodeCost getCost() {
     return NodeCost.NONE;
   }
 
+  /**
+   * Reads the operation table of an environment from the location of its
+   * shape, so that only missing or stale tables are looked up behind a
+   * boundary.
+   */
+  @ImportStatic(SMateEnvironment.class)
+  public abstract static class MateOperationTableNode extends Node {
+    public abstract OperationTable executeTable(DynamicObject environment);
+
+    @Specialization(guards = "environment.getShape() == cachedShape", limit = "3",
+        assumptions = "cachedShape.getValidAssumption()")
+    public OperationTable doCachedShape(final DynamicObject environment,
+        @Cached("environment.getShape()") final Shape cachedShape,
+        @Cached("getOperationTableLocation(cachedShape)") final Location location) {
+      if (location != null) {
+        OperationTable table = (OperationTable) location.get(environment, cachedShape);
+        if (table.isValid()) {
+          return table;
+        }
+      }
+      return SMateEnvironment.getOperationTable(environment);
+    }
+
+    @Specialization(replaces = "doCachedShape")
+    public OperationTable doUncached(final DynamicObject environment) {
+      return SMateEnvironment.getOperationTable(environment);
+    }
+
+    @Override
+    public NodeCost getCost() {
+      return NodeCost.NONE;
+    }
+  }
+
   public abstract static class MateGlobalSemanticCheckNode extends MateAbstractSemanticNodes {
 
     protected MateGlobalSemanticCheckNode(final ReflectiveOp operation) {
@@ -54,15 +104,16 @@ public abstract class MateAbstractSemanticNodes extends Node {
 
     public abstract DynamicObject executeGeneric(VirtualFrame frame);
 
-    @Specialization(assumptions = "getGlobalSemanticsActivatedAssumption()")
+    @Specialization(assumptions = {"getGlobalSemanticsActivatedAssumption()", "tableAssumptions"})
     public DynamicObject doCheck(final VirtualFrame frame,
         @Cached("getGlobalEnvironment()") final DynamicObject cachedEnvironment,
+        @Cached("operationTableAssumptions(cachedEnvironment)") final Assumption[] tableAssumptions,
         @Cached("methodImplementingOperationOn(cachedEnvironment)") final DynamicObject reflectiveMethod) {
       return reflectiveMethod;
     }
 
-    public static Assumption getGlobalSemanticsActivatedAssumption() {
-      return Universe.getCurrent().getGlobalSemanticsActivatedAssumption();
+    protected Assumption getGlobalSemanticsActivatedAssumption() {
+      return Universe.getCurrent().getGlobalSemanticsActivatedAssumption(reflectiveOperation);
     }
 
     public static DynamicObject getGlobalEnvironment() {
@@ -83,9 +134,10 @@ public abstract class MateAbstractSemanticNodes extends Node {
       return null;
     }
 
-    @Specialization(guards = {"getEnvironment(frame) == cachedEnvironment"})
+    @Specialization(guards = {"getEnvironment(frame) == cachedEnvironment"}, assumptions = "tableAssumptions")
     public DynamicObject doSemanticsInFrame(final VirtualFrame frame,
         @Cached("getEnvironment(frame)") final DynamicObject cachedEnvironment,
+        @Cached("operationTableAssumptions(cachedEnvironment)") final Assumption[] tableAssumptions,
         @Cached("methodImplementingOperationOn(cachedEnvironment)") final DynamicObject reflectiveMethod) {
         return reflectiveMethod;
     }
@@ -97,6 +149,7 @@ public abstract class MateAbstractSemanticNodes extends Node {
 
   public abstract static class MateObjectSemanticCheckNode extends MateAbstractSemanticNodes {
     protected final BranchProfile metaobjectObserved = BranchProfile.create();
+    @Child protected MateOperationTableNode operationTable = MateOperationTableNodeGen.create();
 
     public abstract DynamicObject executeGeneric(VirtualFrame frame,
         Object receiver);
@@ -112,7 +165,7 @@ public abstract class MateAbstractSemanticNodes extends Node {
         return null;
       } else {
         metaobjectObserved.enter();
-        return SMateEnvironment.methodImplementing(environment, operation);
+        return operationTable.executeTable(environment).methodImplementing(operation);
       }
     }
   }
@@ -123,50 +176,56 @@ public abstract class MateAbstractSemanticNodes extends Node {
     }
 
     @Specialization(guards = {"receiver.getShape() == cachedShape"}, limit = "1",
-        assumptions = {"cachedShape.getValidAssumption()"})
+        assumptions = {"cachedShape.getValidAssumption()", "tableAssumptions"})
     public DynamicObject doWarmup(
         final VirtualFrame frame,
         final DynamicObject receiver,
         @Cached("receiver.getShape()") final Shape cachedShape,
+        @Cached("operationTableAssumptions(getEnvironment(cachedShape))") final Assumption[] tableAssumptions,
         @Cached("environmentReflectiveMethod(getEnvironment(cachedShape), reflectiveOperation)") final DynamicObject method) {
       return method;
     }
 
     @Specialization(guards = {"receiver.getShape() == cachedShape"}, replaces = {"doWarmup"}, limit = "1",
-        assumptions = {"cachedShape.getValidAssumption()"})
+        assumptions = {"cachedShape.getValidAssumption()", "tableAssumptions"})
     public DynamicObject doWarmup2(
         final VirtualFrame frame,
         final DynamicObject receiver,
         @Cached("receiver.getShape()") final Shape cachedShape,
+        @Cached("operationTableAssumptions(getEnvironment(cachedShape))") final Assumption[] tableAssumptions,
         @Cached("environmentReflectiveMethod(getEnvironment(cachedShape), reflectiveOperation)") final DynamicObject method) {
       return method;
     }
 
     @Specialization(guards = {"receiver.getShape() == cachedShape"}, replaces = {"doWarmup2"}, limit = "1",
-        assumptions = {"cachedShape.getValidAssumption()"})
+        assumptions = {"cachedShape.getValidAssumption()", "tableAssumptions"})
     public DynamicObject doWarmup3(
         final VirtualFrame frame,
         final DynamicObject receiver,
         @Cached("receiver.getShape()") final Shape cachedShape,
+        @Cached("operationTableAssumptions(getEnvironment(cachedShape))") final Assumption[] tableAssumptions,
         @Cached("environmentReflectiveMethod(getEnvironment(cachedShape), reflectiveOperation)") final DynamicObject method) {
       return method;
     }
 
     @Specialization(guards = {"receiver.getShape() == cachedShape"}, replaces = {"doWarmup3"}, limit = "3",
-        assumptions = {"cachedShape.getValidAssumption()"})
+        assumptions = {"cachedShape.getValidAssumption()", "tableAssumptions"})
     public DynamicObject doMonomorhic(
         final VirtualFrame frame,
         final DynamicObject receiver,
         @Cached("receiver.getShape()") final Shape cachedShape,
+        @Cached("operationTableAssumptions(getEnvironment(cachedShape))") final Assumption[] tableAssumptions,
         @Cached("environmentReflectiveMethod(getEnvironment(cachedShape), reflectiveOperation)") final DynamicObject method) {
       return method;
     }
 
-    @Specialization(guards = {"receiver.getShape().getObjectType() == cachedType"}, replaces = {"doMonomorhic"}, limit = "3")
+    @Specialization(guards = {"receiver.getShape().getObjectType() == cachedType"}, replaces = {"doMonomorhic"}, limit = "3",
+        assumptions = "tableAssumptions")
     public DynamicObject doPolymorhic(
         final VirtualFrame frame,
         final DynamicObject receiver,
         @Cached("receiver.getShape().getObjectType()") final ObjectType cachedType,
+        @Cached("operationTableAssumptions(getEnvironment(receiver.getShape()))") final Assumption[] tableAssumptions,
         @Cached("environmentReflectiveMethod(getEnvironment(receiver.getShape()), reflectiveOperation)") final DynamicObject method) {
       return method;
     }
@@ -202,11 +261,13 @@ public abstract class MateAbstractSemanticNodes extends Node {
     public abstract DynamicObject executeGeneric(VirtualFrame frame,
         Object receiver);
 
-    @Specialization(guards = { "getEnvironment(receiver) == cachedEnvironment" }, limit = "6")
+    @Specialization(guards = { "getEnvironment(receiver) == cachedEnvironment" }, limit = "6",
+        assumptions = "tableAssumptions")
     public DynamicObject doMonomorhic(
         final VirtualFrame frame,
         final DynamicObject receiver,
         @Cached("getEnvironment(receiver)") final DynamicObject cachedEnvironment,
+        @Cached("operationTableAssumptions(cachedEnvironment)") final Assumption[] tableAssumptions,
         @Cached("environmentReflectiveMethod(cachedEnvironment, reflectiveOperation)") final DynamicObject method) {
       return method;
     }
@@ -293,16 +354,16 @@ public abstract class MateAbstractSemanticNodes extends Node {
       return SArguments.getExecutionLevel(frame) == ExecutionLevel.Base;
     }
 
-    public static Assumption[] getMateDeactivatedAssumption() {
-      return new Assumption[]{Universe.getCurrent().getMateDeactivatedAssumption()};
+    protected Assumption[] getMateDeactivatedAssumption() {
+      return new Assumption[]{Universe.getCurrent().getMateDeactivatedAssumption(reflectiveOperation())};
     }
 
-    public static Assumption[] getMateActivatedAssumption() {
-      return new Assumption[]{Universe.getCurrent().getMateActivatedAssumption()};
+    protected Assumption[] getMateActivatedAssumption() {
+      return new Assumption[]{Universe.getCurrent().getMateActivatedAssumption(reflectiveOperation())};
     }
 
-    public static Assumption[] getOptimizedIHAssumption() {
-      return new Assumption[]{Universe.getCurrent().getMateActivatedAssumption(), Universe.getCurrent().getOptimizedIHAssumption()};
+    protected Assumption[] getOptimizedIHAssumption() {
+      return new Assumption[]{Universe.getCurrent().getMateActivatedAssumption(reflectiveOperation()), Universe.getCurrent().getOptimizedIHAssumption()};
     }
 
     @Override
@@ -363,17 +424,18 @@ public abstract class MateAbstractSemanticNodes extends Node {
       return value;
     }
 
-    public static Assumption getGlobalSemanticsDeactivatedAssumption() {
-      return Universe.getCurrent().getGlobalSemanticsDeactivatedAssumption();
+    protected Assumption getGlobalSemanticsDeactivatedAssumption() {
+      return Universe.getCurrent().getGlobalSemanticsDeactivatedAssumption(environment.reflectiveOperation);
     }
 
-    public static Assumption getGlobalSemanticsActivatedAssumption() {
-      return Universe.getCurrent().getGlobalSemanticsActivatedAssumption();
+    protected Assumption getGlobalSemanticsActivatedAssumption() {
+      return Universe.getCurrent().getGlobalSemanticsActivatedAssumption(environment.reflectiveOperation);
     }
   }
 
   public abstract static class MateSemanticsBaselevelNodeUnopt extends MateAbstractSemanticsLevelNode {
     ReflectiveOp reflectiveOperation;
+    @Child MateOperationTableNode operationTable = MateOperationTableNodeGen.create();
 
     public MateSemanticsBaselevelNodeUnopt(final ReflectiveOp reflectiveOperation) {
       super();
@@ -387,12 +449,12 @@ public abstract class MateAbstractSemanticNodes extends Node {
         DynamicObject env = SArguments.getEnvironment(frame);
         DynamicObject method = null;
         if (env != Nil.nilObject) {
-           method = SMateEnvironment.methodImplementing(env, reflectiveOperation);
+           method = operationTable.executeTable(env).methodImplementing(reflectiveOperation);
         }
         if (method == null & SReflectiveObject.isSReflectiveObject(((DynamicObject) arguments[0]))) {
           env = SReflectiveObject.getEnvironment(((DynamicObject) arguments[0]));
           if (env != Nil.nilObject) {
-            method = SMateEnvironment.methodImplementing(env, reflectiveOperation);
+            method = operationTable.executeTable(env).methodImplementing(reflectiveOperation);
           }
         }
         return method;
@@ -1,17 +1,20 @@
 package som.primitives;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.TruffleRuntime;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.FrameInstance;
 import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
 import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.FrameSlotKind;
 import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.object.DynamicObject;
 
 import bd.primitives.Primitive;
@@ -24,7 +27,9 @@ import som.interpreter.nodes.nary.BinaryExpressionNode;
 import som.interpreter.nodes.nary.TernaryExpressionNode;
 import som.interpreter.nodes.nary.UnaryExpressionNode;
 import som.vm.Universe;
-import som.vmobjects.MockJavaObject;
+import som.vm.constants.ExecutionLevel;
+import som.vmobjects.SAbstractObject;
+import som.vmobjects.SContext;
 
 
 public class ContextPrims {
@@ -71,83 +76,104 @@ public class ContextPrims {
   }
 
   @GenerateNodeFactory
-  @Primitive(className = "Context", primitive = "localAt:", selector = "localAt:", receiverType = { MockJavaObject.class })
+  @Primitive(className = "Context", primitive = "localAt:", selector = "localAt:", receiverType = { SContext.class })
   public abstract static class GetLocalVarAtPrim extends BinaryExpressionNode {
-    @Specialization(guards = {"identifier==cachedIdentifier"})
-    public final Object doVirtualFrame(final MockJavaObject mockedFrame,
+    @Specialization(guards = {"identifier == cachedIdentifier", "context.getFrameDescriptor() == descriptor",
+        "slot != null"})
+    public final Object doCached(final SContext context,
         final String identifier,
-        @Cached(value = "identifier") final String cachedIdentifier,
-        @Cached(value = "findSlotForIdInLevel(identifier, 1)") final FrameSlot slot) {
-      MaterializedFrame frame = (MaterializedFrame) mockedFrame.getMockedObject();
+        @Cached("identifier") final String cachedIdentifier,
+        @Cached("context.getFrameDescriptor()") final FrameDescriptor descriptor,
+        @Cached("descriptor.findFrameSlot(identifier)") final FrameSlot slot) {
       // Todo: specialize on type
-      return frame.getValue(slot);
-      // return readnode.executeGeneric(frame);
+      return context.getFrame().getValue(slot);
     }
 
-    protected static FrameSlot findSlotForIdInLevel(final String identifier, final int level) {
-      int[] currentLevel = new int[1];
-      FrameInstance f = Universe.getCurrent().getTruffleRuntime().iterateFrames(fi -> {
-        if (currentLevel[0] == level) {
-          return fi;
-        }
-        currentLevel[0]++;
-        return null;
-      });
-      f.getFrame(FrameAccess.READ_ONLY);
-      return f.getCallNode().getRootNode().getFrameDescriptor().findFrameSlot(identifier);
+    @Specialization(replaces = "doCached")
+    public final Object doUncached(final VirtualFrame frame, final SContext context,
+        final String identifier) {
+      return readLocal(context.getFrame(), context, identifier,
+          SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame));
     }
 
-    /*protected static LocalVariableReadNode variableNodeForIdentifier(final String identifier, final int level) {
-      FrameSlot slot = findSlotForIdInLevel(identifier, level);
-      return LocalVariableReadNodeGen.create(slot, null);
-    }*/
+    @TruffleBoundary
+    private static Object readLocal(final MaterializedFrame frame, final SContext context,
+        final String identifier, final DynamicObject environment, final ExecutionLevel level) {
+      FrameSlot slot = frame.getFrameDescriptor().findFrameSlot(identifier);
+      if (slot == null) {
+        return unknownLocal(context, identifier, environment, level);
+      }
+      return frame.getValue(slot);
+    }
   }
 
   @GenerateNodeFactory
-  @Primitive(className = "Context", primitive = "localAt:put:", selector = "localAt:put:", receiverType = { MockJavaObject.class })
+  @Primitive(className = "Context", primitive = "localAt:put:", selector = "localAt:put:", receiverType = { SContext.class })
   public abstract static class LocalVarAtPutPrim extends TernaryExpressionNode {
-    @Specialization(guards = {"identifier==cachedIdentifier"})
-    public final Object doVirtualFrame(final MockJavaObject mockedFrame,
+    @Specialization(guards = {"identifier == cachedIdentifier", "context.getFrameDescriptor() == descriptor",
+        "slot != null"})
+    public final Object doLong(final SContext context,
         final String identifier, final long value,
-        @Cached(value = "identifier") final String cachedIdentifier,
-        @Cached(value = "findSlotForId(identifier)") final FrameSlot slot) {
-      MaterializedFrame frame = (MaterializedFrame) mockedFrame.getMockedObject();
-      if (frame.getFrameDescriptor().getFrameSlotKind(slot) != FrameSlotKind.Long) {
+        @Cached("identifier") final String cachedIdentifier,
+        @Cached("context.getFrameDescriptor()") final FrameDescriptor descriptor,
+        @Cached("descriptor.findFrameSlot(identifier)") final FrameSlot slot) {
+      if (descriptor.getFrameSlotKind(slot) != FrameSlotKind.Long) {
         CompilerDirectives.transferToInterpreterAndInvalidate();
-        frame.getFrameDescriptor().setFrameSlotKind(slot, FrameSlotKind.Long);
+        descriptor.setFrameSlotKind(slot, FrameSlotKind.Long);
       }
-      frame.setLong(slot, value);
+      context.getFrame().setLong(slot, value);
       return value;
     }
 
-    @Specialization(guards = {"identifier==cachedIdentifier"})
-    public final Object doVirtualFrame(final MockJavaObject mockedFrame,
+    @Specialization(guards = {"identifier == cachedIdentifier", "context.getFrameDescriptor() == descriptor",
+        "slot != null"})
+    public final Object doObject(final SContext context,
         final String identifier, final Object value,
-        @Cached(value = "identifier") final String cachedIdentifier,
-        @Cached(value = "findSlotForId(identifier)") final FrameSlot slot) {
-      MaterializedFrame frame = (MaterializedFrame) mockedFrame.getMockedObject();
-      if (frame.getFrameDescriptor().getFrameSlotKind(slot) != FrameSlotKind.Object) {
+        @Cached("identifier") final String cachedIdentifier,
+        @Cached("context.getFrameDescriptor()") final FrameDescriptor descriptor,
+        @Cached("descriptor.findFrameSlot(identifier)") final FrameSlot slot) {
+      if (descriptor.getFrameSlotKind(slot) != FrameSlotKind.Object) {
         CompilerDirectives.transferToInterpreterAndInvalidate();
-        frame.getFrameDescriptor().setFrameSlotKind(slot, FrameSlotKind.Object);
+        descriptor.setFrameSlotKind(slot, FrameSlotKind.Object);
       }
-      frame.setObject(slot, value);
+      context.getFrame().setObject(slot, value);
       return value;
     }
 
-    protected FrameSlot findSlotForId(final String identifier) {
-      return GetLocalVarAtPrim.findSlotForIdInLevel(identifier, 1);
+    @Specialization(replaces = {"doLong", "doObject"})
+    public final Object doUncached(final VirtualFrame frame, final SContext context,
+        final String identifier, final Object value) {
+      return writeLocal(context.getFrame(), context, identifier, value,
+          SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame));
+    }
+
+    @TruffleBoundary
+    private static Object writeLocal(final MaterializedFrame frame, final SContext context,
+        final String identifier, final Object value, final DynamicObject environment,
+        final ExecutionLevel level) {
+      FrameSlot slot = frame.getFrameDescriptor().findFrameSlot(identifier);
+      if (slot == null) {
+        return unknownLocal(context, identifier, environment, level);
+      }
+      frame.getFrameDescriptor().setFrameSlotKind(slot, FrameSlotKind.Object);
+      frame.setObject(slot, value);
+      return value;
     }
   }
 
   @GenerateNodeFactory
-  @Primitive(className = "Context", primitive = "argAt:", selector = "argAt:", receiverType = { MockJavaObject.class })
+  @Primitive(className = "Context", primitive = "argAt:", selector = "argAt:", receiverType = { SContext.class })
   public abstract static class GetArgAtPrim extends BinaryExpressionNode {
-    // Todo: dispatch chain index->slot
     @Specialization
-    public final Object doVirtualFrame(final MockJavaObject mockedFrame,
-        final long index) {
-      Frame frame = (Frame) mockedFrame.getMockedObject();
-      return SArguments.arg(frame, (int) index);
+    public final Object doContext(final SContext context, final long index) {
+      return SArguments.arg(context.getFrame(), (int) index);
     }
   }
+
+  /** Sends <code>error:</code> to the context, for a local it does not have. */
+  private static Object unknownLocal(final SContext context, final String identifier,
+      final DynamicObject environment, final ExecutionLevel level) {
+    return SAbstractObject.send("error:",
+        new Object[] {context, "Unknown local variable: " + identifier}, environment, level);
+  }
 }
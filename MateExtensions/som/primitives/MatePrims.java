@@ -2,22 +2,28 @@ package som.primitives;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.object.DynamicObject;
 
 import bd.primitives.Primitive;
+import som.interpreter.SArguments;
 import som.interpreter.nodes.nary.BinaryExpressionNode;
 import som.interpreter.nodes.nary.TernaryExpressionNode;
 import som.interpreter.nodes.nary.UnaryExpressionNode;
 import som.vm.Universe;
+import som.vm.constants.ExecutionLevel;
 import som.vm.constants.Globals;
 import som.vm.constants.Nil;
+import som.vm.constants.ReflectiveOp;
 import som.vmobjects.MockJavaObject;
 import som.vmobjects.SAbstractObject;
 import som.vmobjects.SClass;
 import som.vmobjects.SReflectiveObject;
 import som.vmobjects.SReflectiveObjectEnvInObj;
 import som.vmobjects.SShape;
+import som.vmobjects.SSymbol;
 
 public final class MatePrims {
 
@@ -97,6 +103,75 @@ public final class MatePrims {
     }
   }
 
+  @ImportStatic(SystemPrims.class)
+  @GenerateNodeFactory
+  @Primitive(className = "System", primitive = "activateMate", mate = true)
+  public abstract static class ActivateMatePrim extends UnaryExpressionNode {
+    @TruffleBoundary
+    @Specialization(guards = "receiverIsSystemObject(receiver)")
+    public final DynamicObject doSystemObject(final DynamicObject receiver) {
+      Universe.getCurrent().activatedMate();
+      return receiver;
+    }
+  }
+
+  @ImportStatic(SystemPrims.class)
+  @GenerateNodeFactory
+  @Primitive(className = "System", primitive = "deactivateMate", mate = true)
+  public abstract static class DeactivateMatePrim extends UnaryExpressionNode {
+    @TruffleBoundary
+    @Specialization(guards = "receiverIsSystemObject(receiver)")
+    public final DynamicObject doSystemObject(final DynamicObject receiver) {
+      Universe.getCurrent().deactivateMate();
+      return receiver;
+    }
+  }
+
+  @ImportStatic(SystemPrims.class)
+  @GenerateNodeFactory
+  @Primitive(className = "System", primitive = "activateMate:", mate = true)
+  public abstract static class ActivateMateForOperationPrim extends BinaryExpressionNode {
+    @Specialization(guards = "receiverIsSystemObject(receiver)")
+    public final Object doSystemObject(final VirtualFrame frame, final DynamicObject receiver,
+        final SSymbol operation) {
+      return setMateActivation(receiver, operation, true,
+          SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame));
+    }
+  }
+
+  @ImportStatic(SystemPrims.class)
+  @GenerateNodeFactory
+  @Primitive(className = "System", primitive = "deactivateMate:", mate = true)
+  public abstract static class DeactivateMateForOperationPrim extends BinaryExpressionNode {
+    @Specialization(guards = "receiverIsSystemObject(receiver)")
+    public final Object doSystemObject(final VirtualFrame frame, final DynamicObject receiver,
+        final SSymbol operation) {
+      return setMateActivation(receiver, operation, false,
+          SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame));
+    }
+  }
+
+  /**
+   * Activates or deactivates Mate for the {@link ReflectiveOp} called
+   * <code>name</code>, or sends <code>error:</code> if there is none.
+   */
+  @TruffleBoundary
+  private static Object setMateActivation(final DynamicObject system, final SSymbol name,
+      final boolean activate, final DynamicObject environment, final ExecutionLevel level) {
+    for (ReflectiveOp operation : ReflectiveOp.values()) {
+      if (operation.name().equals(name.getString())) {
+        if (activate) {
+          Universe.getCurrent().activateMate(operation);
+        } else {
+          Universe.getCurrent().deactivateMate(operation);
+        }
+        return system;
+      }
+    }
+    return SAbstractObject.send("error:",
+        new Object[] {system, "Unknown reflective operation: " + name.getString()}, environment, level);
+  }
+
   @GenerateNodeFactory
   @Primitive(className = "Object", primitive = "setHiddenField:value:", mate = true)
   public abstract static class MateSetHiddenFieldPrim extends TernaryExpressionNode {
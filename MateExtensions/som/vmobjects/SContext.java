@@ -0,0 +1,43 @@
+package som.vmobjects;
+
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.vm.constants.MateClasses;
+
+/**
+ * The context of a base level activation, as seen by a metaobject that
+ * redefines the access to local variables. It only wraps the frame, and
+ * nothing is looked up on the stack until a primitive needs it. When the
+ * meta method is inlined, the context and the frame do not escape, and the
+ * Context primitives, which resolve their slots from
+ * {@link #getFrameDescriptor()} when they specialize, read the frame
+ * directly.
+ */
+public final class SContext extends SAbstractObject {
+  private final MaterializedFrame frame;
+
+  public SContext(final MaterializedFrame frame) {
+    this.frame = frame;
+  }
+
+  @Override
+  public DynamicObject getSOMClass() {
+    return MateClasses.contextClass;
+  }
+
+  public MaterializedFrame getFrame() {
+    return frame;
+  }
+
+  public FrameDescriptor getFrameDescriptor() {
+    return frame.getFrameDescriptor();
+  }
+
+  @Override
+  public ForeignAccess getForeignAccess() {
+    return null;
+  }
+}
@@ -1,77 +1,191 @@
 package som.vmobjects;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.HiddenKey;
+import com.oracle.truffle.api.object.Location;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
+
 import som.vm.Universe;
+import som.vm.constants.MateClasses;
 import som.vm.constants.Nil;
 import som.vm.constants.ReflectiveOp;
+import som.vmobjects.SClass.MethodTable;
 
 public class SMateEnvironment extends SObject {
   public static final int Semantics_IDX = 0;
   public static final int Layout_IDX = 1;
   public static final int Message_IDX = 2;
 
-  // Todo: Finish the SMateEnvironment type with primitives for setting it fields
-  public static DynamicObject methodImplementing(final DynamicObject obj, ReflectiveOp operation) {
-    int field;
-    switch (operation){
-      case None:
-        return null;
+  private static final HiddenKey OPERATIONS = new HiddenKey("operations");
+
+  /**
+   * The methods of the metaobjects of an environment that implement each
+   * {@link ReflectiveOp}, indexed by its ordinal. A table is immutable, and
+   * replaced once a metaobject field of the environment, or the methods of
+   * the class of one of the metaobjects, changed.
+   */
+  public static final class OperationTable {
+    private final DynamicObject[] methods;
+    private final Assumption fieldsUnchanged;
+    private final MethodTable[] metaobjectClasses;
+
+    private OperationTable(final DynamicObject[] methods, final MethodTable[] metaobjectClasses) {
+      this.methods           = methods;
+      this.fieldsUnchanged   = Truffle.getRuntime().createAssumption("Environment fields unchanged");
+      this.metaobjectClasses = metaobjectClasses;
+    }
+
+    /** @return the method, or <code>null</code> if the operation is not redefined */
+    public DynamicObject methodImplementing(final ReflectiveOp operation) {
+      return methods[operation.ordinal()];
+    }
+
+    public boolean isValid() {
+      if (!fieldsUnchanged.isValid()) {
+        return false;
+      }
+      for (MethodTable table : metaobjectClasses) {
+        if (!table.isValid()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    public Assumption[] getAssumptions() {
+      Assumption[] assumptions = new Assumption[metaobjectClasses.length + 1];
+      assumptions[0] = fieldsUnchanged;
+      for (int i = 0; i < metaobjectClasses.length; i++) {
+        assumptions[i + 1] = metaobjectClasses[i].getAssumption();
+      }
+      return assumptions;
+    }
+  }
+
+  public static DynamicObject methodImplementing(final DynamicObject environment, final ReflectiveOp operation) {
+    return getOperationTable(environment).methodImplementing(operation);
+  }
+
+  @TruffleBoundary
+  public static OperationTable getOperationTable(final DynamicObject environment) {
+    Object table = environment.get(OPERATIONS);
+    if (table != null && ((OperationTable) table).isValid()) {
+      return (OperationTable) table;
+    }
+    return buildOperationTable(environment);
+  }
+
+  /**
+   * @return the location of the operation table in environments with
+   *         <code>shape</code>, or <code>null</code> if they have none yet
+   */
+  public static Location getOperationTableLocation(final Shape shape) {
+    Property property = shape.getProperty(OPERATIONS);
+    return property == null ? null : property.getLocation();
+  }
+
+  private static OperationTable buildOperationTable(final DynamicObject environment) {
+    synchronized (environment) {
+      Object current = environment.get(OPERATIONS);
+      if (current != null && ((OperationTable) current).isValid()) {
+        return (OperationTable) current;
+      }
+      ReflectiveOp[] operations = ReflectiveOp.values();
+      DynamicObject[] methods = new DynamicObject[operations.length];
+      Map<DynamicObject, MethodTable> metaobjectClasses = new HashMap<>();
+      for (ReflectiveOp operation : operations) {
+        int field = fieldFor(operation);
+        if (field < 0) {
+          continue;
+        }
+        DynamicObject metaobject = (DynamicObject) environment.get(field, Nil.nilObject);
+        if (metaobject != Nil.nilObject) {
+          DynamicObject clazz = SObject.getSOMClass(metaobject);
+          MethodTable classMethods = metaobjectClasses.computeIfAbsent(clazz, SClass::getMethodTable);
+          methods[operation.ordinal()] = classMethods.lookup(
+              Universe.getCurrent().symbolFor(selectorFor(operation)));
+        }
+      }
+      OperationTable table = new OperationTable(methods,
+          metaobjectClasses.values().toArray(new MethodTable[0]));
+      environment.define(OPERATIONS, table);
+      return table;
+    }
+  }
+
+  /**
+   * Needs to be called when a field of <code>environment</code> was written,
+   * because the field may hold one of its metaobjects. Must not be called
+   * while holding the lock of <code>environment</code>.
+   */
+  @TruffleBoundary
+  public static void fieldsChanged(final DynamicObject environment) {
+    Object table = environment.get(OPERATIONS);
+    if (table != null) {
+      ((OperationTable) table).fieldsUnchanged.invalidate();
+    }
+    if (environment == Universe.getCurrent().getGlobalSemantics()) {
+      Universe.getCurrent().updateGlobalSemantics();
+    }
+  }
+
+  /** Calls {@link #fieldsChanged(DynamicObject)} if <code>obj</code> is an environment. */
+  @TruffleBoundary
+  public static void fieldWritten(final DynamicObject obj) {
+    if (isEnvironment(obj.getShape())) {
+      fieldsChanged(obj);
+    }
+  }
+
+  /** @return whether objects with <code>shape</code> are environments */
+  public static boolean isEnvironment(final Shape shape) {
+    ObjectType type = shape.getObjectType();
+    return SObjectLayoutImpl.INSTANCE.isSObject(type)
+        && SClass.isKindOf(SObject.getSOMClass(type), MateClasses.environmentMO);
+  }
+
+  private static int fieldFor(final ReflectiveOp operation) {
+    switch (operation) {
       case MessageLookup: case MessageActivation:
-        field = Message_IDX;
-        break;
+        return Message_IDX;
       case ExecutorReadField: case ExecutorWriteField: case ExecutorReturn:
       case ExecutorLocalArg: case ExecutorReadLocal: case ExecutorWriteLocal:
-        field = Semantics_IDX;
-        break;
+        return Semantics_IDX;
       case LayoutReadField: case LayoutWriteField: case LayoutPrimReadField: case LayoutPrimWriteField:
-        field = Layout_IDX;
-        break;
+        return Layout_IDX;
       default:
-        return null;
+        return -1;
     }
-    DynamicObject metaobject = (DynamicObject) obj.get(field);
-    if (metaobject == Nil.nilObject) { return null; }
-    return methodForOperation(metaobject, operation);
   }
 
-  /*Optimize this method. It can have the definition of the symbols in a static ahead of time  way*/
-  private static DynamicObject methodForOperation(DynamicObject metaobject, ReflectiveOp operation) {
-    SSymbol selector;
-    switch (operation){
+  private static String selectorFor(final ReflectiveOp operation) {
+    switch (operation) {
       case MessageLookup:
-        selector = Universe.getCurrent().symbolFor("find:since:");
-        break;
+        return "find:since:";
       case MessageActivation:
-        selector = Universe.getCurrent().symbolFor("activate:withArguments:");
-        break;
-      case ExecutorReadField:
-        selector = Universe.getCurrent().symbolFor("read:");
-        break;
-      case ExecutorWriteField:
-        selector = Universe.getCurrent().symbolFor("write:value:");
-        break;
+        return "activate:withArguments:";
+      case ExecutorReadField: case LayoutReadField: case LayoutPrimReadField:
+        return "read:";
+      case ExecutorWriteField: case LayoutWriteField: case LayoutPrimWriteField:
+        return "write:value:";
       case ExecutorReturn:
-        selector = Universe.getCurrent().symbolFor("return:");
-        break;
+        return "return:";
       case ExecutorLocalArg:
-        selector = Universe.getCurrent().symbolFor("readLocalArgument:inFrame:");
-        break;
+        return "readLocalArgument:inFrame:";
       case ExecutorReadLocal:
-        selector = Universe.getCurrent().symbolFor("readLocal:inFrame:");
-        break;
+        return "readLocal:inFrame:";
       case ExecutorWriteLocal:
-        selector = Universe.getCurrent().symbolFor("writeLocal:inFrame:value:");
-        break;
-      case LayoutReadField: case LayoutPrimReadField:
-        selector = Universe.getCurrent().symbolFor("read:");
-        break;
-      case LayoutWriteField: case LayoutPrimWriteField:
-        selector = Universe.getCurrent().symbolFor("write:value:");
-        break;
-
+        return "writeLocal:inFrame:value:";
       default:
-        selector = null;
+        throw new IllegalArgumentException(operation.toString());
     }
-    return SClass.lookupInvokable(SObject.getSOMClass(metaobject), selector);
   }
 }
@@ -0,0 +1,52 @@
+package som.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import som.vm.Universe;
+import som.vmobjects.SArray;
+
+/**
+ * Fills fresh arrays through <code>at:put:</code>, so each invocation goes
+ * through the EMPTY, PARTIAL_EMPTY and final storage strategies of
+ * {@link SArray}. <code>longsThenObject</code> also measures the
+ * transition from LONG to OBJECT storage.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ArrayStrategyBenchmark {
+  private Universe vm;
+
+  @Setup
+  public void setUp(final VMState state) {
+    vm = state.vm;
+  }
+
+  @Benchmark
+  public Object longs() {
+    return vm.execute("JMHArrays", "longs");
+  }
+
+  @Benchmark
+  public Object doubles() {
+    return vm.execute("JMHArrays", "doubles");
+  }
+
+  @Benchmark
+  public Object objects() {
+    return vm.execute("JMHArrays", "objects");
+  }
+
+  @Benchmark
+  public Object longsThenObject() {
+    return vm.execute("JMHArrays", "longsThenObject");
+  }
+}
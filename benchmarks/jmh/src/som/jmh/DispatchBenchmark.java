@@ -0,0 +1,47 @@
+package som.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import som.interpreter.nodes.dispatch.AbstractDispatchNode;
+import som.vm.Universe;
+
+/**
+ * Sends <code>#answer</code> from a single call site in JMHDispatch to
+ * receivers of 1, 4 or 8 classes. With
+ * {@link AbstractDispatchNode#INLINE_CACHE_SIZE} at 6 these are the
+ * monomorphic, polymorphic and megamorphic cases of the dispatch chain.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+  /** Has to match the loop in JMHDispatch>>#run. */
+  private static final int SENDS = 1000;
+
+  @Param({"mono", "poly", "mega"})
+  public String arity;
+
+  private Universe vm;
+
+  @Setup
+  public void setUp(final VMState state) {
+    vm = state.vm;
+    vm.execute("JMHDispatch", arity);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SENDS)
+  public Object send() {
+    return vm.execute("JMHDispatch", "run");
+  }
+}
@@ -0,0 +1,71 @@
+package som.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.interpreter.objectstorage.FieldAccessorNode;
+import som.interpreter.objectstorage.FieldAccessorNode.ReadFieldNode;
+import som.interpreter.objectstorage.FieldAccessorNode.WriteFieldNode;
+
+/**
+ * Reads and writes the first field of a JMHFieldHolder through
+ * {@link FieldAccessorNode}s that live in their own root node, so that they
+ * can specialize like they would in a method.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class FieldAccessBenchmark {
+
+  private static final class FieldAccessRoot extends RootNode {
+    @Child ReadFieldNode  read  = FieldAccessorNode.createRead(0);
+    @Child WriteFieldNode write = FieldAccessorNode.createWrite(0);
+
+    FieldAccessRoot() {
+      super(null);
+    }
+
+    @Override
+    public Object execute(final VirtualFrame frame) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private FieldAccessRoot root;
+  private DynamicObject holder;
+  private long counter;
+
+  @Setup
+  public void setUp(final VMState state) {
+    root   = new FieldAccessRoot();
+    holder = state.vm.createInstance("JMHFieldHolder");
+    root.write.write(holder, 0L);
+  }
+
+  @Benchmark
+  public Object read() {
+    return root.read.executeRead(holder);
+  }
+
+  @Benchmark
+  public Object write() {
+    return root.write.write(holder, counter++);
+  }
+
+  @Benchmark
+  public Object readAndWrite() {
+    long value = (long) root.read.executeRead(holder);
+    return root.write.write(holder, value + 1);
+  }
+}
@@ -0,0 +1,54 @@
+package som.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.vmobjects.SClass;
+import som.vmobjects.SSymbol;
+
+/**
+ * {@link SClass#lookupInvokable(DynamicObject, SSymbol)} for a method defined
+ * in the class itself, one inherited from Object, and a selector that is not
+ * understood at all.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class LookupBenchmark {
+  private DynamicObject clazz;
+  private SSymbol local;
+  private SSymbol inherited;
+  private SSymbol missing;
+
+  @Setup
+  public void setUp(final VMState state) {
+    clazz     = state.vm.loadClass(state.vm.symbolFor("JMHReceiver1"));
+    local     = state.vm.symbolFor("answer");
+    inherited = state.vm.symbolFor("printString");
+    missing   = state.vm.symbolFor("jmhNotUnderstood");
+  }
+
+  @Benchmark
+  public DynamicObject localMethod() {
+    return SClass.lookupInvokable(clazz, local);
+  }
+
+  @Benchmark
+  public DynamicObject inheritedMethod() {
+    return SClass.lookupInvokable(clazz, inherited);
+  }
+
+  @Benchmark
+  public DynamicObject notUnderstood() {
+    return SClass.lookupInvokable(clazz, missing);
+  }
+}
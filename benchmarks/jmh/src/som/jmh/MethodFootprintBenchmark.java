@@ -0,0 +1,70 @@
+package som.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.interpreter.Invokable;
+import som.vm.constants.ExecutionLevel;
+import som.vmobjects.SClass;
+import som.vmobjects.SInvokable;
+import som.vmobjects.SInvokable.SMethod;
+
+/**
+ * Creates the method objects for all methods of a few core classes, as the
+ * compiler does when it loads them. With <code>metaLevel=eager</code> the
+ * meta level call target is requested right away, which is what creating a
+ * method used to do. Run with <code>-prof gc</code>, and compare
+ * <code>gc.alloc.rate.norm</code>, the bytes allocated per creation of all
+ * methods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class MethodFootprintBenchmark {
+  private static final String[] CLASSES = {"Object", "Integer", "Double", "String", "Array", "Class"};
+
+  @Param({"lazy", "eager"})
+  public String metaLevel;
+
+  private final List<DynamicObject> methods = new ArrayList<>();
+
+  @Setup
+  public void setUp(final VMState state) {
+    for (String name : CLASSES) {
+      DynamicObject clazz = state.vm.loadClass(state.vm.symbolFor(name));
+      for (int i = 0; i < SClass.getNumberOfInstanceInvokables(clazz); i++) {
+        DynamicObject method = SClass.getInstanceInvokable(clazz, i);
+        if (SMethod.isSMethod(method)) {
+          methods.add(method);
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public DynamicObject[] createMethods() {
+    boolean eager = "eager".equals(metaLevel);
+    DynamicObject[] created = new DynamicObject[methods.size()];
+    for (int i = 0; i < created.length; i++) {
+      DynamicObject method = methods.get(i);
+      Invokable invokable = SInvokable.getInvokable(method).copyUninitialized();
+      created[i] = SMethod.create(SInvokable.getSignature(method), invokable, new DynamicObject[0]);
+      if (eager) {
+        SInvokable.getCallTarget(created[i], ExecutionLevel.Meta);
+      }
+    }
+    return created;
+  }
+}
@@ -0,0 +1,44 @@
+package som.jmh;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import som.vm.Universe;
+
+/**
+ * Boots the VM once per fork. The Universe is a singleton and Mate is only
+ * set up during bootstrap, so the benchmarks need to run with at least one
+ * fork for the <code>mate</code> parameter to have an effect.
+ */
+@State(Scope.Benchmark)
+public class VMState {
+  public static final String CLASS_PATH =
+      "Smalltalk:Smalltalk/Mate:Smalltalk/Mate/MOP:Smalltalk/Mate/Compiler:Smalltalk/Exceptions:benchmarks/jmh/som";
+
+  /** Runs with <code>--mate -activateMate</code>, see {@link som.VMOptions}. */
+  @Param({"false", "true"})
+  public boolean mate;
+
+  public Universe vm;
+
+  @Setup(Level.Trial)
+  public void boot() {
+    String[] args;
+    if (mate) {
+      args = new String[] {"--mate", "-activateMate", "-cp", CLASS_PATH};
+    } else {
+      args = new String[] {"-cp", CLASS_PATH};
+    }
+
+    if (Universe.getCurrent() == null) {
+      Universe.createVM(args);
+    } else {
+      Universe.getCurrent().updateArguments(args);
+    }
+    vm = Universe.getCurrent();
+    vm.setAvoidExit(true);
+  }
+}
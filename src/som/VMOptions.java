@@ -27,6 +27,9 @@ public class VMOptions {
   @CompilationFinal public boolean unoptimizedIH;
   @CompilationFinal public boolean envInObject;
   @CompilationFinal public List<URL> classPath;
+  @CompilationFinal public String imageFile;
+  @CompilationFinal public String classCache;
+  @CompilationFinal public boolean lazyClasses;
 
   public VMOptions(final String[] args) {
     vmReflectionEnabled = false;
@@ -77,6 +80,15 @@ public class VMOptions {
         } else if (arguments[currentArg].equals("--unoptimizedIH")) {
           unoptimizedIH = true;
           currentArg += 1;
+        } else if (arguments[currentArg].equals("--image") && currentArg + 1 < arguments.length) {
+          imageFile = arguments[currentArg + 1];
+          currentArg += 2;
+        } else if (arguments[currentArg].equals("--class-cache") && currentArg + 1 < arguments.length) {
+          classCache = arguments[currentArg + 1];
+          currentArg += 2;
+        } else if (arguments[currentArg].equals("--lazy-classes")) {
+          lazyClasses = true;
+          currentArg += 1;
         } else if (arguments[currentArg].equals("--envInObject")) {
           envInObject = true;
           currentArg += 1;
@@ -109,6 +121,15 @@ public class VMOptions {
     Universe.println("alternative options include:                                   ");
     Universe.println("    -cp <directories separated by " + File.pathSeparator + ">");
     Universe.println("                  set search path for application classes");
+    Universe.println("    --image <file>");
+    Universe.println("                  restore the core classes from <file>, or write it if");
+    Universe.println("                  it is missing or out of date");
+    Universe.println("    --class-cache <directory>");
+    Universe.println("                  keep parsed classes in <directory>, and only parse");
+    Universe.println("                  class files that changed since they were cached");
+    Universe.println("    --lazy-classes");
+    Universe.println("                  scan the class path in the background at startup, and");
+    Universe.println("                  compile methods only when they are first executed");
     return false;
   }
 
@@ -13,6 +13,10 @@ public class VmSettings implements Settings {
   public static final boolean TRUFFLE_DEBUGGER_ENABLED;
   public static final boolean IGV_DUMP_AFTER_PARSING;
   public static final boolean ANSI_COLOR_IN_OUTPUT;
+  public static final boolean PRINT_STATISTICS;
+
+  public static final int SPLITTING_MAX_METHOD_SIZE;
+  public static final int SPLITTING_BUDGET;
 
   public static final String BASE_DIRECTORY;
   public static final String INSTRUMENTATION_PROP = "som.instrumentation";
@@ -20,7 +24,7 @@ public class VmSettings implements Settings {
   static {
     String prop = System.getProperty("som.threads");
     if (prop == null) {
-      NUM_THREADS = 1; // Runtime.getRuntime().availableProcessors();
+      NUM_THREADS = Runtime.getRuntime().availableProcessors();
     } else {
       NUM_THREADS = Integer.valueOf(prop);
     }
@@ -36,6 +40,10 @@ public class VmSettings implements Settings {
     DNU_PRINT_STACK_TRACE = getBool("som.printStackTraceOnDNU", false);
     IGV_DUMP_AFTER_PARSING = getBool("som.igvDumpAfterParsing", false);
     ANSI_COLOR_IN_OUTPUT = getBool("som.useAnsiColoring", false);
+    PRINT_STATISTICS = getBool("som.printStatistics", false);
+
+    SPLITTING_MAX_METHOD_SIZE = getInt("som.splittingMaxMethodSize", 500);
+    SPLITTING_BUDGET          = getInt("som.splittingBudget", 100000);
 
     BASE_DIRECTORY = System.getProperty("som.baseDir", System.getProperty("user.dir"));
 
@@ -45,6 +53,10 @@ public class VmSettings implements Settings {
     return Boolean.parseBoolean(System.getProperty(prop, defaultVal ? "true" : "false"));
   }
 
+  private static int getInt(final String prop, final int defaultVal) {
+    return Integer.valueOf(System.getProperty(prop, Integer.toString(defaultVal)));
+  }
+
   @Override
   public boolean dynamicMetricsEnabled() {
     return DYNAMIC_METRICS;
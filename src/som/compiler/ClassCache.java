@@ -0,0 +1,133 @@
+package som.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.source.Source;
+
+import som.interpreter.SomLanguage;
+import som.vm.BootImage;
+import som.vm.Universe;
+
+/**
+ * Directory of {@link ClassImage}s, used with
+ * <code>--class-cache &lt;dir&gt;</code>. An entry is keyed by the hash of
+ * the class' source, {@link ClassImage#VERSION}, and the build of the VM, so
+ * that a changed file, or another build of the VM, simply misses the cache.
+ *
+ * <p>Entries are written to a temporary file and then renamed, so several
+ * VMs can share a directory: readers either see a complete entry or none.
+ */
+public final class ClassCache {
+  private static final int MAGIC = 0x534F4D43; // SOMC
+
+  private final File   directory;
+  private final String buildStamp;
+
+  public ClassCache(final File directory) {
+    this(directory, BootImage.getBuildStamp());
+  }
+
+  /**
+   * @param buildStamp identifies the build of the VM, see
+   *          {@link BootImage#getBuildStamp()}
+   */
+  public ClassCache(final File directory, final String buildStamp) {
+    this.directory  = directory;
+    this.buildStamp = buildStamp;
+  }
+
+  /** @return whether the cache has an entry for this version of the source */
+  @TruffleBoundary
+  public boolean contains(final Source source) {
+    return entryFor(source).exists();
+  }
+
+  /**
+   * @return the restored class, or <code>null</code> if the cache does not
+   *         have an entry for this version of the source
+   */
+  @TruffleBoundary
+  public DynamicObject load(final Source source, final DynamicObject systemClass,
+      final SomLanguage language) {
+    File entry = entryFor(source);
+    ClassImage image;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(entry)))) {
+      if (in.readInt() != MAGIC || in.readInt() != ClassImage.VERSION) {
+        return null;
+      }
+      image = ClassImage.read(in);
+    } catch (FileNotFoundException e) {
+      return null;
+    } catch (IOException e) {
+      Universe.errorPrintln("Ignoring class cache entry " + entry + ": " + e.getMessage());
+      return null;
+    }
+    if (!image.getName().equals(source.getName())) {
+      return null;
+    }
+    return image.restore(systemClass, language);
+  }
+
+  @TruffleBoundary
+  public void store(final Source source, final DynamicObject clazz) {
+    File entry = entryFor(source);
+    if (entry.exists()) {
+      return;
+    }
+    File tmp = null;
+    try {
+      directory.mkdirs();
+      tmp = File.createTempFile(source.getName(), ".tmp", directory);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(ClassImage.VERSION);
+        ClassImage.of(clazz).write(out);
+      }
+      Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      Universe.errorPrintln("Could not write class cache entry " + entry + ": " + e.getMessage());
+      if (tmp != null) {
+        tmp.delete();
+      }
+    }
+  }
+
+  private File entryFor(final Source source) {
+    return new File(directory, source.getName() + "-" + hash(source) + ".somc");
+  }
+
+  private String hash(final Source source) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    digest.update((byte) ClassImage.VERSION);
+    digest.update(buildStamp.getBytes(StandardCharsets.UTF_8));
+    byte[] bytes = digest.digest(source.getCharacters().toString().getBytes(StandardCharsets.UTF_8));
+
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+      hex.append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+}
@@ -51,6 +51,14 @@ public final class ClassGenerationContext {
   private final List<SSymbol> classFields     = new ArrayList<SSymbol>();
   private final List<DynamicObject> classMethods    = new ArrayList<DynamicObject>();
 
+  /** A context to compile instance side methods of an assembled class. */
+  public static ClassGenerationContext forClass(final DynamicObject clazz) {
+    ClassGenerationContext cgenc = new ClassGenerationContext();
+    cgenc.setName(SClass.getName(clazz));
+    cgenc.setInstanceFieldsOfSuper(SClass.getInstanceFields(clazz));
+    return cgenc;
+  }
+
   public void setName(final SSymbol name) {
     this.name = name;
   }
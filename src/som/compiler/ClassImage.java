@@ -0,0 +1,313 @@
+package som.compiler;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.profiles.ValueProfile;
+import com.oracle.truffle.api.source.Source;
+
+import som.compiler.Parser.ParseError;
+import som.interpreter.Invokable;
+import som.interpreter.LazyMethod;
+import som.interpreter.SomLanguage;
+import som.primitives.Primitives;
+import som.vm.Symbols;
+import som.vm.Universe;
+import som.vmobjects.SClass;
+import som.vmobjects.SInvokable;
+import som.vmobjects.SInvokable.SMethod;
+import som.vmobjects.SObject;
+import som.vmobjects.SSymbol;
+
+/**
+ * Serializable description of a class, as produced by the {@link Parser}.
+ *
+ * <p>Truffle ASTs can not be serialized, so this keeps the structure of the
+ * class (superclass, own fields, selectors) together with the source of its
+ * methods. A restored class does not need to be parsed: its methods are
+ * installed as {@link LazyMethod}s and only compiled when they are first
+ * executed.
+ */
+public final class ClassImage {
+  /** Needs to change whenever the format or the compiled form of a class changes. */
+  public static final int VERSION = 3;
+
+  private static final ValueProfile storageType = ValueProfile.createClassProfile();
+
+  private static final class MethodImage {
+    final String  signature;
+    final boolean primitive;
+    final String  text;
+    /** Where the text starts in the source of the class. */
+    final int     start;
+
+    MethodImage(final String signature, final boolean primitive, final String text,
+        final int start) {
+      this.signature = signature;
+      this.primitive = primitive;
+      this.text      = text;
+      this.start     = start;
+    }
+  }
+
+  private final String name;
+  private final String superName;
+  private final List<String>      instanceFields  = new ArrayList<>();
+  private final List<MethodImage> instanceMethods = new ArrayList<>();
+  private final List<String>      classFields     = new ArrayList<>();
+  private final List<MethodImage> classMethods    = new ArrayList<>();
+
+  private ClassImage(final String name, final String superName) {
+    this.name      = name;
+    this.superName = superName;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Captures a loaded class. Only the fields declared by the class itself
+   * are recorded, the inherited ones are taken from the superclass when the
+   * class is restored.
+   */
+  public static ClassImage of(final DynamicObject clazz) {
+    CompilerAsserts.neverPartOfCompilation("ClassImage.of");
+    boolean hasSuper = SClass.hasSuperClass(clazz);
+    DynamicObject superClass = SClass.getSuperClass(clazz);
+
+    ClassImage image = new ClassImage(SClass.getName(clazz).getString(),
+        hasSuper ? SClass.getName(superClass).getString() : "nil");
+    captureSide(clazz, hasSuper ? superClass : null, image.instanceFields, image.instanceMethods);
+    captureSide(SObject.getSOMClass(clazz), hasSuper ? SObject.getSOMClass(superClass) : null,
+        image.classFields, image.classMethods);
+    return image;
+  }
+
+  private static void captureSide(final DynamicObject clazz, final DynamicObject superClass,
+      final List<String> fields, final List<MethodImage> methods) {
+    Object[] allFields = SClass.getInstanceFields(clazz).getObjectStorage(storageType);
+    int inherited = superClass == null ? 0
+        : SClass.getInstanceFields(superClass).getObjectStorage(storageType).length;
+    for (int i = inherited; i < allFields.length; i++) {
+      fields.add(((SSymbol) allFields[i]).getString());
+    }
+
+    int numberOfMethods = SClass.getNumberOfInstanceInvokables(clazz);
+    for (int i = 0; i < numberOfMethods; i++) {
+      DynamicObject invokable = SClass.getInstanceInvokable(clazz, i);
+      boolean primitive = !SMethod.isSMethod(invokable);
+      Invokable method = SInvokable.getInvokable(invokable);
+      methods.add(new MethodImage(SInvokable.getSignature(invokable).getString(), primitive,
+          primitive ? null : methodText(method), primitive ? 0 : methodStart(method)));
+    }
+  }
+
+  private static String methodText(final Invokable invokable) {
+    if (invokable instanceof LazyMethod) {
+      return ((LazyMethod) invokable).getDefinitionText();
+    }
+    return invokable.getSourceSection().getCharacters().toString();
+  }
+
+  private static int methodStart(final Invokable invokable) {
+    if (invokable instanceof LazyMethod) {
+      return ((LazyMethod) invokable).getDefinitionStart();
+    }
+    return invokable.getSourceSection().getCharIndex();
+  }
+
+  /**
+   * Reads the structure of a class from its source with the {@link Parser},
+   * but without compiling methods or looking up the superclass. It does not
+   * touch any VM state, so it can run on any thread.
+   *
+   * @return the image, or <code>null</code> if the source is malformed, in
+   *         which case the parser is left to report the error when it
+   *         compiles the class
+   */
+  public static ClassImage scan(final String content, final String name) {
+    Source source = Source.newBuilder(SomLanguage.LANG_NAME, content, name).build();
+    Scanner scanner = new Scanner(content);
+    try {
+      new Parser(content, content.length(), source, null, null, null).classdef(scanner);
+    } catch (ParseError e) {
+      return null;
+    }
+    return scanner.image;
+  }
+
+  /** Records the structure of a class, and skips the bodies of its methods. */
+  private static final class Scanner implements Parser.ClassStructure {
+    private final String content;
+    private String     name;
+    private ClassImage image;
+    private boolean    classSide;
+
+    Scanner(final String content) {
+      this.content = content;
+    }
+
+    @Override
+    public void setName(final String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void setSuperName(final String superName) {
+      image = new ClassImage(name, superName);
+    }
+
+    @Override
+    public void addField(final String field) {
+      (classSide ? image.classFields : image.instanceFields).add(field);
+    }
+
+    @Override
+    public void startClassSide() {
+      classSide = true;
+    }
+
+    @Override
+    public void method(final Parser parser) throws ParseError {
+      int start = parser.getCharIndex();
+      String signature = parser.methodPattern();
+      int end = parser.skipMethodBody();
+      (classSide ? image.classMethods : image.instanceMethods).add(end < 0
+          ? new MethodImage(signature, true, null, start)
+          : new MethodImage(signature, false, content.substring(start, end), start));
+    }
+  }
+
+  /**
+   * Builds the class the same way {@link SourcecodeCompiler} would, but with
+   * lazily compiled methods. If <code>systemClass</code> is not null, the
+   * fields and methods are installed into it.
+   */
+  public DynamicObject restore(final DynamicObject systemClass, final SomLanguage language) {
+    CompilerAsserts.neverPartOfCompilation("ClassImage.restore");
+    DynamicObject superClass = superName.equals("nil") ? null
+        : Universe.getCurrent().loadClass(Symbols.symbolFor(superName));
+
+    // the methods need to see the fields of their side of the class only
+    ClassGenerationContext instanceSide = createContext(superClass, false);
+    ClassGenerationContext classSide    = createContext(superClass, true);
+
+    ClassGenerationContext cgenc = createContext(superClass, true);
+    LazyMethod.ClassSource source = new LazyMethod.ClassSource(name);
+    for (MethodImage m : instanceMethods) {
+      cgenc.addInstanceMethod(restoreMethod(m, instanceSide, source, language));
+    }
+    for (MethodImage m : classMethods) {
+      cgenc.addClassMethod(restoreMethod(m, classSide, source, language));
+    }
+
+    if (systemClass == null) {
+      return cgenc.assemble();
+    }
+    cgenc.assembleSystemClass(systemClass);
+    return systemClass;
+  }
+
+  /** Sets up the fields like {@link Parser#classdef(ClassGenerationContext)}. */
+  private ClassGenerationContext createContext(final DynamicObject superClass,
+      final boolean isClassSide) {
+    ClassGenerationContext cgenc = new ClassGenerationContext();
+    cgenc.setName(Symbols.symbolFor(name));
+    cgenc.setSuperName(Symbols.symbolFor(superName));
+    if (superClass != null) {
+      cgenc.setInstanceFieldsOfSuper(SClass.getInstanceFields(superClass));
+      cgenc.setClassFieldsOfSuper(SClass.getInstanceFields(SObject.getSOMClass(superClass)));
+    }
+    for (String field : instanceFields) {
+      cgenc.addInstanceField(Symbols.symbolFor(field));
+    }
+    if (isClassSide) {
+      cgenc.setClassSide(true);
+      for (String field : classFields) {
+        cgenc.addClassField(Symbols.symbolFor(field));
+      }
+    }
+    return cgenc;
+  }
+
+  private DynamicObject restoreMethod(final MethodImage m,
+      final ClassGenerationContext holderGenc, final LazyMethod.ClassSource source,
+      final SomLanguage language) {
+    SSymbol signature = Symbols.symbolFor(m.signature);
+    if (m.primitive) {
+      // replaced by the VM primitive when the class' primitives are loaded
+      return Primitives.constructEmptyPrimitive(signature, language);
+    }
+    LazyMethod invokable = new LazyMethod(
+        new LazyMethod.Definition(m.text, m.start, source, holderGenc), language);
+    DynamicObject method = Universe.newMethod(signature, invokable, false, new DynamicObject[0]);
+    invokable.setMethod(method);
+    return method;
+  }
+
+  public void write(final DataOutputStream out) throws IOException {
+    writeString(out, name);
+    writeString(out, superName);
+    writeSide(out, instanceFields, instanceMethods);
+    writeSide(out, classFields, classMethods);
+  }
+
+  public static ClassImage read(final DataInputStream in) throws IOException {
+    ClassImage image = new ClassImage(readString(in), readString(in));
+    readSide(in, image.instanceFields, image.instanceMethods);
+    readSide(in, image.classFields, image.classMethods);
+    return image;
+  }
+
+  private static void writeSide(final DataOutputStream out, final List<String> fields,
+      final List<MethodImage> methods) throws IOException {
+    out.writeInt(fields.size());
+    for (String field : fields) {
+      writeString(out, field);
+    }
+    out.writeInt(methods.size());
+    for (MethodImage m : methods) {
+      writeString(out, m.signature);
+      out.writeBoolean(m.primitive);
+      if (!m.primitive) {
+        writeString(out, m.text);
+        out.writeInt(m.start);
+      }
+    }
+  }
+
+  private static void readSide(final DataInputStream in, final List<String> fields,
+      final List<MethodImage> methods) throws IOException {
+    int numberOfFields = in.readInt();
+    for (int i = 0; i < numberOfFields; i++) {
+      fields.add(readString(in));
+    }
+    int numberOfMethods = in.readInt();
+    for (int i = 0; i < numberOfMethods; i++) {
+      String signature = readString(in);
+      boolean primitive = in.readBoolean();
+      String text = primitive ? null : readString(in);
+      methods.add(new MethodImage(signature, primitive, text, primitive ? 0 : in.readInt()));
+    }
+  }
+
+  // writeUTF is limited to 64KB, which some methods could exceed
+  public static void writeString(final DataOutputStream out, final String str) throws IOException {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  public static String readString(final DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
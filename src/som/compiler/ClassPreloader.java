@@ -0,0 +1,90 @@
+package som.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.source.Source;
+
+
+/**
+ * Scans the class files on the class path in the background, used with
+ * <code>--lazy-classes</code>.
+ *
+ * <p>When the VM starts, all <code>.som</code> files in the class path
+ * directories are read and {@link ClassImage#scan(String, String) scanned} in
+ * parallel on the common fork/join pool. A class is still only installed
+ * when it is first looked up, but then its image is usually ready, and the
+ * class is restored from it with lazily compiled methods. The lookup only
+ * waits for the scan of the class it needs.
+ */
+public final class ClassPreloader {
+
+  private static final class Entry {
+    final File   file;
+    final String content;
+    final ClassImage image;
+
+    Entry(final File file, final String content, final ClassImage image) {
+      this.file    = file;
+      this.content = content;
+      this.image   = image;
+    }
+  }
+
+  private final ConcurrentHashMap<String, CompletableFuture<Entry>> entries =
+      new ConcurrentHashMap<>();
+
+  /** Starts scanning, the first directory that has a class file wins. */
+  public ClassPreloader(final List<URL> classPath) {
+    for (URL cp : classPath) {
+      File[] files = new File(cp.getPath()).listFiles((dir, name) -> name.endsWith(".som"));
+      if (files == null) {
+        continue;
+      }
+      for (File f : files) {
+        String className = f.getName().substring(0, f.getName().length() - ".som".length());
+        entries.computeIfAbsent(className,
+            k -> CompletableFuture.supplyAsync(() -> scan(f, className)));
+      }
+    }
+  }
+
+  private static Entry scan(final File file, final String className) {
+    try {
+      String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+      return new Entry(file, content, ClassImage.scan(content, className));
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Waits for the scan of the class of <code>source</code>. The image is
+   * handed out only once, and only if it was scanned from the same file and
+   * content as <code>source</code>.
+   *
+   * @return the image, or <code>null</code> if the class needs to be parsed
+   */
+  @TruffleBoundary
+  public ClassImage take(final Source source) {
+    CompletableFuture<Entry> future = entries.remove(source.getName());
+    if (future == null || source.getPath() == null) {
+      return null;
+    }
+    Entry entry = future.join();
+    if (entry == null || entry.image == null
+        || !entry.image.getName().equals(source.getName())
+        || !entry.file.getAbsoluteFile().equals(new File(source.getPath()).getAbsoluteFile())
+        || !entry.content.contentEquals(source.getCharacters())) {
+      return null;
+    }
+    return entry.image;
+  }
+}
@@ -98,14 +98,23 @@ public final class Lexer {
   private LexerState          stateAfterPeek;
 
   protected Lexer(final String content) {
+    this(content, 0);
+  }
+
+  /** Starts reading at <code>start</code>, with the line of that position. */
+  protected Lexer(final String content, final int start) {
     this.content = content;
     peekDone = false;
     state = new LexerState();
-    state.ptr = 0;
+    state.ptr = start;
     state.text = new StringBuilder();
     state.lineNumber = 1;
     state.lastLineEnd = 0;
-    state.lastNonWhiteCharIdx = 0;
+    for (int i = content.indexOf('\n'); i >= 0 && i < start; i = content.indexOf('\n', i + 1)) {
+      state.lineNumber += 1;
+      state.lastLineEnd = i;
+    }
+    state.lastNonWhiteCharIdx = start;
   }
 
   public static final class SourceCoordinate {
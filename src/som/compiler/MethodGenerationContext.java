@@ -38,11 +38,14 @@ import java.util.List;
 
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeUtil;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.source.SourceSection;
 
 import som.compiler.Variable.Argument;
 import som.compiler.Variable.Local;
+import som.interpreter.Invokable;
 import som.interpreter.LexicalScope;
 import som.interpreter.Method;
 import som.interpreter.SomLanguage;
@@ -51,10 +54,12 @@ import som.interpreter.nodes.FieldNode.FieldReadNode;
 import som.interpreter.nodes.FieldNode.FieldWriteNode;
 import som.interpreter.nodes.GlobalNode;
 import som.interpreter.nodes.ReturnNonLocalNode;
+import som.interpreter.nodes.literals.BlockNode;
 import som.interpreter.nodes.nary.ExpressionWithTagsNode;
 import som.primitives.Primitives;
 import som.vm.Universe;
 import som.vm.constants.Nil;
+import som.vmobjects.SInvokable;
 import som.vmobjects.SSymbol;
 
 
@@ -177,7 +182,9 @@ public final class MethodGenerationContext {
     separateVariables(locals.values(),    onlyLocalAccess, nonLocalAccess);
 
     if (needsToCatchNonLocalReturn()) {
-      body = createCatchNonLocalReturn(body, getFrameOnStackMarkerSlot());
+      // without blocks that return, all returns got inlined and are local
+      body = createCatchNonLocalReturn(body,
+          hasBlockWithNonLocalReturn(body) ? getFrameOnStackMarkerSlot() : null);
     }
 
     Method truffleMethod =
@@ -193,6 +200,22 @@ public final class MethodGenerationContext {
     return method;
   }
 
+  /**
+   * Only blocks that are not inlined remain as {@link BlockNode}s. Any
+   * non-local return in them, or in the blocks nested in them, returns from
+   * the method that is being assembled.
+   */
+  private static boolean hasBlockWithNonLocalReturn(final Node node) {
+    for (BlockNode block : NodeUtil.findAllNodeInstances(node, BlockNode.class)) {
+      Invokable invokable = SInvokable.getInvokable(block.getBlockMethod());
+      if (!NodeUtil.findAllNodeInstances(invokable, ReturnNonLocalNode.class).isEmpty()
+          || hasBlockWithNonLocalReturn(invokable)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private SourceSection getSourceSectionForMethod(final SourceSection ssBody) {
     SourceSection ssMethod = ssBody.getSource().createSection(
         ssBody.getStartLine(), ssBody.getStartColumn(),
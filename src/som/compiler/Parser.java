@@ -228,6 +228,13 @@ public class Parser {
 
   public Parser(final String content, final long fileSize, final Source source,
       final ObjectMemory memory, final StructuralProbe structuralProbe, final SomLanguage language) throws ParseError {
+    this(content, fileSize, source, memory, structuralProbe, language, 0);
+  }
+
+  /** Parses <code>content</code> from the character index <code>start</code> on. */
+  public Parser(final String content, final long fileSize, final Source source,
+      final ObjectMemory memory, final StructuralProbe structuralProbe, final SomLanguage language,
+      final int start) throws ParseError {
     this.objectMemory = memory;
     this.source   = source;
 
@@ -238,7 +245,7 @@ public class Parser {
       throw new ParseError("Provided file is empty.", NONE, this);
     }
 
-    lexer = new Lexer(content);
+    lexer = new Lexer(content, start);
     getSymbolFromLexer();
     this.structuralProbe = structuralProbe;
     this.language = language;
@@ -248,67 +255,138 @@ public class Parser {
     return lexer.getStartCoordinate();
   }
 
-  public void classdef(final ClassGenerationContext cgenc) throws ParseError {
-    cgenc.setName(Symbols.symbolFor(text));
-    expect(Identifier, IdentifierTag.class);
-    expect(Equal, KeywordTag.class);
+  /**
+   * The parts of a class definition, in the order {@link Parser#classdef}
+   * reads them. Compiling a class, and scanning it for a {@link ClassImage},
+   * share the grammar this way.
+   */
+  interface ClassStructure {
+    void setName(String name);
 
-    superclass(cgenc);
+    void setSuperName(String superName) throws ParseError;
 
-    expect(NewTerm, null);
-    instanceFields(cgenc);
+    /** Adds a field to the current side of the class. */
+    void addField(String field);
 
-    while (isIdentifier(sym) || sym == Keyword || sym == OperatorSequence
-        || symIn(binaryOpSyms)) {
-      MethodGenerationContext mgenc = new MethodGenerationContext(cgenc, language);
+    void startClassSide();
+
+    /** Reads a method of the current side, <code>parser</code> is at its start. */
+    void method(Parser parser) throws ParseError;
+  }
+
+  /** Compiles the class into <code>cgenc</code>. */
+  private final class CompiledClass implements ClassStructure {
+    private final ClassGenerationContext cgenc;
 
-      ExpressionWithTagsNode methodBody = method(mgenc);
-      DynamicObject method = mgenc.assemble(methodBody, lastMethodsSourceSection);
-      cgenc.addInstanceMethod(method);
-      if (structuralProbe != null) {
-        structuralProbe.recordNewMethod(method);
+    CompiledClass(final ClassGenerationContext cgenc) {
+      this.cgenc = cgenc;
+    }
+
+    @Override
+    public void setName(final String name) {
+      cgenc.setName(Symbols.symbolFor(name));
+    }
+
+    @Override
+    public void setSuperName(final String name) throws ParseError {
+      SSymbol superName = Symbols.symbolFor(name);
+      cgenc.setSuperName(superName);
+
+      // Load the super class, if it is not nil (break the dependency cycle)
+      if (!name.equals("nil")) {
+        DynamicObject superClass = Universe.getCurrent().loadClass(superName);
+        if (superClass == null) {
+          throw new ParseError("Super class " + name +
+              " could not be loaded", NONE, Parser.this);
+        }
+
+        cgenc.setInstanceFieldsOfSuper(SClass.getInstanceFields(superClass));
+        cgenc.setClassFieldsOfSuper(SClass.getInstanceFields(SObject.getSOMClass(superClass)));
       }
     }
 
-    if (accept(Separator, StatementSeparatorTag.class)) {
+    @Override
+    public void addField(final String field) {
+      if (cgenc.isClassSide()) {
+        cgenc.addClassField(Symbols.symbolFor(field));
+      } else {
+        cgenc.addInstanceField(Symbols.symbolFor(field));
+      }
+    }
+
+    @Override
+    public void startClassSide() {
       cgenc.setClassSide(true);
-      classFields(cgenc);
-      while (isIdentifier(sym) || sym == Keyword || sym == OperatorSequence
-          || symIn(binaryOpSyms)) {
-        MethodGenerationContext mgenc = new MethodGenerationContext(cgenc, language);
+    }
 
-        ExpressionWithTagsNode methodBody = method(mgenc);
-        DynamicObject method = mgenc.assemble(methodBody, lastMethodsSourceSection);
+    @Override
+    public void method(final Parser parser) throws ParseError {
+      DynamicObject method = parser.methodDefinition(cgenc);
+      if (cgenc.isClassSide()) {
         cgenc.addClassMethod(method);
-        if (structuralProbe != null) {
-          structuralProbe.recordNewMethod(method);
-        }
+      } else {
+        cgenc.addInstanceMethod(method);
+      }
+    }
+  }
+
+  public void classdef(final ClassGenerationContext cgenc) throws ParseError {
+    classdef(new CompiledClass(cgenc));
+  }
+
+  void classdef(final ClassStructure cls) throws ParseError {
+    cls.setName(text);
+    expect(Identifier, IdentifierTag.class);
+    expect(Equal, KeywordTag.class);
+
+    superclass(cls);
+
+    expect(NewTerm, null);
+    fields(cls);
+
+    while (isMethodStart()) {
+      cls.method(this);
+    }
+
+    if (accept(Separator, StatementSeparatorTag.class)) {
+      cls.startClassSide();
+      fields(cls);
+      while (isMethodStart()) {
+        cls.method(this);
       }
     }
     expect(EndTerm, null);
   }
 
-  private void superclass(final ClassGenerationContext cgenc) throws ParseError {
-    SSymbol superName;
+  private boolean isMethodStart() {
+    return isIdentifier(sym) || sym == Keyword || sym == OperatorSequence
+        || symIn(binaryOpSyms);
+  }
+
+  /**
+   * Parses a single method definition of the class (or class side) described
+   * by <code>cgenc</code>, without adding it to the class.
+   */
+  public DynamicObject methodDefinition(final ClassGenerationContext cgenc) throws ParseError {
+    MethodGenerationContext mgenc = new MethodGenerationContext(cgenc, language);
+
+    ExpressionWithTagsNode methodBody = method(mgenc);
+    DynamicObject method = mgenc.assemble(methodBody, lastMethodsSourceSection);
+    if (structuralProbe != null) {
+      structuralProbe.recordNewMethod(method);
+    }
+    return method;
+  }
+
+  private void superclass(final ClassStructure cls) throws ParseError {
+    String superName;
     if (sym == Identifier) {
-      superName = Symbols.symbolFor(text);
+      superName = text;
       accept(Identifier, KeywordTag.class);
     } else {
-      superName = Symbols.symbolFor("Object");
-    }
-    cgenc.setSuperName(superName);
-
-    // Load the super class, if it is not nil (break the dependency cycle)
-    if (!superName.getString().equals("nil")) {
-      DynamicObject superClass = Universe.getCurrent().loadClass(superName);
-      if (superClass == null) {
-        throw new ParseError("Super class " + superName.getString() +
-            " could not be loaded", NONE, this);
-      }
-
-      cgenc.setInstanceFieldsOfSuper(SClass.getInstanceFields(superClass));
-      cgenc.setClassFieldsOfSuper(SClass.getInstanceFields(SObject.getSOMClass(superClass)));
+      superName = "Object";
     }
+    cls.setSuperName(superName);
   }
 
   private boolean symIn(final List<Symbol> ss) {
@@ -353,21 +431,10 @@ public class Parser {
         "%(expected)s, but found %(found)s", ss, this);
   }
 
-  private void instanceFields(final ClassGenerationContext cgenc) throws ParseError {
+  private void fields(final ClassStructure cls) throws ParseError {
     if (accept(Or, DelimiterOpeningTag.class)) {
       while (isIdentifier(sym)) {
-        String var = variable();
-        cgenc.addInstanceField(Symbols.symbolFor(var));
-      }
-      expect(Or, DelimiterClosingTag.class);
-    }
-  }
-
-  private void classFields(final ClassGenerationContext cgenc) throws ParseError {
-    if (accept(Or, DelimiterOpeningTag.class)) {
-      while (isIdentifier(sym)) {
-        String var = variable();
-        cgenc.addClassField(Symbols.symbolFor(var));
+        cls.addField(variable());
       }
       expect(Or, DelimiterClosingTag.class);
     }
@@ -404,38 +471,90 @@ public class Parser {
 
   private void pattern(final MethodGenerationContext mgenc) throws ParseError {
     mgenc.addArgumentIfAbsent("self"); // TODO: can we do that optionally?
+    List<String> arguments = new ArrayList<>(2);
+    mgenc.setSignature(Symbols.symbolFor(pattern(arguments)));
+    for (String arg : arguments) {
+      mgenc.addArgumentIfAbsent(arg);
+    }
+  }
+
+  /** @return the selector, the names of the arguments are added to <code>arguments</code> */
+  private String pattern(final List<String> arguments) throws ParseError {
     switch (sym) {
       case Identifier:
       case Primitive:
-        unaryPattern(mgenc);
-        break;
+        return unaryPattern();
       case Keyword:
-        keywordPattern(mgenc);
-        break;
+        return keywordPattern(arguments);
       default:
-        binaryPattern(mgenc);
-        break;
+        return binaryPattern(arguments);
     }
   }
 
-  private void unaryPattern(final MethodGenerationContext mgenc) throws ParseError {
-    mgenc.setSignature(unarySelector());
+  private String unaryPattern() throws ParseError {
+    return identifier();
   }
 
-  private void binaryPattern(final MethodGenerationContext mgenc) throws ParseError {
-    mgenc.setSignature(binarySelector());
-    mgenc.addArgumentIfAbsent(argument());
+  private String binaryPattern(final List<String> arguments) throws ParseError {
+    String selector = binarySelectorText();
+    arguments.add(argument());
+    return selector;
   }
 
-  private void keywordPattern(final MethodGenerationContext mgenc) throws ParseError {
-    StringBuffer kw = new StringBuffer();
+  private String keywordPattern(final List<String> arguments) throws ParseError {
+    StringBuilder kw = new StringBuilder();
     do {
       kw.append(keyword());
-      mgenc.addArgumentIfAbsent(argument());
+      arguments.add(argument());
     }
     while (sym == Keyword);
 
-    mgenc.setSignature(Symbols.symbolFor(kw.toString()));
+    return kw.toString();
+  }
+
+  /** @return the character index the current symbol starts at */
+  int getCharIndex() {
+    return getCoordinate().charIndex;
+  }
+
+  /**
+   * Reads the pattern of a method up to the <code>=</code>, without
+   * compiling anything, see {@link ClassImage}.
+   *
+   * @return the signature
+   */
+  String methodPattern() throws ParseError {
+    String signature = pattern(new ArrayList<>(2));
+    expect(Equal, KeywordTag.class);
+    return signature;
+  }
+
+  /**
+   * Skips the body of a method, after {@link #methodPattern()}. The lexer
+   * takes care of parentheses in strings, characters, and comments.
+   *
+   * @return the character index after the body, or -1 for a primitive
+   */
+  int skipMethodBody() throws ParseError {
+    if (sym == Primitive) {
+      primitiveBlock();
+      return -1;
+    }
+    expect(NewTerm, null);
+    int depth = 1;
+    while (sym != EndTerm || depth > 1) {
+      if (sym == NewTerm) {
+        depth++;
+      } else if (sym == EndTerm) {
+        depth--;
+      } else if (sym == NONE) {
+        throw new ParseError("Unexpected end of the method body", EndTerm, this);
+      }
+      getSymbolFromLexer();
+    }
+    int end = getCharIndex() + 1;
+    expect(EndTerm, null);
+    return end;
   }
 
   private ExpressionWithTagsNode methodBlock(final MethodGenerationContext mgenc, final SourceCoordinate coord) throws ParseError {
@@ -451,6 +570,10 @@ public class Parser {
   }
 
   private SSymbol binarySelector() throws ParseError {
+    return Symbols.symbolFor(binarySelectorText());
+  }
+
+  private String binarySelectorText() throws ParseError {
     String s = new String(text);
 
     // Checkstyle: stop
@@ -463,7 +586,7 @@ public class Parser {
     } else { expect(NONE, null); }
     // Checkstyle: resume
 
-    return Symbols.symbolFor(s);
+    return s;
   }
 
   private String identifier() throws ParseError {
@@ -38,9 +38,20 @@ import tools.language.StructuralProbe;
 
 public final class SourcecodeCompiler {
   private final SomLanguage language;
-
-  public SourcecodeCompiler(final SomLanguage language) {
-    this.language = language;
+  private final ClassCache cache;
+  private final ClassPreloader preloader;
+
+  /**
+   * @param cache to skip parsing classes that did not change, or
+   *          <code>null</code>
+   * @param preloader with the classes scanned in the background, or
+   *          <code>null</code>
+   */
+  public SourcecodeCompiler(final SomLanguage language, final ClassCache cache,
+      final ClassPreloader preloader) {
+    this.language  = language;
+    this.cache     = cache;
+    this.preloader = preloader;
   }
 
   public SomLanguage getLanguage() { return language; }
@@ -48,6 +59,21 @@ public final class SourcecodeCompiler {
   @TruffleBoundary
   public DynamicObject compileClass(final Source source, final DynamicObject systemClass,
       final ObjectMemory memory, final StructuralProbe structuralProbe) throws ParseError {
+    // tools need the full ASTs of all methods
+    boolean useCache = cache != null && structuralProbe == null;
+    if (useCache) {
+      DynamicObject cached = cache.load(source, systemClass, language);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    if (preloader != null && structuralProbe == null) {
+      ClassImage image = preloader.take(source);
+      if (image != null) {
+        return image.restore(systemClass, language);
+      }
+    }
 
     Parser parser = new Parser(source.getCharacters().toString(), source.getLength(), source, memory, structuralProbe, language);
 
@@ -61,6 +87,9 @@ public final class SourcecodeCompiler {
           + " does not match class name " + cnameC);
     }
 
+    if (useCache) {
+      cache.store(source, result);
+    }
     return result;
   }
 
@@ -73,6 +102,18 @@ public final class SourcecodeCompiler {
     return result;
   }
 
+  /**
+   * Compiles a method whose holder was already set up, see
+   * {@link Parser#methodDefinition(ClassGenerationContext)}. The method starts
+   * at the character index <code>start</code> of the source.
+   */
+  @TruffleBoundary
+  public DynamicObject compileMethod(final Source source, final int start,
+      final ClassGenerationContext holderGenc, final ObjectMemory memory) throws ParseError {
+    Parser parser = new Parser(source.getCharacters().toString(), source.getLength(), source, memory, null, language, start);
+    return parser.methodDefinition(holderGenc);
+  }
+
   private static DynamicObject compile(final Parser parser,
       final DynamicObject systemClass, final ObjectMemory memory, final StructuralProbe structuralProbe) {
     ClassGenerationContext cgc = new ClassGenerationContext();
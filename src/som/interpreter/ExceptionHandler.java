@@ -0,0 +1,256 @@
+package som.interpreter;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.ControlFlowException;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.vm.constants.ExecutionLevel;
+import som.vm.constants.Globals;
+import som.vmobjects.SAbstractObject;
+import som.vmobjects.SBlock;
+import som.vmobjects.SClass;
+import som.vmobjects.SObject;
+
+/**
+ * An active <code>on:do:</code>: the handler block and the exception
+ * selector, installed while the protected block runs. The selector is
+ * usually an exception class, which matches its instances and the ones of
+ * its subclasses. Any other selector, for instance an exception set, is
+ * sent <code>handles:</code> with the exception.
+ *
+ * <p>The handlers of a thread form a chain. When an exception is signaled,
+ * the chain is searched before anything is unwound, and the handler block
+ * runs on top of the stack of the signal. Only when the handler completes,
+ * returns, or retries, the stack is unwound to its <code>on:do:</code>.
+ * When it resumes, only the handler is unwound, and <code>signal</code>
+ * returns the resumption value.
+ *
+ * <p>While a handler runs, it and the handlers installed after it are not
+ * active, so that an exception signaled in a handler goes to the handlers
+ * around its <code>on:do:</code>.
+ */
+public final class ExceptionHandler {
+
+  /**
+   * An <code>on:do:</code> send. It caches whether the class of the last
+   * exception matched its handler class, so that a repeated search does not
+   * need to walk the class hierarchy.
+   */
+  public static final class Site {
+    private static final class Match {
+      final DynamicObject handlerClass;
+      final DynamicObject exceptionClass;
+      final boolean       matches;
+
+      Match(final DynamicObject handlerClass, final DynamicObject exceptionClass,
+          final boolean matches) {
+        this.handlerClass   = handlerClass;
+        this.exceptionClass = exceptionClass;
+        this.matches        = matches;
+      }
+    }
+
+    private Match lastMatch;
+
+    boolean matches(final DynamicObject handlerClass, final DynamicObject exceptionClass) {
+      Match match = lastMatch;
+      if (match == null || match.handlerClass != handlerClass
+          || match.exceptionClass != exceptionClass) {
+        match = new Match(handlerClass, exceptionClass,
+            SClass.isKindOf(exceptionClass, handlerClass));
+        lastMatch = match;
+      }
+      return match.matches;
+    }
+  }
+
+  /** An exception that is being handled. */
+  public static final class Signal {
+    private final DynamicObject    exception;
+    private final ExceptionHandler handler;
+    private final Signal           previous;
+    private final ExceptionHandler activeBefore;
+
+    private Signal(final DynamicObject exception, final ExceptionHandler handler,
+        final Signal previous, final ExceptionHandler activeBefore) {
+      this.exception    = exception;
+      this.handler      = handler;
+      this.previous     = previous;
+      this.activeBefore = activeBefore;
+    }
+
+    public ExceptionHandler getHandler() {
+      return handler;
+    }
+
+    /** Needs to be called when the handler block is left, in any way. */
+    @TruffleBoundary
+    public void done() {
+      Chain chain = CHAIN.get();
+      assert chain.signals == this;
+      chain.signals = previous;
+      chain.active  = activeBefore;
+    }
+  }
+
+  /** Unwinds the stack to the <code>on:do:</code> of a handler. */
+  public static final class Unwind extends ControlFlowException {
+    private static final long serialVersionUID = 4113473716350938283L;
+
+    private final ExceptionHandler target;
+    private final Object result;
+
+    private Unwind(final ExceptionHandler target, final Object result) {
+      this.target = target;
+      this.result = result;
+    }
+
+    public boolean unwindsTo(final ExceptionHandler handler) {
+      return target == handler;
+    }
+
+    /** @return whether the protected block is to be run again */
+    public boolean isRetry() {
+      return result == null;
+    }
+
+    public Object getResult() {
+      return result;
+    }
+  }
+
+  /** Unwinds a handler block to the signal it handles. */
+  public static final class Resume extends ControlFlowException {
+    private static final long serialVersionUID = -2376214985230924377L;
+
+    private final Signal target;
+    private final Object value;
+
+    public Resume(final Signal target, final Object value) {
+      this.target = target;
+      this.value  = value;
+    }
+
+    public boolean resumes(final Signal signal) {
+      return target == signal;
+    }
+
+    public Object getValue() {
+      return value;
+    }
+  }
+
+  private static final class Chain {
+    ExceptionHandler active;
+    Signal           signals;
+  }
+
+  private static final ThreadLocal<Chain> CHAIN = ThreadLocal.withInitial(Chain::new);
+
+  private final Site             site;
+  private final Object           selector;
+  private final SBlock           block;
+  private final ExceptionHandler outer;
+
+  /** The environment and level of the <code>on:do:</code>, to send <code>handles:</code>. */
+  private final DynamicObject  environment;
+  private final ExecutionLevel level;
+
+  private ExceptionHandler(final Site site, final Object selector,
+      final SBlock block, final ExceptionHandler outer,
+      final DynamicObject environment, final ExecutionLevel level) {
+    this.site        = site;
+    this.selector    = selector;
+    this.block       = block;
+    this.outer       = outer;
+    this.environment = environment;
+    this.level       = level;
+  }
+
+  public SBlock getBlock() {
+    return block;
+  }
+
+  @TruffleBoundary
+  public static ExceptionHandler install(final Site site, final Object selector,
+      final SBlock block, final DynamicObject environment, final ExecutionLevel level) {
+    Chain chain = CHAIN.get();
+    ExceptionHandler handler = new ExceptionHandler(site, selector, block, chain.active,
+        environment, level);
+    chain.active = handler;
+    return handler;
+  }
+
+  /** Needs to be called when the protected block is left, in any way. */
+  @TruffleBoundary
+  public void uninstall() {
+    Chain chain = CHAIN.get();
+    assert chain.active == this;
+    chain.active = outer;
+  }
+
+  /** @return the innermost active handler for <code>exception</code>, or null */
+  @TruffleBoundary
+  public static ExceptionHandler find(final DynamicObject exception) {
+    return findFrom(CHAIN.get().active, exception);
+  }
+
+  private static ExceptionHandler findFrom(final ExceptionHandler first,
+      final DynamicObject exception) {
+    DynamicObject clazz = SObject.getSOMClass(exception);
+    for (ExceptionHandler h = first; h != null; h = h.outer) {
+      if (h.handles(exception, clazz)) {
+        return h;
+      }
+    }
+    return null;
+  }
+
+  private boolean handles(final DynamicObject exception, final DynamicObject clazz) {
+    if (selector instanceof DynamicObject && SClass.isSClass((DynamicObject) selector)) {
+      return site.matches((DynamicObject) selector, clazz);
+    }
+    Object handles = SAbstractObject.send("handles:", new Object[] {selector, exception},
+        environment, level);
+    return handles == Boolean.TRUE || handles == Globals.trueObject;
+  }
+
+  /**
+   * Deactivates this handler and the ones installed after it, until the
+   * returned signal is {@link Signal#done()}.
+   */
+  @TruffleBoundary
+  public Signal enter(final DynamicObject exception) {
+    Chain chain = CHAIN.get();
+    Signal signal = new Signal(exception, this, chain.signals, chain.active);
+    chain.signals = signal;
+    chain.active  = outer;
+    return signal;
+  }
+
+  /** @return the innermost signal of <code>exception</code> that is being handled, or null */
+  @TruffleBoundary
+  public static Signal handling(final DynamicObject exception) {
+    for (Signal s = CHAIN.get().signals; s != null; s = s.previous) {
+      if (s.exception == exception) {
+        return s;
+      }
+    }
+    return null;
+  }
+
+  /** @return the next handler for the exception of <code>signal</code>, for <code>pass</code> */
+  @TruffleBoundary
+  public static ExceptionHandler findOuter(final Signal signal) {
+    return findFrom(signal.handler.outer, signal.exception);
+  }
+
+  public Unwind returnWith(final Object result) {
+    assert result != null;
+    return new Unwind(this, result);
+  }
+
+  public Unwind retry() {
+    return new Unwind(this, null);
+  }
+}
@@ -1,11 +1,13 @@
 package som.interpreter;
 
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeUtil;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.source.SourceSection;
@@ -14,17 +16,27 @@ import som.compiler.MethodGenerationContext;
 import som.compiler.Variable.Local;
 import som.interpreter.nodes.ExpressionNode;
 import som.interpreter.nodes.MateReturnNode;
+import som.vm.Universe;
+import som.vm.constants.ExecutionLevel;
+import som.vm.constants.Nil;
 import som.vmobjects.SInvokable;
 
 public abstract class Invokable extends RootNode implements ReflectiveNode {
 
   @Child protected ExpressionNode expressionOrSequence;
 
+  /**
+   * The body as the parser created it. It is neither executed nor mateified,
+   * so that copies of the method start from nodes that did not specialize.
+   */
   @CompilationFinal protected ExpressionNode uninitializedBody;
   @CompilationFinal protected DynamicObject belongsToMethod;
 
   private final SourceSection sourceSection;
 
+  /** Whether the AST was rewritten to Mate nodes, see {@link #mateify()}. */
+  @CompilationFinal private boolean mateified;
+
   public Invokable(final SourceSection sourceSection,
       final FrameDescriptor frameDescriptor,
       final ExpressionNode expressionOrSequence,
@@ -39,11 +51,60 @@ public abstract class Invokable extends RootNode implements ReflectiveNode {
 
   @Override
   public final Object execute(final VirtualFrame frame) {
+    if (!mateified && needsMate(frame)) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      mateify();
+    }
     return expressionOrSequence.executeGeneric(frame);
   }
 
+  /**
+   * With <code>--mate</code>, methods keep their plain AST until they run at
+   * the base level while Mate is activated, or under an environment.
+   */
+  private static boolean needsMate(final VirtualFrame frame) {
+    Universe vm = Universe.getCurrent();
+    return vm.vmReflectionEnabled()
+        && SArguments.getExecutionLevel(frame) == ExecutionLevel.Base
+        && (vm.isMateActivated()
+            || SArguments.getEnvironment(frame) != Nil.nilObject);
+  }
+
+  /**
+   * Rewrites the AST to Mate nodes, unless that happened already. The
+   * executed body may have specialized to nodes without a Mate version, so
+   * the Mate nodes are created from a copy of the uninitialized body.
+   */
+  public final void mateify() {
+    synchronized (this) {
+      if (!mateified) {
+        if (uninitializedBody != null) {
+          expressionOrSequence.replace(copyUninitializedBody());
+        }
+        Universe.getCurrent().mateifyNode(this);
+        mateified = true;
+      }
+    }
+  }
+
+  public final boolean isMateified() {
+    return mateified;
+  }
+
+  /** @return a copy of the uninitialized body that can replace the executed one */
+  protected ExpressionNode copyUninitializedBody() {
+    return NodeUtil.cloneNode(uninitializedBody);
+  }
+
   public abstract Invokable cloneWithNewLexicalContext(LexicalScope outerContext);
 
+  /**
+   * @return a copy that executes a fresh copy of the uninitialized body, no
+   *         matter how far this invokable specialized, or whether it was
+   *         mateified
+   */
+  public abstract Invokable copyUninitialized();
+
   public ExpressionNode inline(final MethodGenerationContext mgenc,
       final Local[] locals) {
     return InlinerForLexicallyEmbeddedMethods.doInline(uninitializedBody, mgenc,
@@ -78,7 +139,6 @@ public abstract class Invokable extends RootNode implements ReflectiveNode {
   public Node asMateNode() {
     expressionOrSequence = new MateReturnNode(expressionOrSequence);
     this.adoptChildren();
-    uninitializedBody = NodeVisitorUtil.applyVisitor(uninitializedBody, new MateifyVisitor());
     return null;
   }
 
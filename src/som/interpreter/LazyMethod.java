@@ -0,0 +1,204 @@
+package som.interpreter;
+
+import java.io.IOException;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.LoopNode;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.source.Source;
+
+import som.compiler.ClassGenerationContext;
+import som.compiler.Parser.ParseError;
+import som.interpreter.nodes.ExpressionNode;
+import som.vm.Symbols;
+import som.vm.Universe;
+import som.vm.constants.ExecutionLevel;
+import som.vm.constants.Nil;
+import som.vmobjects.SInvokable;
+
+/**
+ * Placeholder for a method whose source has not been parsed yet. The method
+ * is compiled when its call target is first requested, see
+ * {@link SInvokable#getCallTarget(DynamicObject, ExecutionLevel)}, and
+ * installed in the method object with
+ * {@link SInvokable#replaceImplementation(DynamicObject, DynamicObject)}. So,
+ * call sites link the compiled method directly, and activations do not have
+ * an extra frame. The method is compiled from the source of its class,
+ * so that it has the same source sections as if the class had been parsed.
+ */
+public final class LazyMethod extends Invokable {
+
+  /**
+   * The source of a class, shared by the definitions of all its methods, so
+   * that the class file is read at most once, when the first of them is
+   * compiled.
+   */
+  public static final class ClassSource {
+    private final String className;
+
+    private boolean loaded;
+    private Source  source;
+    private String  content;
+
+    public ClassSource(final String className) {
+      this.className = className;
+    }
+
+    /** @return whether the source of the class has <code>text</code> at <code>start</code> */
+    synchronized boolean contains(final String text, final int start) {
+      if (!loaded) {
+        source = Universe.getCurrent().getSourceForClassName(Symbols.symbolFor(className));
+        content = source == null ? null : source.getCharacters().toString();
+        loaded = true;
+      }
+      return content != null && content.startsWith(text, start);
+    }
+
+    synchronized Source getSource() {
+      return source;
+    }
+  }
+
+  /** Shared by the base and meta level placeholders of a method. */
+  public static final class Definition {
+    private final String text;
+    private final int    start;
+    private final ClassSource classSource;
+    private final String className;
+    private final ClassGenerationContext holderGenc;
+
+    private DynamicObject method;
+    private volatile boolean compiled;
+
+    /**
+     * @param start of the <code>text</code> in the source of the class
+     */
+    public Definition(final String text, final int start, final ClassSource classSource,
+        final ClassGenerationContext holderGenc) {
+      this.text        = text;
+      this.start       = start;
+      this.classSource = classSource;
+      this.className   = classSource.className;
+      this.holderGenc  = holderGenc;
+    }
+
+    @TruffleBoundary
+    synchronized void ensureCompiled() {
+      if (compiled) {
+        return;
+      }
+      DynamicObject implementation;
+      try {
+        if (classSource.contains(text, start)) {
+          Source source = classSource.getSource();
+          implementation = Universe.getCurrent().getObjectMemory().compileMethod(
+              source, start, holderGenc);
+        } else {
+          // the class changed since the image was written, keep the old definition
+          implementation = Universe.getCurrent().getObjectMemory().compileMethod(
+              SomLanguage.getSyntheticSourceTruffle(text, className), 0, holderGenc);
+        }
+      } catch (ParseError | IOException e) {
+        Universe.errorExit("Could not compile " + className + ">>"
+            + SInvokable.getSignature(method).getString() + ": " + e.getMessage());
+        return;
+      }
+      SInvokable.setHolder(implementation, SInvokable.getHolder(method));
+      SInvokable.replaceImplementation(method, implementation);
+      compiled = true;
+    }
+  }
+
+  private final Definition definition;
+
+  public LazyMethod(final Definition definition, final SomLanguage language) {
+    super(null, new FrameDescriptor(Nil.nilObject), new LazyMethodBody(definition), null, null, language);
+    this.definition = definition;
+  }
+
+  @Override
+  public void setMethod(final DynamicObject method) {
+    super.setMethod(method);
+    definition.method = method;
+  }
+
+  public boolean isCompiled() {
+    return definition.compiled;
+  }
+
+  /** Compiles the method and installs it in its method object. */
+  public void compile() {
+    definition.ensureCompiled();
+  }
+
+  public String getDefinitionText() {
+    return definition.text;
+  }
+
+  public int getDefinitionStart() {
+    return definition.start;
+  }
+
+  @Override
+  public Invokable cloneWithNewLexicalContext(final LexicalScope outerContext) {
+    return new LazyMethod(definition, getLanguage(SomLanguage.class));
+  }
+
+  @Override
+  public Invokable copyUninitialized() {
+    LazyMethod copy = new LazyMethod(definition, getLanguage(SomLanguage.class));
+    copy.belongsToMethod = belongsToMethod;
+    return copy;
+  }
+
+  @Override
+  public Node deepCopy() {
+    return copyUninitialized();
+  }
+
+  @Override
+  public void propagateLoopCountThroughoutLexicalScope(final long count) {
+    LoopNode.reportLoopCount(this, (count > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) count);
+  }
+
+  @Override
+  public Node asMateNode() {
+    // the compiled method is mateified when it first needs to be
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return "LazyMethod(" + definition.className + ")\t@" + Integer.toHexString(hashCode());
+  }
+
+  /**
+   * Only reached when the call target of the placeholder was taken before
+   * the method was compiled, which the VM itself does not do.
+   */
+  private static final class LazyMethodBody extends ExpressionNode {
+    private final Definition definition;
+    @Child private DirectCallNode call;
+
+    LazyMethodBody(final Definition definition) {
+      this.definition = definition;
+    }
+
+    @Override
+    public Object executeGeneric(final VirtualFrame frame) {
+      if (call == null) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        definition.ensureCompiled();
+        call = insert(Truffle.getRuntime().createDirectCallNode(
+            SInvokable.getCallTarget(definition.method, SArguments.getExecutionLevel(frame))));
+      }
+      return call.call(frame.getArguments());
+    }
+  }
+}
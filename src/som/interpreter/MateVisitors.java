@@ -48,13 +48,8 @@ public class MateVisitors {
       Frame materialized = frameInstance.getFrame(FrameAccess.MATERIALIZE);
       FrameSlot slot = materialized.getFrameDescriptor().findFrameSlot(Universe.frameOnStackSlotName());
       if (slot != null) {
-        try {
-          FrameOnStackMarker marker = (FrameOnStackMarker) (materialized.getObject(slot));
-          if (marker == toFind) {
-            currentFound = true;
-          }
-        } catch (FrameSlotTypeException e) {
-          e.printStackTrace();
+        if (materialized.getValue(slot) == toFind) {
+          currentFound = true;
         }
       }
       return null;
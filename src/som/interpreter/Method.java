@@ -68,6 +68,14 @@ public final class Method extends Invokable {
         inlinedCurrentScope, uninitializedBody, this.belongsToMethod, getLanguage(SomLanguage.class));
   }
 
+  @Override
+  protected ExpressionNode copyUninitializedBody() {
+    ExpressionNode body = SplitterForLexicallyEmbeddedCode.doInline(
+        uninitializedBody, currentLexicalScope);
+    body.markAsRootExpression();
+    return body;
+  }
+
   public Invokable cloneAndAdaptToEmbeddedOuterContext(
       final InlinerForLexicallyEmbeddedMethods inliner) {
     LexicalScope currentAdaptedScope = new LexicalScope(
@@ -113,12 +121,17 @@ public final class Method extends Invokable {
   }
 
   @Override
-  public Node deepCopy() {
-    Node copy = cloneWithNewLexicalContext(currentLexicalScope.getOuterScopeOrNull());
-    ((Invokable) copy).uninitializedBody = (ExpressionNode) uninitializedBody.deepCopy();
+  public Invokable copyUninitialized() {
+    Invokable copy = cloneWithNewLexicalContext(currentLexicalScope.getOuterScopeOrNull());
+    copy.uninitializedBody = NodeUtil.cloneNode(uninitializedBody);
     return copy;
   }
 
+  @Override
+  public Node deepCopy() {
+    return copyUninitialized();
+  }
+
   public boolean isBlock() {
     // TODO: analyze the best way to implement this method properly
     return false;
@@ -34,10 +34,15 @@ public final class Primitive extends Invokable {
   }
 
   @Override
-  public Node deepCopy() {
+  public Invokable copyUninitialized() {
     return cloneWithNewLexicalContext(null);
   }
 
+  @Override
+  public Node deepCopy() {
+    return copyUninitialized();
+  }
+
   @Override
   public String toString() {
     return "Primitive " + expressionOrSequence.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode());
@@ -33,6 +33,18 @@ public final class ReturnException extends ControlFlowException {
     this.target = target;
   }
 
+  /**
+   * A return from a block that got inlined into the method it returns from.
+   * It is caught by the method's own handler, without any call in between.
+   */
+  public ReturnException(final Object result) {
+    this(result, null);
+  }
+
+  public boolean isLocal() {
+    return target == null;
+  }
+
   public Object result() {
     return result;
   }
@@ -133,6 +133,12 @@ public class SomLanguage extends TruffleLanguage<Universe> {
     context.initialize(this);
   }
 
+  /** SOM code can run on several threads, see {@link som.vmobjects.SThread}. */
+  @Override
+  protected boolean isThreadAccessAllowed(final Thread thread, final boolean singleThreaded) {
+    return true;
+  }
+
 
   private static class StartInterpretation extends RootNode {
 
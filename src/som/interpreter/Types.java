@@ -25,6 +25,7 @@ import java.math.BigInteger;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.ImplicitCast;
 import com.oracle.truffle.api.dsl.TypeSystem;
 import com.oracle.truffle.api.frame.FrameInstance;
 import com.oracle.truffle.api.object.DynamicObject;
@@ -40,8 +41,10 @@ import som.vmobjects.SAbstractObject;
 import som.vmobjects.SArray;
 import som.vmobjects.SBlock;
 import som.vmobjects.SClass;
+import som.vmobjects.SContext;
 import som.vmobjects.SFile;
 import som.vmobjects.SObject;
+import som.vmobjects.SRope;
 import som.vmobjects.SShape;
 import som.vmobjects.SSymbol;
 
@@ -51,16 +54,27 @@ import som.vmobjects.SSymbol;
                  double.class,
                    char.class,
                  String.class,
+                  SRope.class,
                  SBlock.class,
                 SSymbol.class,
                  SArray.class,
                  SShape.class,
          MockJavaObject.class,
+               SContext.class,
         SAbstractObject.class,
           DynamicObject.class,
                Object[].class}) // Object[] is only for argument passing
 public class Types {
 
+  /**
+   * Ropes are Strings for SOM. Primitives that do not specialize on them
+   * explicitly get the flattened String.
+   */
+  @ImplicitCast
+  public static String castRope(final SRope rope) {
+    return rope.flatten();
+  }
+
   @TruffleBoundary
   public static DynamicObject getClassOf(final Object obj) {
     CompilerAsserts.neverPartOfCompilation("Types.getClassOf");
@@ -78,7 +92,7 @@ public class Types {
       }
     } else if (obj instanceof Long || obj instanceof BigInteger) {
       return Classes.integerClass;
-    } else if (obj instanceof String) {
+    } else if (obj instanceof String || obj instanceof SRope) {
       return Classes.stringClass;
     } else if (obj instanceof Character) {
       return Classes.characterClass;
@@ -142,6 +156,9 @@ public class Types {
     if (obj instanceof String) {
       return (String) obj;
     }
+    if (obj instanceof SRope) {
+      return ((SRope) obj).flatten();
+    }
     if (obj instanceof SAbstractObject || obj instanceof Number || obj instanceof Thread) {
       return obj.toString();
     }
@@ -0,0 +1,279 @@
+package som.interpreter.actors;
+
+import java.math.BigInteger;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.VmSettings;
+import som.interpreter.actors.EventualMessage.DirectMessage;
+import som.vm.Universe;
+import som.vm.constants.Nil;
+import som.vmobjects.SClass;
+import som.vmobjects.SFarReference;
+import som.vmobjects.SMutex;
+import som.vmobjects.SPromise;
+import som.vmobjects.SRope;
+import som.vmobjects.SSymbol;
+import som.vmobjects.SThread;
+
+/**
+ * An actor owns the objects that are created by its messages, and is the
+ * only one that runs code on them. Other actors reach them through
+ * {@link SFarReference}s, and send them messages, which go into the mailbox
+ * of the owner. Values, like numbers, strings, symbols and classes, are
+ * passed as they are.
+ *
+ * <p>Actors run on one work-stealing {@link ForkJoinPool}. An actor with
+ * messages is scheduled once and processes its mailbox on one pool thread
+ * at a time. So the objects of an actor are never accessed concurrently,
+ * and neither they nor the mailbox need a lock.
+ *
+ * <p>The main program runs as the turn of the main actor. Its mailbox is
+ * processed when the program is done, see {@link #awaitQuiescence()}, or
+ * while the program awaits a promise, see {@link SPromise#await()}.
+ */
+public final class Actor {
+  /** Messages processed before the pool thread is given to other actors. */
+  private static final int BATCH_SIZE = 128;
+
+  private static final Actor MAIN = new Actor(true);
+  private static final ThreadLocal<Actor> CURRENT = ThreadLocal.withInitial(() -> MAIN);
+
+  private static volatile ForkJoinPool pool;
+
+  private final ConcurrentLinkedQueue<EventualMessage> mailbox = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled;
+
+  /** The thread that processes messages while it awaits a promise in a turn. */
+  private final AtomicReference<Thread> waiting = new AtomicReference<>();
+
+  private Actor(final boolean scheduled) {
+    this.scheduled = new AtomicBoolean(scheduled);
+  }
+
+  public static Actor createActor() {
+    return new Actor(false);
+  }
+
+  /** @return the actor whose message the current thread executes */
+  @TruffleBoundary
+  public static Actor current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Sends <code>selector</code> eventually. The receiver, which is the first
+   * of the <code>arguments</code>, and the other arguments belong to
+   * <code>sender</code>, except for far references.
+   *
+   * @param result is resolved with the value of the message, or null
+   */
+  @TruffleBoundary
+  public static void eventualSend(final Actor sender, final SSymbol selector,
+      final Object[] arguments, final SPromise result) {
+    eventualSend(sender, arguments[0], sender, selector, arguments, result);
+  }
+
+  private static void eventualSend(final Actor sender, final Object receiver,
+      final Actor receiverOwner, final SSymbol selector, final Object[] arguments,
+      final SPromise result) {
+    if (receiver instanceof SPromise) {
+      // the message goes to the value of the promise, once it is there
+      ((SPromise) receiver).addListener((value, owner) ->
+          eventualSend(sender, value, owner, selector, arguments, result), result);
+      return;
+    }
+
+    Actor target;
+    Object rcvr;
+    if (receiver instanceof SFarReference) {
+      target = ((SFarReference) receiver).getActor();
+      rcvr   = ((SFarReference) receiver).getValue();
+    } else {
+      target = isValue(receiver) ? sender : receiverOwner;
+      rcvr   = receiver;
+    }
+
+    Object[] args = new Object[arguments.length];
+    args[0] = rcvr;
+    for (int i = 1; i < arguments.length; i++) {
+      args[i] = sender.wrapForUse(arguments[i], target);
+    }
+    target.send(new DirectMessage(selector, args, result));
+  }
+
+  /** Puts <code>msg</code> into the mailbox, and schedules the actor if needed. */
+  public void send(final EventualMessage msg) {
+    mailbox.add(msg);
+    Thread w = waiting.get();
+    if (w != null) {
+      LockSupport.unpark(w);
+    }
+    if (scheduled.compareAndSet(false, true)) {
+      getPool().execute(this::processMailbox);
+    }
+  }
+
+  private void processMailbox() {
+    CURRENT.set(this);
+    try {
+      for (int i = 0; i < BATCH_SIZE; i++) {
+        EventualMessage msg = mailbox.poll();
+        if (msg == null) {
+          break;
+        }
+        msg.run(this);
+      }
+    } finally {
+      CURRENT.remove();
+      doneProcessing();
+    }
+  }
+
+  private void doneProcessing() {
+    scheduled.set(false);
+    // a sender that saw the actor still scheduled relies on this check
+    if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+      getPool().execute(this::processMailbox);
+    }
+  }
+
+  /**
+   * Processes messages of this actor, the current one, until
+   * <code>promise</code> is resolved. Only one thread processes them, other
+   * threads that await a promise in the same actor just wait.
+   *
+   * @throws InterruptedException if the thread was interrupted while waiting
+   */
+  public void processMessagesUntilResolved(final SPromise promise)
+      throws InterruptedException {
+    Thread current = Thread.currentThread();
+    // a message processed while waiting may await a promise as well
+    boolean nested = waiting.get() == current;
+    boolean processes = nested || waiting.compareAndSet(null, current);
+    try {
+      while (!promise.isResolved()) {
+        EventualMessage msg = processes ? mailbox.poll() : null;
+        if (msg != null) {
+          msg.run(this);
+        } else {
+          ForkJoinPool.managedBlock(new Waiting(promise, processes));
+        }
+      }
+    } finally {
+      if (processes && !nested) {
+        waiting.set(null);
+      }
+    }
+  }
+
+  /** Parks until the promise is resolved, or a message arrives. */
+  private final class Waiting implements ForkJoinPool.ManagedBlocker {
+    private final SPromise promise;
+    private final boolean  processes;
+
+    Waiting(final SPromise promise, final boolean processes) {
+      this.promise   = promise;
+      this.processes = processes;
+    }
+
+    @Override
+    public boolean block() throws InterruptedException {
+      LockSupport.park(this);
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      return isReleasable();
+    }
+
+    @Override
+    public boolean isReleasable() {
+      return promise.isResolved() || (processes && !mailbox.isEmpty());
+    }
+  }
+
+  /**
+   * @return <code>value</code>, which belongs to this actor, as the objects
+   *         of <code>target</code> see it
+   */
+  public Object wrapForUse(final Object value, final Actor target) {
+    if (value instanceof SFarReference) {
+      SFarReference ref = (SFarReference) value;
+      return ref.getActor() == target ? ref.getValue() : ref;
+    } else if (value instanceof SRope) {
+      return ((SRope) value).flatten();
+    } else if (this == target || isValue(value)) {
+      return value;
+    }
+    return new SFarReference(this, value);
+  }
+
+  /** @return whether <code>obj</code> can be used by all actors directly */
+  private static boolean isValue(final Object obj) {
+    return obj instanceof Long || obj instanceof Double || obj instanceof Boolean ||
+        obj instanceof Character || obj instanceof String || obj instanceof SSymbol ||
+        obj instanceof BigInteger || obj == Nil.nilObject ||
+        obj instanceof SPromise || obj instanceof SThread ||
+        obj instanceof SMutex || obj instanceof SMutex.SCondition ||
+        (obj instanceof DynamicObject && SClass.isSClass((DynamicObject) obj));
+  }
+
+  /**
+   * Ends the turn of the main actor, and waits until no actor has messages
+   * left.
+   */
+  @TruffleBoundary
+  public static void awaitQuiescence() {
+    MAIN.doneProcessing();
+    ForkJoinPool p = pool;
+    if (p != null) {
+      p.awaitQuiescence(Long.MAX_VALUE, TimeUnit.DAYS);
+    }
+  }
+
+  /**
+   * @return the pool that runs the actors. Its threads have entered the
+   *         context, so that other parallel work can use them as well.
+   */
+  public static ForkJoinPool getPool() {
+    ForkJoinPool p = pool;
+    if (p == null) {
+      synchronized (Actor.class) {
+        if (pool == null) {
+          pool = new ForkJoinPool(VmSettings.NUM_THREADS, ActorThread::new, null, true);
+        }
+        p = pool;
+      }
+    }
+    return p;
+  }
+
+  /** A pool thread, which enters the Truffle context to run SOM code. */
+  private static final class ActorThread extends ForkJoinWorkerThread {
+    private Object previousContext;
+
+    ActorThread(final ForkJoinPool pool) {
+      super(pool);
+    }
+
+    @Override
+    protected void onStart() {
+      super.onStart();
+      previousContext = Universe.getCurrent().enterContext();
+    }
+
+    @Override
+    protected void onTermination(final Throwable exception) {
+      Universe.getCurrent().leaveContext(previousContext);
+      super.onTermination(exception);
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package som.interpreter.actors;
+
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.interpreter.SArguments;
+import som.interpreter.SomException;
+import som.interpreter.Types;
+import som.interpreter.nodes.dispatch.CachedDnuNode;
+import som.vm.GlobalMethodCache;
+import som.vm.Universe;
+import som.vm.constants.ExecutionLevel;
+import som.vm.constants.MateClasses;
+import som.vmobjects.SBlock;
+import som.vmobjects.SInvokable;
+import som.vmobjects.SPromise;
+import som.vmobjects.SSymbol;
+
+/**
+ * A message in the mailbox of an {@link Actor}. Its receiver and arguments
+ * are already wrapped for the actor that executes it.
+ */
+public abstract class EventualMessage {
+  /** Resolved with the value of the message, may be null. */
+  protected final SPromise result;
+
+  protected EventualMessage(final SPromise result) {
+    this.result = result;
+  }
+
+  /**
+   * Executes the message as a turn of <code>actor</code>. When it fails, its
+   * promise is broken. A failed message without a promise ends the program.
+   */
+  final void run(final Actor actor) {
+    Object value;
+    try {
+      value = execute();
+    } catch (SomException e) {
+      fail(e.getSomObject(), actor);
+      return;
+    } catch (Throwable t) {
+      fail(t.toString(), actor);
+      return;
+    }
+    if (result != null) {
+      result.resolve(value, actor);
+    }
+  }
+
+  private void fail(final Object error, final Actor actor) {
+    if (result == null) {
+      Universe.errorExit("An actor did not handle " + SPromise.describe(error));
+      return;
+    }
+    result.breakWith(error, actor);
+  }
+
+  protected abstract Object execute();
+
+  /** Sends a selector to the receiver, which is the first argument. */
+  public static final class DirectMessage extends EventualMessage {
+    private final SSymbol  selector;
+    private final Object[] arguments;
+
+    public DirectMessage(final SSymbol selector, final Object[] arguments,
+        final SPromise result) {
+      super(result);
+      this.selector  = selector;
+      this.arguments = arguments;
+    }
+
+    @Override
+    protected Object execute() {
+      Object rcvr = arguments[0];
+      DynamicObject rcvrClass = Types.getClassOf(rcvr);
+      DynamicObject invokable = GlobalMethodCache.lookup(rcvrClass, selector);
+      if (invokable == null) {
+        return SInvokable.invoke(CachedDnuNode.getDnuMethod(rcvrClass),
+            MateClasses.STANDARD_ENVIRONMENT, ExecutionLevel.Base, rcvr, selector,
+            SArguments.getArgumentsWithoutReceiver(arguments));
+      }
+      return SInvokable.invoke(invokable, MateClasses.STANDARD_ENVIRONMENT,
+          ExecutionLevel.Base, arguments);
+    }
+  }
+
+  /** Runs a block registered with <code>whenResolved:</code>. */
+  public static final class CallbackMessage extends EventualMessage {
+    private final SBlock block;
+    private final Object value;
+
+    public CallbackMessage(final SBlock block, final Object value, final SPromise result) {
+      super(result);
+      this.block = block;
+      this.value = value;
+    }
+
+    @Override
+    protected Object execute() {
+      return SInvokable.invoke(block.getMethod(), MateClasses.STANDARD_ENVIRONMENT,
+          ExecutionLevel.Base, block, value);
+    }
+  }
+}
@@ -249,8 +249,12 @@ public abstract class ArgumentReadNode {
         currentFrame = runtime.getCurrentFrame();
       }
       final Frame materialized = currentFrame.getFrame(FrameAccess.MATERIALIZE);
-      if (materialized.getFrameDescriptor().findFrameSlot(Universe.frameOnStackSlotName()) == null) {
-        FrameSlot frameOnStackMarker = materialized.getFrameDescriptor().addFrameSlot(Universe.frameOnStackSlotName(), FrameSlotKind.Object);
+      FrameSlot frameOnStackMarker = materialized.getFrameDescriptor().findFrameSlot(Universe.frameOnStackSlotName());
+      if (frameOnStackMarker == null) {
+        frameOnStackMarker = materialized.getFrameDescriptor().addFrameSlot(Universe.frameOnStackSlotName(), FrameSlotKind.Object);
+      }
+      // methods whose returns are all local do not allocate a marker
+      if (!(materialized.getValue(frameOnStackMarker) instanceof FrameOnStackMarker)) {
         materialized.setObject(frameOnStackMarker, new FrameOnStackMarker());
       }
       return currentFrame;
@@ -137,16 +137,29 @@ public final class MessageSendNode {
   public abstract static class AbstractUninitializedMessageSendNode
       extends AbstractMessageSendNode {
 
+    /** The node that replaced this one, only accessed under the AST lock. */
+    private PreevaluatedExpression specialized;
+
     protected AbstractUninitializedMessageSendNode(final SSymbol selector,
         final ExpressionNode[] arguments) {
       super(selector, arguments);
     }
 
+    /**
+     * Specializes under the AST lock. Another thread may have specialized
+     * this node while we waited for the lock, then its replacement is used.
+     */
     @Override
     public final Object doPreEvaluated(final VirtualFrame frame,
         final Object[] arguments) {
-      return specialize(arguments, frame).
-          doPreEvaluated(frame, arguments);
+      TruffleCompiler.transferToInterpreterAndInvalidate("Specialize Message Node");
+      PreevaluatedExpression node = atomic(() -> {
+        if (specialized == null) {
+          specialized = specialize(arguments, frame);
+        }
+        return specialized;
+      });
+      return node.doPreEvaluated(frame, arguments);
     }
 
     protected PreevaluatedExpression specialize(final Object[] arguments, final VirtualFrame frame) {
@@ -161,7 +174,6 @@ public final class MessageSendNode {
       Specializer<Universe, ExpressionNode, SSymbol> specializer = prims.getEagerSpecializer(selector,
           arguments, argumentNodes);
 
-      // synchronized (getLock()) {
       if (specializer != null) {
         EagerlySpecializableNode newNode = (EagerlySpecializableNode) specializer.create(arguments, argumentNodes, getSourceSection(), !specializer.noWrapper(), Universe.getCurrent());
         if (specializer.noWrapper()) {
@@ -171,7 +183,6 @@ public final class MessageSendNode {
         }
       }
       return makeGenericSend(frame);
-      // }
     }
 
 
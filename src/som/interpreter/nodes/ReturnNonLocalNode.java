@@ -21,6 +21,9 @@
  */
 package som.interpreter.nodes;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.FrameSlotKind;
 import com.oracle.truffle.api.frame.FrameUtil;
@@ -28,6 +31,7 @@ import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.profiles.BranchProfile;
 
+import som.VmSettings;
 import som.interpreter.FrameOnStackMarker;
 import som.interpreter.InlinerAdaptToEmbeddedOuterContext;
 import som.interpreter.InlinerForLexicallyEmbeddedMethods;
@@ -35,11 +39,34 @@ import som.interpreter.ReturnException;
 import som.interpreter.SArguments;
 import som.interpreter.SplitterForLexicallyEmbeddedCode;
 import som.interpreter.nodes.nary.ExpressionWithTagsNode;
+import som.vm.Universe;
 import som.vmobjects.SAbstractObject;
 import som.vmobjects.SBlock;
 
 public final class ReturnNonLocalNode extends ContextualNode {
 
+  private static final AtomicLong localReturns    = new AtomicLong();
+  private static final AtomicLong nonLocalReturns = new AtomicLong();
+  private static final AtomicLong escapedReturns  = new AtomicLong();
+  private static final AtomicLong markers         = new AtomicLong();
+
+  private static void count(final AtomicLong counter) {
+    if (VmSettings.PRINT_STATISTICS) {
+      increment(counter);
+    }
+  }
+
+  @TruffleBoundary
+  private static void increment(final AtomicLong counter) {
+    counter.incrementAndGet();
+  }
+
+  public static void reportStatistics() {
+    Universe.errorPrintln("Returns from blocks: " + localReturns.get() + " local, "
+        + nonLocalReturns.get() + " non-local, " + escapedReturns.get() + " from escaped blocks, "
+        + markers.get() + " frame markers allocated");
+  }
+
   @Child private ExpressionNode expression;
   private final BranchProfile blockEscaped;
   private final FrameSlot frameOnStackMarker;
@@ -72,9 +99,11 @@ public final class ReturnNonLocalNode extends ContextualNode {
     FrameOnStackMarker marker = getMarkerFromContext(ctx);
 
     if (marker.isOnStack()) {
+      count(nonLocalReturns);
       throw new ReturnException(result, marker);
     } else {
       blockEscaped.enter();
+      count(escapedReturns);
       SBlock block = (SBlock) SArguments.rcvr(frame);
       Object self = SArguments.rcvr(ctx);
       return SAbstractObject.sendEscapedBlock(self, block);
@@ -93,7 +122,7 @@ public final class ReturnNonLocalNode extends ContextualNode {
       final InlinerForLexicallyEmbeddedMethods inlinerForLexicallyEmbeddedMethods) {
     ExpressionNode inlined;
     if (contextLevel == 1) {
-      inlined = new ReturnLocalNode(expression, frameOnStackMarker).initialize(getSourceSection());
+      inlined = new ReturnLocalNode(expression).initialize(getSourceSection());
     } else {
       inlined = new ReturnNonLocalNode(expression,
         frameOnStackMarker, contextLevel - 1).initialize(getSourceSection());
@@ -122,49 +151,33 @@ public final class ReturnNonLocalNode extends ContextualNode {
    * Normally, there are no local returns in SOM. However, after
    * inlining/embedding of blocks, we need this ReturnLocalNode to replace
    * previous non-local returns.
+   *
+   * <p>The method it returns from is the one it is in, so it is on the stack,
+   * and its handler is reached without unwinding any call. Thus, the return
+   * does not need the method's {@link FrameOnStackMarker}.
    * @author Stefan Marr
    */
   public static final class ReturnLocalNode extends ExpressionWithTagsNode {
     @Child private ExpressionNode expression;
-    private final FrameSlot frameOnStackMarker;
 
-    private ReturnLocalNode(final ExpressionNode exp, final FrameSlot frameOnStackMarker) {
+    private ReturnLocalNode(final ExpressionNode exp) {
       this.expression = exp;
-      this.frameOnStackMarker = frameOnStackMarker;
     }
 
     @Override
     public Object executeGeneric(final VirtualFrame frame) {
       Object result = expression.executeGeneric(frame);
-
-      FrameOnStackMarker marker = (FrameOnStackMarker) FrameUtil.getObjectSafe(
-          frame, frameOnStackMarker);
-
-      // this ReturnLocalNode should only become part of an AST because of
-      // inlining a literal block, and that block, should never be
-      // captured as a value and passed around. Because, we should only ever
-      // do the inlining for blocks where we know this doesn't happen.
-      assert marker.isOnStack();
-      throw new ReturnException(result, marker);
-
-//      if (marker.isOnStack()) {
-//      } else {
-//        throw new RuntimeException("This should never happen");
-//        blockEscaped.enter();
-//        SBlock block = (SBlock) SArguments.rcvr(frame);
-//        Object self = SArguments.rcvr(ctx);
-//        return SAbstractObject.sendEscapedBlock(self, block);
-//      }
-    }
-
-    @Override
-    public void replaceWithIndependentCopyForInlining(final SplitterForLexicallyEmbeddedCode inliner) {
-      FrameSlot inlinedFrameOnStack  = inliner.getLocalFrameSlot(frameOnStackMarker.getIdentifier());
-      assert inlinedFrameOnStack  != null;
-      replace(new ReturnLocalNode(expression, inlinedFrameOnStack).initialize(getSourceSection()));
+      count(localReturns);
+      throw new ReturnException(result);
     }
   }
 
+  /**
+   * Handler for the returns from the blocks of a method. The
+   * {@link FrameOnStackMarker} is only allocated when a block that was not
+   * inlined returns from the method, otherwise <code>frameOnStackMarker</code>
+   * is <code>null</code> and all returns are local.
+   */
   public static final class CatchNonLocalReturnNode extends ExpressionWithTagsNode {
     @Child protected ExpressionNode methodBody;
     private final BranchProfile nonLocalReturnHandler;
@@ -189,7 +202,12 @@ public final class ReturnNonLocalNode extends ContextualNode {
 
     @Override
     public Object executeGeneric(final VirtualFrame frame) {
+      if (frameOnStackMarker == null) {
+        return executeWithLocalReturnsOnly(frame);
+      }
+
       FrameOnStackMarker marker = new FrameOnStackMarker();
+      count(markers);
       frame.getFrameDescriptor().setFrameSlotKind(frameOnStackMarker, FrameSlotKind.Object);
       frame.setObject(frameOnStackMarker, marker);
 
@@ -197,7 +215,7 @@ public final class ReturnNonLocalNode extends ContextualNode {
         return methodBody.executeGeneric(frame);
       } catch (ReturnException e) {
         nonLocalReturnHandler.enter();
-        if (!e.reachedTarget(marker)) {
+        if (!e.isLocal() && !e.reachedTarget(marker)) {
           doPropagate.enter();
           marker.frameNoLongerOnStack();
           throw e;
@@ -210,8 +228,26 @@ public final class ReturnNonLocalNode extends ContextualNode {
       }
     }
 
+    private Object executeWithLocalReturnsOnly(final VirtualFrame frame) {
+      try {
+        return methodBody.executeGeneric(frame);
+      } catch (ReturnException e) {
+        nonLocalReturnHandler.enter();
+        if (!e.isLocal()) {
+          // returns from a block of some other method, called by this one
+          doPropagate.enter();
+          throw e;
+        }
+        doCatch.enter();
+        return e.result();
+      }
+    }
+
     @Override
     public void replaceWithIndependentCopyForInlining(final SplitterForLexicallyEmbeddedCode inliner) {
+      if (frameOnStackMarker == null) {
+        return;
+      }
       FrameSlot inlinedFrameOnStackMarker = inliner.getLocalFrameSlot(frameOnStackMarker.getIdentifier());
       assert inlinedFrameOnStackMarker != null;
       replace(new CatchNonLocalReturnNode(methodBody, inlinedFrameOnStackMarker).initialize(getSourceSection()));
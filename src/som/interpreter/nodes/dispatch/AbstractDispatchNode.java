@@ -12,6 +12,7 @@ import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.source.SourceSection;
 
 import som.instrumentation.DispatchNodeWrapper;
+import som.interpreter.nodes.MessageSendNode.GenericMessageSendNode;
 import som.vm.constants.ExecutionLevel;
 import som.vmobjects.SInvokable;
 
@@ -51,6 +52,26 @@ public abstract class AbstractDispatchNode extends Node implements DispatchChain
   public abstract Object executeDispatch(
       VirtualFrame frame, DynamicObject environment, ExecutionLevel exLevel, Object[] arguments);
 
+  /**
+   * Dispatch chains are changed while holding the AST lock. A node that
+   * waited for the lock needs to check whether another thread replaced it
+   * in the meantime.
+   *
+   * @return the node that replaced this one in its parent, or null
+   */
+  protected final AbstractDispatchNode replacementInParent() {
+    Node parent = getParent();
+    AbstractDispatchNode current;
+    if (parent instanceof AbstractCachedDispatchNode) {
+      current = ((AbstractCachedDispatchNode) parent).nextInCache;
+    } else if (parent instanceof GenericMessageSendNode) {
+      current = ((GenericMessageSendNode) parent).getDispatchListHead();
+    } else {
+      return null;
+    }
+    return current == this ? null : current;
+  }
+
   public abstract static class AbstractCachedDispatchNode
       extends AbstractDispatchNode {
 
@@ -72,6 +93,15 @@ public abstract class AbstractDispatchNode extends Node implements DispatchChain
       this.adoptChildren();
     }
 
+    /** Takes over the call node of an entry this one replaces, including its split. */
+    protected AbstractCachedDispatchNode(final DirectCallNode cachedMethod,
+        final AbstractDispatchNode nextInCache) {
+      super(nextInCache.sourceSection);
+      this.cachedMethod = cachedMethod;
+      this.nextInCache  = nextInCache;
+      this.adoptChildren();
+    }
+
     @Override
     public final int lengthOfDispatchChain() {
       return 1 + nextInCache.lengthOfDispatchChain();
@@ -20,6 +20,17 @@ public abstract class BlockDispatchNode extends Node {
   public static final int INLINE_CACHE_SIZE = 4;
   public abstract Object executeDispatch(VirtualFrame frame, Object[] arguments);
 
+  private boolean forceInlining;
+
+  /**
+   * Blocks that get a direct call are always inlined, which is used for
+   * blocks that can not escape, see
+   * {@link som.interpreter.nodes.specialized.LiteralBlockSplzr}.
+   */
+  public final void forceInlining() {
+    forceInlining = true;
+  }
+
   protected static final boolean isSameMethod(final Object[] arguments,
       final DynamicObject cached) {
     if (!(arguments[0] instanceof SBlock)) {
@@ -34,10 +45,14 @@ public abstract class BlockDispatchNode extends Node {
     return method;
   }
 
-  protected static final DirectCallNode createCallNode(final Object[] arguments,
+  protected final DirectCallNode createCallNode(final Object[] arguments,
       final VirtualFrame frame) {
-    return Truffle.getRuntime().createDirectCallNode(
+    DirectCallNode call = Truffle.getRuntime().createDirectCallNode(
         SInvokable.getCallTarget(getMethod(arguments), SArguments.getExecutionLevel(frame)));
+    if (forceInlining) {
+      call.forceInlining();
+    }
+    return call;
   }
 
   @Specialization(guards = "isSameMethod(arguments, cached)", limit = "INLINE_CACHE_SIZE")
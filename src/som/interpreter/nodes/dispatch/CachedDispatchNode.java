@@ -1,5 +1,8 @@
 package som.interpreter.nodes.dispatch;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.InvalidAssumptionException;
@@ -12,20 +15,34 @@ import som.vm.constants.ExecutionLevel;
 
 
 public class CachedDispatchNode extends AbstractCachedDispatchNode {
+  private static final AtomicLong numberOfMergedEntries = new AtomicLong();
+
   final ConditionProfile morphicness = ConditionProfile.createBinaryProfile();
   protected final DispatchGuard guard;
+  protected final DynamicObject cachedInvokable;
+  protected final boolean shouldSplit;
+  protected final ExecutionLevel level;
 
   public CachedDispatchNode(final DispatchGuard guard, final DynamicObject methodToCall,
       final AbstractDispatchNode nextInCache, final boolean shouldSplit, final ExecutionLevel level) {
     super(methodToCall, nextInCache, level);
     this.guard = guard;
+    this.cachedInvokable = methodToCall;
+    this.level = level;
     /*if (VmSettings.DYNAMIC_METRICS) {
       this.cachedMethod = insert(new InstrumentableDirectCallNode(cachedMethod,
           nextInCache.getSourceSection()));
     }*/
-    if (shouldSplit) {
-      cachedMethod.cloneCallTarget();
-    }
+    this.shouldSplit = shouldSplit && SplittingPolicy.split(cachedMethod, methodToCall);
+  }
+
+  /** Reuses the call node of <code>entry</code>, which is already split if needed. */
+  protected CachedDispatchNode(final DispatchGuard guard, final CachedDispatchNode entry) {
+    super(entry.cachedMethod, entry.nextInCache);
+    this.guard = guard;
+    this.cachedInvokable = entry.cachedInvokable;
+    this.shouldSplit = entry.shouldSplit;
+    this.level = entry.level;
   }
 
   @Override
@@ -39,9 +56,48 @@ public class CachedDispatchNode extends AbstractCachedDispatchNode {
         return nextInCache.executeDispatch(frame, environment, exLevel, arguments);
       }
     } catch (InvalidAssumptionException e) {
-      CompilerDirectives.transferToInterpreter();
-      return replace(nextInCache).
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      return atomic(this::dropOrGeneralize).
           executeDispatch(frame, environment, exLevel, arguments);
     }
   }
+
+  private AbstractDispatchNode dropOrGeneralize() {
+    AbstractDispatchNode replacement = replacementInParent();
+    if (replacement != null) {
+      // another thread updated this entry while we waited for the lock
+      return replacement;
+    }
+    if (guard.generalize() != null) {
+      // the shape became obsolete, but the class is still the same
+      return generalizeGuard();
+    }
+    return replace(nextInCache);
+  }
+
+  /**
+   * Whether this entry can take over the receiver by generalizing its guard,
+   * instead of adding another entry for the same method to the chain.
+   */
+  public boolean canBeMergedWith(final Object rcvr, final DynamicObject method) {
+    return cachedInvokable == method && guard.generalizationMatches(rcvr);
+  }
+
+  public CachedDispatchNode generalizeGuard() {
+    CompilerAsserts.neverPartOfCompilation("CachedDispatchNode.generalizeGuard");
+    numberOfMergedEntries.incrementAndGet();
+    return replace(withGuard(guard.generalize()));
+  }
+
+  protected CachedDispatchNode withGuard(final DispatchGuard newGuard) {
+    return new CachedDispatchNode(newGuard, this);
+  }
+
+  public AbstractDispatchNode getNextInCache() {
+    return nextInCache;
+  }
+
+  public static long getNumberOfMergedEntries() {
+    return numberOfMergedEntries.get();
+  }
 }
@@ -15,6 +15,24 @@ import som.vmobjects.SReflectiveObject;
 public abstract class DispatchGuard {
   public abstract boolean entryMatches(Object obj) throws InvalidAssumptionException;
 
+  /**
+   * Returns a guard that is based on the SOM class of the receiver instead of
+   * its exact shape, or <code>null</code> if the guard does not support it.
+   * The new guard accepts all receivers of the same class, independent of the
+   * shape transitions their fields go through.
+   */
+  public DispatchGuard generalize() {
+    return null;
+  }
+
+  /**
+   * Whether {@link #generalize()} would give a guard that also accepts the
+   * given receiver.
+   */
+  public boolean generalizationMatches(final Object rcvr) {
+    return false;
+  }
+
   public static DispatchGuard create(final Object obj) {
     if (obj == Boolean.TRUE) {
       return new CheckTrue();
@@ -93,6 +111,19 @@ public abstract class DispatchGuard {
       this.expected = expected;
     }
 
+    @Override
+    public DispatchGuard generalize() {
+      return new CheckSObjectClass(SObject.getSOMClass(expected.getObjectType()));
+    }
+
+    @Override
+    public boolean generalizationMatches(final Object rcvr) {
+      return rcvr instanceof DynamicObject &&
+          SObject.isSObject((DynamicObject) rcvr) &&
+          !SReflectiveObject.isSReflectiveObject((DynamicObject) rcvr) &&
+          SObject.getSOMClass((DynamicObject) rcvr) == SObject.getSOMClass(expected.getObjectType());
+    }
+
   @Override
   public boolean entryMatches(final Object obj) throws InvalidAssumptionException {
     if (!expected.isValid()) {
@@ -104,6 +135,25 @@ public abstract class DispatchGuard {
   }
   }
 
+  /**
+   * Checks only the SOM class stored in the object type of the receiver's
+   * shape. Obsolete shapes of the same class still match.
+   */
+  private static final class CheckSObjectClass extends DispatchGuard {
+    private final DynamicObject klass;
+
+    CheckSObjectClass(final DynamicObject klass) {
+      this.klass = klass;
+    }
+
+    @Override
+    public boolean entryMatches(final Object obj) throws InvalidAssumptionException {
+      return obj instanceof DynamicObject &&
+          SObject.isSObject((DynamicObject) obj) &&
+          SObject.getSOMClass((DynamicObject) obj) == klass;
+    }
+  }
+
   private static final class CheckSReflectiveObject extends CheckSObject {
     private final DynamicObject klass;
     protected final BranchProfile polymorphicChain = BranchProfile.create();
@@ -113,6 +163,17 @@ public abstract class DispatchGuard {
       this.klass = ((SObjectType) (expected.getObjectType())).getKlass();
     }
 
+    @Override
+    public DispatchGuard generalize() {
+      // already falls back to the class of the receiver
+      return null;
+    }
+
+    @Override
+    public boolean generalizationMatches(final Object rcvr) {
+      return false;
+    }
+
     @Override
     public boolean entryMatches(final Object obj) throws InvalidAssumptionException {
       
@@ -10,9 +10,9 @@ import com.oracle.truffle.api.source.SourceSection;
 
 import som.interpreter.SArguments;
 import som.interpreter.Types;
+import som.vm.GlobalMethodCache;
 import som.vm.constants.ExecutionLevel;
 import som.vmobjects.SArray;
-import som.vmobjects.SClass;
 import som.vmobjects.SInvokable;
 import som.vmobjects.SInvokable.SMethod;
 import som.vmobjects.SSymbol;
@@ -34,7 +34,7 @@ public class GenericDispatchNode extends AbstractDispatchNode {
       final DynamicObject environment, final ExecutionLevel exLevel, final Object[] arguments) {
     Object rcvr = arguments[0];
     DynamicObject rcvrClass = Types.getClassOf(rcvr);
-    DynamicObject method = SClass.lookupInvokable(rcvrClass, selector);
+    DynamicObject method = GlobalMethodCache.lookup(rcvrClass, selector);
 
     CallTarget target;
     Object[] args;
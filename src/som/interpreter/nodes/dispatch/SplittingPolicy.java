@@ -0,0 +1,108 @@
+package som.interpreter.nodes.dispatch;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.NodeCost;
+import com.oracle.truffle.api.nodes.NodeUtil;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.VmSettings;
+import som.interpreter.Invokable;
+import som.vm.Universe;
+import som.vmobjects.SInvokable;
+import som.vmobjects.SInvokable.SMethod;
+import som.vmobjects.SSymbol;
+
+/**
+ * Decides whether a send site calls its own copy of a method.
+ *
+ * <p>A copy pays off for methods that are shared by many callers, like
+ * <code>do:</code> or <code>inject:into:</code>, which made the sends in
+ * them polymorphic. A copy starts out uninitialized, and only sees the
+ * receivers and blocks of its caller. Thus, a method is split for a new
+ * caller when some of its sends are polymorphic at the time the caller's
+ * dispatch chain caches it.
+ *
+ * <p>Methods larger than <code>som.splittingMaxMethodSize</code> AST nodes
+ * are not split, and all copies together are limited to
+ * <code>som.splittingBudget</code> nodes.
+ */
+public final class SplittingPolicy {
+  private static final AtomicLong splitNodes        = new AtomicLong();
+  private static final AtomicLong splitMethods      = new AtomicLong();
+  private static final AtomicLong rejectedForSize   = new AtomicLong();
+  private static final AtomicLong rejectedForBudget = new AtomicLong();
+
+  private SplittingPolicy() {}
+
+  /** @return whether a send site of <code>selector</code> is to call a copy of <code>method</code> */
+  public static boolean shouldSplit(final SSymbol selector, final DynamicObject method) {
+    CompilerAsserts.neverPartOfCompilation("SplittingPolicy.shouldSplit");
+    if (!SMethod.isSMethod(method)) {
+      return false;
+    }
+    // the objects allocated by a copy of new get their own shapes
+    return selector.getString().equals("new")
+        || hasPolymorphicSends(SInvokable.getInvokable(method));
+  }
+
+  /**
+   * Makes <code>callNode</code> call its own copy of <code>method</code>, if
+   * the method is small enough and the budget allows.
+   *
+   * @return whether the call target was cloned
+   */
+  public static boolean split(final DirectCallNode callNode, final DynamicObject method) {
+    CompilerAsserts.neverPartOfCompilation("SplittingPolicy.split");
+    int size = NodeUtil.countNodes(SInvokable.getInvokable(method));
+    if (size > VmSettings.SPLITTING_MAX_METHOD_SIZE) {
+      rejectedForSize.incrementAndGet();
+      return false;
+    }
+    if (!reserve(size)) {
+      rejectedForBudget.incrementAndGet();
+      return false;
+    }
+    if (!callNode.cloneCallTarget()) {
+      splitNodes.addAndGet(-size);
+      return false;
+    }
+    splitMethods.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * The cost of a send is the one of its dispatch chain, the nodes of the
+   * chain report {@link NodeCost#NONE} themselves.
+   */
+  private static boolean hasPolymorphicSends(final Invokable invokable) {
+    boolean[] found = new boolean[1];
+    invokable.accept(node -> {
+      if (node instanceof DispatchChain && !(node.getParent() instanceof DispatchChain)) {
+        NodeCost cost = DispatchChain.Cost.getCost((DispatchChain) node);
+        if (cost == NodeCost.POLYMORPHIC || cost == NodeCost.MEGAMORPHIC) {
+          found[0] = true;
+          return false;
+        }
+      }
+      return true;
+    });
+    return found[0];
+  }
+
+  private static boolean reserve(final int size) {
+    if (splitNodes.addAndGet(size) > VmSettings.SPLITTING_BUDGET) {
+      splitNodes.addAndGet(-size);
+      return false;
+    }
+    return true;
+  }
+
+  public static void reportStatistics() {
+    Universe.errorPrintln("Splitting: " + splitMethods.get() + " call targets split with "
+        + splitNodes.get() + " nodes, " + rejectedForSize.get() + " rejected for size, "
+        + rejectedForBudget.get() + " rejected for budget");
+  }
+}
@@ -7,7 +7,6 @@ import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.source.SourceSection;
 
-import som.interpreter.SArguments;
 import som.interpreter.Types;
 import som.interpreter.nodes.MessageSendNode.GenericMessageSendNode;
 import som.vm.constants.ExecutionLevel;
@@ -23,7 +22,13 @@ public class UninitializedDispatchNode extends AbstractDispatchNode {
     this.selector = selector;
   }
 
-  private AbstractDispatchNode specialize(final VirtualFrame frame, final Object[] arguments) {
+  private AbstractDispatchNode specialize(final ExecutionLevel level, final Object[] arguments) {
+    AbstractDispatchNode replacement = replacementInParent();
+    if (replacement != null) {
+      // another thread specialized this node while we waited for the lock
+      return replacement;
+    }
+
     // Determine position in dispatch node chain, i.e., size of inline cache
     Node i = this;
     int chainDepth = 0;
@@ -35,17 +40,25 @@ public class UninitializedDispatchNode extends AbstractDispatchNode {
     Object rcvr = arguments[0];
     assert rcvr != null;
 
+    DynamicObject rcvrClass = Types.getClassOf(rcvr);
+    DynamicObject method = SClass.lookupInvokable(rcvrClass, selector);
+
+    // Receivers of the same class that only differ in their shape reuse
+    // the existing entry, which keeps the send site monomorphic.
+    CachedDispatchNode mergeable = findMergeableEntry(first, rcvr, method);
+    if (mergeable != null) {
+      return mergeable.generalizeGuard();
+    }
+
     if (chainDepth < INLINE_CACHE_SIZE) {
-      DynamicObject rcvrClass = Types.getClassOf(rcvr);
-      DynamicObject method = SClass.lookupInvokable(rcvrClass, selector);
       UninitializedDispatchNode newChainEnd = this.uninitializedNode(this.sourceSection, selector);
       DispatchGuard guard = DispatchGuard.create(rcvr);
       AbstractCachedDispatchNode node;
       if (method != null) {
-        boolean shouldSplit = selector.getString().equals("new") ? true : false;
-        node = this.cacheNode(guard, method, newChainEnd, shouldSplit, SArguments.getExecutionLevel(frame));
+        boolean shouldSplit = SplittingPolicy.shouldSplit(selector, method);
+        node = this.cacheNode(guard, method, newChainEnd, shouldSplit, level);
       } else {
-        node = new CachedDnuNode(rcvrClass, guard, selector, newChainEnd, SArguments.getExecutionLevel(frame));
+        node = new CachedDnuNode(rcvrClass, guard, selector, newChainEnd, level);
       }
       replace(node);
       return node;
@@ -60,11 +73,27 @@ public class UninitializedDispatchNode extends AbstractDispatchNode {
     return genericReplacement;
   }
 
+  private static CachedDispatchNode findMergeableEntry(final AbstractDispatchNode first,
+      final Object rcvr, final DynamicObject method) {
+    if (method == null) {
+      return null;
+    }
+    AbstractDispatchNode node = first;
+    while (node instanceof CachedDispatchNode) {
+      CachedDispatchNode cached = (CachedDispatchNode) node;
+      if (cached.canBeMergedWith(rcvr, method)) {
+        return cached;
+      }
+      node = cached.getNextInCache();
+    }
+    return null;
+  }
+
   @Override
   public Object executeDispatch(final VirtualFrame frame,
       final DynamicObject environment, final ExecutionLevel exLevel, final Object[] arguments) {
     transferToInterpreterAndInvalidate("Initialize a dispatch node.");
-    return specialize(frame, arguments).
+    return atomic(() -> specialize(exLevel, arguments)).
         executeDispatch(frame, environment, exLevel, arguments);
   }
 
@@ -1,11 +1,15 @@
 package som.interpreter.nodes.literals;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.object.DynamicObject;
 
+import som.VmSettings;
 import som.compiler.MethodGenerationContext;
 import som.compiler.Variable.Local;
 import som.interpreter.InlinerAdaptToEmbeddedOuterContext;
@@ -24,13 +28,58 @@ import som.vmobjects.SInvokable;
 
 public class BlockNode extends LiteralNode {
 
+  private static final AtomicLong blocksWithoutContext = new AtomicLong();
+  private static final AtomicLong blocksWithContext    = new AtomicLong();
+  private static final AtomicLong nonEscapingBlocks    = new AtomicLong();
+
   protected final DynamicObject blockMethod;
   @CompilationFinal protected DynamicObject blockClass;
 
+  /**
+   * The block is only passed to a primitive that activates it within this
+   * activation, see {@link som.interpreter.nodes.specialized.LiteralBlockSplzr}.
+   */
+  protected boolean nonEscaping;
+
   public BlockNode(final DynamicObject blockMethod) {
     this.blockMethod = blockMethod;
   }
 
+  public DynamicObject getBlockMethod() {
+    return blockMethod;
+  }
+
+  public void markAsNonEscaping() {
+    nonEscaping = true;
+  }
+
+  protected final void countBlock(final boolean withContext) {
+    if (VmSettings.PRINT_STATISTICS) {
+      countBlock(withContext, nonEscaping);
+    }
+  }
+
+  @TruffleBoundary
+  private static void countBlock(final boolean withContext, final boolean nonEscaping) {
+    if (!withContext) {
+      blocksWithoutContext.incrementAndGet();
+    } else if (nonEscaping) {
+      nonEscapingBlocks.incrementAndGet();
+    } else {
+      blocksWithContext.incrementAndGet();
+    }
+  }
+
+  /**
+   * Blocks with a context that are not known to be non-escaping are the
+   * ones for which the frame remains materialized in compiled code.
+   */
+  public static void reportStatistics() {
+    Universe.errorPrintln("Blocks created: " + blocksWithoutContext.get() + " without context, "
+        + blocksWithContext.get() + " with materialized context, "
+        + nonEscapingBlocks.get() + " with non-escaping context");
+  }
+
   protected void setBlockClass() {
     switch (SInvokable.getNumberOfArguments(blockMethod)) {
       case 1: blockClass = Universe.getCurrent().getBlockClass(1); break;
@@ -48,6 +97,7 @@ public class BlockNode extends LiteralNode {
       CompilerDirectives.transferToInterpreter();
       setBlockClass();
     }
+    countBlock(false);
     return Universe.newBlock(blockMethod, blockClass, null);
   }
 
@@ -91,7 +141,9 @@ public class BlockNode extends LiteralNode {
         Universe.newMethod(
           MethodLayoutImpl.INSTANCE.getSignature(blockMethod), adaptedForContext, false,
           MethodLayoutImpl.INSTANCE.getEmbeddedBlocks(blockMethod));
-    replace(createNode(adapted));
+    BlockNode node = createNode(adapted);
+    node.nonEscaping = nonEscaping;
+    replace(node);
   }
 
   protected BlockNode createNode(final DynamicObject adapted) {
@@ -123,6 +175,7 @@ public class BlockNode extends LiteralNode {
     public BlockNodeWithContext(final BlockNodeWithContext node) {
       this(node.blockMethod);
       initialize(node.getSourceSection());
+      nonEscaping = node.nonEscaping;
     }
 
     @Override
@@ -131,6 +184,7 @@ public class BlockNode extends LiteralNode {
         CompilerDirectives.transferToInterpreter();
         setBlockClass();
       }
+      countBlock(true);
       return Universe.newBlock(blockMethod, blockClass, frame.materialize());
     }
 
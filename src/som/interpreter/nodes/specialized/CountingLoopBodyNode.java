@@ -0,0 +1,91 @@
+package som.interpreter.nodes.specialized;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameUtil;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.LoopNode;
+
+import som.interpreter.SArguments;
+
+/**
+ * Body of a loop over a range of integers, like <code>to:do:</code> or
+ * <code>do:</code> on an array, whose iterations activate blocks.
+ *
+ * <p>The loop runs in a frame of its own. Its arguments follow the
+ * {@link SArguments} layout, so that the environment and execution level of
+ * the loop's method are available to block dispatch nodes, followed by the
+ * values the body needs. The index and bounds are kept in slots, which makes
+ * all of it available in an OSR compiled loop as well. Each loop has a frame
+ * descriptor of its own, so that the slots of unrelated loops do not share
+ * their kinds and versions.
+ */
+public abstract class CountingLoopBodyNode extends LoopBodyNode {
+  private static final int STATE_OFFSET = SArguments.RCVR_IDX;
+
+  private final FrameDescriptor loopFrame;
+  private final FrameSlot index;
+  private final FrameSlot limit;
+  private final FrameSlot step;
+
+  protected CountingLoopBodyNode() {
+    loopFrame = new FrameDescriptor();
+    index = loopFrame.addFrameSlot("index", FrameSlotKind.Long);
+    limit = loopFrame.addFrameSlot("limit", FrameSlotKind.Long);
+    step  = loopFrame.addFrameSlot("step",  FrameSlotKind.Long);
+  }
+
+  /**
+   * Runs <code>loop</code>, which needs to have a {@link CountingLoopBodyNode},
+   * for <code>from</code>, <code>from + step</code>, ... as long as the index
+   * did not pass <code>limit</code>. <code>step</code> must not be 0.
+   *
+   * @param state values for the body, see {@link #getState(VirtualFrame, int)}
+   */
+  public static void executeLoop(final LoopNode loop, final VirtualFrame frame,
+      final long from, final long limit, final long step, final Object... state) {
+    if (step > 0 ? from > limit : from < limit) {
+      return;
+    }
+    Object[] arguments = new Object[STATE_OFFSET + state.length];
+    arguments[0] = SArguments.getEnvironment(frame);
+    arguments[1] = SArguments.getExecutionLevel(frame);
+    System.arraycopy(state, 0, arguments, STATE_OFFSET, state.length);
+
+    CountingLoopBodyNode body = (CountingLoopBodyNode) loop.getRepeatingNode();
+    VirtualFrame loopFrame = Truffle.getRuntime().createVirtualFrame(arguments, body.loopFrame);
+    loopFrame.setLong(body.index, from);
+    loopFrame.setLong(body.limit, limit);
+    loopFrame.setLong(body.step,  step);
+    try {
+      loop.executeLoop(loopFrame);
+    } finally {
+      body.loopDone();
+    }
+  }
+
+  protected static Object getState(final VirtualFrame loopFrame, final int idx) {
+    return loopFrame.getArguments()[STATE_OFFSET + idx];
+  }
+
+  /** Executes the iteration for index <code>i</code>. */
+  protected abstract void executeBody(VirtualFrame loopFrame, long i);
+
+  @Override
+  public final boolean executeRepeating(final VirtualFrame loopFrame) {
+    long i = FrameUtil.getLongSafe(loopFrame, index);
+    executeBody(loopFrame, i);
+    countIteration();
+
+    long to = FrameUtil.getLongSafe(loopFrame, limit);
+    long by = FrameUtil.getLongSafe(loopFrame, step);
+    // written this way to not overflow when the limit is close to the range of long
+    if (by > 0 ? i > to - by : i < to - by) {
+      return false;
+    }
+    loopFrame.setLong(index, i + by);
+    return true;
+  }
+}
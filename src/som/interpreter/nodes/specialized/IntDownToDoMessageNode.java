@@ -1,47 +1,48 @@
 package som.interpreter.nodes.specialized;
 
-import com.oracle.truffle.api.CompilerAsserts;
-import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.Tag;
-import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.nodes.Node;
-import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.object.DynamicObject;
 
 import bd.primitives.Primitive;
 import bd.primitives.nodes.WithContext;
-import som.interpreter.Invokable;
 import som.interpreter.SArguments;
 import som.interpreter.nodes.nary.TernaryExpressionNode;
 import som.interpreter.nodes.specialized.IntToDoMessageNode.ToDoSplzr;
+import som.interpreter.nodes.specialized.LiteralBlockSplzr.InlinesLiteralBlock;
 import som.vm.Universe;
 import som.vmobjects.SBlock;
 import som.vmobjects.SInvokable;
 import tools.dym.Tags.LoopNode;
 
-@Primitive(primitive = "downTo:do:", selector = "downTo:do:", noWrapper = true, disabled = true,
+@Primitive(primitive = "downTo:do:", selector = "downTo:do:",
            requiresArguments = true, specializer = ToDoSplzr.class)
 @GenerateNodeFactory
 public abstract class IntDownToDoMessageNode extends TernaryExpressionNode
-  implements WithContext<IntDownToDoMessageNode, Universe> {
+  implements WithContext<IntDownToDoMessageNode, Universe>, InlinesLiteralBlock {
 
   private final DynamicObject blockMethod;
-  @Child private DirectCallNode valueSend;
+  @Child private com.oracle.truffle.api.nodes.LoopNode loop;
 
 
   @Override
   public IntDownToDoMessageNode initialize(final Universe vm) {
-    valueSend = Truffle.getRuntime().createDirectCallNode(
+    loop = Truffle.getRuntime().createLoopNode(new ToDoBodyNode(
         SInvokable.getCallTarget(blockMethod,
-            SArguments.getExecutionLevel(vm.getTruffleRuntime().getCurrentFrame().getFrame(FrameAccess.READ_ONLY))));
+            SArguments.getExecutionLevel(vm.getTruffleRuntime().getCurrentFrame().getFrame(FrameAccess.READ_ONLY)))));
     return this;
   };
 
+  @Override
+  public void inlineBlock() {
+    ((ToDoBodyNode) loop.getRepeatingNode()).inlineBlock();
+  }
+
   public IntDownToDoMessageNode(final Object[] args) {
     blockMethod = ((SBlock) args[2]).getMethod();
   }
@@ -52,18 +53,7 @@ public abstract class IntDownToDoMessageNode extends TernaryExpressionNode
 
   @Specialization(guards = "isSameBlockLong(block)")
   public final long doIntDownToDo(final VirtualFrame frame, final long receiver, final long limit, final SBlock block) {
-    try {
-      if (receiver >= limit) {
-        valueSend.call(new Object[] {SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame), block, receiver});
-      }
-      for (long i = receiver - 1; i >= limit; i--) {
-        valueSend.call(new Object[] {SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame), block, i});
-      }
-    } finally {
-      if (CompilerDirectives.inInterpreter() && (receiver - limit) > 0) {
-        reportLoopCount(receiver - limit);
-      }
-    }
+    CountingLoopBodyNode.executeLoop(loop, frame, receiver, limit, -1, block);
     return receiver;
   }
 
@@ -73,32 +63,11 @@ public abstract class IntDownToDoMessageNode extends TernaryExpressionNode
 
   @Specialization(guards = "isSameBlockDouble(block)")
   public final long doIntDownToDo(final VirtualFrame frame, final long receiver, final double limit, final SBlock block) {
-    try {
-      if (receiver >= limit) {
-        valueSend.call(new Object[] {block, receiver});
-      }
-      for (long i = receiver - 1; i >= limit; i--) {
-        valueSend.call(new Object[] {block, i});
-      }
-    } finally {
-      if (CompilerDirectives.inInterpreter() && (receiver - (int) limit) > 0) {
-        reportLoopCount(receiver - (int) limit);
-      }
-    }
+    // i >= limit holds for the same integers as i >= ceil(limit)
+    CountingLoopBodyNode.executeLoop(loop, frame, receiver, (long) Math.ceil(limit), -1, block);
     return receiver;
   }
 
-  private void reportLoopCount(final long count) {
-    CompilerAsserts.neverPartOfCompilation("reportLoopCount");
-    Node current = getParent();
-    while (current != null && !(current instanceof RootNode)) {
-      current = current.getParent();
-    }
-    if (current != null) {
-      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
-    }
-  }
-
   @Override
   public Node asMateNode() {
     Universe.getCurrent().mateifyMethod(blockMethod);
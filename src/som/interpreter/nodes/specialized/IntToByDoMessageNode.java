@@ -1,45 +1,65 @@
 package som.interpreter.nodes.specialized;
 
-import com.oracle.truffle.api.CompilerAsserts;
-import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.Tag;
-import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.object.DynamicObject;
 
 import bd.primitives.Primitive;
 import bd.primitives.nodes.WithContext;
-import som.interpreter.Invokable;
 import som.interpreter.SArguments;
+import som.interpreter.nodes.ExpressionNode;
 import som.interpreter.nodes.nary.QuaternaryExpressionNode;
+import som.interpreter.nodes.specialized.IntToByDoMessageNode.ToByDoSplzr;
+import som.interpreter.nodes.specialized.LiteralBlockSplzr.InlinesLiteralBlock;
 import som.vm.Universe;
 import som.vmobjects.SBlock;
 import som.vmobjects.SInvokable;
 import tools.dym.Tags.LoopNode;
 
-//Should have noWrapper = true?
-@Primitive(selector = "to:by:do:", disabled = true,
+@Primitive(selector = "to:by:do:", specializer = ToByDoSplzr.class,
            requiresArguments = true)
 @GenerateNodeFactory
 public abstract class IntToByDoMessageNode extends QuaternaryExpressionNode
-  implements WithContext<IntToByDoMessageNode, Universe> {
+  implements WithContext<IntToByDoMessageNode, Universe>, InlinesLiteralBlock {
+
+  public static class ToByDoSplzr extends LiteralBlockSplzr {
+    public ToByDoSplzr(final Primitive prim, final NodeFactory<ExpressionNode> fact) {
+      super(prim, fact, 3);
+    }
+
+    @Override
+    public boolean matches(final Object[] args,
+        final ExpressionNode[] argNodes) {
+      // a step of 0 loops forever, which is left to the library code
+      return args[0] instanceof Long &&
+          (args[1] instanceof Long || args[1] instanceof Double) &&
+          args[2] instanceof Long && (long) args[2] != 0 &&
+          IntToDoMessageNode.isBlockWithOneArgument(args[3]);
+    }
+  }
 
   private final DynamicObject blockMethod;
-  @Child private DirectCallNode valueSend;
+  @Child private com.oracle.truffle.api.nodes.LoopNode loop;
 
   @Override
   public IntToByDoMessageNode initialize(final Universe vm) {
-    valueSend = Truffle.getRuntime().createDirectCallNode(
+    loop = Truffle.getRuntime().createLoopNode(new ToDoBodyNode(
         SInvokable.getCallTarget(blockMethod,
-            SArguments.getExecutionLevel(vm.getTruffleRuntime().getCurrentFrame().getFrame(FrameAccess.READ_ONLY))));
+            SArguments.getExecutionLevel(vm.getTruffleRuntime().getCurrentFrame().getFrame(FrameAccess.READ_ONLY)))));
     return this;
   };
 
+  @Override
+  public void inlineBlock() {
+    ((ToDoBodyNode) loop.getRepeatingNode()).inlineBlock();
+  }
+
   public IntToByDoMessageNode(final Object[] args) {
     blockMethod = ((SBlock) args[3]).getMethod();
   }
@@ -52,60 +72,28 @@ public abstract class IntToByDoMessageNode extends QuaternaryExpressionNode
     return block.getMethod() == blockMethod;
   }
 
-  @Specialization(guards = "isSameBlockLong(block)")
+  protected static final boolean isNotZero(final long step) {
+    return step != 0;
+  }
+
+  @Specialization(guards = {"isSameBlockLong(block)", "isNotZero(step)"})
   public final long doIntToByDo(final VirtualFrame frame, final long receiver, final long limit, final long step, final SBlock block) {
-    try {
-      if (step > 0) {
-        if (receiver <= limit) {
-          valueSend.call(new Object[] {SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame), block, receiver});
-          for (long i = receiver + step; i <= limit; i += step) {
-            valueSend.call(new Object[] {SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame), block, i});
-          }
-        }
-      } else {
-        if (receiver >= limit) {
-          valueSend.call(new Object[] {SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame), block, receiver});
-          for (long i = receiver + step; i >= limit; i += step) {
-            valueSend.call(new Object[] {SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame), block, i});
-          }
-        }
-      }
-    } finally {
-      long count = Math.abs(limit) - Math.abs(receiver);
-      if (CompilerDirectives.inInterpreter() && count > 0) {
-        reportLoopCount(count);
-      }
-    }
+    CountingLoopBodyNode.executeLoop(loop, frame, receiver, limit, step, block);
     return receiver;
   }
 
-  @Specialization(guards = "isSameBlockDouble(block)")
+  @Specialization(guards = {"isSameBlockDouble(block)", "isNotZero(step)"})
   public final long doIntToByDo(final VirtualFrame frame, final long receiver, final double limit, final long step, final SBlock block) {
-    try {
-      if (receiver <= limit) {
-        valueSend.call(new Object[] {SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame), block, receiver});
-        for (long i = receiver + step; i <= limit; i += step) {
-          valueSend.call(new Object[] {SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame), block, i});
-        }
-      }
-    } finally {
-      long count = (long) (Math.abs(limit) - Math.abs(receiver));
-      if (CompilerDirectives.inInterpreter() && count > 0) {
-        reportLoopCount(count);
-      }
-    }
+    // the integers that do not pass limit are the same as for floor(limit), or ceil(limit) when counting down
+    long intLimit = (long) (step > 0 ? Math.floor(limit) : Math.ceil(limit));
+    CountingLoopBodyNode.executeLoop(loop, frame, receiver, intLimit, step, block);
     return receiver;
   }
 
-  protected final void reportLoopCount(final long count) {
-    CompilerAsserts.neverPartOfCompilation("reportLoopCount");
-    Node current = getParent();
-    while (current != null && !(current instanceof Invokable)) {
-      current = current.getParent();
-    }
-    if (current != null) {
-      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
-    }
+  @Override
+  public Node asMateNode() {
+    Universe.getCurrent().mateifyMethod(blockMethod);
+    return super.asMateNode();
   }
 
   @Override
@@ -1,20 +1,18 @@
 package som.interpreter.nodes.specialized;
 
-import com.oracle.truffle.api.CompilerAsserts;
-import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.NodeChild;
 import com.oracle.truffle.api.dsl.NodeChildren;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameUtil;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.nodes.Node;
-import com.oracle.truffle.api.nodes.RootNode;
 
 import som.interpreter.InlinerAdaptToEmbeddedOuterContext;
 import som.interpreter.InlinerForLexicallyEmbeddedMethods;
-import som.interpreter.Invokable;
 import som.interpreter.MateifyVisitor;
 import som.interpreter.SplitterForLexicallyEmbeddedCode;
 import som.interpreter.nodes.ExpressionNode;
@@ -26,7 +24,7 @@ import tools.dym.Tags.LoopNode;
   @NodeChild(value = "to",  type = ExpressionNode.class)})
 public abstract class IntToDoInlinedLiteralsNode extends ExpressionWithTagsNode {
 
-  @Child protected ExpressionNode body;
+  @Child private com.oracle.truffle.api.nodes.LoopNode loop;
 
   // In case we need to revert from this optimistic optimization, keep the
   // original node around
@@ -34,77 +32,84 @@ public abstract class IntToDoInlinedLiteralsNode extends ExpressionWithTagsNode
 
   private final FrameSlot loopIndex;
 
+  /** Holds the upper bound while the loop is running. */
+  private final FrameSlot loopLimit;
+
   public abstract ExpressionNode getFrom();
   public abstract ExpressionNode getTo();
 
   public IntToDoInlinedLiteralsNode(final ExpressionNode body,
       final FrameSlot loopIndex, final ExpressionNode originalBody) {
-    this.body           = body;
     this.loopIndex      = loopIndex;
     this.bodyActualNode = originalBody;
+    this.loopLimit      = loopIndex.getFrameDescriptor().findOrAddFrameSlot(
+        loopIndex.getIdentifier() + " limit", FrameSlotKind.Long);
+    this.loop = Truffle.getRuntime().createLoopNode(
+        new ToDoRepeatingNode(body, loopIndex, loopLimit));
 
     // and, we can already tell the loop index that it is going to be long
     loopIndex.setKind(FrameSlotKind.Long);
   }
 
+  private ExpressionNode getBody() {
+    return ((ToDoRepeatingNode) loop.getRepeatingNode()).body;
+  }
 
   @Specialization
   public final long doIntToDo(final VirtualFrame frame, final long from, final long to) {
-    if (CompilerDirectives.inInterpreter()) {
-      try {
-        doLooping(frame, from, to);
-      } finally {
-        reportLoopCount((int) to - from);
-      }
-    } else {
-      doLooping(frame, from, to);
-    }
+    doLooping(frame, from, to);
     return from;
   }
 
   @Specialization
   public final long doIntToDo(final VirtualFrame frame, final long from, final double to) {
-    if (CompilerDirectives.inInterpreter()) {
-      try {
-        doLooping(frame, from, (long) to);
-      } finally {
-        reportLoopCount((int) to - from);
-      }
-    } else {
-      doLooping(frame, from, (long) to);
-    }
+    doLooping(frame, from, (long) to);
     return from;
   }
 
   protected final void doLooping(final VirtualFrame frame, final long from, final long to) {
-    if (from <= to) {
-      frame.setLong(loopIndex, from);
-      body.executeGeneric(frame);
+    if (from > to) {
+      return;
     }
-    for (long i = from + 1; i <= to; i++) {
-      frame.setLong(loopIndex, i);
-      body.executeGeneric(frame);
+    frame.setLong(loopIndex, from);
+    frame.setLong(loopLimit, to);
+    try {
+      loop.executeLoop(frame);
+    } finally {
+      ((LoopBodyNode) loop.getRepeatingNode()).loopDone();
     }
   }
 
-  private void reportLoopCount(final long count) {
-    if (count < 1) { return; }
+  private static final class ToDoRepeatingNode extends LoopBodyNode {
+    @Child private ExpressionNode body;
 
-    CompilerAsserts.neverPartOfCompilation("reportLoopCount");
-    Node current = getParent();
-    while (current != null && !(current instanceof RootNode)) {
-      current = current.getParent();
+    private final FrameSlot loopIndex;
+    private final FrameSlot loopLimit;
+
+    ToDoRepeatingNode(final ExpressionNode body, final FrameSlot loopIndex,
+        final FrameSlot loopLimit) {
+      this.body      = body;
+      this.loopIndex = loopIndex;
+      this.loopLimit = loopLimit;
     }
-    if (current != null) {
-      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
+
+    @Override
+    public boolean executeRepeating(final VirtualFrame frame) {
+      long i = FrameUtil.getLongSafe(frame, loopIndex);
+      body.executeGeneric(frame);
+      countIteration();
+      if (i >= FrameUtil.getLongSafe(frame, loopLimit)) {
+        return false;
+      }
+      frame.setLong(loopIndex, i + 1);
+      return true;
     }
   }
 
-
   @Override
   public void replaceWithLexicallyEmbeddedNode(
       final InlinerForLexicallyEmbeddedMethods inliner) {
-    IntToDoInlinedLiteralsNode node = IntToDoInlinedLiteralsNodeGen.create(body,
+    IntToDoInlinedLiteralsNode node = IntToDoInlinedLiteralsNodeGen.create(getBody(),
         inliner.addLocalSlot(loopIndex.getIdentifier()),
         bodyActualNode, getFrom(), getTo()).initialize(getSourceSection());
     replace(node);
@@ -115,7 +120,7 @@ public abstract class IntToDoInlinedLiteralsNode extends ExpressionWithTagsNode
   public void replaceWithIndependentCopyForInlining(
       final SplitterForLexicallyEmbeddedCode inliner) {
     FrameSlot inlinedLoopIdx = inliner.getLocalFrameSlot(loopIndex.getIdentifier());
-    replace(IntToDoInlinedLiteralsNodeGen.create(body, inlinedLoopIdx,
+    replace(IntToDoInlinedLiteralsNodeGen.create(getBody(), inlinedLoopIdx,
         bodyActualNode, getFrom(), getTo())).initialize(getSourceSection());
   }
 
@@ -1,7 +1,5 @@
 package som.interpreter.nodes.specialized;
 
-import com.oracle.truffle.api.CompilerAsserts;
-import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
@@ -9,58 +7,64 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.Tag;
-import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.nodes.Node;
-import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.object.DynamicObject;
 
 import bd.primitives.Primitive;
-import bd.primitives.Specializer;
 import bd.primitives.nodes.WithContext;
-import som.VmSettings;
-import som.interpreter.Invokable;
 import som.interpreter.SArguments;
 import som.interpreter.nodes.ExpressionNode;
 import som.interpreter.nodes.nary.TernaryExpressionNode;
 import som.interpreter.nodes.specialized.IntToDoMessageNode.ToDoSplzr;
+import som.interpreter.nodes.specialized.LiteralBlockSplzr.InlinesLiteralBlock;
 import som.vm.Universe;
 import som.vmobjects.SBlock;
 import som.vmobjects.SInvokable;
-import som.vmobjects.SSymbol;
+import som.vmobjects.SInvokable.SMethod;
 import tools.dym.Tags.LoopNode;
 
-//Should have noWrapper = true?
 @GenerateNodeFactory
-@Primitive(selector = "to:do:", disabled = true,
-           specializer = ToDoSplzr.class, requiresArguments = true)
+@Primitive(selector = "to:do:", specializer = ToDoSplzr.class,
+           requiresArguments = true)
 public abstract class IntToDoMessageNode extends TernaryExpressionNode
-  implements WithContext<IntToDoMessageNode, Universe> {
+  implements WithContext<IntToDoMessageNode, Universe>, InlinesLiteralBlock {
 
-  public static class ToDoSplzr extends Specializer<Universe, ExpressionNode, SSymbol> {
+  public static class ToDoSplzr extends LiteralBlockSplzr {
     public ToDoSplzr(final Primitive prim, final NodeFactory<ExpressionNode> fact) {
-      super(prim, fact);
+      super(prim, fact, 2);
     }
 
     @Override
     public boolean matches(final Object[] args,
         final ExpressionNode[] argNodes) {
-      return !VmSettings.DYNAMIC_METRICS && args[0] instanceof Long &&
+      return args[0] instanceof Long &&
           (args[1] instanceof Long || args[1] instanceof Double) &&
-          args[2] instanceof SBlock;
+          isBlockWithOneArgument(args[2]);
     }
   }
 
+  /** The block is activated directly, without checking its arity. */
+  static boolean isBlockWithOneArgument(final Object block) {
+    return block instanceof SBlock
+        && SMethod.getNumberOfArguments(((SBlock) block).getMethod()) == 2;
+  }
+
   private final DynamicObject blockMethod;
-  @Child private DirectCallNode valueSend;
+  @Child private com.oracle.truffle.api.nodes.LoopNode loop;
 
   @Override
   public IntToDoMessageNode initialize(final Universe vm) {
-    valueSend = Truffle.getRuntime().createDirectCallNode(
+    loop = Truffle.getRuntime().createLoopNode(new ToDoBodyNode(
         SInvokable.getCallTarget(blockMethod,
-            SArguments.getExecutionLevel(vm.getTruffleRuntime().getCurrentFrame().getFrame(FrameAccess.READ_ONLY))));
+            SArguments.getExecutionLevel(vm.getTruffleRuntime().getCurrentFrame().getFrame(FrameAccess.READ_ONLY)))));
     return this;
   };
 
+  @Override
+  public void inlineBlock() {
+    ((ToDoBodyNode) loop.getRepeatingNode()).inlineBlock();
+  }
+
   public IntToDoMessageNode(final Object[] args) {
     blockMethod = ((SBlock) args[2]).getMethod();
   }
@@ -71,13 +75,7 @@ public abstract class IntToDoMessageNode extends TernaryExpressionNode
 
   @Specialization(guards = "isSameBlockLong(block)")
   public final long doIntToDo(final VirtualFrame frame, final long receiver, final long limit, final SBlock block) {
-    try {
-      doLooping(frame, receiver, limit, block);
-    } finally {
-      if (CompilerDirectives.inInterpreter() && (limit - receiver) > 0) {
-        reportLoopCount(limit - receiver);
-      }
-    }
+    CountingLoopBodyNode.executeLoop(loop, frame, receiver, limit, 1, block);
     return receiver;
   }
 
@@ -87,36 +85,15 @@ public abstract class IntToDoMessageNode extends TernaryExpressionNode
 
   @Specialization(guards = "isSameBlockDouble(block)")
   public final long doIntToDo(final VirtualFrame frame, final long receiver, final double dLimit, final SBlock block) {
-    long limit = (long) dLimit;
-    try {
-      doLooping(frame, receiver, limit, block);
-    } finally {
-      if (CompilerDirectives.inInterpreter()) {
-        reportLoopCount((int) limit - receiver);
-      }
-    }
+    // i <= limit holds for the same integers as i <= floor(limit)
+    CountingLoopBodyNode.executeLoop(loop, frame, receiver, (long) Math.floor(dLimit), 1, block);
     return receiver;
   }
 
-  protected void doLooping(final VirtualFrame frame, final long receiver,
-      final long limit, final SBlock block) {
-    if (receiver <= limit) {
-      valueSend.call(new Object[] {SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame), block, receiver});
-    }
-    for (long i = receiver + 1; i <= limit; i++) {
-      valueSend.call(new Object[] {SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame), block, i});
-    }
-  }
-
-  private void reportLoopCount(final long count) {
-    CompilerAsserts.neverPartOfCompilation("reportLoopCount");
-    Node current = getParent();
-    while (current != null && !(current instanceof RootNode)) {
-      current = current.getParent();
-    }
-    if (current != null) {
-      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
-    }
+  @Override
+  public Node asMateNode() {
+    Universe.getCurrent().mateifyMethod(blockMethod);
+    return super.asMateNode();
   }
 
   @Override
@@ -0,0 +1,57 @@
+package som.interpreter.nodes.specialized;
+
+import static som.interpreter.nodes.SOMNode.unwrapIfNecessary;
+
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.source.SourceSection;
+
+import bd.primitives.Primitive;
+import bd.primitives.Specializer;
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.literals.BlockNode;
+import som.vm.Universe;
+import som.vmobjects.SSymbol;
+
+/**
+ * Specializer for primitives that activate a block argument only while they
+ * execute, and do not store it anywhere.
+ *
+ * <p>If the block is a literal at the send, it can not escape the method
+ * that creates it. The primitive then forces the inlining of the block's
+ * call target, so that Graal's escape analysis sees all uses of the
+ * {@link som.vmobjects.SBlock} and of the frame it materializes, and can
+ * remove both allocations.
+ */
+public class LiteralBlockSplzr extends Specializer<Universe, ExpressionNode, SSymbol> {
+
+  /** Implemented by the primitives created by a {@link LiteralBlockSplzr}. */
+  public interface InlinesLiteralBlock {
+    /** Called once after the node is created, if the block is a literal. */
+    void inlineBlock();
+  }
+
+  private final int blockIdx;
+
+  public LiteralBlockSplzr(final Primitive prim, final NodeFactory<ExpressionNode> fact) {
+    this(prim, fact, 1);
+  }
+
+  protected LiteralBlockSplzr(final Primitive prim, final NodeFactory<ExpressionNode> fact,
+      final int blockIdx) {
+    super(prim, fact);
+    this.blockIdx = blockIdx;
+  }
+
+  @Override
+  public ExpressionNode create(final Object[] arguments,
+      final ExpressionNode[] argNodes, final SourceSection section,
+      final boolean eagerWrapper, final Universe vm) {
+    ExpressionNode node = super.create(arguments, argNodes, section, eagerWrapper, vm);
+    ExpressionNode blockNode = unwrapIfNecessary(argNodes[blockIdx]);
+    if (blockNode instanceof BlockNode && node instanceof InlinesLiteralBlock) {
+      ((BlockNode) blockNode).markAsNonEscaping();
+      ((InlinesLiteralBlock) node).inlineBlock();
+    }
+    return node;
+  }
+}
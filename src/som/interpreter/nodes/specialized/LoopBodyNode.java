@@ -0,0 +1,55 @@
+package som.interpreter.nodes.specialized;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.nodes.LoopNode;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RepeatingNode;
+import com.oracle.truffle.api.nodes.RootNode;
+
+import som.interpreter.Invokable;
+
+/**
+ * One iteration of a SOM loop, executed by a Truffle {@link LoopNode} so that
+ * Graal can compile a hot loop while it is running (OSR).
+ *
+ * <p>In the interpreter, iterations are reported to the enclosing method and
+ * its lexical scope every {@link #REPORT_INTERVAL} iterations, and not only
+ * when the loop exits, so a long running loop also makes the method it is in
+ * hot.
+ */
+public abstract class LoopBodyNode extends Node implements RepeatingNode {
+  private static final int REPORT_INTERVAL = 1000;
+
+  private int iterations;
+
+  protected final void countIteration() {
+    if (CompilerDirectives.inInterpreter()) {
+      iterations++;
+      if (iterations >= REPORT_INTERVAL) {
+        reportIterations();
+      }
+    }
+  }
+
+  /** Reports the remaining iterations, needs to be called when the loop exits. */
+  public final void loopDone() {
+    if (CompilerDirectives.inInterpreter() && iterations > 0) {
+      reportIterations();
+    }
+  }
+
+  private void reportIterations() {
+    CompilerAsserts.neverPartOfCompilation("reportIterations");
+    long count = iterations;
+    iterations = 0;
+
+    Node current = getParent();
+    while (current != null && !(current instanceof RootNode)) {
+      current = current.getParent();
+    }
+    if (current != null) {
+      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package som.interpreter.nodes.specialized;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+
+import som.interpreter.SArguments;
+
+/**
+ * Activates the block of a <code>to:do:</code> style loop with the index.
+ * The block is the first value of the loop state.
+ */
+public final class ToDoBodyNode extends CountingLoopBodyNode {
+  @Child private DirectCallNode valueSend;
+
+  public ToDoBodyNode(final CallTarget blockCallTarget) {
+    valueSend = Truffle.getRuntime().createDirectCallNode(blockCallTarget);
+  }
+
+  /** See {@link LiteralBlockSplzr}. */
+  void inlineBlock() {
+    valueSend.forceInlining();
+  }
+
+  @Override
+  protected void executeBody(final VirtualFrame loopFrame, final long i) {
+    valueSend.call(new Object[] {SArguments.getEnvironment(loopFrame),
+        SArguments.getExecutionLevel(loopFrame), getState(loopFrame, 0), i});
+  }
+}
@@ -1,21 +1,18 @@
 package som.interpreter.nodes.specialized.whileloops;
 
 import com.oracle.truffle.api.CallTarget;
-import com.oracle.truffle.api.CompilerAsserts;
-import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.nodes.DirectCallNode;
-import com.oracle.truffle.api.nodes.Node;
-import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.object.DynamicObject;
 
-import som.interpreter.Invokable;
 import som.interpreter.SArguments;
 import som.interpreter.nodes.ExpressionNode;
 import som.interpreter.nodes.literals.IntegerLiteralNode;
 import som.interpreter.nodes.nary.BinaryExpressionNode;
+import som.interpreter.nodes.specialized.LoopBodyNode;
 import som.vm.constants.ExecutionLevel;
 import som.vm.constants.Nil;
 import som.vmobjects.SBlock;
@@ -24,10 +21,19 @@ import tools.dym.Tags.LoopNode;
 
 
 public abstract class AbstractWhileNode extends BinaryExpressionNode {
-  @Child protected DirectCallNode conditionValueSend;
-  @Child protected DirectCallNode bodyValueSend;
+  /**
+   * The loop runs in a frame of its own. It only holds the blocks and the
+   * environment, as arguments, so that they are available in an OSR
+   * compiled loop as well.
+   */
+  private final FrameDescriptor loopFrameDescriptor = new FrameDescriptor();
 
-  protected final boolean predicateBool;
+  private static final int LOOP_CONDITION = 0;
+  private static final int LOOP_BODY      = 1;
+  private static final int ENVIRONMENT    = 2;
+  private static final int LEVEL          = 3;
+
+  @Child private com.oracle.truffle.api.nodes.LoopNode loop;
 
   @Override
   /*Analyze what is the best to do for this case*/
@@ -45,14 +51,17 @@ public abstract class AbstractWhileNode extends BinaryExpressionNode {
       final boolean predicateBool, final ExecutionLevel level) {
 
     CallTarget callTargetCondition = SInvokable.getCallTarget(rcvr.getMethod(), level);
-    conditionValueSend = Truffle.getRuntime().createDirectCallNode(
-        callTargetCondition);
-
     CallTarget callTargetBody = SInvokable.getCallTarget(arg.getMethod(), level);
-    bodyValueSend = Truffle.getRuntime().createDirectCallNode(
-        callTargetBody);
+    loop = Truffle.getRuntime().createLoopNode(
+        new WhileRepeatingNode(callTargetCondition, callTargetBody, predicateBool));
+  }
 
-    this.predicateBool = predicateBool;
+  /**
+   * Forces the inlining of both blocks, when they can not escape, see
+   * {@link som.interpreter.nodes.specialized.LiteralBlockSplzr}.
+   */
+  protected final void inlineBlocks() {
+    ((WhileRepeatingNode) loop.getRepeatingNode()).inlineBlocks();
   }
 
   @Override
@@ -63,24 +72,13 @@ public abstract class AbstractWhileNode extends BinaryExpressionNode {
 
   protected final DynamicObject doWhileUnconditionally(final VirtualFrame frame,
       final SBlock loopCondition, final SBlock loopBody) {
-    long iterationCount = 0;
-
-    boolean loopConditionResult = (boolean) conditionValueSend.call(
-        SArguments.createSArguments(SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame), new Object[] {loopCondition}));
-
+    VirtualFrame loopFrame = Truffle.getRuntime().createVirtualFrame(new Object[] {
+        loopCondition, loopBody, SArguments.getEnvironment(frame),
+        SArguments.getExecutionLevel(frame)}, loopFrameDescriptor);
     try {
-      // TODO: this is a simplification, we don't cover the case receiver isn't a boolean
-      while (loopConditionResult == predicateBool) {
-        bodyValueSend.call(new Object[] {loopBody});
-        loopConditionResult = (boolean) conditionValueSend.call(
-            new Object[] {loopCondition});
-
-        if (CompilerDirectives.inInterpreter()) { iterationCount++; }
-      }
+      loop.executeLoop(loopFrame);
     } finally {
-      if (CompilerDirectives.inInterpreter()) {
-        reportLoopCount(iterationCount);
-      }
+      ((LoopBodyNode) loop.getRepeatingNode()).loopDone();
     }
     return Nil.nilObject;
   }
@@ -88,14 +86,40 @@ public abstract class AbstractWhileNode extends BinaryExpressionNode {
   protected abstract DynamicObject doWhileConditionally(VirtualFrame frame,
       SBlock loopCondition, SBlock loopBody);
 
-  protected final void reportLoopCount(final long count) {
-    CompilerAsserts.neverPartOfCompilation("reportLoopCount");
-    Node current = getParent();
-    while (current != null && !(current instanceof RootNode)) {
-      current = current.getParent();
+  private static final class WhileRepeatingNode extends LoopBodyNode {
+    @Child private DirectCallNode conditionValueSend;
+    @Child private DirectCallNode bodyValueSend;
+
+    private final boolean predicateBool;
+
+    WhileRepeatingNode(final CallTarget condition, final CallTarget body,
+        final boolean predicateBool) {
+      this.conditionValueSend = Truffle.getRuntime().createDirectCallNode(condition);
+      this.bodyValueSend      = Truffle.getRuntime().createDirectCallNode(body);
+      this.predicateBool      = predicateBool;
     }
-    if (current != null) {
-      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
+
+    void inlineBlocks() {
+      conditionValueSend.forceInlining();
+      bodyValueSend.forceInlining();
+    }
+
+    @Override
+    public boolean executeRepeating(final VirtualFrame loopFrame) {
+      Object[] state = loopFrame.getArguments();
+      DynamicObject environment = (DynamicObject) state[ENVIRONMENT];
+      ExecutionLevel level = (ExecutionLevel) state[LEVEL];
+
+      // TODO: this is a simplification, we don't cover the case receiver isn't a boolean
+      boolean loopConditionResult = (boolean) conditionValueSend.call(
+          SArguments.createSArguments(environment, level, new Object[] {state[LOOP_CONDITION]}));
+      if (loopConditionResult != predicateBool) {
+        return false;
+      }
+      bodyValueSend.call(
+          SArguments.createSArguments(environment, level, new Object[] {state[LOOP_BODY]}));
+      countIteration();
+      return true;
     }
   }
 
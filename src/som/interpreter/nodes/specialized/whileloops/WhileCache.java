@@ -1,14 +1,18 @@
 package som.interpreter.nodes.specialized.whileloops;
 
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.Tag;
+import com.oracle.truffle.api.nodes.IndirectCallNode;
 import com.oracle.truffle.api.object.DynamicObject;
 
 import som.interpreter.SArguments;
 import som.interpreter.nodes.nary.BinaryExpressionNode;
+import som.interpreter.nodes.specialized.LoopBodyNode;
 import som.vm.constants.ExecutionLevel;
 import som.vm.constants.Globals;
 import som.vm.constants.Nil;
@@ -23,6 +27,8 @@ public abstract class WhileCache extends BinaryExpressionNode {
 
   protected final boolean predicateBool;
 
+  private final FrameDescriptor loopFrameDescriptor = new FrameDescriptor();
+
   public WhileCache(final boolean predicateBool) {
     this.predicateBool = predicateBool;
   }
@@ -43,36 +49,76 @@ public abstract class WhileCache extends BinaryExpressionNode {
     return SArguments.getExecutionLevel(frame);
   }
 
-  private boolean obj2bool(final Object o) {
-    if (o instanceof Boolean) {
-      return (boolean) o;
-    } else if (o == Globals.trueObject) {
-      CompilerAsserts.neverPartOfCompilation("obj2Bool1");
-      return true;
-    } else {
-      CompilerAsserts.neverPartOfCompilation("obj2Bool2");
-      assert o == Globals.falseObject;
-      return false;
-    }
+  protected final com.oracle.truffle.api.nodes.LoopNode createUncachedLoop() {
+    return Truffle.getRuntime().createLoopNode(new UncachedWhileRepeatingNode(predicateBool));
   }
 
+  /**
+   * Runs the loop for blocks that are not cached, in a frame of its own that
+   * holds the blocks, the environment and the execution level as arguments,
+   * so that a long running loop can still be compiled with OSR.
+   */
   @Specialization(replaces = "doCached")
   public final DynamicObject doUncached(final VirtualFrame frame, final SBlock loopCondition,
-      final SBlock loopBody) {
-    CompilerAsserts.neverPartOfCompilation("WhileCache.GenericDispatch"); // no caching, direct invokes, no loop count reporting...
+      final SBlock loopBody,
+      @Cached("createUncachedLoop()") final com.oracle.truffle.api.nodes.LoopNode loop) {
+    VirtualFrame loopFrame = Truffle.getRuntime().createVirtualFrame(new Object[] {
+        SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame),
+        loopCondition, loopBody}, loopFrameDescriptor);
+    try {
+      loop.executeLoop(loopFrame);
+    } finally {
+      ((LoopBodyNode) loop.getRepeatingNode()).loopDone();
+    }
+    return Nil.nilObject;
+  }
+
+  private static final class UncachedWhileRepeatingNode extends LoopBodyNode {
+    private static final int LOOP_CONDITION = SArguments.RCVR_IDX;
+    private static final int LOOP_BODY      = SArguments.RCVR_IDX + 1;
 
-    Object conditionResult = SInvokable.invoke(loopCondition.getMethod(), frame, loopCondition);
+    @Child private IndirectCallNode conditionValueSend;
+    @Child private IndirectCallNode bodyValueSend;
 
-    // TODO: this is a simplification, we don't cover the case receiver isn't a boolean
-    boolean loopConditionResult = obj2bool(conditionResult);
+    private final boolean predicateBool;
 
-    // TODO: this is a simplification, we don't cover the case receiver isn't a boolean
-    while (loopConditionResult == predicateBool) {
-      SInvokable.invoke(loopBody.getMethod(), frame, loopBody);
-      conditionResult = SInvokable.invoke(loopCondition.getMethod(), frame, loopCondition);
-      loopConditionResult = obj2bool(conditionResult);
+    UncachedWhileRepeatingNode(final boolean predicateBool) {
+      this.conditionValueSend = Truffle.getRuntime().createIndirectCallNode();
+      this.bodyValueSend      = Truffle.getRuntime().createIndirectCallNode();
+      this.predicateBool      = predicateBool;
+    }
+
+    @Override
+    public boolean executeRepeating(final VirtualFrame loopFrame) {
+      DynamicObject environment = SArguments.getEnvironment(loopFrame);
+      ExecutionLevel level = SArguments.getExecutionLevel(loopFrame);
+      SBlock condition = (SBlock) loopFrame.getArguments()[LOOP_CONDITION];
+      SBlock body = (SBlock) loopFrame.getArguments()[LOOP_BODY];
+
+      Object conditionResult = SInvokable.invoke(condition.getMethod(), loopFrame,
+          conditionValueSend, SArguments.createSArguments(environment, level, new Object[] {condition}));
+      // TODO: this is a simplification, we don't cover the case receiver isn't a boolean
+      if (obj2bool(conditionResult) != predicateBool) {
+        return false;
+      }
+      SInvokable.invoke(body.getMethod(), loopFrame, bodyValueSend,
+          SArguments.createSArguments(environment, level, new Object[] {body}));
+      countIteration();
+      return true;
+    }
+
+    private static boolean obj2bool(final Object o) {
+      if (o instanceof Boolean) {
+        return (boolean) o;
+      } else if (o == Globals.trueObject) {
+        CompilerAsserts.neverPartOfCompilation("obj2Bool1");
+        return true;
+      } else {
+        CompilerAsserts.neverPartOfCompilation("obj2Bool2");
+        assert o == Globals.falseObject;
+        return false;
+      }
     }
-    return Nil.nilObject;
   }
 
   @Override
@@ -1,28 +1,23 @@
 package som.interpreter.nodes.specialized.whileloops;
 
-import com.oracle.truffle.api.CompilerAsserts;
-import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.UnsupportedSpecializationException;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.nodes.Node;
-import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 
-import som.interpreter.Invokable;
 import som.interpreter.MateifyVisitor;
 import som.interpreter.nodes.ExpressionNode;
 import som.interpreter.nodes.nary.ExpressionWithTagsNode;
+import som.interpreter.nodes.specialized.LoopBodyNode;
 import som.vm.constants.Nil;
 import tools.dym.Tags.LoopNode;
 
 
 public final class WhileInlinedLiteralsNode extends ExpressionWithTagsNode {
 
-  @Child private ExpressionNode conditionNode;
-  @Child private ExpressionNode bodyNode;
-
-  private final boolean expectedBool;
+  @Child private com.oracle.truffle.api.nodes.LoopNode loop;
 
   private final ExpressionNode conditionActualNode;
   private final ExpressionNode bodyActualNode;
@@ -33,54 +28,54 @@ public final class WhileInlinedLiteralsNode extends ExpressionWithTagsNode {
       final boolean expectedBool,
       final ExpressionNode originalConditionNode,
       final ExpressionNode originalBodyNode) {
-    this.conditionNode = inlinedConditionNode;
-    this.bodyNode      = inlinedBodyNode;
-    this.expectedBool  = expectedBool;
+    this.loop = Truffle.getRuntime().createLoopNode(
+        new WhileRepeatingNode(inlinedConditionNode, inlinedBodyNode, expectedBool));
     this.conditionActualNode = originalConditionNode;
     this.bodyActualNode      = originalBodyNode;
   }
 
-
-  private boolean evaluateCondition(final VirtualFrame frame) {
+  @Override
+  public Object executeGeneric(final VirtualFrame frame) {
     try {
-      return conditionNode.executeBoolean(frame);
-    } catch (UnexpectedResultException e) {
-      // TODO: should rewrite to a node that does a proper message send...
-      throw new UnsupportedSpecializationException(this,
-          new Node[] {conditionNode}, e.getResult());
+      loop.executeLoop(frame);
+    } finally {
+      ((LoopBodyNode) loop.getRepeatingNode()).loopDone();
     }
+    return Nil.nilObject;
   }
 
-  @Override
-  public Object executeGeneric(final VirtualFrame frame) {
-    long iterationCount = 0;
+  private static final class WhileRepeatingNode extends LoopBodyNode {
+    @Child private ExpressionNode conditionNode;
+    @Child private ExpressionNode bodyNode;
 
-    // TODO: this is a simplification, we don't cover the case receiver isn't a boolean
-    boolean loopConditionResult = evaluateCondition(frame);
+    private final boolean expectedBool;
 
-    try {
-      while (loopConditionResult == expectedBool) {
-        bodyNode.executeGeneric(frame);
-        loopConditionResult = evaluateCondition(frame);
+    WhileRepeatingNode(final ExpressionNode conditionNode,
+        final ExpressionNode bodyNode, final boolean expectedBool) {
+      this.conditionNode = conditionNode;
+      this.bodyNode      = bodyNode;
+      this.expectedBool  = expectedBool;
+    }
 
-        if (CompilerDirectives.inInterpreter()) { iterationCount++; }
-      }
-    } finally {
-      if (CompilerDirectives.inInterpreter()) {
-        reportLoopCount(iterationCount);
+    private boolean evaluateCondition(final VirtualFrame frame) {
+      try {
+        return conditionNode.executeBoolean(frame);
+      } catch (UnexpectedResultException e) {
+        // TODO: should rewrite to a node that does a proper message send...
+        throw new UnsupportedSpecializationException(this,
+            new Node[] {conditionNode}, e.getResult());
       }
     }
-    return Nil.nilObject;
-  }
 
-  protected void reportLoopCount(final long count) {
-    CompilerAsserts.neverPartOfCompilation("reportLoopCount");
-    Node current = getParent();
-    while (current != null && !(current instanceof RootNode)) {
-      current = current.getParent();
-    }
-    if (current != null) {
-      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
+    @Override
+    public boolean executeRepeating(final VirtualFrame frame) {
+      // TODO: this is a simplification, we don't cover the case receiver isn't a boolean
+      if (evaluateCondition(frame) != expectedBool) {
+        return false;
+      }
+      bodyNode.executeGeneric(frame);
+      countIteration();
+      return true;
     }
   }
 
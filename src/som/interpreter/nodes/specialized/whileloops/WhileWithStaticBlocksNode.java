@@ -79,6 +79,11 @@ public final class WhileWithStaticBlocksNode extends AbstractWhileNode {
     super(rcvr, arg, predicateBool, level);
     this.receiver = receiver;
     this.argument = argument;
+
+    // both blocks are literals that are only activated by the loop
+    receiver.markAsNonEscaping();
+    argument.markAsNonEscaping();
+    inlineBlocks();
   }
 
   @Override
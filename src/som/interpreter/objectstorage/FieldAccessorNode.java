@@ -19,6 +19,7 @@ import som.interpreter.ReflectiveNode;
 import som.interpreter.objectstorage.FieldAccessorNodeFactory.ReadFieldNodeGen;
 import som.interpreter.objectstorage.FieldAccessorNodeFactory.WriteFieldNodeGen;
 import som.vm.constants.Nil;
+import som.vmobjects.SMateEnvironment;
 
 
 public abstract class FieldAccessorNode extends Node implements ReflectiveNode {
@@ -63,6 +64,11 @@ public abstract class FieldAccessorNode extends Node implements ReflectiveNode {
     return Truffle.getRuntime().createAssumption();
   }
 
+  /** Writes to environments replace their operation table. */
+  protected static final boolean isEnvironment(final Shape shape) {
+    return SMateEnvironment.isEnvironment(shape);
+  }
+
   @Introspectable
   public abstract static class ReadFieldNode extends FieldAccessorNode {
     public ReadFieldNode(final int fieldIndex) {
@@ -114,8 +120,12 @@ public abstract class FieldAccessorNode extends Node implements ReflectiveNode {
         final Object value, final boolean generalized,
         @Cached("self.getShape()") final Shape cachedShape,
         @Cached("getLocation(self, value)") final Location location,
-        @Cached("createAssumption()") final Assumption locationAssignable) throws IncompatibleLocationException, FinalLocationException {
+        @Cached("createAssumption()") final Assumption locationAssignable,
+        @Cached("isEnvironment(cachedShape)") final boolean environment) throws IncompatibleLocationException, FinalLocationException {
       location.set(self, value);
+      if (environment) {
+        SMateEnvironment.fieldsChanged(self);
+      }
       return value;
     }
 
@@ -129,9 +139,21 @@ public abstract class FieldAccessorNode extends Node implements ReflectiveNode {
         @Cached("getLocation(self, value)") final Location oldLocation,
         @Cached("defineProperty(oldShape, value, generalized)") final Shape newShape,
         @Cached("newShape.getProperty(fieldIndex).getLocation()") final Location newLocation,
-        @Cached("createAssumption()") final Assumption locationAssignable) throws IncompatibleLocationException {
-        newLocation.set(self, value, oldShape, newShape);
-        return value;
+        @Cached("createAssumption()") final Assumption locationAssignable,
+        @Cached("isEnvironment(oldShape)") final boolean environment) throws IncompatibleLocationException {
+      // shape changes are done under the object's lock, so that concurrent
+      // writers to different fields do not lose each other's transition
+      synchronized (self) {
+        if (self.getShape() != oldShape) {
+          defineLocked(self, value);
+        } else {
+          newLocation.set(self, value, oldShape, newShape);
+        }
+      }
+      if (environment) {
+        SMateEnvironment.fieldsChanged(self);
+      }
+      return value;
     }
 
     /*@Specialization(guards = {"self.getShape() == oldShape", "oldLocation == null"}, limit = "LIMIT")
@@ -150,6 +172,16 @@ public abstract class FieldAccessorNode extends Node implements ReflectiveNode {
     @TruffleBoundary
     @Specialization(replaces = {"writeFieldCached", "writeUnwrittenField"})
     public final Object writeUncached(final DynamicObject self, final Object value, final boolean generalize) {
+      synchronized (self) {
+        defineLocked(self, value);
+      }
+      SMateEnvironment.fieldWritten(self);
+      return value;
+    }
+
+    @TruffleBoundary
+    private Object defineLocked(final DynamicObject self, final Object value) {
+      assert Thread.holdsLock(self);
       self.define(fieldIndex, value);
       return value;
     }
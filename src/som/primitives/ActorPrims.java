@@ -0,0 +1,126 @@
+package som.primitives;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import bd.primitives.Primitive;
+import som.interpreter.SArguments;
+import som.interpreter.actors.Actor;
+import som.interpreter.nodes.nary.BinaryExpressionNode;
+import som.interpreter.nodes.nary.TernaryExpressionNode;
+import som.interpreter.nodes.nary.UnaryExpressionNode;
+import som.primitives.arrays.ToArgumentsArrayNode;
+import som.primitives.arrays.ToArgumentsArrayNodeFactory;
+import som.vm.Universe;
+import som.vm.constants.ExecutionLevel;
+import som.vmobjects.SAbstractObject;
+import som.vmobjects.SArray;
+import som.vmobjects.SBlock;
+import som.vmobjects.SClass;
+import som.vmobjects.SFarReference;
+import som.vmobjects.SPromise;
+import som.vmobjects.SSymbol;
+
+
+/**
+ * Actors, eventual sends and promises, see {@link Actor}.
+ */
+public abstract class ActorPrims {
+
+  /**
+   * Creates an actor with an instance of the given class. The instance is
+   * not initialized, this needs to be done with an eventual send.
+   */
+  @GenerateNodeFactory
+  @Primitive(className = "Actor class", primitive = "spawn:")
+  public abstract static class SpawnPrim extends BinaryExpressionNode {
+    protected static final boolean isClass(final DynamicObject obj) {
+      return SClass.isSClass(obj);
+    }
+
+    @TruffleBoundary
+    @Specialization(guards = "isClass(clazz)")
+    public final SFarReference doClass(final DynamicObject receiver, final DynamicObject clazz) {
+      return new SFarReference(Actor.createActor(),
+          Universe.getCurrent().getObjectMemory().newObject(clazz));
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Object", primitive = "eventualSend:", selector = "eventualSend:")
+  public abstract static class EventualSendPrim extends BinaryExpressionNode {
+    @Specialization
+    public final SPromise doSend(final Object receiver, final SSymbol selector) {
+      SPromise result = new SPromise();
+      Actor.eventualSend(Actor.current(), selector, new Object[] {receiver}, result);
+      return result;
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Object", primitive = "eventualSend:with:", selector = "eventualSend:with:")
+  public abstract static class EventualSendWithPrim extends TernaryExpressionNode {
+    @Specialization
+    public final SPromise doSend(final Object receiver, final SSymbol selector,
+        final Object arg) {
+      SPromise result = new SPromise();
+      Actor.eventualSend(Actor.current(), selector, new Object[] {receiver, arg}, result);
+      return result;
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Object", primitive = "eventualSend:withArguments:",
+      selector = "eventualSend:withArguments:")
+  public abstract static class EventualSendWithArgumentsPrim extends TernaryExpressionNode {
+    @Child private ToArgumentsArrayNode toArgArray = ToArgumentsArrayNodeFactory.getInstance().createNode(null, null);
+
+    @Specialization
+    public final SPromise doSend(final Object receiver, final SSymbol selector,
+        final SArray args) {
+      SPromise result = new SPromise();
+      Actor.eventualSend(Actor.current(), selector,
+          toArgArray.executedEvaluated(args, receiver), result);
+      return result;
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Promise", primitive = "whenResolved:")
+  public abstract static class WhenResolvedPrim extends BinaryExpressionNode {
+    @Specialization
+    public final SPromise doPromise(final SPromise receiver, final SBlock block) {
+      return receiver.whenResolved(block);
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Promise", primitive = "await")
+  public abstract static class AwaitPrim extends UnaryExpressionNode {
+    @Specialization
+    public final Object doPromise(final VirtualFrame frame, final SPromise receiver) {
+      if (!receiver.await()) {
+        return signalError(frame, receiver, "Interrupted while waiting for a promise");
+      }
+      if (receiver.isBroken()) {
+        return signalError(frame, receiver, receiver.describeError());
+      }
+      return receiver.getValue();
+    }
+
+    private static Object signalError(final VirtualFrame frame, final SPromise receiver,
+        final String message) {
+      return signalError(receiver, message, SArguments.getEnvironment(frame),
+          SArguments.getExecutionLevel(frame));
+    }
+
+    @TruffleBoundary
+    private static Object signalError(final SPromise receiver, final String message,
+        final DynamicObject environment, final ExecutionLevel level) {
+      return SAbstractObject.send("error:", new Object[] {receiver, message}, environment, level);
+    }
+  }
+}
@@ -8,6 +8,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 
 import bd.primitives.Primitive;
 import som.interpreter.nodes.nary.UnaryBasicOperation;
+import som.vmobjects.SRope;
 import som.vmobjects.SSymbol;
 
 
@@ -16,12 +17,23 @@ import som.vmobjects.SSymbol;
 @Primitive(className = "Symbol", primitive = "asString")
 @Primitive(className = "Integer", primitive = "asString")
 @Primitive(className = "Double", primitive = "asString")
+@Primitive(className = "String", primitive = "asString")
 public abstract class AsStringPrim extends UnaryBasicOperation {
   @Specialization
   public final String doSSymbol(final SSymbol receiver) {
     return receiver.getString();
   }
 
+  @Specialization
+  public final String doRope(final SRope receiver) {
+    return receiver.flatten();
+  }
+
+  @Specialization
+  public final String doString(final String receiver) {
+    return receiver;
+  }
+
   @Specialization
   public final String doCharacter(final char receiver) {
     return Character.toString(receiver);
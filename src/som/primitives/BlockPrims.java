@@ -13,8 +13,8 @@ import com.oracle.truffle.api.object.DynamicObject;
 
 import bd.primitives.Primitive;
 import som.VmSettings;
+import som.interpreter.ExceptionHandler;
 import som.interpreter.SArguments;
-import som.interpreter.SomException;
 import som.interpreter.nodes.dispatch.BlockDispatchNode;
 import som.interpreter.nodes.dispatch.BlockDispatchNodeGen;
 import som.interpreter.nodes.nary.BinaryExpressionNode;
@@ -23,9 +23,7 @@ import som.interpreter.nodes.nary.TernaryExpressionNode;
 import som.interpreter.nodes.nary.UnaryExpressionNode;
 import som.vmobjects.SAbstractObject;
 import som.vmobjects.SBlock;
-import som.vmobjects.SClass;
 import som.vmobjects.SInvokable;
-import som.vmobjects.SObject;
 import tools.dym.Tags.OpClosureApplication;
 
 
@@ -140,13 +138,20 @@ public abstract class BlockPrims {
     }
   }*/
 
+  /**
+   * Runs the body with the handler installed. The handler itself is run by
+   * the <code>signal</code> of an exception, see {@link ExceptionHandler}.
+   */
   @GenerateNodeFactory
   @Primitive(className = "Block", primitive = "doTry:onCatchDo:")
+  @Primitive(selector = "on:do:", receiverType = SBlock.class)
   public abstract static class ExceptionDoOnPrim extends TernaryExpressionNode {
 
     protected static final int INLINE_CACHE_SIZE = VmSettings.DYNAMIC_METRICS ? 100 : 6;
     protected static final IndirectCallNode indirect = Truffle.getRuntime().createIndirectCallNode();
 
+    private final ExceptionHandler.Site site = new ExceptionHandler.Site();
+
     public static final DirectCallNode createCallNode(final SBlock block, final VirtualFrame frame) {
       return Truffle.getRuntime().createDirectCallNode(
           SInvokable.getCallTarget(block.getMethod(), SArguments.getExecutionLevel(frame)));
@@ -157,38 +162,47 @@ public abstract class BlockPrims {
     }
 
     @Specialization(limit = "INLINE_CACHE_SIZE",
-        guards = {"sameBlock(body, cachedBody)",
-            "sameBlock(exceptionHandler, cachedExceptionMethod)"})
+        guards = "sameBlock(body, cachedBody)")
     public final Object doException(final VirtualFrame frame, final SBlock body,
-        final DynamicObject exceptionClass, final SBlock exceptionHandler,
+        final Object exceptionSelector, final SBlock exceptionHandler,
         @Cached("body.getMethod()") final DynamicObject cachedBody,
-        @Cached("createCallNode(body, frame)") final DirectCallNode bodyCall,
-        @Cached("exceptionHandler.getMethod()") final DynamicObject cachedExceptionMethod,
-        @Cached("createCallNode(exceptionHandler, frame)") final DirectCallNode exceptionCall) {
-      try {
-        return bodyCall.call(SArguments.createSArguments(SArguments.getEnvironment(frame),
-            SArguments.getExecutionLevel(frame), new Object[] {body}));
-      } catch (SomException e) {
-        if (SClass.isKindOf(SObject.getSOMClass(e.getSomObject()), exceptionClass)) {
-          return exceptionCall.call(SArguments.createSArguments(SArguments.getEnvironment(frame),
-              SArguments.getExecutionLevel(frame), new Object[] {exceptionHandler, e.getSomObject()}));
-        } else {
-          throw e;
+        @Cached("createCallNode(body, frame)") final DirectCallNode bodyCall) {
+      while (true) {
+        ExceptionHandler handler = ExceptionHandler.install(site, exceptionSelector,
+            exceptionHandler, SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame));
+        try {
+          return bodyCall.call(SArguments.createSArguments(SArguments.getEnvironment(frame),
+              SArguments.getExecutionLevel(frame), new Object[] {body}));
+        } catch (ExceptionHandler.Unwind e) {
+          if (!e.unwindsTo(handler)) {
+            throw e;
+          }
+          if (!e.isRetry()) {
+            return e.getResult();
+          }
+        } finally {
+          handler.uninstall();
         }
       }
     }
 
     @Specialization(replaces = "doException")
     public final Object doExceptionUncached(final VirtualFrame frame, final SBlock body,
-        final DynamicObject exceptionClass, final SBlock exceptionHandler) {
-      try {
-        return SInvokable.invoke(body.getMethod(), frame, indirect, new Object[] {body});
-      } catch (SomException e) {
-        if (SClass.isKindOf(SObject.getSOMClass(e.getSomObject()), exceptionClass)) {
-          return SInvokable.invoke(exceptionHandler.getMethod(), frame, indirect,
-              new Object[] {exceptionHandler, e.getSomObject()});
-        } else {
-          throw e;
+        final Object exceptionSelector, final SBlock exceptionHandler) {
+      while (true) {
+        ExceptionHandler handler = ExceptionHandler.install(site, exceptionSelector,
+            exceptionHandler, SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame));
+        try {
+          return SInvokable.invoke(body.getMethod(), frame, indirect, new Object[] {body});
+        } catch (ExceptionHandler.Unwind e) {
+          if (!e.unwindsTo(handler)) {
+            throw e;
+          }
+          if (!e.isRetry()) {
+            return e.getResult();
+          }
+        } finally {
+          handler.uninstall();
         }
       }
     }
@@ -1,17 +1,29 @@
 package som.primitives;
 
+import java.io.IOException;
+
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.object.DynamicObject;
 
 import bd.primitives.Primitive;
+import som.compiler.ClassGenerationContext;
+import som.compiler.Parser.ParseError;
+import som.interpreter.SArguments;
+import som.interpreter.SomLanguage;
+import som.interpreter.nodes.nary.BinaryExpressionNode;
 import som.interpreter.nodes.nary.UnaryExpressionNode;
+import som.vm.Universe;
+import som.vm.constants.Classes;
+import som.vm.constants.ExecutionLevel;
 import som.vmobjects.SAbstractObject;
 import som.vmobjects.SArray;
 import som.vmobjects.SClass;
+import som.vmobjects.SObject;
 
 
 public class ClassPrims {
@@ -61,4 +73,48 @@ public class ClassPrims {
       return SClass.getInstanceFields(receiver);
     }
   }
+
+  /**
+   * Compiles the method definition in the string and adds it to the instance
+   * side of the class, replacing the method with the same signature.
+   */
+  @GenerateNodeFactory
+  @Primitive(className = "Class", primitive = "compile:")
+  @ImportStatic(SClass.class)
+  public abstract static class CompilePrim extends BinaryExpressionNode {
+    @Specialization(guards = "isSClass(receiver)")
+    public final Object doSClass(final VirtualFrame frame, final DynamicObject receiver,
+        final String definition) {
+      String problem = compile(receiver, definition);
+      if (problem != null) {
+        return error(receiver, problem, SArguments.getEnvironment(frame),
+            SArguments.getExecutionLevel(frame));
+      }
+      return receiver;
+    }
+
+    @TruffleBoundary
+    private static Object error(final DynamicObject receiver, final String problem,
+        final DynamicObject environment, final ExecutionLevel level) {
+      return SAbstractObject.send("error:", new Object[] {receiver, problem},
+          environment, level);
+    }
+
+    /** @return null, or why the method could not be added */
+    @TruffleBoundary
+    private static String compile(final DynamicObject receiver, final String definition) {
+      if (SObject.getSOMClass(receiver) == Classes.metaclassClass) {
+        return "Only instance side methods can be compiled";
+      }
+      try {
+        DynamicObject method = Universe.getCurrent().getObjectMemory().compileMethod(
+            SomLanguage.getSyntheticSourceTruffle(definition, SClass.getName(receiver).getString()),
+            0, ClassGenerationContext.forClass(receiver));
+        SClass.addInstanceMethod(receiver, method);
+        return null;
+      } catch (ParseError | IOException e) {
+        return "Could not compile the method: " + e.getMessage();
+      }
+    }
+  }
 }
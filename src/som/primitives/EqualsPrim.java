@@ -9,6 +9,7 @@ import com.oracle.truffle.api.object.DynamicObject;
 import bd.primitives.Primitive;
 import som.primitives.arithmetic.ArithmeticPrim;
 import som.vm.constants.Globals;
+import som.vmobjects.SRope;
 import som.vmobjects.SSymbol;
 
 
@@ -38,6 +39,14 @@ public abstract class EqualsPrim extends ArithmeticPrim {
     return left.compareTo(right) == 0;
   }
 
+  @Specialization
+  public final boolean doRope(final SRope receiver, final SRope argument) {
+    if (receiver.length() != argument.length()) {
+      return false;
+    }
+    return receiver.flatten().equals(argument.flatten());
+  }
+
   @Specialization
   public final boolean doString(final String receiver, final String argument) {
     return receiver.equals(argument);
@@ -1,21 +1,148 @@
 package som.primitives;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.object.DynamicObject;
 
 import bd.primitives.Primitive;
+import som.interpreter.ExceptionHandler;
+import som.interpreter.ExceptionHandler.Resume;
+import som.interpreter.ExceptionHandler.Signal;
+import som.interpreter.SArguments;
 import som.interpreter.SomException;
+import som.interpreter.nodes.dispatch.BlockDispatchNode;
+import som.interpreter.nodes.dispatch.BlockDispatchNodeGen;
+import som.interpreter.nodes.nary.BinaryExpressionNode;
 import som.interpreter.nodes.nary.UnaryExpressionNode;
+import som.vm.constants.ExecutionLevel;
+import som.vmobjects.SAbstractObject;
 
 
+/**
+ * Signaling and handling of exceptions, see {@link ExceptionHandler}.
+ * Exceptions without a handler are thrown as {@link SomException}.
+ */
 public abstract class ExceptionsPrims {
+
+  /**
+   * Runs the block of <code>handler</code> for <code>exception</code>, on top
+   * of the stack.
+   *
+   * @return the resumption value, if the handler resumes
+   */
+  private static Object handle(final VirtualFrame frame,
+      final BlockDispatchNode dispatch, final ExceptionHandler handler,
+      final DynamicObject exception) {
+    Signal signal = handler.enter(exception);
+    try {
+      Object result = dispatch.executeDispatch(frame,
+          new Object[] {handler.getBlock(), exception});
+      // falling off the end of the handler returns from on:do:
+      throw handler.returnWith(result);
+    } catch (Resume e) {
+      if (!e.resumes(signal)) {
+        throw e;
+      }
+      return e.getValue();
+    } finally {
+      signal.done();
+    }
+  }
+
+  /**
+   * Sends <code>error:</code> to an exception that is asked to resume,
+   * return, retry or pass while no <code>on:do:</code> is handling it.
+   */
+  private static Object notHandled(final VirtualFrame frame, final DynamicObject exception) {
+    return notHandled(exception, SArguments.getEnvironment(frame),
+        SArguments.getExecutionLevel(frame));
+  }
+
+  @TruffleBoundary
+  private static Object notHandled(final DynamicObject exception,
+      final DynamicObject environment, final ExecutionLevel level) {
+    return SAbstractObject.send("error:", new Object[] {exception,
+        "The exception is not being handled by an on:do:"}, environment, level);
+  }
+
   @GenerateNodeFactory
   @Primitive(className = "Exception", primitive = "signal")
   public abstract static class SignalPrim extends UnaryExpressionNode {
+    @Child private BlockDispatchNode dispatch = BlockDispatchNodeGen.create();
+
+    @Specialization
+    public final Object doSignal(final VirtualFrame frame, final DynamicObject exceptionObject) {
+      ExceptionHandler handler = ExceptionHandler.find(exceptionObject);
+      if (handler == null) {
+        throw new SomException(exceptionObject);
+      }
+      return handle(frame, dispatch, handler, exceptionObject);
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Exception", primitive = "resume:")
+  public abstract static class ResumePrim extends BinaryExpressionNode {
+    @Specialization
+    public final Object doResume(final VirtualFrame frame, final DynamicObject exceptionObject,
+        final Object value) {
+      Signal signal = ExceptionHandler.handling(exceptionObject);
+      if (signal == null) {
+        return notHandled(frame, exceptionObject);
+      }
+      throw new Resume(signal, value);
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Exception", primitive = "return:")
+  public abstract static class ReturnPrim extends BinaryExpressionNode {
+    @Specialization
+    public final Object doReturn(final VirtualFrame frame, final DynamicObject exceptionObject,
+        final Object value) {
+      Signal signal = ExceptionHandler.handling(exceptionObject);
+      if (signal == null) {
+        return notHandled(frame, exceptionObject);
+      }
+      throw signal.getHandler().returnWith(value);
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Exception", primitive = "retry")
+  public abstract static class RetryPrim extends UnaryExpressionNode {
+    @Specialization
+    public final Object doRetry(final VirtualFrame frame, final DynamicObject exceptionObject) {
+      Signal signal = ExceptionHandler.handling(exceptionObject);
+      if (signal == null) {
+        return notHandled(frame, exceptionObject);
+      }
+      throw signal.getHandler().retry();
+    }
+  }
+
+  /**
+   * Handles the exception with the next enclosing handler. If that one
+   * resumes, the exception is resumed with its value.
+   */
+  @GenerateNodeFactory
+  @Primitive(className = "Exception", primitive = "pass")
+  public abstract static class PassPrim extends UnaryExpressionNode {
+    @Child private BlockDispatchNode dispatch = BlockDispatchNodeGen.create();
+
     @Specialization
-    public final Object doSignal(final DynamicObject exceptionObject) {
-      throw new SomException(exceptionObject);
+    public final Object doPass(final VirtualFrame frame, final DynamicObject exceptionObject) {
+      Signal signal = ExceptionHandler.handling(exceptionObject);
+      if (signal == null) {
+        return notHandled(frame, exceptionObject);
+      }
+      ExceptionHandler outer = ExceptionHandler.findOuter(signal);
+      if (outer == null) {
+        throw new SomException(exceptionObject);
+      }
+      throw new Resume(signal, handle(frame, dispatch, outer, exceptionObject));
     }
   }
 }
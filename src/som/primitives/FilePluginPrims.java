@@ -14,6 +14,7 @@ import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.profiles.ValueProfile;
 
 import bd.primitives.Primitive;
+import som.interpreter.SArguments;
 import som.interpreter.nodes.ExpressionNode;
 import som.interpreter.nodes.nary.BinaryExpressionNode;
 import som.interpreter.nodes.nary.EagerPrimitive;
@@ -21,7 +22,9 @@ import som.interpreter.nodes.nary.EagerlySpecializableNode;
 import som.interpreter.nodes.nary.TernaryExpressionNode;
 import som.interpreter.nodes.nary.UnaryExpressionNode;
 import som.vm.Universe;
+import som.vm.constants.ExecutionLevel;
 import som.vm.constants.Nil;
+import som.vmobjects.SAbstractObject;
 import som.vmobjects.SArray;
 import som.vmobjects.SArray.ArrayType;
 import som.vmobjects.SFile;
@@ -30,6 +33,29 @@ import som.vmobjects.SSymbol;
 
 public abstract class FilePluginPrims {
 
+  /** Sends <code>error:</code> to the stream, instead of failing in Java. */
+  private static Object signalError(final VirtualFrame frame, final DynamicObject receiver,
+      final String message, final long value) {
+    return signalError(receiver, message, value,
+        SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame));
+  }
+
+  @TruffleBoundary
+  private static Object signalError(final DynamicObject receiver, final String message,
+      final long value, final DynamicObject environment, final ExecutionLevel level) {
+    return SAbstractObject.send("error:", new Object[] {receiver, message + value}, environment, level);
+  }
+
+  private static Object outOfBounds(final VirtualFrame frame, final DynamicObject receiver,
+      final long startingAt) {
+    return signalError(frame, receiver, "Range out of bounds, starting at ", startingAt);
+  }
+
+  /** @return whether the 1-based range is within a collection of <code>size</code> */
+  protected static boolean isInBounds(final long startingAt, final long count, final int size) {
+    return startingAt >= 1 && count >= 0 && startingAt - 1 + count <= size;
+  }
+
   @GenerateNodeFactory
   @Primitive(className = "FilePluginPrims", primitive = "imageFile", selector = "imageFile")
   public abstract static class ImageFilePrim extends UnaryExpressionNode {
@@ -65,10 +91,24 @@ public abstract class FilePluginPrims {
   @Primitive(className = "StandardFileStream", primitive = "primSetPosition:to:", selector = "primSetPosition:to:")
   public abstract static class SetPositionFilePrim extends TernaryExpressionNode {
     @Specialization
+    public Object doGeneric(final VirtualFrame frame, final DynamicObject receiver, final SFile file, final long position) {
+      if (!setPosition(file, position)) {
+        return signalError(frame, receiver, "Position out of bounds: ", position);
+      }
+      return position;
+    }
+
     @TruffleBoundary
-    public long doGeneric(final DynamicObject receiver, final SFile file, final long position) {
+    private static boolean setPosition(final SFile file, final long position) {
+      try {
+        if (!file.isValidPosition(position)) {
+          return false;
+        }
+      } catch (IOException e) {
+        Universe.errorExit("Error when reading the size of file");
+      }
       file.setPosition(position);
-      return position;
+      return true;
     }
   }
 
@@ -76,8 +116,14 @@ public abstract class FilePluginPrims {
   @Primitive(className = "StandardFileStream", selector = "primSize:")
   public abstract static class SizeFilePrim extends BinaryExpressionNode {
     @Specialization
+    @TruffleBoundary
     public long doGeneric(final DynamicObject receiver, final SFile file) {
-      return file.getFile().length();
+      try {
+        return file.size();
+      } catch (IOException e) {
+        Universe.errorExit("Error when reading the size of file");
+        return 0;
+      }
     }
   }
 
@@ -98,20 +144,53 @@ public abstract class FilePluginPrims {
     public abstract Object executeEvaluated(VirtualFrame frame, Object receiver, Object file, Object collection, Object startingAt, Object count);
 
 
-    @Specialization(guards = {"isByteType(collection)"})
-    public long doEmptyBytes(final DynamicObject receiver, final SFile file, final SArray collection, final long startingAt, final long count) {
-      if (ArrayType.isEmptyType(collection)) {
-        collection.transitionTo(ArrayType.BYTE, new byte[(int) count]);
+    @Specialization(guards = {"isByteType(collection) || isEmptyType(collection)"})
+    public Object doBytes(final VirtualFrame frame, final DynamicObject receiver, final SFile file, final SArray collection, final long startingAt, final long count) {
+      Object storage = collection.getStorage(storageType);
+      if (storage instanceof Integer) {
+        if (!isInBounds(startingAt, count, (int) storage)) {
+          return outOfBounds(frame, receiver, startingAt);
+        }
+        storage = collection.transitionFromEmptyTo(new byte[(int) storage]);
+      }
+      if (!(storage instanceof byte[])) {
+        // another thread transitioned the array
+        if (!isInBounds(startingAt, count, collection.getLengthSlow())) {
+          return outOfBounds(frame, receiver, startingAt);
+        }
+        return readSlow(file, collection, startingAt, count);
+      }
+      // the file copies directly into the storage of the array
+      byte[] bytes = (byte[]) storage;
+      if (!isInBounds(startingAt, count, bytes.length)) {
+        return outOfBounds(frame, receiver, startingAt);
       }
-      byte[] buffer = collection.getByteStorage(storageType);
-      return read(file, buffer, (int) startingAt - 1, (int) count);
+      return read(file, bytes, (int) startingAt - 1, (int) count);
     }
 
     @TruffleBoundary
-    @Specialization(guards = {"!isByteType(collection)"})
-    public long doEmpty(final DynamicObject receiver, final SFile file, final SArray collection, final long startingAt, final long count) {
+    private static long readSlow(final SFile file, final SArray collection,
+        final long startingAt, final long count) {
       byte[] buffer = new byte[(int) count];
-      long countRead = read(file, buffer, (int) startingAt - 1, (int) count);
+      long countRead = read(file, buffer, 0, (int) count);
+      for (int i = 0; i < countRead; i++) {
+        collection.setSlow(startingAt - 1 + i, (long) buffer[i]);
+      }
+      return countRead;
+    }
+
+    @Specialization(guards = {"!isByteType(collection)", "!isEmptyType(collection)"})
+    public Object doOther(final VirtualFrame frame, final DynamicObject receiver, final SFile file, final SArray collection, final long startingAt, final long count) {
+      if (count < 0) {
+        return signalError(frame, receiver, "Negative count: ", count);
+      }
+      return readChars(file, collection, count);
+    }
+
+    @TruffleBoundary
+    private static long readChars(final SFile file, final SArray collection, final long count) {
+      byte[] buffer = new byte[(int) count];
+      long countRead = read(file, buffer, 0, (int) count);
       /*TODO: Workaround this so in case the read is in a subpart of the array we do not lose the rest*/
       collection.transitionTo(ArrayType.CHAR, (new String(buffer)).toCharArray());
       return countRead;
@@ -120,7 +199,7 @@ public abstract class FilePluginPrims {
     @TruffleBoundary
     private static long read(final SFile file, final byte[] buffer, final int start, final int count) {
       try {
-        return file.getInputStream().read(buffer, start, count);
+        return file.read(buffer, start, count);
       } catch (IOException e) {
         // TODO Auto-generated catch block
         e.printStackTrace();
@@ -145,6 +224,103 @@ public abstract class FilePluginPrims {
 
   }
 
+  @GenerateNodeFactory
+  @NodeChildren({
+    @NodeChild(value = "receiver", type = ExpressionNode.class),
+    @NodeChild(value = "sfile", type = ExpressionNode.class),
+    @NodeChild(value = "vector", type = ExpressionNode.class),
+    @NodeChild(value = "starting", type = ExpressionNode.class),
+    @NodeChild(value = "count", type = ExpressionNode.class),
+  })
+  @Primitive(className = "StandardFileStream", primitive = "primWrite:from:startingAt:count:")
+  @ImportStatic(ArrayType.class)
+  public abstract static class WriteFromFilePrim extends EagerlySpecializableNode {
+
+    private final ValueProfile storageType = ValueProfile.createClassProfile();
+
+    public abstract Object executeEvaluated(VirtualFrame frame, Object receiver, Object file, Object collection, Object startingAt, Object count);
+
+    @Specialization(guards = {"isByteType(collection)"})
+    public Object doBytes(final VirtualFrame frame, final DynamicObject receiver, final SFile file, final SArray collection, final long startingAt, final long count) {
+      byte[] storage = collection.getByteStorage(storageType);
+      if (!isInBounds(startingAt, count, storage.length)) {
+        return outOfBounds(frame, receiver, startingAt);
+      }
+      return write(file, storage, (int) startingAt - 1, (int) count);
+    }
+
+    @Specialization(guards = {"isCharType(collection)"})
+    public Object doChars(final VirtualFrame frame, final DynamicObject receiver, final SFile file, final SArray collection, final long startingAt, final long count) {
+      char[] storage = collection.getCharStorage(storageType);
+      if (!isInBounds(startingAt, count, storage.length)) {
+        return outOfBounds(frame, receiver, startingAt);
+      }
+      return writeChars(file, storage, startingAt, count);
+    }
+
+    @TruffleBoundary
+    private static long writeChars(final SFile file, final char[] chars, final long startingAt, final long count) {
+      byte[] bytes = new String(chars, (int) startingAt - 1, (int) count).getBytes();
+      return write(file, bytes, 0, bytes.length);
+    }
+
+    @Specialization
+    public Object doString(final VirtualFrame frame, final DynamicObject receiver, final SFile file, final String collection, final long startingAt, final long count) {
+      if (!isInBounds(startingAt, count, collection.length())) {
+        return outOfBounds(frame, receiver, startingAt);
+      }
+      return writeString(file, collection, startingAt, count);
+    }
+
+    @TruffleBoundary
+    private static long writeString(final SFile file, final String collection, final long startingAt, final long count) {
+      byte[] bytes = collection.substring((int) startingAt - 1, (int) (startingAt - 1 + count)).getBytes();
+      return write(file, bytes, 0, bytes.length);
+    }
+
+    @TruffleBoundary
+    private static long write(final SFile file, final byte[] buffer, final int start, final int count) {
+      try {
+        file.write(buffer, start, count);
+        return count;
+      } catch (IOException e) {
+        Universe.errorExit("Error when writing to file: " + e.getMessage());
+        return 0;
+      }
+    }
+
+    @Override
+    public EagerPrimitive wrapInEagerWrapper(final SSymbol selector,
+        final ExpressionNode[] arguments, final Universe vm) {
+      Universe.errorExit("It should never enter here since selector is set to null.\n" +
+          "The right implementation is to remove the specializer o fix bd so that the default" +
+          "specializer do not neccesarily requires an EagerPrimitive");
+      return null;
+    }
+
+    @Override
+    public Object doPreEvaluated(final VirtualFrame frame,
+        final Object[] arguments) {
+      return executeEvaluated(frame, arguments[0], arguments[1], arguments[2], arguments[3], arguments[4]);
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "StandardFileStream", primitive = "primFlush:", selector = "primFlush:")
+  public abstract static class FlushFilePrim extends BinaryExpressionNode {
+    @Specialization
+    @TruffleBoundary
+    public boolean doGeneric(final DynamicObject receiver, final SFile file) {
+      try {
+        file.flush();
+        return true;
+      } catch (IOException e) {
+        Universe.errorExit("Error when flushing file");
+        return false;
+      }
+    }
+  }
+
   @GenerateNodeFactory
   @Primitive(className = "StandardFileStream", primitive = "primAtEnd:", selector = "primAtEnd:")
   public abstract static class AtEndFilePrim extends BinaryExpressionNode {
@@ -152,7 +328,7 @@ public abstract class FilePluginPrims {
     @TruffleBoundary
     public boolean doGeneric(final DynamicObject receiver, final SFile file) {
       try {
-        return file.getInputStream().available() == 0;
+        return file.atEnd();
       } catch (IOException e) {
         Universe.errorExit("Error when trying to set file to eof");
         return false;
@@ -182,7 +358,12 @@ public abstract class FilePluginPrims {
     @Specialization
     @TruffleBoundary
     public Object doGeneric(final DynamicObject receiver, final SFile file) {
-      long size = file.getFile().length();
+      long size;
+      try {
+        size = file.size();
+      } catch (IOException e) {
+        return Nil.nilObject;
+      }
       if (size > 0) {
         return size;
       } else {
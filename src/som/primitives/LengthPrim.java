@@ -12,13 +12,14 @@ import bd.primitives.Primitive;
 import som.interpreter.nodes.nary.UnaryBasicOperation;
 import som.vmobjects.SArray;
 import som.vmobjects.SArray.ArrayType;
+import som.vmobjects.SRope;
 import som.vmobjects.SSymbol;
 import tools.dym.Tags.OpLength;
 
 @GenerateNodeFactory
 @ImportStatic(ArrayType.class)
 @Primitive(className = "String", primitive = "length", selector = "length",
-           receiverType = {String.class, Array.class})
+           receiverType = {String.class, SRope.class, Array.class})
 @Primitive(className = "Array", primitive = "length")
 public abstract class LengthPrim extends UnaryBasicOperation {
   private final ValueProfile storageType = ValueProfile.createClassProfile();
@@ -65,6 +66,11 @@ public abstract class LengthPrim extends UnaryBasicOperation {
 
   public abstract long executeEvaluated(SArray receiver);
 
+  @Specialization
+  public final long doRope(final SRope receiver) {
+    return receiver.length();
+  }
+
   @Specialization
   public final long doString(final String receiver) {
     return receiver.length();
@@ -107,7 +107,9 @@ public final class ObjectPrims {
     @TruffleBoundary
     @Specialization
     public final Object doSObject(final DynamicObject receiver, final SSymbol fieldName, final Object val) {
-      receiver.define(SClass.lookupFieldIndex(SObject.getSOMClass(receiver), fieldName), val);
+      synchronized (receiver) {
+        receiver.define(SClass.lookupFieldIndex(SObject.getSOMClass(receiver), fieldName), val);
+      }
       return val;
     }
   }
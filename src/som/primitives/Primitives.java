@@ -71,11 +71,16 @@ import som.primitives.arithmetic.SqrtPrimFactory;
 import som.primitives.arithmetic.SubtractionPrimFactory;
 import som.primitives.arrays.AtPrimFactory;
 import som.primitives.arrays.AtPutPrimFactory;
+import som.primitives.arrays.CopyFromToPrimFactory;
 import som.primitives.arrays.CopyPrimFactory;
 import som.primitives.arrays.DoIndexesPrimFactory;
 import som.primitives.arrays.DoPrimFactory;
+import som.primitives.arrays.FillPrimFactory;
+import som.primitives.arrays.IndexOfPrimFactory;
 import som.primitives.arrays.NewPrimFactory;
+import som.primitives.arrays.ParallelPrimsFactory;
 import som.primitives.arrays.PutAllNodeFactory;
+import som.primitives.arrays.ReplaceFromToWithStartingAtPrimFactory;
 import som.primitives.reflection.PerformInSuperclassPrimFactory;
 import som.primitives.reflection.PerformPrimFactory;
 import som.primitives.reflection.PerformWithArgumentsInSuperclassPrimFactory;
@@ -162,6 +167,7 @@ public class Primitives extends PrimitiveLoader<Universe, ExpressionNode, SSymbo
 
   private static List<NodeFactory<? extends ExpressionNode>> getFactories() {
     List<NodeFactory<? extends ExpressionNode>> allFactories = new ArrayList<>();
+    allFactories.addAll(ActorPrimsFactory.getFactories());
     allFactories.addAll(BlockPrimsFactory.getFactories());
     allFactories.addAll(CharacterPrimsFactory.getFactories());
     allFactories.addAll(ClassPrimsFactory.getFactories());
@@ -173,9 +179,11 @@ public class Primitives extends PrimitiveLoader<Universe, ExpressionNode, SSymbo
     allFactories.addAll(MatePrimsFactory.getFactories());
     allFactories.addAll(MethodPrimsFactory.getFactories());
     allFactories.addAll(ObjectPrimsFactory.getFactories());
+    allFactories.addAll(ParallelPrimsFactory.getFactories());
     allFactories.addAll(ShapePrimsFactory.getFactories());
     allFactories.addAll(StringPrimsFactory.getFactories());
     allFactories.addAll(SystemPrimsFactory.getFactories());
+    allFactories.addAll(ThreadPrimsFactory.getFactories());
     // allFactories.addAll(WhilePrimitiveNodeFactory.getFactories());
     // allFactories.addAll(ObjectSystemPrimsFactory.getFactories());
 
@@ -187,6 +195,7 @@ public class Primitives extends PrimitiveLoader<Universe, ExpressionNode, SSymbo
     allFactories.add(AtPutPrimFactory.getInstance());
     allFactories.add(BitAndPrimFactory.getInstance());
     allFactories.add(BitXorPrimFactory.getInstance());
+    allFactories.add(CopyFromToPrimFactory.getInstance());
     allFactories.add(CopyPrimFactory.getInstance());
     allFactories.add(CosPrimFactory.getInstance());
     allFactories.add(DividePrimFactory.getInstance());
@@ -195,11 +204,13 @@ public class Primitives extends PrimitiveLoader<Universe, ExpressionNode, SSymbo
     allFactories.add(DoubleDivPrimFactory.getInstance());
     allFactories.add(EqualsEqualsPrimFactory.getInstance());
     allFactories.add(EqualsPrimFactory.getInstance());
+    allFactories.add(FillPrimFactory.getInstance());
     allFactories.add(GlobalPrimFactory.getInstance());
     allFactories.add(GreaterThanPrimFactory.getInstance());
     allFactories.add(GreaterThanOrEqualPrimFactory.getInstance());
     allFactories.add(IfFalseMessageNodeFactory.getInstance());
     allFactories.add(IfTrueIfFalseMessageNodeFactory.getInstance());
+    allFactories.add(IndexOfPrimFactory.getInstance());
     allFactories.add(InvokeOnPrimFactory.getInstance());
     allFactories.add(IntToDoMessageNodeFactory.getInstance());
     allFactories.add(IntDownToDoMessageNodeFactory.getInstance());
@@ -219,6 +230,7 @@ public class Primitives extends PrimitiveLoader<Universe, ExpressionNode, SSymbo
     allFactories.add(PerformWithArgumentsPrimFactory.getInstance());
     allFactories.add(PutAllNodeFactory.getInstance());
     allFactories.add(RemainderPrimFactory.getInstance());
+    allFactories.add(ReplaceFromToWithStartingAtPrimFactory.getInstance());
     // allFactories.add(ExpPrimFactory.getInstance());
     // allFactories.add(LogPrimFactory.getInstance());
     allFactories.add(SinPrimFactory.getInstance());
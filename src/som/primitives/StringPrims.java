@@ -1,5 +1,7 @@
 package som.primitives;
 
+import java.nio.charset.StandardCharsets;
+
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.instrumentation.Tag;
@@ -13,6 +15,7 @@ import som.interpreter.nodes.nary.UnaryExpressionNode;
 import som.vm.Universe;
 import som.vmobjects.SAbstractObject;
 import som.vmobjects.SArray;
+import som.vmobjects.SRope;
 import som.vmobjects.SSymbol;
 import tools.dym.Tags.ComplexPrimitiveOperation;
 import tools.dym.Tags.StringAccess;
@@ -21,26 +24,52 @@ import tools.dym.Tags.StringAccess;
 public class StringPrims {
 
   @GenerateNodeFactory
-  @Primitive(className = "String", primitive = "concatenate:", selector = "concatenate:", receiverType = {SSymbol.class, String.class})
+  @Primitive(className = "String", primitive = "concatenate:", selector = "concatenate:", receiverType = {SSymbol.class, String.class, SRope.class})
   public abstract static class ConcatPrim extends BinaryExpressionNode {
+    // Ropes need to come first, otherwise the implicit cast flattens them
+    @Specialization
+    public final Object doRope(final SRope receiver, final SRope argument) {
+      return SRope.concat(receiver, argument);
+    }
+
+    @Specialization
+    public final Object doRope(final SRope receiver, final String argument) {
+      return SRope.concat(receiver, argument);
+    }
+
+    @Specialization
+    public final Object doString(final String receiver, final SRope argument) {
+      return SRope.concat(receiver, argument);
+    }
+
+    @Specialization
+    public final Object doRope(final SRope receiver, final SSymbol argument) {
+      return SRope.concat(receiver, argument.getString());
+    }
+
+    @Specialization
+    public final Object doSSymbol(final SSymbol receiver, final SRope argument) {
+      return SRope.concat(receiver.getString(), argument);
+    }
+
     @Specialization
-    public final String doString(final String receiver, final String argument) {
-      return receiver + argument;
+    public final Object doString(final String receiver, final String argument) {
+      return SRope.concat(receiver, argument);
     }
 
     @Specialization
-    public final String doString(final String receiver, final SSymbol argument) {
-      return receiver + argument.getString();
+    public final Object doString(final String receiver, final SSymbol argument) {
+      return SRope.concat(receiver, argument.getString());
     }
 
     @Specialization
-    public final String doSSymbol(final SSymbol receiver, final String argument) {
-      return receiver.getString() + argument;
+    public final Object doSSymbol(final SSymbol receiver, final String argument) {
+      return SRope.concat(receiver.getString(), argument);
     }
 
     @Specialization
-    public final String doSSymbol(final SSymbol receiver, final SSymbol argument) {
-      return receiver.getString() + argument.getString();
+    public final Object doSSymbol(final SSymbol receiver, final SSymbol argument) {
+      return SRope.concat(receiver.getString(), argument.getString());
     }
 
     @Override
@@ -102,7 +131,7 @@ public class StringPrims {
   }
 
   @GenerateNodeFactory
-  @Primitive(className = "String", primitive = "primSubstringFrom:to:", selector = "primSubstringFrom:to:", receiverType = {SSymbol.class, String.class})
+  @Primitive(className = "String", primitive = "primSubstringFrom:to:", selector = "primSubstringFrom:to:", receiverType = {SSymbol.class, String.class, SRope.class})
   public abstract static class SubstringPrim extends TernaryExpressionNode {
     @Specialization
     public final String doString(final String receiver, final long start,
@@ -133,7 +162,7 @@ public class StringPrims {
   }
 
   @GenerateNodeFactory
-  @Primitive(className = "String", primitive = "at:", receiverType = String.class)
+  @Primitive(className = "String", primitive = "at:", receiverType = {String.class, SRope.class})
   /*
    * It is not specializable for avoiding the clash with Array at: primitive.
    * We should improve the specialization so that it enables to store different
@@ -184,4 +213,40 @@ public class StringPrims {
       }
     }
   }
+
+  @GenerateNodeFactory
+  @Primitive(className = "String", primitive = "asByteArray", selector = "asByteArray", receiverType = {String.class, SRope.class})
+  public abstract static class AsByteArrayPrim extends UnaryExpressionNode {
+    @Specialization
+    public final SArray doString(final String receiver) {
+      return SArray.create(receiver.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Override
+    protected boolean hasTagIgnoringEagerness(final Class<? extends Tag> tag) {
+      if (tag == StringAccess.class) {
+        return true;
+      } else {
+        return super.hasTagIgnoringEagerness(tag);
+      }
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "String", primitive = "asArray", selector = "asArray", receiverType = {String.class, SRope.class})
+  public abstract static class AsCharArrayPrim extends UnaryExpressionNode {
+    @Specialization
+    public final SArray doString(final String receiver) {
+      return SArray.create(receiver.toCharArray());
+    }
+
+    @Override
+    protected boolean hasTagIgnoringEagerness(final Class<? extends Tag> tag) {
+      if (tag == StringAccess.class) {
+        return true;
+      } else {
+        return super.hasTagIgnoringEagerness(tag);
+      }
+    }
+  }
 }
@@ -0,0 +1,184 @@
+package som.primitives;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import bd.primitives.Primitive;
+import som.interpreter.SArguments;
+import som.interpreter.nodes.dispatch.BlockDispatchNode;
+import som.interpreter.nodes.dispatch.BlockDispatchNodeGen;
+import som.interpreter.nodes.nary.BinaryExpressionNode;
+import som.interpreter.nodes.nary.UnaryExpressionNode;
+import som.vm.constants.ExecutionLevel;
+import som.vmobjects.SAbstractObject;
+import som.vmobjects.SBlock;
+import som.vmobjects.SMutex;
+import som.vmobjects.SMutex.SCondition;
+import som.vmobjects.SThread;
+
+
+/**
+ * Threads, mutexes and conditions, see {@link SThread} and {@link SMutex}.
+ */
+public abstract class ThreadPrims {
+
+  /** Sends <code>error:</code> to a mutex or condition whose mutex the thread does not hold. */
+  private static Object notLocked(final VirtualFrame frame, final Object receiver) {
+    return notLocked(receiver, SArguments.getEnvironment(frame),
+        SArguments.getExecutionLevel(frame));
+  }
+
+  @TruffleBoundary
+  private static Object notLocked(final Object receiver, final DynamicObject environment,
+      final ExecutionLevel level) {
+    return SAbstractObject.send("error:", new Object[] {receiver,
+        "The mutex is not locked by this thread"}, environment, level);
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Thread class", primitive = "new:")
+  public abstract static class NewThreadPrim extends BinaryExpressionNode {
+    @Specialization
+    public final SThread doBlock(final VirtualFrame frame, final DynamicObject receiver,
+        final SBlock block) {
+      SThread thread = new SThread(block, SArguments.getEnvironment(frame),
+          SArguments.getExecutionLevel(frame));
+      thread.start();
+      return thread;
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Thread class", primitive = "yield")
+  public abstract static class YieldPrim extends UnaryExpressionNode {
+    @Specialization
+    @TruffleBoundary
+    public final DynamicObject doYield(final DynamicObject receiver) {
+      Thread.yield();
+      return receiver;
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Thread", primitive = "join")
+  public abstract static class JoinPrim extends UnaryExpressionNode {
+    @Specialization
+    public final Object doThread(final SThread receiver) {
+      return receiver.join();
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Thread", primitive = "isAlive")
+  public abstract static class IsAlivePrim extends UnaryExpressionNode {
+    @Specialization
+    public final boolean doThread(final SThread receiver) {
+      return receiver.isAlive();
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Mutex class", primitive = "new")
+  public abstract static class NewMutexPrim extends UnaryExpressionNode {
+    @Specialization
+    public final SMutex doClass(final DynamicObject receiver) {
+      return new SMutex();
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Mutex", primitive = "lock")
+  public abstract static class LockPrim extends UnaryExpressionNode {
+    @Specialization
+    public final SMutex doMutex(final SMutex receiver) {
+      receiver.lock();
+      return receiver;
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Mutex", primitive = "unlock")
+  public abstract static class UnlockPrim extends UnaryExpressionNode {
+    @Specialization
+    public final Object doMutex(final VirtualFrame frame, final SMutex receiver) {
+      if (!receiver.unlock()) {
+        return notLocked(frame, receiver);
+      }
+      return receiver;
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Mutex", primitive = "isLocked")
+  public abstract static class IsLockedPrim extends UnaryExpressionNode {
+    @Specialization
+    public final boolean doMutex(final SMutex receiver) {
+      return receiver.isLocked();
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Mutex", primitive = "critical:")
+  public abstract static class CriticalPrim extends BinaryExpressionNode {
+    @Child private BlockDispatchNode dispatch = BlockDispatchNodeGen.create();
+
+    @Specialization
+    public final Object doMutex(final VirtualFrame frame, final SMutex receiver,
+        final SBlock block) {
+      receiver.lock();
+      try {
+        return dispatch.executeDispatch(frame, new Object[] {block});
+      } finally {
+        receiver.unlock();
+      }
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Mutex", primitive = "newCondition")
+  public abstract static class NewConditionPrim extends UnaryExpressionNode {
+    @Specialization
+    public final SCondition doMutex(final SMutex receiver) {
+      return receiver.newCondition();
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Condition", primitive = "await")
+  public abstract static class AwaitPrim extends UnaryExpressionNode {
+    @Specialization
+    public final Object doCondition(final VirtualFrame frame, final SCondition receiver) {
+      if (!receiver.await()) {
+        return notLocked(frame, receiver);
+      }
+      return receiver;
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Condition", primitive = "signal")
+  public abstract static class SignalPrim extends UnaryExpressionNode {
+    @Specialization
+    public final Object doCondition(final VirtualFrame frame, final SCondition receiver) {
+      if (!receiver.signal()) {
+        return notLocked(frame, receiver);
+      }
+      return receiver;
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Condition", primitive = "signalAll")
+  public abstract static class SignalAllPrim extends UnaryExpressionNode {
+    @Specialization
+    public final Object doCondition(final VirtualFrame frame, final SCondition receiver) {
+      if (!receiver.signalAll()) {
+        return notLocked(frame, receiver);
+      }
+      return receiver;
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package som.primitives.arrays;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.BranchProfile;
+
+import som.interpreter.nodes.dispatch.BlockDispatchNode;
+import som.interpreter.nodes.dispatch.BlockDispatchNodeGen;
+import som.interpreter.nodes.specialized.CountingLoopBodyNode;
+import som.vm.constants.Nil;
+import som.vmobjects.SArray;
+import som.vmobjects.SArray.ArrayType;
+import som.vmobjects.SArray.PartiallyEmptyArray;
+
+/**
+ * Activates a block with an element of an array, or with its index for
+ * <code>doIndexes:</code>. The loop state is the block, followed by the
+ * storage of the array, which was read for one {@link ArrayType}, so that
+ * each strategy gets a loop of its own, and the array. When the block changes
+ * the strategy of the array, the remaining elements are read from the array.
+ */
+final class ArrayDoBodyNode extends CountingLoopBodyNode {
+  private final ArrayType type;
+  private final boolean withIndex;
+
+  @Child private BlockDispatchNode block;
+
+  private final BranchProfile strategyChanged = BranchProfile.create();
+
+  private ArrayDoBodyNode(final ArrayType type, final boolean withIndex) {
+    this.type      = type;
+    this.withIndex = withIndex;
+    this.block     = BlockDispatchNodeGen.create();
+  }
+
+  static ArrayDoBodyNode forElements(final ArrayType type) {
+    return new ArrayDoBodyNode(type, false);
+  }
+
+  static ArrayDoBodyNode forIndexes() {
+    return new ArrayDoBodyNode(ArrayType.EMPTY, true);
+  }
+
+  /** See {@link som.interpreter.nodes.specialized.LiteralBlockSplzr}. */
+  ArrayDoBodyNode inlineBlock() {
+    block.forceInlining();
+    return this;
+  }
+
+  @Override
+  protected void executeBody(final VirtualFrame loopFrame, final long i) {
+    Object value;
+    if (withIndex) {
+      value = i + 1; // +1 because it is going to the smalltalk level
+    } else {
+      value = element(getState(loopFrame, 1), (SArray) getState(loopFrame, 2), (int) i);
+    }
+    block.executeDispatch(loopFrame, new Object[] {getState(loopFrame, 0), value});
+  }
+
+  private Object element(final Object storage, final SArray array, final int i) {
+    if (type == ArrayType.EMPTY ? !ArrayType.isEmptyType(array) : !array.hasStorage(storage)) {
+      strategyChanged.enter();
+      return array.getSlow(i);
+    }
+    switch (type) {
+      case EMPTY:
+        return Nil.nilObject;
+      case PARTIAL_EMPTY:
+        return ((PartiallyEmptyArray) storage).get(i);
+      case LONG:
+        return ((long[]) storage)[i];
+      case DOUBLE:
+        return ((double[]) storage)[i];
+      case BOOLEAN:
+        return ((boolean[]) storage)[i];
+      case BYTE:
+        return (long) ((byte[]) storage)[i];
+      case CHAR:
+        return ((char[]) storage)[i];
+      default:
+        return ((Object[]) storage)[i];
+    }
+  }
+}
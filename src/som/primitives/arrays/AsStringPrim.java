@@ -1,5 +1,7 @@
 package som.primitives.arrays;
 
+import java.nio.charset.StandardCharsets;
+
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -41,6 +43,11 @@ public abstract class AsStringPrim extends UnaryExpressionNode {
     return String.valueOf(receiver.getCharStorage(storageType));
   }
 
+  @Specialization(guards = "isByteType(receiver)")
+  public final String doByteSArray(final SArray receiver) {
+    return new String(receiver.getByteStorage(storageType), StandardCharsets.ISO_8859_1);
+  }
+
   @Specialization(guards = "isObjectType(receiver)")
   public final String doObject(final SArray receiver) {
     String str = "";
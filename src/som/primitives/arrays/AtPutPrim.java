@@ -125,56 +125,54 @@ public abstract class AtPutPrim extends TernaryExpressionNode {
     storage.set(idx, value);
   }
 
+  /**
+   * Writes to the partially empty storage, without a lock. With racing
+   * writers, the count of empty elements is only a hint, the transition to a
+   * full strategy counts them again.
+   */
+  private void setPartiallyEmpty(final SArray receiver, final long idx,
+      final Object value, final ArrayType type) {
+    Object storage = receiver.getStorage(storageType);
+    if (!(storage instanceof PartiallyEmptyArray)) {
+      // another thread transitioned the array
+      receiver.setSlow(idx, value);
+      return;
+    }
+    PartiallyEmptyArray arr = (PartiallyEmptyArray) storage;
+    setValue(idx, value, arr);
+    if (arr.getType() != type) {
+      arr.setType(ArrayType.OBJECT);
+    }
+    if (arr.isFull()) {
+      receiver.ifFullTransitionPartiallyEmpty();
+    }
+  }
+
   @Specialization(guards = "isPartiallyEmptyType(receiver)")
   public final long doPartiallyEmptySArray(final SArray receiver,
       final long index, final long value) {
-    long idx = index - 1;
-    PartiallyEmptyArray storage = receiver.getPartiallyEmptyStorage(storageType);
-    setValue(idx, value, storage);
-    if (storage.getType() != ArrayType.LONG) {
-      storage.setType(ArrayType.OBJECT);
-    }
-
-    receiver.ifFullTransitionPartiallyEmpty();
+    setPartiallyEmpty(receiver, index - 1, value, ArrayType.LONG);
     return value;
   }
 
   @Specialization(guards = "isPartiallyEmptyType(receiver)")
   public final double doPartiallyEmptySArray(final SArray receiver,
       final long index, final double value) {
-    long idx = index - 1;
-    PartiallyEmptyArray storage = receiver.getPartiallyEmptyStorage(storageType);
-    setValue(idx, value, storage);
-    if (storage.getType() != ArrayType.DOUBLE) {
-      storage.setType(ArrayType.OBJECT);
-    }
-    receiver.ifFullTransitionPartiallyEmpty();
+    setPartiallyEmpty(receiver, index - 1, value, ArrayType.DOUBLE);
     return value;
   }
 
   @Specialization(guards = "isPartiallyEmptyType(receiver)")
   public final boolean doPartiallyEmptySArray(final SArray receiver,
       final long index, final boolean value) {
-    long idx = index - 1;
-    PartiallyEmptyArray storage = receiver.getPartiallyEmptyStorage(storageType);
-    setValue(idx, value, storage);
-    if (storage.getType() != ArrayType.BOOLEAN) {
-      storage.setType(ArrayType.OBJECT);
-    }
-    receiver.ifFullTransitionPartiallyEmpty();
+    setPartiallyEmpty(receiver, index - 1, value, ArrayType.BOOLEAN);
     return value;
   }
 
   @Specialization(guards = "isPartiallyEmptyType(receiver)")
   public final char doPartiallyEmptySArray(final SArray receiver,
       final long index, final char value) {
-    long idx = index - 1;
-    PartiallyEmptyArray storage = receiver.getPartiallyEmptyStorage(storageType);
-    setValue(idx, value, storage);
-    if (storage.getType() != ArrayType.CHAR) {
-      storage.setType(ArrayType.OBJECT);
-    }
-    receiver.ifFullTransitionPartiallyEmpty();
+    setPartiallyEmpty(receiver, index - 1, value, ArrayType.CHAR);
     return value;
   }
 
@@ -182,13 +180,19 @@ public abstract class AtPutPrim extends TernaryExpressionNode {
   public final Object doPartiallyEmptySArrayWithNil(final SArray receiver,
       final long index, final Object value) {
     long idx = index - 1;
-    PartiallyEmptyArray storage = receiver.getPartiallyEmptyStorage(storageType);
+    Object storage = receiver.getStorage(storageType);
+    if (!(storage instanceof PartiallyEmptyArray)) {
+      // another thread transitioned the array
+      receiver.setSlow(idx, value);
+      return value;
+    }
+    PartiallyEmptyArray arr = (PartiallyEmptyArray) storage;
     assert idx >= 0;
-    assert idx < storage.getLength();
+    assert idx < arr.getLength();
 
-    if (storage.get(idx) != Nil.nilObject) {
-      storage.incEmptyElements();
-      setValue(idx, Nil.nilObject, storage);
+    if (arr.get(idx) != Nil.nilObject) {
+      arr.incEmptyElements();
+      setValue(idx, Nil.nilObject, arr);
     }
     return value;
   }
@@ -196,11 +200,7 @@ public abstract class AtPutPrim extends TernaryExpressionNode {
   @Specialization(guards = {"isPartiallyEmptyType(receiver)", "valueIsNotNil(value)"})
   public final Object doPartiallyEmptySArray(final SArray receiver,
       final long index, final Object value) {
-    long idx = index - 1;
-    PartiallyEmptyArray storage = receiver.getPartiallyEmptyStorage(storageType);
-    setValue(idx, value, storage);
-    storage.setType(ArrayType.OBJECT);
-    receiver.ifFullTransitionPartiallyEmpty();
+    setPartiallyEmpty(receiver, index - 1, value, ArrayType.OBJECT);
     return value;
   }
 
@@ -208,7 +208,13 @@ public abstract class AtPutPrim extends TernaryExpressionNode {
   public final Object doObjectSArray(final SArray receiver, final long index,
       final Object value) {
     long idx = index - 1;
-    receiver.getObjectStorage(storageType)[(int) idx] = value;
+    Object storage = receiver.getStorage(storageType);
+    if (storage instanceof Object[]) {
+      ((Object[]) storage)[(int) idx] = value;
+    } else {
+      // another thread transitioned the array
+      receiver.setSlow(idx, value);
+    }
     return value;
   }
 
@@ -216,23 +222,20 @@ public abstract class AtPutPrim extends TernaryExpressionNode {
   public final Object doObjectSArray(final SArray receiver, final long index,
       final long value) {
     long idx = index - 1;
-    receiver.getLongStorage(storageType)[(int) idx] = value;
+    Object storage = receiver.getStorage(storageType);
+    if (storage instanceof long[]) {
+      ((long[]) storage)[(int) idx] = value;
+    } else {
+      // another thread transitioned the array
+      receiver.setSlow(idx, value);
+    }
     return value;
   }
 
   @Specialization(guards = {"isLongType(receiver)", "valueIsNotLong(value)"})
   public final Object doLongSArray(final SArray receiver, final long index,
       final Object value) {
-    long idx = index - 1;
-
-    long[] storage = receiver.getLongStorage(storageType);
-    Object[] newStorage = new Object[storage.length];
-    for (int i = 0; i < storage.length; i++) {
-      newStorage[i] = storage[i];
-    }
-
-    receiver.transitionTo(ArrayType.OBJECT, newStorage);
-    newStorage[(int) idx] = value;
+    receiver.setSlow(index - 1, value);
     return value;
   }
 
@@ -240,23 +243,20 @@ public abstract class AtPutPrim extends TernaryExpressionNode {
   public final Object doDoubleSArray(final SArray receiver, final long index,
       final double value) {
     long idx = index - 1;
-    receiver.getDoubleStorage(storageType)[(int) idx] = value;
+    Object storage = receiver.getStorage(storageType);
+    if (storage instanceof double[]) {
+      ((double[]) storage)[(int) idx] = value;
+    } else {
+      // another thread transitioned the array
+      receiver.setSlow(idx, value);
+    }
     return value;
   }
 
   @Specialization(guards = {"isDoubleType(receiver)", "valueIsNotDouble(value)"})
   public final Object doDoubleSArray(final SArray receiver, final long index,
       final Object value) {
-    long idx = index - 1;
-
-    double[] storage = receiver.getDoubleStorage(storageType);
-    Object[] newStorage = new Object[storage.length];
-    for (int i = 0; i < storage.length; i++) {
-      newStorage[i] = storage[i];
-    }
-
-    receiver.transitionTo(ArrayType.OBJECT, newStorage);
-    newStorage[(int) idx] = value;
+    receiver.setSlow(index - 1, value);
     return value;
   }
 
@@ -264,23 +264,20 @@ public abstract class AtPutPrim extends TernaryExpressionNode {
   public final Object doBooleanSArray(final SArray receiver, final long index,
       final boolean value) {
     long idx = index - 1;
-    receiver.getBooleanStorage(storageType)[(int) idx] = value;
+    Object storage = receiver.getStorage(storageType);
+    if (storage instanceof boolean[]) {
+      ((boolean[]) storage)[(int) idx] = value;
+    } else {
+      // another thread transitioned the array
+      receiver.setSlow(idx, value);
+    }
     return value;
   }
 
   @Specialization(guards = {"isBooleanType(receiver)", "valueIsNotBoolean(value)"})
   public final Object doBooleanSArray(final SArray receiver, final long index,
       final Object value) {
-    long idx = index - 1;
-
-    boolean[] storage = receiver.getBooleanStorage(storageType);
-    Object[] newStorage = new Object[storage.length];
-    for (int i = 0; i < storage.length; i++) {
-      newStorage[i] = storage[i];
-    }
-
-    receiver.transitionTo(ArrayType.OBJECT, newStorage);
-    newStorage[(int) idx] = value;
+    receiver.setSlow(index - 1, value);
     return value;
   }
 
@@ -288,7 +285,13 @@ public abstract class AtPutPrim extends TernaryExpressionNode {
   public final Object doByteSArray(final SArray receiver, final long index,
       final long value) {
     long idx = index - 1;
-    receiver.getByteStorage(storageType)[(int) idx] = (byte) value;
+    Object storage = receiver.getStorage(storageType);
+    if (storage instanceof byte[]) {
+      ((byte[]) storage)[(int) idx] = (byte) value;
+    } else {
+      // another thread transitioned the array
+      receiver.setSlow(idx, value);
+    }
     return value;
   }
 
@@ -296,7 +299,13 @@ public abstract class AtPutPrim extends TernaryExpressionNode {
   public final Object doCharSArray(final SArray receiver, final long index,
       final char value) {
     long idx = index - 1;
-    receiver.getCharStorage(storageType)[(int) idx] = value;
+    Object storage = receiver.getStorage(storageType);
+    if (storage instanceof char[]) {
+      ((char[]) storage)[(int) idx] = value;
+    } else {
+      // another thread transitioned the array
+      receiver.setSlow(idx, value);
+    }
     return value;
   }
 
@@ -0,0 +1,80 @@
+package som.primitives.arrays;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.Tag;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+import bd.primitives.Primitive;
+import som.interpreter.SArguments;
+import som.interpreter.nodes.nary.TernaryExpressionNode;
+import som.vm.constants.ExecutionLevel;
+import som.vmobjects.SAbstractObject;
+import som.vmobjects.SArray;
+import som.vmobjects.SArray.ArrayType;
+import tools.dym.Tags.ArrayRead;
+import tools.dym.Tags.BasicPrimitiveOperation;
+
+
+@GenerateNodeFactory
+@ImportStatic(ArrayType.class)
+@Primitive(selector = "copyFrom:to:", receiverType = SArray.class)
+public abstract class CopyFromToPrim extends TernaryExpressionNode {
+  private final ValueProfile storageType = ValueProfile.createClassProfile();
+
+  @Specialization(guards = "isByteType(receiver)")
+  public final Object doByteSArray(final VirtualFrame frame, final SArray receiver,
+      final long start, final long stop) {
+    byte[] storage = receiver.getByteStorage(storageType);
+    if (!isInBounds(start, stop - start + 1, storage.length)) {
+      return outOfBounds(frame, receiver, start, stop);
+    }
+    return SArray.create(Arrays.copyOfRange(storage, (int) start - 1, (int) stop));
+  }
+
+  @Specialization(guards = "isCharType(receiver)")
+  public final Object doCharSArray(final VirtualFrame frame, final SArray receiver,
+      final long start, final long stop) {
+    char[] storage = receiver.getCharStorage(storageType);
+    if (!isInBounds(start, stop - start + 1, storage.length)) {
+      return outOfBounds(frame, receiver, start, stop);
+    }
+    return SArray.create(Arrays.copyOfRange(storage, (int) start - 1, (int) stop));
+  }
+
+  /** @return whether the 1-based range is within a collection of <code>size</code> */
+  protected static boolean isInBounds(final long start, final long count, final int size) {
+    return start >= 1 && count >= 0 && start - 1 + count <= size;
+  }
+
+  /** Sends <code>error:</code> to the array, instead of failing in Java. */
+  private static Object outOfBounds(final VirtualFrame frame, final SArray receiver,
+      final long start, final long stop) {
+    return outOfBounds(receiver, start, stop,
+        SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame));
+  }
+
+  @TruffleBoundary
+  private static Object outOfBounds(final SArray receiver, final long start, final long stop,
+      final DynamicObject environment, final ExecutionLevel level) {
+    return SAbstractObject.send("error:", new Object[] {receiver,
+        "Range out of bounds: " + start + " to: " + stop}, environment, level);
+  }
+
+  @Override
+  protected boolean hasTagIgnoringEagerness(final Class<? extends Tag> tag) {
+    if (tag == BasicPrimitiveOperation.class) {
+      return true;
+    } else if (tag == ArrayRead.class) {
+      return true;
+    } else {
+      return super.hasTagIgnoringEagerness(tag);
+    }
+  }
+}
@@ -1,70 +1,56 @@
 package som.primitives.arrays;
 
-import com.oracle.truffle.api.CompilerAsserts;
-import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.nodes.Node;
-import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.instrumentation.Tag;
+import com.oracle.truffle.api.nodes.LoopNode;
 
 import bd.primitives.Primitive;
-import som.interpreter.Invokable;
-import som.interpreter.nodes.dispatch.BlockDispatchNode;
-import som.interpreter.nodes.dispatch.BlockDispatchNodeGen;
 import som.interpreter.nodes.nary.BinaryExpressionNode;
+import som.interpreter.nodes.specialized.CountingLoopBodyNode;
+import som.interpreter.nodes.specialized.LiteralBlockSplzr;
+import som.interpreter.nodes.specialized.LiteralBlockSplzr.InlinesLiteralBlock;
 import som.primitives.LengthPrim;
 import som.primitives.LengthPrimFactory;
 import som.vmobjects.SArray;
 import som.vmobjects.SBlock;
+import tools.dym.Tags;
 
 
 @GenerateNodeFactory
 @Primitive(className = "Array", primitive = "doIndexes:", selector = "doIndexes:",
-           receiverType = SArray.class, disabled = true)
-public abstract class DoIndexesPrim extends BinaryExpressionNode {
-  @Child private BlockDispatchNode block;
+           receiverType = SArray.class, specializer = LiteralBlockSplzr.class)
+public abstract class DoIndexesPrim extends BinaryExpressionNode implements InlinesLiteralBlock {
+  @Child private LoopNode loop;
   @Child private LengthPrim length;
 
   public DoIndexesPrim() {
-    block = BlockDispatchNodeGen.create();
+    loop = Truffle.getRuntime().createLoopNode(ArrayDoBodyNode.forIndexes());
     length = LengthPrimFactory.create(null);
   }
 
+  @Override
+  public void inlineBlock() {
+    ((ArrayDoBodyNode) loop.getRepeatingNode()).inlineBlock();
+  }
+
   @Specialization
   public final SArray doArray(final VirtualFrame frame,
       final SArray receiver, final SBlock block) {
     int length = (int) this.length.executeEvaluated(receiver);
-    loop(frame, block, length);
+    CountingLoopBodyNode.executeLoop(loop, frame, SArray.FIRST_IDX,
+        SArray.FIRST_IDX + length - 1, 1, block);
     return receiver;
   }
 
-  private void loop(final VirtualFrame frame, final SBlock block, final int length) {
-    try {
-      if (SArray.FIRST_IDX < length) {
-        this.block.executeDispatch(frame, new Object[] {
-            block, (long) SArray.FIRST_IDX + 1}); // +1 because it is going to the smalltalk level
-      }
-      for (long i = 1; i < length; i++) {
-        this.block.executeDispatch(frame, new Object[] {
-            block, i + 1}); // +1 because it is going to the smalltalk level
-      }
-    } finally {
-      if (CompilerDirectives.inInterpreter()) {
-        reportLoopCount(length);
-      }
-    }
-  }
-
-  protected final void reportLoopCount(final long count) {
-    assert count >= 0;
-    CompilerAsserts.neverPartOfCompilation("reportLoopCount");
-    Node current = getParent();
-    while (current != null && !(current instanceof RootNode)) {
-      current = current.getParent();
-    }
-    if (current != null) {
-      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
+  @Override
+  protected boolean hasTagIgnoringEagerness(final Class<? extends Tag> tag) {
+    if (tag == Tags.LoopNode.class) {
+      return true;
+    } else {
+      return super.hasTagIgnoringEagerness(tag);
     }
   }
 }
@@ -1,214 +1,131 @@
 package som.primitives.arrays;
 
-import com.oracle.truffle.api.CompilerAsserts;
-import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.nodes.Node;
-import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.instrumentation.Tag;
+import com.oracle.truffle.api.nodes.LoopNode;
 import com.oracle.truffle.api.profiles.ValueProfile;
 
 import bd.primitives.Primitive;
-import som.interpreter.Invokable;
-import som.interpreter.nodes.dispatch.BlockDispatchNode;
-import som.interpreter.nodes.dispatch.BlockDispatchNodeGen;
 import som.interpreter.nodes.nary.BinaryExpressionNode;
-import som.vm.constants.Nil;
+import som.interpreter.nodes.specialized.CountingLoopBodyNode;
+import som.interpreter.nodes.specialized.LiteralBlockSplzr;
+import som.interpreter.nodes.specialized.LiteralBlockSplzr.InlinesLiteralBlock;
 import som.vmobjects.SArray;
 import som.vmobjects.SArray.ArrayType;
-import som.vmobjects.SArray.PartiallyEmptyArray;
 import som.vmobjects.SBlock;
+import tools.dym.Tags;
 
 
 @GenerateNodeFactory
 @Primitive(className = "Array", primitive = "do:", selector = "do:",
-           receiverType = SArray.class, disabled = true)
+           receiverType = SArray.class, specializer = LiteralBlockSplzr.class)
 @ImportStatic(ArrayType.class)
-public abstract class DoPrim extends BinaryExpressionNode {
-  @Child private BlockDispatchNode block;
+public abstract class DoPrim extends BinaryExpressionNode implements InlinesLiteralBlock {
   private final ValueProfile storageType = ValueProfile.createClassProfile();
 
-  public DoPrim() {
-    block = BlockDispatchNodeGen.create();
+  private boolean inlineBlock;
+
+  @Override
+  public void inlineBlock() {
+    inlineBlock = true;
+  }
+
+  protected final LoopNode createLoop(final ArrayType type) {
+    ArrayDoBodyNode body = ArrayDoBodyNode.forElements(type);
+    if (inlineBlock) {
+      body.inlineBlock();
+    }
+    return Truffle.getRuntime().createLoopNode(body);
   }
 
-  private void execBlock(final VirtualFrame frame, final SBlock block, final Object arg) {
-    this.block.executeDispatch(frame, new Object[] {block, arg});
+  private static void loop(final VirtualFrame frame, final LoopNode loop,
+      final SBlock block, final int length, final Object storage, final SArray arr) {
+    CountingLoopBodyNode.executeLoop(loop, frame, SArray.FIRST_IDX,
+        SArray.FIRST_IDX + length - 1, 1, block, storage, arr);
   }
 
   @Specialization(guards = "isEmptyType(arr)")
   public final SArray doEmptyArray(final VirtualFrame frame,
-      final SArray arr, final SBlock block) {
-    int length = arr.getEmptyStorage(storageType);
-    try {
-      if (SArray.FIRST_IDX < length) {
-        execBlock(frame, block, Nil.nilObject);
-      }
-      for (long i = SArray.FIRST_IDX + 1; i < length; i++) {
-        execBlock(frame, block, Nil.nilObject);
-      }
-    } finally {
-      if (CompilerDirectives.inInterpreter()) {
-        reportLoopCount(length);
-      }
-    }
+      final SArray arr, final SBlock block,
+      @Cached("createLoop(EMPTY)") final LoopNode loop) {
+    loop(frame, loop, block, arr.getEmptyStorage(storageType), null, arr);
     return arr;
   }
 
   @Specialization(guards = "isPartiallyEmptyType(arr)")
   public final SArray doPartiallyEmptyArray(final VirtualFrame frame,
-      final SArray arr, final SBlock block) {
-    PartiallyEmptyArray storage = arr.getPartiallyEmptyStorage(storageType);
-    int length = storage.getLength();
-    try {
-      if (SArray.FIRST_IDX < length) {
-        execBlock(frame, block, storage.get(SArray.FIRST_IDX));
-      }
-      for (long i = SArray.FIRST_IDX + 1; i < length; i++) {
-        execBlock(frame, block, storage.get(i));
-      }
-    } finally {
-      if (CompilerDirectives.inInterpreter()) {
-        reportLoopCount(length);
-      }
-    }
+      final SArray arr, final SBlock block,
+      @Cached("createLoop(PARTIAL_EMPTY)") final LoopNode loop) {
+    SArray.PartiallyEmptyArray storage = arr.getPartiallyEmptyStorage(storageType);
+    loop(frame, loop, block, storage.getLength(), storage, arr);
     return arr;
   }
 
   @Specialization(guards = "isObjectType(arr)")
   public final SArray doObjectArray(final VirtualFrame frame,
-      final SArray arr, final SBlock block) {
+      final SArray arr, final SBlock block,
+      @Cached("createLoop(OBJECT)") final LoopNode loop) {
     Object[] storage = arr.getObjectStorage(storageType);
-    int length = storage.length;
-    try {
-      if (SArray.FIRST_IDX < length) {
-        execBlock(frame, block, storage[SArray.FIRST_IDX]);
-      }
-      for (long i = SArray.FIRST_IDX + 1; i < length; i++) {
-        execBlock(frame, block, storage[(int) i]);
-      }
-    } finally {
-      if (CompilerDirectives.inInterpreter()) {
-        reportLoopCount(length);
-      }
-    }
+    loop(frame, loop, block, storage.length, storage, arr);
     return arr;
   }
 
   @Specialization(guards = "isLongType(arr)")
   public final SArray doLongArray(final VirtualFrame frame,
-      final SArray arr, final SBlock block) {
+      final SArray arr, final SBlock block,
+      @Cached("createLoop(LONG)") final LoopNode loop) {
     long[] storage = arr.getLongStorage(storageType);
-    int length = storage.length;
-    try {
-      if (SArray.FIRST_IDX < length) {
-        execBlock(frame, block, storage[SArray.FIRST_IDX]);
-      }
-      for (long i = SArray.FIRST_IDX + 1; i < length; i++) {
-        execBlock(frame, block, storage[(int) i]);
-      }
-    } finally {
-      if (CompilerDirectives.inInterpreter()) {
-        reportLoopCount(length);
-      }
-    }
+    loop(frame, loop, block, storage.length, storage, arr);
     return arr;
   }
 
   @Specialization(guards = "isDoubleType(arr)")
   public final SArray doDoubleArray(final VirtualFrame frame,
-      final SArray arr, final SBlock block) {
+      final SArray arr, final SBlock block,
+      @Cached("createLoop(DOUBLE)") final LoopNode loop) {
     double[] storage = arr.getDoubleStorage(storageType);
-    int length = storage.length;
-    try {
-      if (SArray.FIRST_IDX < length) {
-        execBlock(frame, block, storage[SArray.FIRST_IDX]);
-      }
-      for (long i = SArray.FIRST_IDX + 1; i < length; i++) {
-        execBlock(frame, block, storage[(int) i]);
-      }
-    } finally {
-      if (CompilerDirectives.inInterpreter()) {
-        reportLoopCount(length);
-      }
-    }
+    loop(frame, loop, block, storage.length, storage, arr);
     return arr;
   }
 
   @Specialization(guards = "isBooleanType(arr)")
   public final SArray doBooleanArray(final VirtualFrame frame,
-      final SArray arr, final SBlock block) {
+      final SArray arr, final SBlock block,
+      @Cached("createLoop(BOOLEAN)") final LoopNode loop) {
     boolean[] storage = arr.getBooleanStorage(storageType);
-    int length = storage.length;
-    try {
-      if (SArray.FIRST_IDX < length) {
-        execBlock(frame, block, storage[SArray.FIRST_IDX]);
-      }
-      for (long i = SArray.FIRST_IDX + 1; i < length; i++) {
-        execBlock(frame, block, storage[(int) i]);
-      }
-    } finally {
-      if (CompilerDirectives.inInterpreter()) {
-        reportLoopCount(length);
-      }
-    }
+    loop(frame, loop, block, storage.length, storage, arr);
     return arr;
   }
 
   @Specialization(guards = "isByteType(arr)")
   public final SArray doByteArray(final VirtualFrame frame,
-      final SArray arr, final SBlock block) {
+      final SArray arr, final SBlock block,
+      @Cached("createLoop(BYTE)") final LoopNode loop) {
     byte[] storage = arr.getByteStorage(storageType);
-    int length = storage.length;
-    try {
-      if (SArray.FIRST_IDX < length) {
-        execBlock(frame, block, (long) storage[SArray.FIRST_IDX]);
-      }
-      for (long i = SArray.FIRST_IDX + 1; i < length; i++) {
-        execBlock(frame, block, (long) storage[(int) i]);
-      }
-    } finally {
-      if (CompilerDirectives.inInterpreter()) {
-        reportLoopCount(length);
-      }
-    }
+    loop(frame, loop, block, storage.length, storage, arr);
     return arr;
   }
 
   @Specialization(guards = "isCharType(arr)")
   public final SArray doCharArray(final VirtualFrame frame,
-      final SArray arr, final SBlock block) {
+      final SArray arr, final SBlock block,
+      @Cached("createLoop(CHAR)") final LoopNode loop) {
     char[] storage = arr.getCharStorage(storageType);
-    int length = storage.length;
-    try {
-      if (SArray.FIRST_IDX < length) {
-        execBlock(frame, block, storage[SArray.FIRST_IDX]);
-      }
-      for (long i = SArray.FIRST_IDX + 1; i < length; i++) {
-        execBlock(frame, block, storage[(int) i]);
-      }
-    } finally {
-      if (CompilerDirectives.inInterpreter()) {
-        reportLoopCount(length);
-      }
-    }
+    loop(frame, loop, block, storage.length, storage, arr);
     return arr;
   }
 
-  protected final void reportLoopCount(final long count) {
-    if (count == 0) {
-      return;
-    }
-
-    CompilerAsserts.neverPartOfCompilation("reportLoopCount");
-    Node current = getParent();
-    while (current != null && !(current instanceof RootNode)) {
-      current = current.getParent();
-    }
-    if (current != null) {
-      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
+  @Override
+  protected boolean hasTagIgnoringEagerness(final Class<? extends Tag> tag) {
+    if (tag == Tags.LoopNode.class) {
+      return true;
+    } else {
+      return super.hasTagIgnoringEagerness(tag);
     }
   }
 }
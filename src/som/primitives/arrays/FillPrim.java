@@ -0,0 +1,67 @@
+package som.primitives.arrays;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.instrumentation.Tag;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+import bd.primitives.Primitive;
+import som.interpreter.nodes.nary.BinaryExpressionNode;
+import som.vmobjects.SArray;
+import som.vmobjects.SArray.ArrayType;
+import tools.dym.Tags.ArrayWrite;
+import tools.dym.Tags.BasicPrimitiveOperation;
+
+
+@GenerateNodeFactory
+@ImportStatic(ArrayType.class)
+@Primitive(selector = "fill:", receiverType = SArray.class)
+public abstract class FillPrim extends BinaryExpressionNode {
+  private final ValueProfile storageType = ValueProfile.createClassProfile();
+
+  @Specialization(guards = "isEmptyType(receiver)")
+  public final SArray doEmptySArray(final SArray receiver, final char value) {
+    char[] storage = new char[receiver.getEmptyStorage(storageType)];
+    Arrays.fill(storage, value);
+    receiver.transitionTo(ArrayType.CHAR, storage);
+    return receiver;
+  }
+
+  @Specialization(guards = "isByteType(receiver)")
+  public final SArray doByteSArray(final SArray receiver, final long value) {
+    Object storage = receiver.getStorage(storageType);
+    if (storage instanceof byte[]) {
+      Arrays.fill((byte[]) storage, (byte) value);
+    } else {
+      // another thread transitioned the array
+      receiver.fillSlow(value);
+    }
+    return receiver;
+  }
+
+  @Specialization(guards = "isCharType(receiver)")
+  public final SArray doCharSArray(final SArray receiver, final char value) {
+    Object storage = receiver.getStorage(storageType);
+    if (storage instanceof char[]) {
+      Arrays.fill((char[]) storage, value);
+    } else {
+      // another thread transitioned the array
+      receiver.fillSlow(value);
+    }
+    return receiver;
+  }
+
+  @Override
+  protected boolean hasTagIgnoringEagerness(final Class<? extends Tag> tag) {
+    if (tag == BasicPrimitiveOperation.class) {
+      return true;
+    } else if (tag == ArrayWrite.class) {
+      return true;
+    } else {
+      return super.hasTagIgnoringEagerness(tag);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package som.primitives.arrays;
+
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.instrumentation.Tag;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+import bd.primitives.Primitive;
+import som.interpreter.nodes.nary.BinaryExpressionNode;
+import som.vmobjects.SArray;
+import som.vmobjects.SArray.ArrayType;
+import tools.dym.Tags.ArrayRead;
+import tools.dym.Tags.BasicPrimitiveOperation;
+
+
+/**
+ * Answers the 1-based index of the first occurrence of the argument, or 0.
+ */
+@GenerateNodeFactory
+@ImportStatic(ArrayType.class)
+@Primitive(selector = "indexOf:", receiverType = SArray.class)
+public abstract class IndexOfPrim extends BinaryExpressionNode {
+  private final ValueProfile storageType = ValueProfile.createClassProfile();
+
+  @Specialization(guards = "isByteType(receiver)")
+  public final long doByteSArray(final SArray receiver, final long value) {
+    byte[] storage = receiver.getByteStorage(storageType);
+    byte b = (byte) value;
+    if (b != value) {
+      return 0;
+    }
+    for (int i = 0; i < storage.length; i++) {
+      if (storage[i] == b) {
+        return i + 1;
+      }
+    }
+    return 0;
+  }
+
+  @Specialization(guards = "isCharType(receiver)")
+  public final long doCharSArray(final SArray receiver, final char value) {
+    char[] storage = receiver.getCharStorage(storageType);
+    for (int i = 0; i < storage.length; i++) {
+      if (storage[i] == value) {
+        return i + 1;
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  protected boolean hasTagIgnoringEagerness(final Class<? extends Tag> tag) {
+    if (tag == BasicPrimitiveOperation.class) {
+      return true;
+    } else if (tag == ArrayRead.class) {
+      return true;
+    } else {
+      return super.hasTagIgnoringEagerness(tag);
+    }
+  }
+}
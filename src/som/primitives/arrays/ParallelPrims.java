@@ -0,0 +1,344 @@
+package som.primitives.arrays;
+
+import java.util.Objects;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import bd.primitives.Primitive;
+import som.VmSettings;
+import som.interpreter.SArguments;
+import som.interpreter.actors.Actor;
+import som.interpreter.nodes.dispatch.BlockDispatchNode;
+import som.interpreter.nodes.dispatch.BlockDispatchNodeGen;
+import som.interpreter.nodes.nary.BinaryExpressionNode;
+import som.interpreter.nodes.nary.TernaryExpressionNode;
+import som.vm.constants.ExecutionLevel;
+import som.vmobjects.SArray;
+import som.vmobjects.SArray.ArrayType;
+import som.vmobjects.SBlock;
+import som.vmobjects.SInvokable;
+
+
+/**
+ * Operations on arrays of integers or doubles that split the array into
+ * chunks, and run a block on the chunks in parallel, using the threads of
+ * {@link Actor#getPool()}.
+ *
+ * <p>Only blocks that {@link PureBlock} accepts are run in parallel. For
+ * other blocks, and other arrays, the operations run sequentially, with the
+ * same results as their sequential counterparts. The block of
+ * <code>parallelInject:into:</code> also needs to be associative, see
+ * {@link ParallelInjectPrim}.
+ */
+public abstract class ParallelPrims {
+
+  /** Chunks are not split further below this number of elements. */
+  private static final int MIN_CHUNK_SIZE = 512;
+
+  private static int chunkSize(final int length) {
+    return Math.max(MIN_CHUNK_SIZE, length / (4 * VmSettings.NUM_THREADS));
+  }
+
+  /**
+   * @return the storage of <code>arr</code>, or a copy of its elements if
+   *         another thread changed its strategy in the meantime
+   */
+  private static Object numericStorage(final SArray arr) {
+    Object storage = arr.getStoragePlain();
+    if (storage instanceof long[] || storage instanceof double[]) {
+      return storage;
+    }
+    return arr.copyElements();
+  }
+
+  private static int length(final Object storage) {
+    if (storage instanceof long[]) {
+      return ((long[]) storage).length;
+    } else if (storage instanceof double[]) {
+      return ((double[]) storage).length;
+    }
+    return ((Object[]) storage).length;
+  }
+
+  private static Object element(final Object storage, final int i) {
+    if (storage instanceof long[]) {
+      return ((long[]) storage)[i];
+    } else if (storage instanceof double[]) {
+      return ((double[]) storage)[i];
+    }
+    return ((Object[]) storage)[i];
+  }
+
+  /**
+   * Activates a block on the worker threads. The first failure of an
+   * activation stops the remaining chunks, and is thrown on the thread that
+   * started the operation.
+   */
+  private static final class Activation {
+    private final RootCallTarget target;
+    private final DynamicObject   environment;
+    private final ExecutionLevel  level;
+    private final SBlock          block;
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    Activation(final SBlock block, final VirtualFrame frame) {
+      this.level       = SArguments.getExecutionLevel(frame);
+      this.environment = SArguments.getEnvironment(frame);
+      this.target      = SInvokable.getCallTarget(block.getMethod(), level);
+      this.block       = block;
+    }
+
+    Object value(final Object... args) {
+      Object[] arguments = new Object[args.length + 1];
+      arguments[0] = block;
+      System.arraycopy(args, 0, arguments, 1, args.length);
+      try {
+        return target.call(SArguments.createSArguments(environment, level, arguments));
+      } catch (RuntimeException e) {
+        failure.compareAndSet(null, e);
+        return null;
+      }
+    }
+
+    boolean failed() {
+      return failure.get() != null;
+    }
+
+    void rethrowFailure() {
+      RuntimeException e = failure.get();
+      if (e != null) {
+        throw e;
+      }
+    }
+  }
+
+  /** Applies a block to each element, and stores the results, if needed. */
+  private static final class ForEachChunk extends RecursiveAction {
+    private static final long serialVersionUID = -5196301843623564123L;
+
+    private final Activation fn;
+    private final Object     storage;
+    private final Object[]   results;
+    private final int        from;
+    private final int        to;
+    private final int        chunkSize;
+
+    ForEachChunk(final Activation fn, final Object storage, final Object[] results,
+        final int from, final int to, final int chunkSize) {
+      this.fn        = fn;
+      this.storage   = storage;
+      this.results   = results;
+      this.from      = from;
+      this.to        = to;
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > chunkSize) {
+        int mid = (from + to) >>> 1;
+        invokeAll(new ForEachChunk(fn, storage, results, from, mid, chunkSize),
+            new ForEachChunk(fn, storage, results, mid, to, chunkSize));
+        return;
+      }
+      for (int i = from; i < to && !fn.failed(); i++) {
+        Object result = fn.value(element(storage, i));
+        if (results != null) {
+          results[i] = result;
+        }
+      }
+    }
+  }
+
+  /** Folds a non-empty range of elements with a block. */
+  private static final class FoldChunk extends RecursiveTask<Object> {
+    private static final long serialVersionUID = 3590413711930251764L;
+
+    private final Activation fn;
+    private final Object     storage;
+    private final int        from;
+    private final int        to;
+    private final int        chunkSize;
+
+    FoldChunk(final Activation fn, final Object storage, final int from,
+        final int to, final int chunkSize) {
+      this.fn        = fn;
+      this.storage   = storage;
+      this.from      = from;
+      this.to        = to;
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected Object compute() {
+      if (to - from > chunkSize) {
+        int mid = (from + to) >>> 1;
+        FoldChunk left = new FoldChunk(fn, storage, from, mid, chunkSize);
+        left.fork();
+        Object right = new FoldChunk(fn, storage, mid, to, chunkSize).compute();
+        Object leftResult = left.join();
+        if (fn.failed()) {
+          return null;
+        }
+        return fn.value(leftResult, right);
+      }
+      Object acc = element(storage, from);
+      for (int i = from + 1; i < to && !fn.failed(); i++) {
+        acc = fn.value(acc, element(storage, i));
+      }
+      return acc;
+    }
+  }
+
+  @TruffleBoundary
+  private static Object[] map(final Activation fn, final SArray arr, final boolean collect) {
+    Object storage = numericStorage(arr);
+    int length = length(storage);
+    Object[] results = collect ? new Object[length] : null;
+    Actor.getPool().invoke(new ForEachChunk(fn, storage, results, 0, length, chunkSize(length)));
+    fn.rethrowFailure();
+    return results;
+  }
+
+  /**
+   * @return whether the block gives the same result for both groupings of
+   *         the first three elements. It is pure, so the extra activations
+   *         are not observable.
+   */
+  private static boolean isAssociativeOnFirstElements(final Activation fn, final Object storage) {
+    if (length(storage) < 3) {
+      return true;
+    }
+    Object a = element(storage, 0);
+    Object b = element(storage, 1);
+    Object c = element(storage, 2);
+    Object left  = fn.value(fn.value(a, b), c);
+    Object right = fn.value(a, fn.value(b, c));
+    fn.rethrowFailure();
+    return Objects.equals(left, right);
+  }
+
+  @TruffleBoundary
+  private static Object fold(final Activation fn, final SArray arr, final Object initial) {
+    Object storage = numericStorage(arr);
+    int length = length(storage);
+    if (length == 0) {
+      return initial;
+    }
+    if (!isAssociativeOnFirstElements(fn, storage)) {
+      return foldSequentially(fn, storage, initial);
+    }
+    Object combined = Actor.getPool().invoke(new FoldChunk(fn, storage, 0, length, chunkSize(length)));
+    fn.rethrowFailure();
+    Object result = fn.value(initial, combined);
+    fn.rethrowFailure();
+    return result;
+  }
+
+  private static Object foldSequentially(final Activation fn, final Object storage,
+      final Object initial) {
+    Object acc = initial;
+    int length = length(storage);
+    for (int i = 0; i < length && !fn.failed(); i++) {
+      acc = fn.value(acc, element(storage, i));
+    }
+    fn.rethrowFailure();
+    return acc;
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Array", primitive = "parallelDo:", selector = "parallelDo:",
+             receiverType = SArray.class)
+  @ImportStatic({ArrayType.class, PureBlock.class})
+  public abstract static class ParallelDoPrim extends BinaryExpressionNode {
+    @Child private BlockDispatchNode dispatch = BlockDispatchNodeGen.create();
+
+    @Specialization(guards = {"isLongType(arr) || isDoubleType(arr)", "block.getMethod() == method", "pure"})
+    public final SArray doParallel(final VirtualFrame frame, final SArray arr,
+        final SBlock block,
+        @Cached("block.getMethod()") final DynamicObject method,
+        @Cached("isPure(method, 1)") final boolean pure) {
+      map(new Activation(block, frame), arr, false);
+      return arr;
+    }
+
+    @Specialization
+    public final SArray doSequential(final VirtualFrame frame, final SArray arr,
+        final SBlock block) {
+      for (Object e : arr.copyElements()) {
+        dispatch.executeDispatch(frame, new Object[] {block, e});
+      }
+      return arr;
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "Array", primitive = "parallelCollect:",
+             selector = "parallelCollect:", receiverType = SArray.class)
+  @ImportStatic({ArrayType.class, PureBlock.class})
+  public abstract static class ParallelCollectPrim extends BinaryExpressionNode {
+    @Child private BlockDispatchNode dispatch = BlockDispatchNodeGen.create();
+
+    @Specialization(guards = {"isLongType(arr) || isDoubleType(arr)", "block.getMethod() == method", "pure"})
+    public final SArray doParallel(final VirtualFrame frame, final SArray arr,
+        final SBlock block,
+        @Cached("block.getMethod()") final DynamicObject method,
+        @Cached("isPure(method, 1)") final boolean pure) {
+      return SArray.createSpecialized(map(new Activation(block, frame), arr, true));
+    }
+
+    @Specialization
+    public final SArray doSequential(final VirtualFrame frame, final SArray arr,
+        final SBlock block) {
+      Object[] results = arr.copyElements();
+      for (int i = 0; i < results.length; i++) {
+        results[i] = dispatch.executeDispatch(frame, new Object[] {block, results[i]});
+      }
+      return SArray.createSpecialized(results);
+    }
+  }
+
+  /**
+   * Folds the elements with a block, which needs to be associative, because
+   * the chunks are folded independently, and their results are combined.
+   * The result is then the one of <code>inject:into:</code>. A pure block
+   * that is not associative on the first three elements is caught, and the
+   * array is folded sequentially. For other blocks that are not
+   * associative, the result is unspecified.
+   */
+  @GenerateNodeFactory
+  @Primitive(className = "Array", primitive = "parallelInject:into:",
+             selector = "parallelInject:into:", receiverType = SArray.class)
+  @ImportStatic({ArrayType.class, PureBlock.class})
+  public abstract static class ParallelInjectPrim extends TernaryExpressionNode {
+    @Child private BlockDispatchNode dispatch = BlockDispatchNodeGen.create();
+
+    @Specialization(guards = {"isLongType(arr) || isDoubleType(arr)", "block.getMethod() == method", "pure"})
+    public final Object doParallel(final VirtualFrame frame, final SArray arr,
+        final Object initial, final SBlock block,
+        @Cached("block.getMethod()") final DynamicObject method,
+        @Cached("isPure(method, 2)") final boolean pure) {
+      return fold(new Activation(block, frame), arr, initial);
+    }
+
+    @Specialization
+    public final Object doSequential(final VirtualFrame frame, final SArray arr,
+        final Object initial, final SBlock block) {
+      Object acc = initial;
+      for (Object e : arr.copyElements()) {
+        acc = dispatch.executeDispatch(frame, new Object[] {block, acc, e});
+      }
+      return acc;
+    }
+  }
+}
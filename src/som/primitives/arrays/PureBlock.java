@@ -0,0 +1,117 @@
+package som.primitives.arrays;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.IndirectCallNode;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.interpreter.nodes.ArgumentReadNode.LocalArgumentReadNode;
+import som.interpreter.nodes.ArgumentReadNode.NonLocalArgumentReadNode;
+import som.interpreter.nodes.FieldNode.FieldReadNode;
+import som.interpreter.nodes.GlobalNode;
+import som.interpreter.nodes.LocalVariableNode;
+import som.interpreter.nodes.MessageSendNode.AbstractMessageSendNode;
+import som.interpreter.nodes.NonLocalVariableNode.NonLocalVariableReadNode;
+import som.interpreter.nodes.SequenceNode;
+import som.interpreter.nodes.UninitializedVariableNode.UninitializedVariableReadNode;
+import som.interpreter.nodes.UninitializedVariableNode.UninitializedVariableWriteNode;
+import som.interpreter.nodes.dispatch.AbstractDispatchNode;
+import som.interpreter.nodes.literals.ArrayLiteralNode;
+import som.interpreter.nodes.literals.BlockNode;
+import som.interpreter.nodes.literals.LiteralNode;
+import som.interpreter.nodes.nary.EagerPrimitive;
+import som.interpreter.nodes.specialized.BooleanInlinedLiteralNode;
+import som.interpreter.nodes.specialized.IfInlinedLiteralNode;
+import som.interpreter.nodes.specialized.IfTrueIfFalseInlinedLiteralsNode;
+import som.interpreter.nodes.specialized.NotMessageNode;
+import som.interpreter.objectstorage.FieldAccessorNode.ReadFieldNode;
+import som.primitives.DoublePrims;
+import som.primitives.EqualsEqualsPrim;
+import som.primitives.IntegerPrims;
+import som.primitives.UnequalsPrim;
+import som.primitives.arithmetic.ArithmeticPrim;
+import som.primitives.arithmetic.CosPrim;
+import som.primitives.arithmetic.SinPrim;
+import som.primitives.arithmetic.SqrtPrim;
+import som.vmobjects.SInvokable;
+
+/**
+ * Decides whether a block can be activated by several threads at once.
+ *
+ * <p>The block may read arguments, variables, fields and globals, but write
+ * only its own locals. Its sends need to be arithmetic, comparisons, or
+ * boolean operations. It must not create blocks or array literals, return
+ * non-locally, or access its context. Anything the analysis does not know is
+ * rejected. Sends are judged by their selector, so a <code>+</code> that a
+ * class implements with side effects is not detected.
+ */
+final class PureBlock {
+  private PureBlock() { }
+
+  private static final Set<String> SELECTORS = new HashSet<>(Arrays.asList(
+      "+", "-", "*", "/", "//", "%", "rem:", "<<", ">>>", "&", "|",
+      "bitAnd:", "bitXor:", "max:", "min:", "abs", "negated", "sqrt", "sin",
+      "cos", "round", "floor", "asInteger", "asDouble", "as32BitSignedValue",
+      "as32BitUnsignedValue", "<", ">", "<=", ">=", "=", "<>", "~=", "==",
+      "not", "isZero", "even", "odd"));
+
+  private static final List<Class<?>> PURE_NODES = Arrays.asList(
+      RootNode.class, SequenceNode.class, LiteralNode.class, GlobalNode.class,
+      LocalArgumentReadNode.class, NonLocalArgumentReadNode.class,
+      LocalVariableNode.class, NonLocalVariableReadNode.class,
+      UninitializedVariableReadNode.class, FieldReadNode.class,
+      ReadFieldNode.class, IfInlinedLiteralNode.class,
+      IfTrueIfFalseInlinedLiteralsNode.class, BooleanInlinedLiteralNode.class,
+      AbstractDispatchNode.class, ArithmeticPrim.class, UnequalsPrim.class,
+      EqualsEqualsPrim.class, SqrtPrim.class, SinPrim.class, CosPrim.class,
+      NotMessageNode.class, IntegerPrims.AbsPrim.class,
+      IntegerPrims.As32BitSignedValue.class,
+      IntegerPrims.As32BitUnsignedValue.class, DoublePrims.RoundPrim.class,
+      DoublePrims.AsIntegerPrim.class, DoublePrims.FloorPrim.class,
+      DirectCallNode.class, IndirectCallNode.class);
+
+  /**
+   * @param numArgs the number of arguments the block needs to take
+   * @return whether <code>blockMethod</code> is pure, see {@link PureBlock}
+   */
+  @TruffleBoundary
+  static boolean isPure(final DynamicObject blockMethod, final int numArgs) {
+    // the receiver of a block method is the block itself
+    if (SInvokable.getNumberOfArguments(blockMethod) != numArgs + 1) {
+      return false;
+    }
+    boolean[] pure = {true};
+    SInvokable.getInvokable(blockMethod).accept(node -> {
+      if (!isPureNode(node)) {
+        pure[0] = false;
+      }
+      return pure[0];
+    });
+    return pure[0];
+  }
+
+  private static boolean isPureNode(final Node node) {
+    if (node instanceof BlockNode || node instanceof ArrayLiteralNode) {
+      return false;
+    } else if (node instanceof UninitializedVariableWriteNode) {
+      return ((UninitializedVariableWriteNode) node).getContextLevel() == 0;
+    } else if (node instanceof AbstractMessageSendNode) {
+      return SELECTORS.contains(((AbstractMessageSendNode) node).getSelector().getString());
+    } else if (node instanceof EagerPrimitive) {
+      return SELECTORS.contains(((EagerPrimitive) node).getOperation());
+    }
+    for (Class<?> c : PURE_NODES) {
+      if (c.isInstance(node)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
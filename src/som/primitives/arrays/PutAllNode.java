@@ -1,21 +1,19 @@
 package som.primitives.arrays;
 
-import com.oracle.truffle.api.CompilerAsserts;
-import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.NodeChild;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.nodes.Node;
-import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.nodes.LoopNode;
 import com.oracle.truffle.api.object.DynamicObject;
 
 import bd.primitives.Primitive;
-import som.interpreter.Invokable;
 import som.interpreter.nodes.dispatch.BlockDispatchNode;
 import som.interpreter.nodes.dispatch.BlockDispatchNodeGen;
 import som.interpreter.nodes.nary.BinaryExpressionNode;
+import som.interpreter.nodes.specialized.CountingLoopBodyNode;
 import som.primitives.LengthPrim;
 import som.primitives.LengthPrimFactory;
 import som.vm.constants.Nil;
@@ -26,16 +24,31 @@ import som.vmobjects.SBlock;
 
 @GenerateNodeFactory
 @ImportStatic(ArrayType.class)
-@Primitive(className = "Array", primitive = "putAll:", selector = "putAll:", disabled = true,
-           extraChild = LengthPrimFactory.class)
+@Primitive(className = "Array", primitive = "putAll:", selector = "putAll:",
+           receiverType = SArray.class, extraChild = LengthPrimFactory.class)
 @NodeChild(value = "length", type = LengthPrim.class, executeWith = "receiver")
 public abstract class PutAllNode extends BinaryExpressionNode {
-  @Child private BlockDispatchNode blockFirstIteration;
-  @Child private BlockDispatchNode block;
+  @Child private LoopNode loop;
 
   public PutAllNode() {
-    block = BlockDispatchNodeGen.create();
-    blockFirstIteration = BlockDispatchNodeGen.create();
+    loop = Truffle.getRuntime().createLoopNode(new PutAllBodyNode());
+  }
+
+  /**
+   * Stores the value of the block, the first value of the loop state, into
+   * the array, the second one. Each value is written with
+   * <code>at:put:</code>, right after the block answered it, so that writes
+   * of the block to the array are kept as well.
+   */
+  private static final class PutAllBodyNode extends CountingLoopBodyNode {
+    @Child private BlockDispatchNode block = BlockDispatchNodeGen.create();
+    @Child private AtPutPrim atPut = AtPutPrimFactory.create(null, null, null);
+
+    @Override
+    protected void executeBody(final VirtualFrame loopFrame, final long i) {
+      Object value = block.executeDispatch(loopFrame, new Object[] {getState(loopFrame, 0)});
+      atPut.executeEvaluated(loopFrame, getState(loopFrame, 1), i + 1, value);
+    }
   }
 
   protected static final boolean valueIsNil(final DynamicObject value) {
@@ -63,91 +76,14 @@ public abstract class PutAllNode extends BinaryExpressionNode {
     return rcvr;
   }
 
-  private void evalBlockForRemaining(final VirtualFrame frame,
-      final SBlock block, final long length, final Object[] storage) {
-    for (int i = SArray.FIRST_IDX + 1; i < length; i++) {
-      // The proper solution is to activate the block dispatch is described in somns: ArraySetAllStrategy.java
-      storage[i] = this.block.executeDispatch(frame, new Object[] {block});
-    }
-  }
-
-  private void evalBlockForRemaining(final VirtualFrame frame,
-      final SBlock block, final long length, final long[] storage) {
-    for (int i = SArray.FIRST_IDX + 1; i < length; i++) {
-      // The proper solution is to activate the block dispatch is described in somns: ArraySetAllStrategy.java
-      storage[i] = (long) this.block.executeDispatch(frame, new Object[] {block});
-    }
-  }
-
-  private void evalBlockForRemaining(final VirtualFrame frame,
-      final SBlock block, final long length, final double[] storage) {
-    for (int i = SArray.FIRST_IDX + 1; i < length; i++) {
-      // The proper solution is to activate the block dispatch is described in somns: ArraySetAllStrategy.java
-      storage[i] = (double) this.block.executeDispatch(frame, new Object[] {block});
-    }
-  }
-
-  private void evalBlockForRemaining(final VirtualFrame frame,
-      final SBlock block, final long length, final boolean[] storage) {
-    for (int i = SArray.FIRST_IDX + 1; i < length; i++) {
-      // The proper solution is to activate the block dispatch is described in somns: ArraySetAllStrategy.java
-      storage[i] = (boolean) this.block.executeDispatch(frame, new Object[] {block});
-    }
-  }
-
   @Specialization
   public SArray doPutEvalBlock(final VirtualFrame frame, final SArray rcvr,
       final SBlock block, final long length) {
-    if (length <= 0) {
-      return rcvr;
-    }
-    // TODO: this version does not handle the case that a subsequent value is not of the expected type...
-    try {
-      Object result = this.blockFirstIteration.executeDispatch(frame, new Object[] {block});
-      if (result instanceof Long) {
-        long[] newStorage = new long[(int) length];
-        newStorage[0] = (long) result;
-        evalBlockForRemaining(frame, block, length, newStorage);
-        rcvr.transitionTo(ArrayType.LONG, newStorage);
-      } else if (result instanceof Double) {
-        double[] newStorage = new double[(int) length];
-        newStorage[0] = (double) result;
-        evalBlockForRemaining(frame, block, length, newStorage);
-        rcvr.transitionTo(ArrayType.DOUBLE, newStorage);
-      } else if (result instanceof Boolean) {
-        boolean[] newStorage = new boolean[(int) length];
-        newStorage[0] = (boolean) result;
-        evalBlockForRemaining(frame, block, length, newStorage);
-        rcvr.transitionTo(ArrayType.BOOLEAN, newStorage);
-      } else {
-        Object[] newStorage = new Object[(int) length];
-        newStorage[0] = result;
-        evalBlockForRemaining(frame, block, length, newStorage);
-        rcvr.transitionTo(ArrayType.OBJECT, newStorage);
-      }
-    } finally {
-      if (CompilerDirectives.inInterpreter()) {
-        reportLoopCount(length);
-      }
-    }
+    CountingLoopBodyNode.executeLoop(loop, frame, SArray.FIRST_IDX,
+        SArray.FIRST_IDX + length - 1, 1, block, rcvr);
     return rcvr;
   }
 
-  protected final void reportLoopCount(final long count) {
-    if (count == 0) {
-      return;
-    }
-
-    CompilerAsserts.neverPartOfCompilation("reportLoopCount");
-    Node current = getParent();
-    while (current != null && !(current instanceof RootNode)) {
-      current = current.getParent();
-    }
-    if (current != null) {
-      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
-    }
-  }
-
   @Specialization
   public SArray doPutLong(final SArray rcvr, final long value,
       final long length) {
@@ -0,0 +1,150 @@
+package som.primitives.arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.Tag;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+import bd.primitives.Primitive;
+import som.interpreter.SArguments;
+import som.interpreter.nodes.nary.QuaternaryExpressionNode;
+import som.vm.constants.ExecutionLevel;
+import som.vmobjects.SAbstractObject;
+import som.vmobjects.SArray;
+import som.vmobjects.SArray.ArrayType;
+import tools.dym.Tags.ArrayWrite;
+import tools.dym.Tags.BasicPrimitiveOperation;
+
+
+@GenerateNodeFactory
+@ImportStatic(ArrayType.class)
+@Primitive(selector = "replaceFrom:to:with:startingAt:", receiverType = SArray.class)
+public abstract class ReplaceFromToWithStartingAtPrim extends QuaternaryExpressionNode {
+  private final ValueProfile storageType = ValueProfile.createClassProfile();
+  private final ValueProfile sourceStorageType = ValueProfile.createClassProfile();
+
+  @Specialization(guards = {"isByteType(receiver)", "isByteType(source)"})
+  public final Object doByteSArray(final VirtualFrame frame, final SArray receiver, final long start,
+      final long stop, final SArray source, final long sourceStart) {
+    Object storage = receiver.getStorage(storageType);
+    Object sourceStorage = source.getStorage(sourceStorageType);
+    if (!(storage instanceof byte[]) || !(sourceStorage instanceof byte[])) {
+      // another thread transitioned one of the arrays
+      return replaceSlow(frame, receiver, start, stop, source, sourceStart);
+    }
+    byte[] bytes = (byte[]) storage;
+    byte[] sourceBytes = (byte[]) sourceStorage;
+    if (!isInBounds(start, stop, bytes.length, sourceStart, sourceBytes.length)) {
+      return outOfBounds(frame, receiver, start, stop, sourceStart);
+    }
+    System.arraycopy(sourceBytes, (int) sourceStart - 1,
+        bytes, (int) start - 1, (int) (stop - start + 1));
+    return receiver;
+  }
+
+  @Specialization(guards = {"isCharType(receiver)", "isCharType(source)"})
+  public final Object doCharSArray(final VirtualFrame frame, final SArray receiver, final long start,
+      final long stop, final SArray source, final long sourceStart) {
+    Object storage = receiver.getStorage(storageType);
+    Object sourceStorage = source.getStorage(sourceStorageType);
+    if (!(storage instanceof char[]) || !(sourceStorage instanceof char[])) {
+      // another thread transitioned one of the arrays
+      return replaceSlow(frame, receiver, start, stop, source, sourceStart);
+    }
+    char[] chars = (char[]) storage;
+    char[] sourceChars = (char[]) sourceStorage;
+    if (!isInBounds(start, stop, chars.length, sourceStart, sourceChars.length)) {
+      return outOfBounds(frame, receiver, start, stop, sourceStart);
+    }
+    System.arraycopy(sourceChars, (int) sourceStart - 1,
+        chars, (int) start - 1, (int) (stop - start + 1));
+    return receiver;
+  }
+
+  @Specialization(guards = "isCharType(receiver)")
+  public final Object doCharSArrayFromString(final VirtualFrame frame, final SArray receiver, final long start,
+      final long stop, final String source, final long sourceStart) {
+    Object storage = receiver.getStorage(storageType);
+    if (!(storage instanceof char[])) {
+      // another thread transitioned the array
+      if (!isInBounds(start, stop, receiver.getLengthSlow(), sourceStart, source.length())) {
+        return outOfBounds(frame, receiver, start, stop, sourceStart);
+      }
+      replaceSlow(receiver, start, stop, source, sourceStart);
+      return receiver;
+    }
+    char[] chars = (char[]) storage;
+    if (!isInBounds(start, stop, chars.length, sourceStart, source.length())) {
+      return outOfBounds(frame, receiver, start, stop, sourceStart);
+    }
+    int from = (int) sourceStart - 1;
+    source.getChars(from, from + (int) (stop - start + 1), chars, (int) start - 1);
+    return receiver;
+  }
+
+  /**
+   * @return whether the 1-based range is within the receiver of
+   *         <code>size</code>, and the range of the same length starting at
+   *         <code>sourceStart</code> is within the source
+   */
+  protected static boolean isInBounds(final long start, final long stop, final int size,
+      final long sourceStart, final int sourceSize) {
+    long count = stop - start + 1;
+    return start >= 1 && count >= 0 && start - 1 + count <= size
+        && sourceStart >= 1 && sourceStart - 1 + count <= sourceSize;
+  }
+
+  /** Sends <code>error:</code> to the array, instead of failing in Java. */
+  private static Object outOfBounds(final VirtualFrame frame, final SArray receiver,
+      final long start, final long stop, final long sourceStart) {
+    return outOfBounds(receiver, start, stop, sourceStart,
+        SArguments.getEnvironment(frame), SArguments.getExecutionLevel(frame));
+  }
+
+  @TruffleBoundary
+  private static Object outOfBounds(final SArray receiver, final long start, final long stop,
+      final long sourceStart, final DynamicObject environment, final ExecutionLevel level) {
+    return SAbstractObject.send("error:", new Object[] {receiver, "Range out of bounds: "
+        + start + " to: " + stop + " startingAt: " + sourceStart}, environment, level);
+  }
+
+  private static Object replaceSlow(final VirtualFrame frame, final SArray receiver,
+      final long start, final long stop, final SArray source, final long sourceStart) {
+    if (!isInBounds(start, stop, receiver.getLengthSlow(), sourceStart, source.getLengthSlow())) {
+      return outOfBounds(frame, receiver, start, stop, sourceStart);
+    }
+    replaceSlow(receiver, start, stop, source, sourceStart);
+    return receiver;
+  }
+
+  @TruffleBoundary
+  private static void replaceSlow(final SArray receiver, final long start,
+      final long stop, final SArray source, final long sourceStart) {
+    for (long i = start; i <= stop; i++) {
+      receiver.setSlow(i - 1, source.getSlow(sourceStart - start + i - 1));
+    }
+  }
+
+  @TruffleBoundary
+  private static void replaceSlow(final SArray receiver, final long start,
+      final long stop, final String source, final long sourceStart) {
+    for (long i = start; i <= stop; i++) {
+      receiver.setSlow(i - 1, source.charAt((int) (sourceStart - start + i - 1)));
+    }
+  }
+
+  @Override
+  protected boolean hasTagIgnoringEagerness(final Class<? extends Tag> tag) {
+    if (tag == BasicPrimitiveOperation.class) {
+      return true;
+    } else if (tag == ArrayWrite.class) {
+      return true;
+    } else {
+      return super.hasTagIgnoringEagerness(tag);
+    }
+  }
+}
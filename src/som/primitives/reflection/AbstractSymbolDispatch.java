@@ -16,10 +16,10 @@ import som.interpreter.nodes.MessageSendNode.AbstractMessageSendNode;
 import som.interpreter.nodes.PreevaluatedExpression;
 import som.primitives.arrays.ToArgumentsArrayNode;
 import som.primitives.arrays.ToArgumentsArrayNodeFactory;
+import som.vm.GlobalMethodCache;
 import som.vm.constants.ExecutionLevel;
-import som.vmobjects.InvokableLayoutImpl;
 import som.vmobjects.SArray;
-import som.vmobjects.SClass;
+import som.vmobjects.SInvokable;
 import som.vmobjects.SSymbol;
 
 
@@ -76,16 +76,11 @@ public abstract class AbstractSymbolDispatch extends Node {
   public Object doUncached(final VirtualFrame frame,
       final Object receiver, final SSymbol selector, final Object argsArr,
       @Cached("create()") final IndirectCallNode call) {
-    DynamicObject invokable = SClass.lookupInvokable(Types.getClassOf(receiver), selector);
+    DynamicObject invokable = GlobalMethodCache.lookup(Types.getClassOf(receiver), selector);
 
     /*Todo: Analyze what is the best to do here with the Mate arguments*/
     Object[] arguments = {receiver};
-    CallTarget target;
-    if (SArguments.getExecutionLevel(frame) == ExecutionLevel.Meta) {
-      target = InvokableLayoutImpl.INSTANCE.getCallTargetMeta(invokable);
-    } else {
-      target = InvokableLayoutImpl.INSTANCE.getCallTarget(invokable);
-    }
+    CallTarget target = SInvokable.getCallTarget(invokable, SArguments.getExecutionLevel(frame));
     return call.call(target, SArguments.createSArguments(SArguments.getEnvironment(frame), ExecutionLevel.Base, arguments));
   }
 
@@ -94,15 +89,10 @@ public abstract class AbstractSymbolDispatch extends Node {
       final Object receiver, final SSymbol selector, final SArray argsArr,
       @Cached("create()") final IndirectCallNode call,
       @Cached("createArgArrayNode()") final ToArgumentsArrayNode toArgArray) {
-    DynamicObject invokable = SClass.lookupInvokable(Types.getClassOf(receiver), selector);
+    DynamicObject invokable = GlobalMethodCache.lookup(Types.getClassOf(receiver), selector);
 
     Object[] arguments = toArgArray.executedEvaluated(argsArr, receiver);
-    CallTarget target;
-    if (SArguments.getExecutionLevel(frame) == ExecutionLevel.Meta) {
-      target = InvokableLayoutImpl.INSTANCE.getCallTargetMeta(invokable);
-    } else {
-      target = InvokableLayoutImpl.INSTANCE.getCallTarget(invokable);
-    }
+    CallTarget target = SInvokable.getCallTarget(invokable, SArguments.getExecutionLevel(frame));
     return call.call(target, SArguments.createSArguments(SArguments.getEnvironment(frame), ExecutionLevel.Base, arguments));
   }
 }
@@ -11,6 +11,7 @@ import som.interpreter.objectstorage.FieldAccessorNode;
 import som.interpreter.objectstorage.FieldAccessorNode.ReadFieldNode;
 import som.interpreter.objectstorage.FieldAccessorNode.WriteFieldNode;
 import som.vm.constants.Nil;
+import som.vmobjects.SMateEnvironment;
 
 
 public abstract class IndexDispatch extends Node implements DispatchChain {
@@ -164,8 +165,11 @@ public abstract class IndexDispatch extends Node implements DispatchChain {
 
     @Override
     public Object executeDispatch(final DynamicObject obj, final int index, final Object value) {
-      obj.set(index, value);
-      obj.define(index, value);
+      synchronized (obj) {
+        obj.set(index, value);
+        obj.define(index, value);
+      }
+      SMateEnvironment.fieldWritten(obj);
       return value;
     }
 
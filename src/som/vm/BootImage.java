@@ -0,0 +1,191 @@
+package som.vm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.compiler.ClassImage;
+import som.interpreter.LazyMethod;
+import som.interpreter.SomLanguage;
+import som.vmobjects.SSymbol;
+
+/**
+ * Snapshot of the classes loaded by {@link ObjectMemory#initializeSystem()},
+ * used with <code>--image &lt;file&gt;</code>.
+ *
+ * <p>Each class is stored as a {@link ClassImage}, so restoring it does not
+ * parse anything: methods are installed as {@link LazyMethod}s and only
+ * compiled when they are first executed, which for a short script is a small
+ * part of the core library. The image also records the symbol table, so that
+ * symbols get the same ids as in the run that wrote it.
+ */
+public final class BootImage {
+  private static final int MAGIC   = 0x534F4D49; // SOMI
+
+  private static final class Entry {
+    final ClassImage image;
+    final String     sourcePath;
+    final long       sourceModified;
+    final long       sourceLength;
+
+    Entry(final ClassImage image, final String sourcePath,
+        final long sourceModified, final long sourceLength) {
+      this.image          = image;
+      this.sourcePath     = sourcePath;
+      this.sourceModified = sourceModified;
+      this.sourceLength   = sourceLength;
+    }
+
+    boolean isUpToDate() {
+      File file = new File(sourcePath);
+      return file.lastModified() == sourceModified && file.length() == sourceLength
+          && sourcePath.equals(Universe.getCurrent().resolveClassFilePath(image.getName()));
+    }
+  }
+
+  private static String buildStamp;
+
+  private final HashMap<String, Entry> classes;
+
+  private BootImage(final HashMap<String, Entry> classes) {
+    this.classes = classes;
+  }
+
+  /**
+   * Identifies the build of the VM, so that an image written by another build
+   * is not used, even if {@link ClassImage#VERSION} was not bumped. It
+   * consists of the JVM version and the size and time stamp of the jar, or
+   * the time stamp of the newest file in the class directory.
+   */
+  public static synchronized String getBuildStamp() {
+    if (buildStamp == null) {
+      buildStamp = System.getProperty("java.vm.version") + "/" + codeStamp();
+    }
+    return buildStamp;
+  }
+
+  private static String codeStamp() {
+    try {
+      CodeSource code = BootImage.class.getProtectionDomain().getCodeSource();
+      if (code == null) {
+        return "unknown";
+      }
+      Path location = Paths.get(code.getLocation().toURI());
+      if (!Files.isDirectory(location)) {
+        return location.getFileName() + ":" + Files.size(location) + ":"
+            + Files.getLastModifiedTime(location).toMillis();
+      }
+      try (Stream<Path> files = Files.walk(location)) {
+        return location.getFileName() + ":" + files.mapToLong(p -> p.toFile().lastModified()).max().orElse(0);
+      }
+    } catch (IOException | URISyntaxException | SecurityException e) {
+      return "unknown";
+    }
+  }
+
+  /**
+   * @return the image, or <code>null</code> if the file does not exist or was
+   *         written by a differently configured VM, or another build of it
+   */
+  public static BootImage readIfValid(final File file) {
+    if (!file.exists()) {
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != ClassImage.VERSION
+          || !ClassImage.readString(in).equals(getBuildStamp())) {
+        return null;
+      }
+      Universe vm = Universe.getCurrent();
+      if (in.readBoolean() != vm.vmReflectionEnabled() || in.readBoolean() != vm.environmentInObect()) {
+        return null;
+      }
+
+      int numberOfSymbols = in.readInt();
+      for (int i = 0; i < numberOfSymbols; i++) {
+        Symbols.symbolFor(ClassImage.readString(in));
+      }
+
+      int numberOfClasses = in.readInt();
+      HashMap<String, Entry> classes = new HashMap<>();
+      for (int i = 0; i < numberOfClasses; i++) {
+        String path = ClassImage.readString(in);
+        long modified = in.readLong();
+        long length = in.readLong();
+        Entry entry = new Entry(ClassImage.read(in), path, modified, length);
+        if (!entry.isUpToDate()) {
+          return null;
+        }
+        classes.put(entry.image.getName(), entry);
+      }
+      return new BootImage(classes);
+    } catch (IOException | IllegalStateException e) {
+      Universe.errorPrintln("Ignoring boot image " + file + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  public boolean contains(final SSymbol className) {
+    return classes.containsKey(className.getString());
+  }
+
+  /**
+   * @see ClassImage#restore(DynamicObject, SomLanguage)
+   */
+  public DynamicObject restoreClass(final SSymbol name, final DynamicObject systemClass,
+      final SomLanguage language) {
+    return classes.get(name.getString()).image.restore(systemClass, language);
+  }
+
+  /**
+   * Writes the given classes, which need to be loaded already, in the order
+   * in which they were loaded.
+   */
+  public static void write(final File file, final List<SSymbol> classNames,
+      final ObjectMemory memory) {
+    CompilerAsserts.neverPartOfCompilation("BootImage.write");
+    Universe vm = Universe.getCurrent();
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(ClassImage.VERSION);
+      ClassImage.writeString(out, getBuildStamp());
+      out.writeBoolean(vm.vmReflectionEnabled());
+      out.writeBoolean(vm.environmentInObect());
+
+      int numberOfSymbols = Symbols.numberOfSymbols();
+      out.writeInt(numberOfSymbols);
+      for (int i = 0; i < numberOfSymbols; i++) {
+        ClassImage.writeString(out, Symbols.symbolForId(i).getString());
+      }
+
+      out.writeInt(classNames.size());
+      for (SSymbol name : classNames) {
+        String path = vm.resolveClassFilePath(name.getString());
+        File source = new File(path);
+        ClassImage.writeString(out, path);
+        out.writeLong(source.lastModified());
+        out.writeLong(source.length());
+        ClassImage.of(memory.getGlobal(name)).write(out);
+      }
+    } catch (IOException e) {
+      Universe.errorPrintln("Could not write boot image " + file + ": " + e.getMessage());
+      file.delete();
+    }
+  }
+}
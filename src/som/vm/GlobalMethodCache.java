@@ -0,0 +1,88 @@
+package som.vm;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.VmSettings;
+import som.vmobjects.SClass;
+import som.vmobjects.SClass.MethodTable;
+import som.vmobjects.SSymbol;
+
+/**
+ * VM-wide (class, selector) -> invokable cache used by megamorphic send sites.
+ * The table has a fixed size and entries are immutable, so readers never need
+ * to lock: a racing writer can only replace a whole entry. An entry remembers
+ * the method table of the class it was resolved from, and is a miss once that
+ * table was invalidated, so a change to the methods of a class does not need
+ * to flush the cache.
+ */
+public final class GlobalMethodCache {
+  private static final int CACHE_SIZE = 4096;
+  private static final int MASK       = CACHE_SIZE - 1;
+
+  private static final class Entry {
+    final DynamicObject clazz;
+    final SSymbol       selector;
+    final MethodTable   table;
+    final DynamicObject invokable;
+
+    Entry(final DynamicObject clazz, final SSymbol selector,
+        final MethodTable table, final DynamicObject invokable) {
+      this.clazz     = clazz;
+      this.selector  = selector;
+      this.table     = table;
+      this.invokable = invokable;
+    }
+  }
+
+  private static final Entry[] entries = new Entry[CACHE_SIZE];
+
+  private static final AtomicLong hits   = new AtomicLong();
+  private static final AtomicLong misses = new AtomicLong();
+
+  private GlobalMethodCache() {}
+
+  private static int indexFor(final DynamicObject clazz, final SSymbol selector) {
+    int hash = System.identityHashCode(clazz) * 31 + System.identityHashCode(selector);
+    return (hash ^ (hash >>> 16)) & MASK;
+  }
+
+  /**
+   * Same result as {@link SClass#lookupInvokable(DynamicObject, SSymbol)},
+   * including <code>null</code> for selectors that are not understood.
+   */
+  @TruffleBoundary
+  public static DynamicObject lookup(final DynamicObject clazz, final SSymbol selector) {
+    int index = indexFor(clazz, selector);
+    Entry entry = entries[index];
+    if (entry != null && entry.clazz == clazz && entry.selector == selector
+        && entry.table.isValid()) {
+      if (VmSettings.PRINT_STATISTICS) {
+        hits.incrementAndGet();
+      }
+      return entry.invokable;
+    }
+
+    if (VmSettings.PRINT_STATISTICS) {
+      misses.incrementAndGet();
+    }
+    MethodTable table = SClass.getMethodTable(clazz);
+    DynamicObject invokable = table.lookup(selector);
+    entries[index] = new Entry(clazz, selector, table, invokable);
+    return invokable;
+  }
+
+  public static long getHits() {
+    return hits.get();
+  }
+
+  public static long getMisses() {
+    return misses.get();
+  }
+
+  public static void reportStatistics() {
+    Universe.errorPrintln("Global method cache: " + getHits() + " hits, " + getMisses() + " misses");
+  }
+}
@@ -23,8 +23,11 @@ import static som.vm.constants.MateClasses.messageMO;
 import static som.vm.constants.MateClasses.operationalSemanticsMO;
 import static som.vm.constants.MateClasses.shapeClass;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -33,6 +36,7 @@ import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.DynamicObjectFactory;
 import com.oracle.truffle.api.source.Source;
 
+import som.compiler.ClassGenerationContext;
 import som.compiler.Disassembler;
 import som.compiler.Parser.ParseError;
 import som.compiler.SourcecodeCompiler;
@@ -50,7 +54,7 @@ import tools.language.StructuralProbe;
 // This is a pseudo object memory because the objects are actually managed by the Truffle/Java memory manager
 public class ObjectMemory {
   @CompilationFinal public static ObjectMemory last;
-  private final HashMap<SSymbol, DynamicObject> globals;
+  private final ConcurrentHashMap<SSymbol, DynamicObject> globals;
 
   @CompilationFinal private DynamicObject trueObject;
   @CompilationFinal private DynamicObject falseObject;
@@ -58,6 +62,8 @@ public class ObjectMemory {
 
   // Optimizations
   private final DynamicObject[] blockClasses;
+  private final List<SSymbol> bootClasses;
+  private BootImage bootImage;
   private final StructuralProbe structuralProbe;
   private static final SObject layoutClass = Universe.getCurrent().getInstanceArgumentsBuilder();
 
@@ -68,13 +74,19 @@ public class ObjectMemory {
   protected ObjectMemory(final SourcecodeCompiler compiler, final StructuralProbe probe) {
     last = this;
     this.compiler = compiler;
-    globals      = new HashMap<SSymbol, DynamicObject>();
+    globals      = new ConcurrentHashMap<SSymbol, DynamicObject>();
     blockClasses = new DynamicObject[5];
+    bootClasses  = new ArrayList<SSymbol>();
     structuralProbe = probe;
     primitives = new Primitives(compiler.getLanguage());
   }
 
   protected void initializeSystem() throws ParseError {
+    String imageFile = Universe.getCurrent().imageFile();
+    if (imageFile != null) {
+      bootImage = BootImage.readIfValid(new File(imageFile));
+    }
+
     // Setup the fields that were not possible to setup before to avoid cyclic initialization dependencies during allocation
     DynamicObject nilObject = Nil.nilObject;
     SObject.setClass(nilObject, nilClass);
@@ -85,25 +97,25 @@ public class ObjectMemory {
     initializeSystemClassName(); // Need to do this now because before there was no symbol table!
 
     // Load methods and fields into the system classes
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(objectClass)), objectClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(classClass)), classClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(metaclassClass)), metaclassClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(nilClass)), nilClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(arrayClass)), arrayClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(methodClass)), methodClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(stringClass)), stringClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(characterClass)), characterClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(symbolClass)), symbolClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(integerClass)), integerClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(primitiveClass)), primitiveClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(doubleClass)), doubleClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(booleanClass)), booleanClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(trueClass)), trueClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(falseClass)), falseClass);
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(systemClass)), systemClass);
+    loadSystemClass(SClass.getName(objectClass), objectClass);
+    loadSystemClass(SClass.getName(classClass), classClass);
+    loadSystemClass(SClass.getName(metaclassClass), metaclassClass);
+    loadSystemClass(SClass.getName(nilClass), nilClass);
+    loadSystemClass(SClass.getName(arrayClass), arrayClass);
+    loadSystemClass(SClass.getName(methodClass), methodClass);
+    loadSystemClass(SClass.getName(stringClass), stringClass);
+    loadSystemClass(SClass.getName(characterClass), characterClass);
+    loadSystemClass(SClass.getName(symbolClass), symbolClass);
+    loadSystemClass(SClass.getName(integerClass), integerClass);
+    loadSystemClass(SClass.getName(primitiveClass), primitiveClass);
+    loadSystemClass(SClass.getName(doubleClass), doubleClass);
+    loadSystemClass(SClass.getName(booleanClass), booleanClass);
+    loadSystemClass(SClass.getName(trueClass), trueClass);
+    loadSystemClass(SClass.getName(falseClass), falseClass);
+    loadSystemClass(SClass.getName(systemClass), systemClass);
 
     // Load the generic block class
-    blockClasses[0] = loadClass(Universe.getCurrent().getSourceForClassName(Symbols.symbolFor("Block")), null);
+    blockClasses[0] = loadSystemClass(Symbols.symbolFor("Block"), null);
 
     // Setup the true and false objects
     trueObject  = newObject(trueClass);
@@ -131,7 +143,7 @@ public class ObjectMemory {
       Universe.errorExit("Initialization went wrong for class Blocks");
     }
 
-    loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(contextClass)), contextClass);
+    loadSystemClass(SClass.getName(contextClass), contextClass);
 
     if (Universe.getCurrent().vmReflectionEnabled()) {
       // Setup the fields that were not possible to setup before to avoid cyclic initialization dependencies
@@ -142,12 +154,32 @@ public class ObjectMemory {
       }
 
       // Load methods and fields into the Mate MOP.
-      loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(environmentMO)), environmentMO);
-      loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(operationalSemanticsMO)), operationalSemanticsMO);
-      loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(messageMO)), messageMO);
-      loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(shapeClass)), shapeClass);
-      loadClass(Universe.getCurrent().getSourceForClassName(SClass.getName(astNodeClass)), astNodeClass);
+      loadSystemClass(SClass.getName(environmentMO), environmentMO);
+      loadSystemClass(SClass.getName(operationalSemanticsMO), operationalSemanticsMO);
+      loadSystemClass(SClass.getName(messageMO), messageMO);
+      loadSystemClass(SClass.getName(shapeClass), shapeClass);
+      loadSystemClass(SClass.getName(astNodeClass), astNodeClass);
+    }
+
+    if (imageFile != null && bootImage == null) {
+      BootImage.write(new File(imageFile), bootClasses, this);
+    }
+    bootImage = null;
+  }
+
+  /**
+   * Loads one of the classes needed for bootstrapping, from the boot image
+   * if there is one.
+   */
+  private DynamicObject loadSystemClass(final SSymbol name, final DynamicObject systemClass) throws ParseError {
+    bootClasses.add(name);
+    if (bootImage == null || !bootImage.contains(name)) {
+      return loadClass(Universe.getCurrent().getSourceForClassName(name), systemClass);
     }
+
+    DynamicObject result = bootImage.restoreClass(name, systemClass, compiler.getLanguage());
+    installClass(name, result);
+    return result;
   }
 
   public void initializeSystemClassName() {
@@ -200,7 +232,7 @@ public class ObjectMemory {
 
   @TruffleBoundary
   public void setGlobal(final SSymbol name, final DynamicObject value) {
-      globals.put(name, value);
+    globals.put(name, value);
   }
 
   public static DynamicObject newSystemClass(final DynamicObject superClass) {
@@ -211,40 +243,47 @@ public class ObjectMemory {
       classClassSuperClass =  Nil.nilObject;
     }
 
-    DynamicObject classClass = SClass.createSClass(metaclassClass, new SSymbol("Fake for initialization"), classClassSuperClass,
+    DynamicObject classClass = SClass.createSClass(metaclassClass, Symbols.symbolFor("Fake for initialization"), classClassSuperClass,
         SArray.create(new Object[0]), SArray.create(new Object[0]));
-    return SClass.createSClass(classClass, new SSymbol("Fake for initialization"), superClass, SArray.create(new Object[0]),
+    return SClass.createSClass(classClass, Symbols.symbolFor("Fake for initialization"), superClass, SArray.create(new Object[0]),
         SArray.create(new Object[0]));
   }
 
   public static DynamicObject newMetaclassClass(final String name) {
-    DynamicObject result = SClass.createWithoutClass(new SSymbol("Fake for initialization"));
-    SObject.setClass(result, SClass.createEmptyClass(result, new SSymbol("Fake for initialization")));
+    DynamicObject result = SClass.createWithoutClass(Symbols.symbolFor("Fake for initialization"));
+    SObject.setClass(result, SClass.createEmptyClass(result, Symbols.symbolFor("Fake for initialization")));
     return result;
   }
 
   /*
    *  If systemClass is null a new class object is created, if not the methods are loaded into systemClass.
    *  Used mainly for system initialization.
+   *  Synchronized, because the compiler is not thread-safe.
    */
   @TruffleBoundary
-  public DynamicObject loadClass(final Source source, final DynamicObject systemClass) throws ParseError {
+  public synchronized DynamicObject loadClass(final Source source, final DynamicObject systemClass) throws ParseError {
     // Try loading the class from all different paths
     // Load the class from a file and return the loaded class
     DynamicObject result = compiler.compileClass(source,
         systemClass, this, structuralProbe);
-    setGlobal(source.getName(), result);
+    installClass(Symbols.symbolFor(source.getName()), result);
+    return result;
+  }
+
+  private void installClass(final SSymbol name, final DynamicObject result) {
+    setGlobal(name, result);
     loadPrimitives(result);
     loadPrimitives(SObject.getSOMClass(result));
-    if (Universe.getCurrent().vmReflectionEnabled()) {
-      Universe.getCurrent().mateify(result);
-      Universe.getCurrent().mateify(SObject.getSOMClass(result));
-    }
     if (Universe.getCurrent().printAST()) {
       Disassembler.dump(SObject.getSOMClass(result));
       Disassembler.dump(result);
     }
-    return result;
+  }
+
+  @TruffleBoundary
+  public synchronized DynamicObject compileMethod(final Source source, final int start,
+      final ClassGenerationContext holderGenc) throws ParseError {
+    return compiler.compileMethod(source, start, holderGenc, this);
   }
 
   private void loadPrimitives(final DynamicObject result) {
@@ -262,7 +301,7 @@ public class ObjectMemory {
     assert getGlobal(name) == null;
 
     // Get the block class for blocks with the given number of arguments
-    DynamicObject result = loadClass(Universe.getCurrent().getSourceForClassName(name), null);
+    DynamicObject result = loadSystemClass(name, null);
 
     // Insert the block class into the dictionary of globals
     setGlobal(name, result);
@@ -1,6 +1,7 @@
 package som.vm;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
@@ -12,15 +13,32 @@ public final class Symbols implements IdProvider<SSymbol> {
 
   @TruffleBoundary
   public static SSymbol symbolFor(final String string) {
-    String interned = string.intern();
-
-    SSymbol result = symbolTable.get(interned);
+    // fast path, reading an existing symbol does not lock
+    SSymbol result = symbolTable.get(string);
     if (result != null) {
       return result;
     }
+    return symbolTable.computeIfAbsent(string, Symbols::newSymbol);
+  }
+
+  /**
+   * Ids are handed out in creation order, starting at 0, without gaps.
+   */
+  public static SSymbol symbolForId(final int id) {
+    return symbolsById[id];
+  }
 
-    result = new SSymbol(interned);
-    symbolTable.put(string, result);
+  public static int numberOfSymbols() {
+    return numberOfSymbols;
+  }
+
+  private static synchronized SSymbol newSymbol(final String string) {
+    SSymbol result = new SSymbol(string, numberOfSymbols);
+    if (numberOfSymbols == symbolsById.length) {
+      symbolsById = Arrays.copyOf(symbolsById, symbolsById.length * 2);
+    }
+    symbolsById[numberOfSymbols] = result;
+    numberOfSymbols += 1;
     return result;
   }
 
@@ -31,7 +49,10 @@ public final class Symbols implements IdProvider<SSymbol> {
     return symbolFor(id);
   }
 
-  private static final HashMap<String, SSymbol> symbolTable = new HashMap<>();
+  private static final ConcurrentHashMap<String, SSymbol> symbolTable = new ConcurrentHashMap<>();
+
+  private static volatile SSymbol[] symbolsById = new SSymbol[1024];
+  private static volatile int numberOfSymbols = 0;
 
   public static final SSymbol NEW             = symbolFor("new");
   public static final SSymbol OBJECT          = symbolFor("Object");
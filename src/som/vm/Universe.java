@@ -30,23 +30,26 @@ import static som.vm.constants.Classes.systemClass;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.graalvm.polyglot.Context;
 
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.InstrumentInfo;
+import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.TruffleLanguage.Env;
 import com.oracle.truffle.api.TruffleRuntime;
 import com.oracle.truffle.api.debug.Debugger;
+import com.oracle.truffle.api.frame.FrameInstance;
 import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.nodes.Node;
@@ -59,6 +62,8 @@ import com.oracle.truffle.api.source.SourceSection;
 
 import som.VMOptions;
 import som.VmSettings;
+import som.compiler.ClassCache;
+import som.compiler.ClassPreloader;
 import som.compiler.Parser.ParseError;
 import som.compiler.SourcecodeCompiler;
 import som.interpreter.Invokable;
@@ -67,13 +72,19 @@ import som.interpreter.NodeVisitorUtil;
 import som.interpreter.SArguments;
 import som.interpreter.SomLanguage;
 import som.interpreter.TruffleCompiler;
+import som.interpreter.actors.Actor;
 import som.interpreter.nodes.AbstractMessageSpecializationsFactory;
 import som.interpreter.nodes.ExpressionNode;
 import som.interpreter.nodes.MateMessageSpecializationsFactory;
+import som.interpreter.nodes.ReturnNonLocalNode;
+import som.interpreter.nodes.dispatch.CachedDispatchNode;
+import som.interpreter.nodes.dispatch.SplittingPolicy;
+import som.interpreter.nodes.literals.BlockNode;
 import som.primitives.Primitives;
 import som.vm.constants.ExecutionLevel;
 import som.vm.constants.MateClasses;
 import som.vm.constants.Nil;
+import som.vm.constants.ReflectiveOp;
 import som.vmobjects.InvokableEnvInObjectLayoutImpl;
 import som.vmobjects.InvokableLayoutImpl;
 import som.vmobjects.SArray;
@@ -83,6 +94,7 @@ import som.vmobjects.SClass;
 import som.vmobjects.SInvokable;
 import som.vmobjects.SInvokable.SMethod;
 import som.vmobjects.SInvokable.SPrimitive;
+import som.vmobjects.SMateEnvironment;
 import som.vmobjects.SObject;
 import som.vmobjects.SObjectLayoutImpl;
 import som.vmobjects.SReflectiveObject;
@@ -101,9 +113,15 @@ public class Universe {
     env = environment;
     truffleRuntime = Truffle.getRuntime();
     options = new VMOptions(environment.getApplicationArguments());
-    mateDeactivated = this.getTruffleRuntime().createAssumption();
-    globalSemanticsDeactivated = this.getTruffleRuntime().createAssumption();
+    for (ReflectiveOp operation : ReflectiveOp.values()) {
+      int i = operation.ordinal();
+      mateActivated[i] = createInvalidAssumption();
+      mateDeactivated[i] = this.getTruffleRuntime().createAssumption("Mate deactivated: " + operation);
+      globalSemanticsActivated[i] = createInvalidAssumption();
+      globalSemanticsDeactivated[i] = this.getTruffleRuntime().createAssumption("No global semantics: " + operation);
+    }
     optimizedIH = this.getTruffleRuntime().createAssumption();
+    mateActiveUnchanged = this.getTruffleRuntime().createAssumption("Mate activation unchanged");
     mateSpecializationFactory = new MateMessageSpecializationsFactory();
     somSpecializationFactory = new AbstractMessageSpecializationsFactory.SOMMessageSpecializationsFactory();
     current = this;
@@ -133,7 +151,9 @@ public class Universe {
     initializeGeneralConfigurations();
     initializeIntruments();
 
-    objectMemory = new ObjectMemory(new SourcecodeCompiler(language), structuralProbe);
+    ClassCache cache = options.classCache == null ? null : new ClassCache(new File(options.classCache));
+    ClassPreloader preloader = options.lazyClasses ? new ClassPreloader(options.classPath) : null;
+    objectMemory = new ObjectMemory(new SourcecodeCompiler(language, cache, preloader), structuralProbe);
     try {
       objectMemory.initializeSystem();
     } catch (ParseError e) {
@@ -169,6 +189,7 @@ public class Universe {
   public static void main(final String[] arguments) {
     createVM(arguments);
     context.eval(SomLanguage.START);
+    reportStatistics();
     System.exit(Universe.getCurrent().lastExitCode);
   }
 
@@ -191,23 +212,22 @@ public class Universe {
     DynamicObject initialize = SClass.lookupInvokable(
         systemClass, symbolFor("initialize:"));
 
-    return SInvokable.invoke(initialize, MateClasses.STANDARD_ENVIRONMENT, ExecutionLevel.Base, objectMemory.getSystemObject(), SArray.create(arguments));
+    Object result = SInvokable.invoke(initialize, MateClasses.STANDARD_ENVIRONMENT, ExecutionLevel.Base, objectMemory.getSystemObject(), SArray.create(arguments));
+    Actor.awaitQuiescence();
+    return result;
   }
 
 
-  public void mateify(final DynamicObject clazz) {
-    int countOfInvokables = SClass.getNumberOfInstanceInvokables(clazz);
-    for (int i = 0; i < countOfInvokables; i++) {
-      this.mateifyMethod(SClass.getInstanceInvokable(clazz, i));
-    }
-  }
-
+  /**
+   * Rewrites the base level AST of <code>method</code> to Mate nodes. Methods
+   * are otherwise only rewritten when they first need to, see
+   * {@link Invokable#mateify()}.
+   */
   public void mateifyMethod(final DynamicObject method) {
     Invokable invk = options.envInObject ?
         InvokableEnvInObjectLayoutImpl.INSTANCE.getInvokable(method) :
         InvokableLayoutImpl.INSTANCE.getInvokable(method);
-    this.mateifyNode(invk);
-
+    invk.mateify();
   }
 
   public Node mateifyNode(final Node node) {
@@ -235,6 +255,7 @@ public class Universe {
     TruffleCompiler.transferToInterpreter("exit");
     // Exit from the Java system
     if (!avoidExit) {
+      reportStatistics();
       System.exit(errorCode);
     } else {
       lastExitCode = errorCode;
@@ -245,6 +266,18 @@ public class Universe {
     return lastExitCode;
   }
 
+  @TruffleBoundary
+  public static void reportStatistics() {
+    if (!VmSettings.PRINT_STATISTICS) {
+      return;
+    }
+    GlobalMethodCache.reportStatistics();
+    BlockNode.reportStatistics();
+    ReturnNonLocalNode.reportStatistics();
+    SplittingPolicy.reportStatistics();
+    errorPrintln("Dispatch chain entries merged on class: " + CachedDispatchNode.getNumberOfMergedEntries());
+  }
+
   public static void callerNeedsToBeOptimized(final String msg) {
     if (VmSettings.FAIL_ON_MISSING_OPTIMIZATIONS) {
       CompilerAsserts.neverPartOfCompilation(msg);
@@ -257,6 +290,28 @@ public class Universe {
     Universe.getCurrent().exit(1);
   }
 
+  /** Creates a thread that can run SOM code, see {@link som.vmobjects.SThread}. */
+  @TruffleBoundary
+  public Thread createThread(final Runnable runnable) {
+    return env.createThread(runnable);
+  }
+
+  /**
+   * Makes the VM usable on a thread that was not created with
+   * {@link #createThread(Runnable)}.
+   *
+   * @return the value to pass to {@link #leaveContext(Object)}
+   */
+  @TruffleBoundary
+  public Object enterContext() {
+    return env.getContext().enter();
+  }
+
+  @TruffleBoundary
+  public void leaveContext(final Object previous) {
+    env.getContext().leave(previous);
+  }
+
   @TruffleBoundary
   public SSymbol symbolFor(final String string) {
     return Symbols.symbolFor(string);
@@ -287,7 +342,17 @@ public class Universe {
   public DynamicObject loadClass(final SSymbol name) {
     DynamicObject result = getGlobal(name);
     if (result != null) { return result; }
-    return this.loadClass(getSourceForClassName(name));
+    return loadClassOnce(name);
+  }
+
+  /** Loads the class, unless another thread loaded it in the meantime. */
+  @TruffleBoundary
+  private DynamicObject loadClassOnce(final SSymbol name) {
+    synchronized (objectMemory) {
+      DynamicObject result = getGlobal(name);
+      if (result != null) { return result; }
+      return this.loadClass(getSourceForClassName(name));
+    }
   }
 
   @TruffleBoundary
@@ -455,20 +520,52 @@ public class Universe {
     return options.printAST;
   }
 
-  public Assumption getMateDeactivatedAssumption() {
-    return this.mateDeactivated;
+  public String imageFile() {
+    return options.imageFile;
+  }
+
+  /*
+   * The activation of Mate, and the global environment, are tracked per
+   * reflective operation, so that a change to one operation only invalidates
+   * the code that depends on that operation.
+   */
+
+  public Assumption getMateDeactivatedAssumption(final ReflectiveOp operation) {
+    return this.mateDeactivated[operation.ordinal()];
   }
 
-  public Assumption getMateActivatedAssumption() {
-    return this.mateActivated;
+  public Assumption getMateActivatedAssumption(final ReflectiveOp operation) {
+    return this.mateActivated[operation.ordinal()];
   }
 
-  public Assumption getGlobalSemanticsDeactivatedAssumption() {
-    return this.globalSemanticsDeactivated;
+  public Assumption getGlobalSemanticsDeactivatedAssumption(final ReflectiveOp operation) {
+    return this.globalSemanticsDeactivated[operation.ordinal()];
   }
 
-  public Assumption getGlobalSemanticsActivatedAssumption() {
-    return this.globalSemanticsActivated;
+  public Assumption getGlobalSemanticsActivatedAssumption(final ReflectiveOp operation) {
+    return this.globalSemanticsActivated[operation.ordinal()];
+  }
+
+  /**
+   * @return whether Mate is activated for at least one operation. Compiled
+   *         code folds the result, and is invalidated when it changes.
+   */
+  public boolean isMateActivated() {
+    if (!mateActiveUnchanged.isValid()) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+    }
+    return this.mateActive;
+  }
+
+  /** Needs to be called while holding the lock of the VM. */
+  private void setMateActive(final boolean active) {
+    if (mateActive == active) {
+      return;
+    }
+    Assumption unchanged = mateActiveUnchanged;
+    mateActive = active;
+    mateActiveUnchanged = this.getTruffleRuntime().createAssumption("Mate activation unchanged");
+    unchanged.invalidate();
   }
 
   public Assumption getOptimizedIHAssumption() {
@@ -480,18 +577,13 @@ public class Universe {
   }
 
   public void cacheNewObjectType(final DynamicObject klass, final ObjectType type) {
-    if (objectTypes.containsKey(klass)) {
-      objectTypes.get(klass).add(type);
-    } else {
-      ArrayList<ObjectType> list = new ArrayList<ObjectType>();
-      list.add(type);
-      objectTypes.put(klass, list);
-    }
+    objectTypes.computeIfAbsent(klass, k -> new CopyOnWriteArrayList<ObjectType>()).add(type);
   }
 
   public ObjectType getCachedObjectType(final DynamicObject klass, final DynamicObject environment) {
-    if (objectTypes.containsKey(klass)) {
-      for (ObjectType type : objectTypes.get(klass)) {
+    List<ObjectType> types = objectTypes.get(klass);
+    if (types != null) {
+      for (ObjectType type : types) {
         if (((SReflectiveObjectType) type).getEnvironment() == environment) {
           return type;
         }
@@ -501,12 +593,19 @@ public class Universe {
   }
 
   public void activatedMate() {
-    if (this.getMateDeactivatedAssumption().isValid()) {
-      this.getMateDeactivatedAssumption().invalidate();
+    for (ReflectiveOp operation : ReflectiveOp.values()) {
+      activateMate(operation);
     }
-    if (mateActivated == null || !this.getMateActivatedAssumption().isValid()) {
-      mateActivated = this.getTruffleRuntime().createAssumption();
+  }
+
+  public synchronized void activateMate(final ReflectiveOp operation) {
+    int i = operation.ordinal();
+    if (mateActivated[i].isValid()) {
+      return;
     }
+    mateDeactivated[i].invalidate();
+    mateActivated[i] = this.getTruffleRuntime().createAssumption("Mate activated: " + operation);
+    setMateActive(true);
   }
 
   public void unoptimizedIH() {
@@ -514,10 +613,29 @@ public class Universe {
   }
 
   public void deactivateMate() {
-    if (this.getMateActivatedAssumption().isValid()) {
-      this.getMateActivatedAssumption().invalidate();
+    for (ReflectiveOp operation : ReflectiveOp.values()) {
+      deactivateMate(operation);
+    }
+  }
+
+  public synchronized void deactivateMate(final ReflectiveOp operation) {
+    int i = operation.ordinal();
+    if (mateDeactivated[i].isValid()) {
+      return;
+    }
+    mateActivated[i].invalidate();
+    mateDeactivated[i] = this.getTruffleRuntime().createAssumption("Mate deactivated: " + operation);
+    boolean active = false;
+    for (Assumption activated : mateActivated) {
+      active |= activated.isValid();
     }
-    mateDeactivated = this.getTruffleRuntime().createAssumption();
+    setMateActive(active);
+  }
+
+  private Assumption createInvalidAssumption() {
+    Assumption assumption = this.getTruffleRuntime().createAssumption();
+    assumption.invalidate();
+    return assumption;
   }
 
   public String resolveClassFilePath(final String className) throws IllegalStateException {
@@ -551,18 +669,33 @@ public class Universe {
     }*/
   }
 
-  public void setGlobalEnvironment(final DynamicObject environment) {
-    if (globalSemanticsActivated.isValid()) {
-      globalSemanticsActivated.invalidate();
-    } else {
-      globalSemanticsDeactivated.invalidate();
-    }
-    if (environment == Nil.nilObject) {
-      globalSemanticsDeactivated = Truffle.getRuntime().createAssumption();
-    } else {
-      globalSemanticsActivated = Truffle.getRuntime().createAssumption();
-    }
+  public synchronized void setGlobalEnvironment(final DynamicObject environment) {
     globalSemantics = environment;
+    updateGlobalSemantics();
+  }
+
+  /**
+   * Invalidates the assumptions of the operations whose implementation in
+   * the global environment changed. Also needs to be called when a field of
+   * the global environment changed.
+   */
+  public synchronized void updateGlobalSemantics() {
+    for (ReflectiveOp operation : ReflectiveOp.values()) {
+      int i = operation.ordinal();
+      DynamicObject method = globalSemantics == null || globalSemantics == Nil.nilObject ?
+          null : SMateEnvironment.methodImplementing(globalSemantics, operation);
+      if (method == globalMethods[i]) {
+        continue;
+      }
+      globalMethods[i] = method;
+      globalSemanticsActivated[i].invalidate();
+      globalSemanticsDeactivated[i].invalidate();
+      if (method == null) {
+        globalSemanticsDeactivated[i] = Truffle.getRuntime().createAssumption("No global semantics: " + operation);
+      } else {
+        globalSemanticsActivated[i] = Truffle.getRuntime().createAssumption("Global semantics: " + operation);
+      }
+    }
   }
 
   public boolean registerExport(final String name, final Object value) {
@@ -573,9 +706,13 @@ public class Universe {
 
   public AbstractMessageSpecializationsFactory specializationFactory() {
     if (vmReflectionEnabled()) {
-        if (SArguments.getExecutionLevel(truffleRuntime.getCurrentFrame().getFrame(FrameAccess.READ_ONLY)) == ExecutionLevel.Base) {
-          return mateSpecializationFactory;
-        }
+      FrameInstance current = truffleRuntime.getCurrentFrame();
+      // methods that were not rewritten yet keep specializing to plain nodes
+      RootNode root = ((RootCallTarget) current.getCallTarget()).getRootNode();
+      if (SArguments.getExecutionLevel(current.getFrame(FrameAccess.READ_ONLY)) == ExecutionLevel.Base
+          && root instanceof Invokable && ((Invokable) root).isMateified()) {
+        return mateSpecializationFactory;
+      }
     }
     return somSpecializationFactory;
   }
@@ -603,16 +740,19 @@ public class Universe {
   @CompilationFinal private static Debugger    debugger;
 
   @CompilationFinal VMOptions options;
-  private final Map<String, Object> exports = new HashMap<>();
+  private final Map<String, Object> exports = new ConcurrentHashMap<>();
   public static final Source emptySource = Source.newBuilder(SomLanguage.LANG_NAME, "Empty Source for primitives and mate wrappers", null).
       mimeType(SomLanguage.MIME_TYPE).build();
 
-  @CompilationFinal private Assumption mateActivated;
-  @CompilationFinal private Assumption mateDeactivated;
-  @CompilationFinal private Assumption globalSemanticsActivated;
-  @CompilationFinal private Assumption globalSemanticsDeactivated;
+  @CompilationFinal(dimensions = 1) private final Assumption[] mateActivated              = new Assumption[ReflectiveOp.values().length];
+  @CompilationFinal(dimensions = 1) private final Assumption[] mateDeactivated            = new Assumption[ReflectiveOp.values().length];
+  @CompilationFinal(dimensions = 1) private final Assumption[] globalSemanticsActivated   = new Assumption[ReflectiveOp.values().length];
+  @CompilationFinal(dimensions = 1) private final Assumption[] globalSemanticsDeactivated = new Assumption[ReflectiveOp.values().length];
+  private final DynamicObject[] globalMethods           = new DynamicObject[ReflectiveOp.values().length];
+  @CompilationFinal private boolean mateActive;
+  @CompilationFinal private Assumption mateActiveUnchanged;
   @CompilationFinal private Assumption optimizedIH;
   @CompilationFinal private DynamicObject globalSemantics;
 
-  @CompilationFinal private Map<DynamicObject, List<ObjectType>> objectTypes = new HashMap<DynamicObject, List<ObjectType>>();
+  @CompilationFinal private Map<DynamicObject, List<ObjectType>> objectTypes = new ConcurrentHashMap<DynamicObject, List<ObjectType>>();
 }
@@ -1,8 +1,10 @@
 package som.vmobjects;
 
+import java.lang.reflect.Array;
 import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.interop.ForeignAccess;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.profiles.ValueProfile;
@@ -16,6 +18,16 @@ import som.vm.constants.Nil;
  * The SArray objects are 'tagged' with a type, and the strategy behavior
  * is implemented directly in the AST nodes.
  *
+ * <p>The type is derived from the class of the storage, so that a thread
+ * that reads the storage once always sees a consistent pair, even while
+ * another thread changes the strategy. The storage is volatile, so that a
+ * transition is seen by all threads. Strategy transitions are synchronized
+ * on the array, element writes are not. Primitives read the storage once,
+ * write into it if its class fits their specialization, and otherwise use
+ * {@link #setSlow(long, Object)}. As for a Java array that is copied while
+ * another thread writes to it, a write that races with a transition may
+ * land in the storage that is being replaced.
+ *
  * @author smarr
  */
 public final class SArray extends SAbstractObject {
@@ -45,57 +57,96 @@ public final class SArray extends SAbstractObject {
     return new SArray(values);
   }
 
+  /** @return an array with the most specific storage strategy for <code>values</code> */
+  public static SArray createSpecialized(final Object[] values) {
+    if (values.length == 0) {
+      return create(0);
+    } else if (allInstancesOf(values, Long.class)) {
+      return new SArray(createLong(values));
+    } else if (allInstancesOf(values, Double.class)) {
+      return new SArray(createDouble(values));
+    } else if (allInstancesOf(values, Boolean.class)) {
+      return new SArray(createBoolean(values));
+    }
+    return new SArray(values);
+  }
+
   public static SArray create(final int length) {
     return new SArray(length);
   }
 
-  private ArrayType type;
-  private Object    storage;
+  private volatile Object storage;
 
   public ArrayType getType() {
-    return type;
+    return typeOf(storage);
+  }
+
+  private static ArrayType typeOf(final Object storage) {
+    if (storage instanceof Object[]) {
+      return ArrayType.OBJECT;
+    } else if (storage instanceof long[]) {
+      return ArrayType.LONG;
+    } else if (storage instanceof Integer) {
+      return ArrayType.EMPTY;
+    } else if (storage instanceof PartiallyEmptyArray) {
+      return ArrayType.PARTIAL_EMPTY;
+    } else if (storage instanceof double[]) {
+      return ArrayType.DOUBLE;
+    } else if (storage instanceof boolean[]) {
+      return ArrayType.BOOLEAN;
+    } else if (storage instanceof byte[]) {
+      return ArrayType.BYTE;
+    } else {
+      assert storage instanceof char[];
+      return ArrayType.CHAR;
+    }
   }
 
   public int getEmptyStorage(final ValueProfile storageType) {
-    assert type == ArrayType.EMPTY;
+    assert getType() == ArrayType.EMPTY;
     return (int) storageType.profile(storage);
   }
 
   public PartiallyEmptyArray getPartiallyEmptyStorage(final ValueProfile storageType) {
-    assert type == ArrayType.PARTIAL_EMPTY;
+    assert getType() == ArrayType.PARTIAL_EMPTY;
     return (PartiallyEmptyArray) storageType.profile(storage);
   }
 
   public Object[] getObjectStorage(final ValueProfile storageType) {
-    assert type == ArrayType.OBJECT;
+    assert getType() == ArrayType.OBJECT;
     return (Object[]) storageType.profile(storage);
   }
 
   public long[] getLongStorage(final ValueProfile storageType) {
-    assert type == ArrayType.LONG;
+    assert getType() == ArrayType.LONG;
     return (long[]) storageType.profile(storage);
   }
 
   public double[] getDoubleStorage(final ValueProfile storageType) {
-    assert type == ArrayType.DOUBLE;
+    assert getType() == ArrayType.DOUBLE;
     return (double[]) storageType.profile(storage);
   }
 
   public boolean[] getBooleanStorage(final ValueProfile storageType) {
-    assert type == ArrayType.BOOLEAN;
+    assert getType() == ArrayType.BOOLEAN;
     return (boolean[]) storageType.profile(storage);
   }
 
   public byte[] getByteStorage(final ValueProfile storageType) {
-    assert type == ArrayType.BYTE;
+    assert getType() == ArrayType.BYTE;
     return (byte[]) storageType.profile(storage);
   }
 
   public char[] getCharStorage(final ValueProfile storageType) {
-    assert type == ArrayType.CHAR;
+    assert getType() == ArrayType.CHAR;
     return (char[]) storageType.profile(storage);
   }
 
+  /** @return the storage, to be read once and checked for its class */
+  public Object getStorage(final ValueProfile storageType) {
+    return storageType.profile(storage);
+  }
+
   public Object getStoragePlain() {
     CompilerAsserts.neverPartOfCompilation();
     return storage;
@@ -119,50 +170,181 @@ public final class SArray extends SAbstractObject {
    * @param length
    */
   public SArray(final long length) {
-    type = ArrayType.EMPTY;
     storage = (int) length;
   }
 
   private SArray(final Object[] val) {
-    type = ArrayType.OBJECT;
     storage = val;
   }
 
   private SArray(final long[] val) {
-    type = ArrayType.LONG;
     storage = val;
   }
 
   private SArray(final double[] val) {
-    type = ArrayType.DOUBLE;
     storage = val;
   }
 
   private SArray(final boolean[] val) {
-    type = ArrayType.BOOLEAN;
     storage = val;
   }
 
   private SArray(final byte[] val) {
-    type = ArrayType.BYTE;
     storage = val;
   }
 
   private SArray(final char[] val) {
-    type = ArrayType.CHAR;
     storage = val;
   }
 
   public SArray(final ArrayType type, final Object storage) {
-    this.type    = type;
+    assert typeOf(storage) == type;
     this.storage = storage;
   }
 
-  private void fromEmptyToParticalWithType(final ArrayType type, final long idx, final Object val) {
-    assert this.type == ArrayType.EMPTY;
+  private synchronized void fromEmptyToParticalWithType(final ArrayType type, final long idx, final Object val) {
+    if (!(storage instanceof Integer)) {
+      // another thread already wrote to the array
+      setSlow(idx, val);
+      return;
+    }
     int length = (int) storage;
-    storage   = new PartiallyEmptyArray(type, length, idx, val);
-    this.type = ArrayType.PARTIAL_EMPTY;
+    storage = new PartiallyEmptyArray(type, length, idx, val);
+  }
+
+  /**
+   * Writes <code>val</code> with the current strategy, and changes the
+   * strategy if the value does not fit. This is the slow path for writes
+   * that transition the array, and it is synchronized so that no write is
+   * lost when several threads transition the same array.
+   */
+  @TruffleBoundary
+  public synchronized void setSlow(final long idx, final Object val) {
+    int i = (int) idx;
+    if (storage instanceof Integer) {
+      if (val != Nil.nilObject) {
+        storage = new PartiallyEmptyArray(typeOfValue(val), (int) storage, idx, val);
+      }
+      return;
+    }
+
+    if (storage instanceof PartiallyEmptyArray) {
+      PartiallyEmptyArray arr = (PartiallyEmptyArray) storage;
+      Object old = arr.get(idx);
+      if (val == Nil.nilObject) {
+        if (old != Nil.nilObject) {
+          arr.incEmptyElements();
+        }
+      } else {
+        if (old == Nil.nilObject) {
+          arr.decEmptyElements();
+        }
+        if (arr.getType() != typeOfValue(val)) {
+          arr.setType(ArrayType.OBJECT);
+        }
+      }
+      arr.set(idx, val);
+      ifFullTransitionPartiallyEmpty();
+      return;
+    }
+
+    if (storage instanceof long[] && val instanceof Long) {
+      ((long[]) storage)[i] = (long) val;
+    } else if (storage instanceof double[] && val instanceof Double) {
+      ((double[]) storage)[i] = (double) val;
+    } else if (storage instanceof boolean[] && val instanceof Boolean) {
+      ((boolean[]) storage)[i] = (boolean) val;
+    } else if (storage instanceof byte[] && val instanceof Long) {
+      ((byte[]) storage)[i] = (byte) (long) val;
+    } else if (storage instanceof char[] && val instanceof Character) {
+      ((char[]) storage)[i] = (char) val;
+    } else {
+      Object[] arr = storage instanceof Object[] ? (Object[]) storage : box(storage);
+      arr[i] = val;
+      storage = arr;
+    }
+  }
+
+  /** @return the elements of a primitive storage, as they are read from SOM */
+  private static Object[] box(final Object primitiveStorage) {
+    int length = Array.getLength(primitiveStorage);
+    Object[] arr = new Object[length];
+    for (int j = 0; j < length; j++) {
+      Object e = Array.get(primitiveStorage, j);
+      arr[j] = e instanceof Byte ? (long) (byte) e : e;
+    }
+    return arr;
+  }
+
+  /** Writes <code>val</code> to all elements, independent of the storage strategy. */
+  @TruffleBoundary
+  public synchronized void fillSlow(final Object val) {
+    int length = getLengthSlow();
+    for (int i = 0; i < length; i++) {
+      setSlow(i, val);
+    }
+  }
+
+  /** @return the number of elements, independent of the storage strategy */
+  @TruffleBoundary
+  public int getLengthSlow() {
+    Object current = storage;
+    if (current instanceof Integer) {
+      return (int) current;
+    } else if (current instanceof PartiallyEmptyArray) {
+      return ((PartiallyEmptyArray) current).getLength();
+    }
+    return Array.getLength(current);
+  }
+
+  /** @return whether <code>storage</code> is still the storage of this array */
+  public boolean hasStorage(final Object storage) {
+    return this.storage == storage;
+  }
+
+  /** @return the element at <code>idx</code>, independent of the storage strategy */
+  @TruffleBoundary
+  public synchronized Object getSlow(final long idx) {
+    int i = (int) idx;
+    if (storage instanceof Integer) {
+      return Nil.nilObject;
+    } else if (storage instanceof PartiallyEmptyArray) {
+      return ((PartiallyEmptyArray) storage).get(idx);
+    } else if (storage instanceof Object[]) {
+      return ((Object[]) storage)[i];
+    } else if (storage instanceof byte[]) {
+      return (long) ((byte[]) storage)[i];
+    }
+    return Array.get(storage, i);
+  }
+
+  /** @return a copy of the elements, independent of the storage strategy */
+  @TruffleBoundary
+  public synchronized Object[] copyElements() {
+    if (storage instanceof Integer) {
+      Object[] arr = new Object[(int) storage];
+      Arrays.fill(arr, Nil.nilObject);
+      return arr;
+    } else if (storage instanceof PartiallyEmptyArray) {
+      return ((PartiallyEmptyArray) storage).getStorage().clone();
+    } else if (storage instanceof Object[]) {
+      return ((Object[]) storage).clone();
+    }
+    return box(storage);
+  }
+
+  private static ArrayType typeOfValue(final Object val) {
+    if (val instanceof Long) {
+      return ArrayType.LONG;
+    } else if (val instanceof Double) {
+      return ArrayType.DOUBLE;
+    } else if (val instanceof Boolean) {
+      return ArrayType.BOOLEAN;
+    } else if (val instanceof Character) {
+      return ArrayType.CHAR;
+    } else {
+      return ArrayType.OBJECT;
+    }
   }
 
   /**
@@ -192,39 +374,48 @@ public final class SArray extends SAbstractObject {
     fromEmptyToParticalWithType(ArrayType.BYTE, idx, val);
   }
 
-  public void transitionToEmpty(final long length) {
-    type = ArrayType.EMPTY;
+  /**
+   * Replaces the storage with <code>newStorage</code>, if the array is still
+   * empty.
+   *
+   * @return the storage after the transition, it is another one if another
+   *         thread wrote to the array first
+   */
+  public synchronized Object transitionFromEmptyTo(final Object newStorage) {
+    if (storage instanceof Integer) {
+      storage = newStorage;
+    }
+    return storage;
+  }
+
+  public synchronized void transitionToEmpty(final long length) {
     storage = (int) length;
   }
 
-  public void transitionTo(final ArrayType newType, final Object newStorage) {
-    type = newType;
+  public synchronized void transitionTo(final ArrayType newType, final Object newStorage) {
+    assert typeOf(newStorage) == newType;
     storage = newStorage;
   }
 
-  public void transitionToObjectWithAll(final long length, final Object val) {
-    type = ArrayType.OBJECT;
+  public synchronized void transitionToObjectWithAll(final long length, final Object val) {
     Object[] arr = new Object[(int) length];
     Arrays.fill(arr, val);
     storage = arr;
   }
 
-  public void transitionToLongWithAll(final long length, final long val) {
-    type = ArrayType.LONG;
+  public synchronized void transitionToLongWithAll(final long length, final long val) {
     long[] arr = new long[(int) length];
     Arrays.fill(arr, val);
     storage = arr;
   }
 
-  public void transitionToDoubleWithAll(final long length, final double val) {
-    type = ArrayType.DOUBLE;
+  public synchronized void transitionToDoubleWithAll(final long length, final double val) {
     double[] arr = new double[(int) length];
     Arrays.fill(arr, val);
     storage = arr;
   }
 
-  public void transitionToBooleanWithAll(final long length, final boolean val) {
-    type = ArrayType.BOOLEAN;
+  public synchronized void transitionToBooleanWithAll(final long length, final boolean val) {
     boolean[] arr = new boolean[(int) length];
     if (val) {
       Arrays.fill(arr, true);
@@ -232,8 +423,7 @@ public final class SArray extends SAbstractObject {
     storage = arr;
   }
 
-  public void transitionToByteWithAll(final long length, final byte val) {
-    type = ArrayType.BYTE;
+  public synchronized void transitionToByteWithAll(final long length, final byte val) {
     byte[] arr = new byte[(int) length];
     Arrays.fill(arr, val);
     storage = arr;
@@ -309,29 +499,42 @@ public final class SArray extends SAbstractObject {
 
   public static final ValueProfile partialStorageType = ValueProfile.createClassProfile();
 
-  public void ifFullTransitionPartiallyEmpty() {
-    PartiallyEmptyArray arr = getPartiallyEmptyStorage(partialStorageType);
+  public synchronized void ifFullTransitionPartiallyEmpty() {
+    if (!(storage instanceof PartiallyEmptyArray)) {
+      // another thread did the transition already
+      return;
+    }
+    PartiallyEmptyArray arr = (PartiallyEmptyArray) storage;
 
     if (arr.isFull()) {
-      if (arr.getType() == ArrayType.LONG) {
-        type = ArrayType.LONG;
-        storage = createLong(arr.getStorage());
-      } else if (arr.getType() == ArrayType.DOUBLE) {
-        type = ArrayType.DOUBLE;
-        storage = createDouble(arr.getStorage());
-      } else if (arr.getType() == ArrayType.BOOLEAN) {
-        type = ArrayType.BOOLEAN;
-        storage = createBoolean(arr.getStorage());
-      } else if (arr.getType() == ArrayType.BYTE) {
-        type = ArrayType.BYTE;
-        storage = createByte(arr.getStorage());
+      Object[] values = arr.getStorage();
+      // with racing writers, the counter and the type are only hints
+      if (!arr.recountEmptyElements()) {
+        return;
+      }
+      if (arr.getType() == ArrayType.LONG && allInstancesOf(values, Long.class)) {
+        storage = createLong(values);
+      } else if (arr.getType() == ArrayType.DOUBLE && allInstancesOf(values, Double.class)) {
+        storage = createDouble(values);
+      } else if (arr.getType() == ArrayType.BOOLEAN && allInstancesOf(values, Boolean.class)) {
+        storage = createBoolean(values);
+      } else if (arr.getType() == ArrayType.BYTE && allInstancesOf(values, Byte.class)) {
+        storage = createByte(values);
       } else {
-        type = ArrayType.OBJECT;
-        storage = arr.getStorage();
+        storage = values;
       }
     }
   }
 
+  private static boolean allInstancesOf(final Object[] arr, final Class<?> clazz) {
+    for (Object o : arr) {
+      if (!clazz.isInstance(o)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public static final class PartiallyEmptyArray {
     private final Object[] arr;
     private int emptyElements;
@@ -382,6 +585,18 @@ public final class SArray extends SAbstractObject {
     public void decEmptyElements() { emptyElements--; }
     public boolean isFull() { return emptyElements == 0; }
 
+    /** @return whether the array is full, after counting the empty elements again */
+    boolean recountEmptyElements() {
+      int empty = 0;
+      for (Object o : arr) {
+        if (o == Nil.nilObject) {
+          empty++;
+        }
+      }
+      emptyElements = empty;
+      return empty == 0;
+    }
+
     public PartiallyEmptyArray copy() {
       return new PartiallyEmptyArray(this);
     }
@@ -397,6 +612,7 @@ public final class SArray extends SAbstractObject {
    */
   public SArray copyAndExtendWith(final Object value) {
     Object[] newArr;
+    ArrayType type = getType();
     if (type == ArrayType.EMPTY) {
       newArr = new Object[] {value};
     } else {
@@ -412,7 +628,7 @@ public final class SArray extends SAbstractObject {
 
   @Override
   public DynamicObject getSOMClass() {
-    if (this.type != ArrayType.BYTE) {
+    if (getType() != ArrayType.BYTE) {
       return Classes.arrayClass;
     } else {
       Universe current = Universe.getCurrent();
@@ -24,10 +24,16 @@
 
 package som.vmobjects;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.DynamicObjectFactory;
 import com.oracle.truffle.api.object.ObjectType;
@@ -45,14 +51,14 @@ public final class SClass {
   @Layout
   // public interface SClassLayout extends SReflectiveObjectEnvInObjLayout {
   public interface SClassLayout extends SReflectiveObjectLayout {
-    DynamicObject createSClass(DynamicObjectFactory factory, SSymbol name, DynamicObject superclass, SArray instanceFields, SArray instanceInvokables, @SuppressWarnings("rawtypes") HashMap invokablesTable, DynamicObjectFactory instancesFactory);
+    DynamicObject createSClass(DynamicObjectFactory factory, SSymbol name, DynamicObject superclass, SArray instanceFields, SArray instanceInvokables, MethodTable methodTable, DynamicObjectFactory instancesFactory);
     DynamicObjectFactory createSClassShape(DynamicObject klass, DynamicObject environment);
     DynamicObject getSuperclass(DynamicObject object);
     SSymbol getName(DynamicObject object);
     SArray getInstanceFields(DynamicObject object);
     SArray getInstanceInvokables(DynamicObject object);
-    @SuppressWarnings("rawtypes")
-    HashMap getInvokablesTable(DynamicObject object);
+    MethodTable getMethodTable(DynamicObject object);
+    void setMethodTableUnsafe(DynamicObject object, MethodTable value);
     DynamicObjectFactory getInstancesFactory(DynamicObject object);
     void setInstancesFactoryUnsafe(DynamicObject object, DynamicObjectFactory value);
     void setInstanceFieldsUnsafe(DynamicObject object, SArray value);
@@ -65,14 +71,14 @@ public final class SClass {
 
   @Layout
   public interface SClassEnvInObjectLayout extends SReflectiveObjectEnvInObjLayout {
-    DynamicObject createSClassEnvInObject(DynamicObjectFactory factory, DynamicObject environment, SSymbol name, DynamicObject superclass, SArray instanceFields, SArray instanceInvokables, @SuppressWarnings("rawtypes") HashMap invokablesTable, DynamicObjectFactory instancesFactory);
+    DynamicObject createSClassEnvInObject(DynamicObjectFactory factory, DynamicObject environment, SSymbol name, DynamicObject superclass, SArray instanceFields, SArray instanceInvokables, MethodTable methodTable, DynamicObjectFactory instancesFactory);
     DynamicObjectFactory createSClassEnvInObjectShape(DynamicObject klass);
     DynamicObject getSuperclass(DynamicObject object);
     SSymbol getName(DynamicObject object);
     SArray getInstanceFields(DynamicObject object);
     SArray getInstanceInvokables(DynamicObject object);
-    @SuppressWarnings("rawtypes")
-    HashMap getInvokablesTable(DynamicObject object);
+    MethodTable getMethodTable(DynamicObject object);
+    void setMethodTableUnsafe(DynamicObject object, MethodTable value);
     DynamicObjectFactory getInstancesFactory(DynamicObject object);
     void setInstancesFactoryUnsafe(DynamicObject object, DynamicObjectFactory value);
     void setInstanceFieldsUnsafe(DynamicObject object, SArray value);
@@ -92,16 +98,16 @@ public final class SClass {
 
   public static DynamicObject createSClass(final DynamicObject klass, final SSymbol name, final DynamicObject superclass, final SArray fields, final SArray methods) {
     return createSClass(klass, name, superclass, fields, methods,
-        new HashMap<SSymbol, DynamicObject>(), Universe.getCurrent().getInstancesFactory());
+        MethodTable.UNINITIALIZED, Universe.getCurrent().getInstancesFactory());
 
   }
 
   @TruffleBoundary
-  public static DynamicObject createSClass(final DynamicObject klass, final SSymbol name, final DynamicObject superclass, final SArray instanceFields, final SArray instanceInvokables, final HashMap<SSymbol, DynamicObject> invokablesTable, final DynamicObjectFactory instancesFactory) {
+  public static DynamicObject createSClass(final DynamicObject klass, final SSymbol name, final DynamicObject superclass, final SArray instanceFields, final SArray instanceInvokables, final MethodTable methodTable, final DynamicObjectFactory instancesFactory) {
     DynamicObject resultClass =
         Universe.getCurrent().environmentInObect() ?
-            SClassEnvInObjectLayoutImpl.INSTANCE.createSClassEnvInObject(SClassEnvInObjectLayoutImpl.INSTANCE.createSClassEnvInObjectShape(klass), Nil.nilObject, name, superclass, instanceFields, instanceInvokables, invokablesTable, instancesFactory) :
-            SClassLayoutImpl.INSTANCE.createSClass(SClassLayoutImpl.INSTANCE.createSClassShape(klass, Nil.nilObject), name, superclass, instanceFields, instanceInvokables, invokablesTable, instancesFactory);
+            SClassEnvInObjectLayoutImpl.INSTANCE.createSClassEnvInObject(SClassEnvInObjectLayoutImpl.INSTANCE.createSClassEnvInObjectShape(klass), Nil.nilObject, name, superclass, instanceFields, instanceInvokables, methodTable, instancesFactory) :
+            SClassLayoutImpl.INSTANCE.createSClass(SClassLayoutImpl.INSTANCE.createSClassShape(klass, Nil.nilObject), name, superclass, instanceFields, instanceInvokables, methodTable, instancesFactory);
     setInstancesFactory(resultClass, Universe.getCurrent().createObjectShapeFactoryForClass(resultClass));
     for (Object invokable : (Object[]) instanceInvokables.getStoragePlain()) {
       SInvokable.setHolder((DynamicObject) invokable, resultClass);
@@ -122,7 +128,7 @@ public final class SClass {
             Nil.nilObject,                             // SUPERCLASS
             SArray.create(new Object[0]),              // INSTANCE_FIELDS
             SArray.create(new Object[0]),              // INSTANCE_INVOKABLES
-            new HashMap<SSymbol, SInvokable>(),        // INVOKABLES_TABLE
+            MethodTable.UNINITIALIZED,                 // METHOD_TABLE
             Universe.getCurrent().getInstancesFactory() // OBJECT_FACTORY, temporary value
          } :
         new Object[] {
@@ -130,7 +136,7 @@ public final class SClass {
                Nil.nilObject,                             // SUPERCLASS
                SArray.create(new Object[0]),              // INSTANCE_FIELDS
                SArray.create(new Object[0]),              // INSTANCE_INVOKABLES
-               new HashMap<SSymbol, SInvokable>(),        // INVOKABLES_TABLE
+               MethodTable.UNINITIALIZED,                 // METHOD_TABLE
                Universe.getCurrent().getInstancesFactory() // OBJECT_FACTORY, temporary value
             };
     DynamicObject clazz =  INIT_CLASS_FACTORY.newInstance(args); // OBJECT_FACTORY, temporary value
@@ -206,54 +212,165 @@ public final class SClass {
   public static void setInstanceInvokable(final DynamicObject classObj, final int index, final DynamicObject value) {
     CompilerAsserts.neverPartOfCompilation("setInstanceInvokable");
     getInstanceInvokables(classObj).getObjectStorage(storageType)[index] = value;
+    hierarchyChanged(classObj);
+  }
+
+  /**
+   * Flattened, immutable method table of a class. It maps selectors to the
+   * invokable a send of that selector to an instance of the class resolves
+   * to, including the inherited methods. The table is open addressed and
+   * sized by the number of methods, not the number of symbols. A table
+   * stays usable until the methods or the superclass of its class, or of
+   * one of the superclasses, change. Afterwards it is rebuilt on the next
+   * lookup.
+   */
+  public static final class MethodTable {
+    static final MethodTable UNINITIALIZED = new MethodTable(new SSymbol[1], new DynamicObject[1]);
+    static {
+      UNINITIALIZED.invalidate();
+    }
+
+    private final SSymbol[]       selectors;
+    private final DynamicObject[] invokables;
+    private final int             mask;
+    private final Assumption      valid;
 
-    HashMap<SSymbol, DynamicObject> invokablesTable = getInvokablesTable(classObj);
+    /** Tables built on top of this one, i.e., those of the direct subclasses. */
+    private final Set<MethodTable> dependents =
+        Collections.newSetFromMap(new WeakHashMap<MethodTable, Boolean>());
 
-    if (invokablesTable.containsKey(SInvokable.getSignature(value))) {
-      invokablesTable.put(SInvokable.getSignature(value), value);
+    private MethodTable(final SSymbol[] selectors, final DynamicObject[] invokables) {
+      this.selectors  = selectors;
+      this.invokables = invokables;
+      this.mask       = selectors.length - 1;
+      this.valid      = Truffle.getRuntime().createAssumption("Method table valid");
+    }
+
+    private static MethodTable create(final Map<SSymbol, DynamicObject> methods) {
+      int capacity = Integer.highestOneBit(Math.max(methods.size(), 1) * 2 - 1) << 1;
+      MethodTable table = new MethodTable(new SSymbol[capacity], new DynamicObject[capacity]);
+      for (Map.Entry<SSymbol, DynamicObject> method : methods.entrySet()) {
+        int index = table.indexOf(method.getKey());
+        table.selectors[index]  = method.getKey();
+        table.invokables[index] = method.getValue();
+      }
+      return table;
+    }
+
+    /** @return the slot of <code>selector</code>, or the free slot for it */
+    private int indexOf(final SSymbol selector) {
+      int index = selector.getId() & mask;
+      while (selectors[index] != null && selectors[index] != selector) {
+        index = (index + 1) & mask;
+      }
+      return index;
+    }
+
+    public DynamicObject lookup(final SSymbol selector) {
+      return invokables[indexOf(selector)];
+    }
+
+    public boolean contains(final DynamicObject invokable) {
+      return lookup(SInvokable.getSignature(invokable)) == invokable;
+    }
+
+    public boolean isValid() {
+      return valid.isValid();
+    }
+
+    /** Invalidated together with the table, see {@link #isValid()}. */
+    public Assumption getAssumption() {
+      return valid;
+    }
+
+    private void addEntriesTo(final Map<SSymbol, DynamicObject> methods) {
+      for (int i = 0; i < selectors.length; i++) {
+        if (selectors[i] != null) {
+          methods.put(selectors[i], invokables[i]);
+        }
+      }
+    }
+
+    /**
+     * Registers the table of a subclass, which is built from this one. If
+     * this table was invalidated in the meantime, the other one is, too.
+     */
+    private synchronized void addDependent(final MethodTable table) {
+      dependents.add(table);
+      if (!isValid()) {
+        table.invalidate();
+      }
+    }
+
+    private synchronized void invalidate() {
+      valid.invalidate();
+      for (MethodTable table : dependents) {
+        table.invalidate();
+      }
+      dependents.clear();
     }
   }
 
-  @SuppressWarnings("unchecked")
-  public static HashMap<SSymbol, DynamicObject> getInvokablesTable(
-      final DynamicObject classObj) {
+  private static MethodTable getMethodTableField(final DynamicObject classObj) {
     return Universe.getCurrent().environmentInObect() ?
-        SClassEnvInObjectLayoutImpl.INSTANCE.getInvokablesTable(classObj) :
-        SClassLayoutImpl.INSTANCE.getInvokablesTable(classObj);
+        SClassEnvInObjectLayoutImpl.INSTANCE.getMethodTable(classObj) :
+        SClassLayoutImpl.INSTANCE.getMethodTable(classObj);
   }
 
-  @TruffleBoundary
-  public static DynamicObject lookupInvokable(final DynamicObject classObj, final SSymbol selector) {
-    DynamicObject invokable;
-    HashMap<SSymbol, DynamicObject> invokablesTable = getInvokablesTable(classObj);
+  /**
+   * Needs to be called whenever the methods or the superclass of a class
+   * changed. Invalidates the method table of the class, and the ones of its
+   * subclasses, which are built on it. Takes the lock of the class, so that
+   * a table built concurrently from the old state is invalidated, too.
+   */
+  private static void hierarchyChanged(final DynamicObject classObj) {
+    synchronized (classObj) {
+      getMethodTableField(classObj).invalidate();
+    }
+  }
 
-    // Lookup invokable and return if found
-    invokable = invokablesTable.get(selector);
-    if (invokable != null) { return invokable; }
+  public static MethodTable getMethodTable(final DynamicObject classObj) {
+    MethodTable table = getMethodTableField(classObj);
+    if (table.isValid()) {
+      return table;
+    }
+    return buildMethodTable(classObj);
+  }
 
-    // Lookup invokable with given signature in array of instance invokables
-    for (int i = 0; i < getNumberOfInstanceInvokables(classObj); i++) {
-      // Get the next invokable in the instance invokable array
-      invokable = getInstanceInvokable(classObj, i);
+  @TruffleBoundary
+  private static MethodTable buildMethodTable(final DynamicObject classObj) {
+    synchronized (classObj) {
+      MethodTable current = getMethodTableField(classObj);
+      if (current.isValid()) {
+        return current;
+      }
 
-      // Return the invokable if the signature matches
-      if (SInvokable.getSignature(invokable) == selector) {
-        invokablesTable.put(selector, invokable);
-        return invokable;
+      Map<SSymbol, DynamicObject> methods = new HashMap<>();
+      MethodTable inherited = null;
+      if (hasSuperClass(classObj)) {
+        inherited = getMethodTable(getSuperClass(classObj));
+        inherited.addEntriesTo(methods);
+      }
+      for (Object invokable : getInstanceInvokables(classObj).getObjectStorage(storageType)) {
+        methods.put(SInvokable.getSignature((DynamicObject) invokable), (DynamicObject) invokable);
       }
-    }
 
-    // Traverse the super class chain by calling lookup on the super class
-    if (hasSuperClass(classObj)) {
-      invokable = lookupInvokable(getSuperClass(classObj), selector);
-      if (invokable != null) {
-        invokablesTable.put(selector, invokable);
-        return invokable;
+      MethodTable table = MethodTable.create(methods);
+      if (inherited != null) {
+        inherited.addDependent(table);
       }
+      if (Universe.getCurrent().environmentInObect()) {
+        SClassEnvInObjectLayoutImpl.INSTANCE.setMethodTableUnsafe(classObj, table);
+      } else {
+        SClassLayoutImpl.INSTANCE.setMethodTableUnsafe(classObj, table);
+      }
+      return table;
     }
+  }
 
-    // Invokable not found
-    return null;
+  @TruffleBoundary
+  public static DynamicObject lookupInvokable(final DynamicObject classObj, final SSymbol selector) {
+    return getMethodTable(classObj).lookup(selector);
   }
 
   public static int lookupFieldIndex(final DynamicObject classObj, final SSymbol fieldName) {
@@ -270,6 +387,13 @@ public final class SClass {
   private static boolean addInstanceInvokable(final DynamicObject classObj,
       final DynamicObject invokable) {
     CompilerAsserts.neverPartOfCompilation("SClass.addInstanceInvokable(.)");
+    synchronized (classObj) {
+      return addInstanceInvokableLocked(classObj, invokable);
+    }
+  }
+
+  private static boolean addInstanceInvokableLocked(final DynamicObject classObj,
+      final DynamicObject invokable) {
     SInvokable.setHolder(invokable, classObj);
     // Add the given invokable to the array of instance invokables
     for (int i = 0; i < getNumberOfInstanceInvokables(classObj); i++) {
@@ -295,6 +419,7 @@ public final class SClass {
     } else {
       SClassLayoutImpl.INSTANCE.setSuperclassUnsafe(classObj, klass);
     }
+    hierarchyChanged(classObj);
   }
 
   public static void setInstanceFields(final DynamicObject clazz, final SArray value) {
@@ -311,6 +436,7 @@ public final class SClass {
     } else {
       SClassLayoutImpl.INSTANCE.setInstanceInvokablesUnsafe(classObj, value);
     }
+    hierarchyChanged(classObj);
   }
 
   public static void setInstancesFactory(final DynamicObject clazz, final DynamicObjectFactory factory) {
@@ -321,6 +447,15 @@ public final class SClass {
     }
   }
 
+  /**
+   * Adds the method to the class, or replaces the method with the same
+   * signature. Sends and metaobject lookups resolve to it afterwards.
+   */
+  public static void addInstanceMethod(final DynamicObject classObj,
+      final DynamicObject method) {
+    addInstanceInvokable(classObj, method);
+  }
+
   public static void addInstancePrimitive(final DynamicObject classObj,
       final DynamicObject value, final boolean displayWarning) {
     if (addInstanceInvokable(classObj, value) && displayWarning) {
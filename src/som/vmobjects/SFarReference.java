@@ -0,0 +1,40 @@
+package som.vmobjects;
+
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.interpreter.actors.Actor;
+import som.vm.Universe;
+
+/**
+ * Reference to an object of another actor. It only supports eventual
+ * sends, which are executed by the actor that owns the object.
+ */
+public final class SFarReference extends SAbstractObject {
+  private final Actor  actor;
+  private final Object value;
+
+  public SFarReference(final Actor actor, final Object value) {
+    this.actor = actor;
+    this.value = value;
+  }
+
+  public Actor getActor() {
+    return actor;
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+  @Override
+  public DynamicObject getSOMClass() {
+    Universe current = Universe.getCurrent();
+    return current.getGlobal(current.symbolFor("FarReference"));
+  }
+
+  @Override
+  public ForeignAccess getForeignAccess() {
+    return null;
+  }
+}
@@ -1,81 +1,238 @@
 package som.vmobjects;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File handle behind StandardFileStream. Read-only files are memory-mapped
+ * and read without system calls. Writable files go through a
+ * {@link FileChannel} with a single buffer that holds either read-ahead data
+ * or pending writes. The position is only tracked here and passed to the
+ * channel when the buffer is refilled or flushed.
+ *
+ * <p>Like indexes in SOM, the position seen by the stream is 1-based, it is
+ * only translated in {@link #getPosition()} and {@link #setPosition(long)}.
+ * Internally, and for the channel, it is the 0-based offset.
+ */
+public final class SFile {
+  private static final int BUFFER_SIZE = 8192;
 
-public class SFile {
   private final File file;
-  private FileOutputStream outputStream;
-  private FileInputStream inputStream;
+  private final boolean writable;
+  private FileChannel channel;
+
+  /** Set for read-only files, <code>null</code> otherwise. */
+  private MappedByteBuffer mapped;
+
+  /** Used when the file is not mapped. */
+  private byte[] buffer;
+  private long bufferStart;
+  private int bufferLength;
+  private boolean dirty;
+
+  /** 0-based offset of the next byte to read or write. */
   private long position;
 
   public SFile(final File fileParam, final boolean writable) {
     file = fileParam;
-    if (writable) {
-      setInputStream(null);
-      try {
-        setOutputStream(new FileOutputStream(file));
-      } catch (FileNotFoundException e) {
-        // TODO Auto-generated catch block
-        e.printStackTrace();
-        setOutputStream(null);
-      }
-    } else {
-      setOutputStream(null);
-      try {
-        setInputStream(new FileInputStream(file));
-      } catch (FileNotFoundException e) {
-        // TODO Auto-generated catch block
-        e.printStackTrace();
-        setInputStream(null);
+    this.writable = writable;
+    try {
+      if (writable) {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+      } else {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        long size = channel.size();
+        if (size <= Integer.MAX_VALUE) {
+          mapped = channel.map(MapMode.READ_ONLY, 0, size);
+        }
       }
+    } catch (IOException e) {
+      // TODO Auto-generated catch block
+      e.printStackTrace();
+      channel = null;
+    }
+    if (mapped == null) {
+      buffer = new byte[BUFFER_SIZE];
     }
-    setPosition(1);
+    position = 0;
   }
 
-  public FileOutputStream getOutputStream() {
-    return outputStream;
+  /** @return the 1-based position */
+  public long getPosition() {
+    return position + 1;
   }
 
-  public void setOutputStream(final FileOutputStream outputStream) {
-    this.outputStream = outputStream;
+  /** @param position 1-based, see {@link #isValidPosition(long)} */
+  public void setPosition(final long position) {
+    assert position >= 1;
+    this.position = position - 1;
   }
 
-  public FileInputStream getInputStream() {
-    return inputStream;
+  /**
+   * @return whether the 1-based <code>position</code> is within the file, or
+   *         directly behind its last byte
+   */
+  public boolean isValidPosition(final long position) throws IOException {
+    return position >= 1 && position <= size() + 1;
   }
 
-  public void setInputStream(final FileInputStream inputStream) {
-    this.inputStream = inputStream;
+  public File getFile() {
+    return file;
   }
 
-  public long getPosition() {
-    return position;
+  public boolean isWritable() {
+    return writable;
   }
 
-  public void setPosition(final long position) {
-    try {
-      this.getInputStream().getChannel().position(position);
-      this.position = position;
-    } catch (IOException e) {
-      e.printStackTrace();
+  public long size() throws IOException {
+    if (mapped != null) {
+      return mapped.limit();
+    }
+    if (channel == null) {
+      return file.length();
+    }
+    long size = channel.size();
+    if (dirty) {
+      size = Math.max(size, bufferStart + bufferLength);
     }
+    return size;
   }
 
-  public File getFile() {
-    return file;
+  public boolean atEnd() throws IOException {
+    return position >= size();
   }
 
-  public void close() throws IOException {
-    if (getOutputStream() != null) {
-      getOutputStream().close();
+  /**
+   * Reads up to <code>count</code> bytes at the current position into
+   * <code>dst</code>, like {@link java.io.InputStream#read(byte[], int, int)}.
+   *
+   * @return the number of bytes read, or -1 at the end of the file
+   */
+  public int read(final byte[] dst, final int offset, final int count) throws IOException {
+    if (count <= 0) {
+      return 0;
+    }
+    if (mapped != null) {
+      return readMapped(dst, offset, count);
+    }
+    flush();
+
+    int done = 0;
+    while (done < count) {
+      long available = bufferStart + bufferLength - position;
+      if (position < bufferStart || available <= 0) {
+        if (count - done >= buffer.length) {
+          // large reads would only be copied twice
+          int n = channel.read(ByteBuffer.wrap(dst, offset + done, count - done), position);
+          if (n > 0) {
+            position += n;
+            done += n;
+          }
+          break;
+        }
+        if (fill() <= 0) {
+          break;
+        }
+        continue;
+      }
+      int n = (int) Math.min(available, count - done);
+      System.arraycopy(buffer, (int) (position - bufferStart), dst, offset + done, n);
+      position += n;
+      done += n;
+    }
+    return done == 0 ? -1 : done;
+  }
+
+  private int readMapped(final byte[] dst, final int offset, final int count) {
+    long available = mapped.limit() - position;
+    if (available <= 0) {
+      return -1;
+    }
+    int n = (int) Math.min(available, count);
+    mapped.position((int) position);
+    mapped.get(dst, offset, n);
+    position += n;
+    return n;
+  }
+
+  private int fill() throws IOException {
+    bufferStart  = position;
+    bufferLength = 0;
+    int n = channel.read(ByteBuffer.wrap(buffer), position);
+    if (n > 0) {
+      bufferLength = n;
+    }
+    return n;
+  }
+
+  /**
+   * Writes <code>count</code> bytes at the current position. Consecutive
+   * small writes are collected and only reach the channel on
+   * {@link #flush()}, on a read, or when the buffer is full.
+   */
+  public void write(final byte[] src, final int offset, final int count) throws IOException {
+    if (!writable) {
+      throw new IOException("File is not writable: " + file);
+    }
+    if (count <= 0) {
+      return;
+    }
+
+    if (dirty && position != bufferStart + bufferLength) {
+      flush();
     }
-    if (getInputStream() != null) {
-      getInputStream().close();
+    if (!dirty) {
+      // drop read-ahead data, it would be stale after this write
+      bufferStart  = position;
+      bufferLength = 0;
     }
+    if (count > buffer.length - bufferLength) {
+      flush();
+      if (count >= buffer.length) {
+        writeFully(ByteBuffer.wrap(src, offset, count), position);
+        position += count;
+        return;
+      }
+      bufferStart = position;
+    }
+    System.arraycopy(src, offset, buffer, bufferLength, count);
+    bufferLength += count;
+    dirty = true;
+    position += count;
   }
 
+  public void flush() throws IOException {
+    if (!dirty) {
+      return;
+    }
+    writeFully(ByteBuffer.wrap(buffer, 0, bufferLength), bufferStart);
+    dirty = false;
+    bufferLength = 0;
+  }
+
+  private void writeFully(final ByteBuffer data, final long start) throws IOException {
+    long at = start;
+    while (data.hasRemaining()) {
+      at += channel.write(data, at);
+    }
+  }
+
+  public void close() throws IOException {
+    if (channel == null) {
+      return;
+    }
+    try {
+      flush();
+    } finally {
+      mapped = null;
+      channel.close();
+    }
+  }
 }
@@ -25,6 +25,8 @@
 
 package som.vmobjects;
 
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.IndirectCallNode;
@@ -32,8 +34,10 @@ import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.DynamicObjectFactory;
 import com.oracle.truffle.api.object.ObjectType;
 import com.oracle.truffle.api.object.dsl.Layout;
+import com.oracle.truffle.api.object.dsl.Nullable;
 
 import som.interpreter.Invokable;
+import som.interpreter.LazyMethod;
 import som.interpreter.SArguments;
 import som.vm.Universe;
 import som.vm.constants.Classes;
@@ -50,10 +54,14 @@ public class SInvokable {
     Invokable getInvokable(DynamicObject object);
     RootCallTarget getCallTarget(DynamicObject object);
     DynamicObject getHolder(DynamicObject object);
-    Invokable getInvokableMeta(DynamicObject object);
-    RootCallTarget getCallTargetMeta(DynamicObject object);
+    @Nullable Invokable getInvokableMeta(DynamicObject object);
+    @Nullable RootCallTarget getCallTargetMeta(DynamicObject object);
     void setHolderUnsafe(DynamicObject object, DynamicObject value);
-    DynamicObject createInvokable(DynamicObjectFactory factory, SSymbol signature, Invokable invokable, RootCallTarget callTarget, Invokable invokableMeta, RootCallTarget callTargetMeta, DynamicObject holder);
+    void setInvokableUnsafe(DynamicObject object, Invokable value);
+    void setCallTargetUnsafe(DynamicObject object, RootCallTarget value);
+    void setInvokableMetaUnsafe(DynamicObject object, Invokable value);
+    void setCallTargetMetaUnsafe(DynamicObject object, RootCallTarget value);
+    DynamicObject createInvokable(DynamicObjectFactory factory, SSymbol signature, Invokable invokable, RootCallTarget callTarget, @Nullable Invokable invokableMeta, @Nullable RootCallTarget callTargetMeta, DynamicObject holder);
     DynamicObjectFactory createInvokableShape(DynamicObject klass, DynamicObject environment);
     boolean isInvokable(DynamicObject object);
     boolean isInvokable(ObjectType objectType);
@@ -65,10 +73,14 @@ public class SInvokable {
     Invokable getInvokable(DynamicObject object);
     RootCallTarget getCallTarget(DynamicObject object);
     DynamicObject getHolder(DynamicObject object);
-    Invokable getInvokableMeta(DynamicObject object);
-    RootCallTarget getCallTargetMeta(DynamicObject object);
+    @Nullable Invokable getInvokableMeta(DynamicObject object);
+    @Nullable RootCallTarget getCallTargetMeta(DynamicObject object);
     void setHolderUnsafe(DynamicObject object, DynamicObject value);
-    DynamicObject createInvokableEnvInObject(DynamicObjectFactory factory, DynamicObject environment, SSymbol signature, Invokable invokable, RootCallTarget callTarget, Invokable invokableMeta, RootCallTarget callTargetMeta, DynamicObject holder);
+    void setInvokableUnsafe(DynamicObject object, Invokable value);
+    void setCallTargetUnsafe(DynamicObject object, RootCallTarget value);
+    void setInvokableMetaUnsafe(DynamicObject object, Invokable value);
+    void setCallTargetMetaUnsafe(DynamicObject object, RootCallTarget value);
+    DynamicObject createInvokableEnvInObject(DynamicObjectFactory factory, DynamicObject environment, SSymbol signature, Invokable invokable, RootCallTarget callTarget, @Nullable Invokable invokableMeta, @Nullable RootCallTarget callTargetMeta, DynamicObject holder);
     DynamicObjectFactory createInvokableEnvInObjectShape(DynamicObject klass);
     boolean isInvokableEnvInObject(DynamicObject object);
     boolean isInvokableEnvInObject(ObjectType objectType);
@@ -78,26 +90,70 @@ public class SInvokable {
       InvokableEnvInObjectLayoutImpl.INSTANCE.createInvokableEnvInObjectShape(Classes.primitiveClass) :
       InvokableLayoutImpl.INSTANCE.createInvokableShape(Classes.primitiveClass, Nil.nilObject);
 
+  /**
+   * The meta level copy of the invokable and its call target are only created
+   * when the method first runs at the meta level, see
+   * {@link #getCallTarget(DynamicObject, ExecutionLevel)}.
+   */
   public static DynamicObject create(final SSymbol signature, final Invokable invokable) {
-    Invokable invokableMeta = (Invokable) invokable.deepCopy();
     return Universe.getCurrent().environmentInObect() ?
         InvokableEnvInObjectLayoutImpl.INSTANCE.createInvokableEnvInObject(INVOKABLES_FACTORY, Nil.nilObject, signature, invokable, invokable.createCallTarget(),
-            invokableMeta, invokableMeta.createCallTarget(), Nil.nilObject) :
+            null, null, Nil.nilObject) :
         InvokableLayoutImpl.INSTANCE.createInvokable(INVOKABLES_FACTORY, signature, invokable, invokable.createCallTarget(),
-            invokableMeta, invokableMeta.createCallTarget(), Nil.nilObject);
+            null, null, Nil.nilObject);
   }
 
   public static final RootCallTarget getCallTarget(final DynamicObject invokable, final ExecutionLevel level) {
+    if (getInvokable(invokable) instanceof LazyMethod) {
+      // callers link the compiled method, and not the placeholder
+      CompilerDirectives.transferToInterpreter();
+      ((LazyMethod) getInvokable(invokable)).compile();
+    }
     if (level == ExecutionLevel.Meta) {
-      return Universe.getCurrent().environmentInObect() ?
-          InvokableEnvInObjectLayoutImpl.INSTANCE.getCallTargetMeta(invokable) :
-          InvokableLayoutImpl.INSTANCE.getCallTargetMeta(invokable);
+      RootCallTarget target = getCallTargetMeta(invokable);
+      if (target == null) {
+        target = createMetaLevel(invokable);
+      }
+      return target;
     }
     return Universe.getCurrent().environmentInObect() ?
         InvokableEnvInObjectLayoutImpl.INSTANCE.getCallTarget(invokable) :
         InvokableLayoutImpl.INSTANCE.getCallTarget(invokable);
   }
 
+  private static RootCallTarget getCallTargetMeta(final DynamicObject invokable) {
+    return Universe.getCurrent().environmentInObect() ?
+        InvokableEnvInObjectLayoutImpl.INSTANCE.getCallTargetMeta(invokable) :
+        InvokableLayoutImpl.INSTANCE.getCallTargetMeta(invokable);
+  }
+
+  /**
+   * Creates the meta level copy of the invokable, and its call target, unless
+   * another thread did so already. The copy is taken from the uninitialized
+   * body of the base level invokable, so it is plain even if the base level
+   * already specialized or was mateified, see
+   * {@link Invokable#copyUninitialized()}.
+   */
+  @TruffleBoundary
+  public static RootCallTarget createMetaLevel(final DynamicObject invokable) {
+    synchronized (invokable) {
+      RootCallTarget target = getCallTargetMeta(invokable);
+      if (target != null) {
+        return target;
+      }
+      Invokable invokableMeta = getInvokable(invokable).copyUninitialized();
+      target = invokableMeta.createCallTarget();
+      if (Universe.getCurrent().environmentInObect()) {
+        InvokableEnvInObjectLayoutImpl.INSTANCE.setInvokableMetaUnsafe(invokable, invokableMeta);
+        InvokableEnvInObjectLayoutImpl.INSTANCE.setCallTargetMetaUnsafe(invokable, target);
+      } else {
+        InvokableLayoutImpl.INSTANCE.setInvokableMetaUnsafe(invokable, invokableMeta);
+        InvokableLayoutImpl.INSTANCE.setCallTargetMetaUnsafe(invokable, target);
+      }
+      return target;
+    }
+  }
+
   public static final int getNumberOfArguments(final DynamicObject invokable) {
     return getSignature(invokable).getNumberOfSignatureArguments();
   }
@@ -132,6 +188,35 @@ public class SInvokable {
     }
   }
 
+  /**
+   * Makes <code>invokable</code> execute the code of <code>implementation</code>,
+   * for both execution levels. Used to install methods that are compiled lazily.
+   */
+  public static void replaceImplementation(final DynamicObject invokable, final DynamicObject implementation) {
+    synchronized (invokable) {
+      Invokable invokableMeta;
+      if (Universe.getCurrent().environmentInObect()) {
+        InvokableEnvInObjectLayoutImpl layout = InvokableEnvInObjectLayoutImpl.INSTANCE;
+        invokableMeta = layout.getInvokableMeta(implementation);
+        layout.setInvokableUnsafe(invokable, layout.getInvokable(implementation));
+        layout.setCallTargetUnsafe(invokable, layout.getCallTarget(implementation));
+        layout.setInvokableMetaUnsafe(invokable, invokableMeta);
+        layout.setCallTargetMetaUnsafe(invokable, layout.getCallTargetMeta(implementation));
+      } else {
+        InvokableLayoutImpl layout = InvokableLayoutImpl.INSTANCE;
+        invokableMeta = layout.getInvokableMeta(implementation);
+        layout.setInvokableUnsafe(invokable, layout.getInvokable(implementation));
+        layout.setCallTargetUnsafe(invokable, layout.getCallTarget(implementation));
+        layout.setInvokableMetaUnsafe(invokable, invokableMeta);
+        layout.setCallTargetMetaUnsafe(invokable, layout.getCallTargetMeta(implementation));
+      }
+      getInvokable(invokable).setMethod(invokable);
+      if (invokableMeta != null) {
+        invokableMeta.setMethod(invokable);
+      }
+    }
+  }
+
   public static final Object invoke(final DynamicObject invokable, final VirtualFrame frame, final Object... arguments) {
     return getCallTarget(invokable, SArguments.getExecutionLevelFromArrayOfArgs(arguments)).call(arguments);
   }
@@ -165,7 +250,7 @@ public class SInvokable {
     public interface MethodLayout extends InvokableLayout {
       DynamicObject[] getEmbeddedBlocks(DynamicObject object);
       DynamicObject createMethod(DynamicObjectFactory factory, SSymbol signature, Invokable invokable,
-          RootCallTarget callTarget, Invokable invokableMeta, RootCallTarget callTargetMeta, DynamicObject holder, DynamicObject[] embeddedBlocks);
+          RootCallTarget callTarget, @Nullable Invokable invokableMeta, @Nullable RootCallTarget callTargetMeta, DynamicObject holder, DynamicObject[] embeddedBlocks);
       DynamicObjectFactory createMethodShape(DynamicObject klass, DynamicObject environment);
       boolean isMethod(DynamicObject object);
       boolean isMethod(ObjectType objectType);
@@ -175,7 +260,7 @@ public class SInvokable {
     public interface MethodEnvInObjectLayout extends InvokableEnvInObjectLayout {
       DynamicObject[] getEmbeddedBlocks(DynamicObject object);
       DynamicObject createMethodEnvInObject(DynamicObjectFactory factory, DynamicObject environment, SSymbol signature, Invokable invokable,
-          RootCallTarget callTarget, Invokable invokableMeta, RootCallTarget callTargetMeta, DynamicObject holder, DynamicObject[] embeddedBlocks);
+          RootCallTarget callTarget, @Nullable Invokable invokableMeta, @Nullable RootCallTarget callTargetMeta, DynamicObject holder, DynamicObject[] embeddedBlocks);
       DynamicObjectFactory createMethodEnvInObjectShape(DynamicObject klass);
       boolean isMethodEnvInObject(DynamicObject object);
       boolean isMethodEnvInObject(ObjectType objectType);
@@ -186,12 +271,11 @@ public class SInvokable {
         MethodLayoutImpl.INSTANCE.createMethodShape(Classes.methodClass, Nil.nilObject);
 
     public static DynamicObject create(final SSymbol signature, final Invokable invokable, final DynamicObject[] embeddedBlocks) {
-      Invokable invokableMeta = (Invokable) invokable.deepCopy();
       return Universe.getCurrent().environmentInObect() ?
           MethodEnvInObjectLayoutImpl.INSTANCE.createMethodEnvInObject(SMETHOD_FACTORY, Nil.nilObject, signature, invokable,
-              invokable.createCallTarget(), invokableMeta, invokableMeta.createCallTarget(), Nil.nilObject, embeddedBlocks) :
+              invokable.createCallTarget(), null, null, Nil.nilObject, embeddedBlocks) :
           MethodLayoutImpl.INSTANCE.createMethod(SMETHOD_FACTORY, signature, invokable,
-          invokable.createCallTarget(), invokableMeta, invokableMeta.createCallTarget(), Nil.nilObject, embeddedBlocks);
+          invokable.createCallTarget(), null, null, Nil.nilObject, embeddedBlocks);
     }
 
     public static void setHolder(final DynamicObject invokable, final DynamicObject value) {
@@ -0,0 +1,111 @@
+package som.vmobjects;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.vm.Universe;
+
+/**
+ * A reentrant mutual exclusion lock for SOM threads, see {@link SThread}.
+ * Only the thread that locked a mutex can unlock it.
+ */
+public final class SMutex extends SAbstractObject {
+
+  /** A condition variable of a mutex. It is waited on with the mutex locked. */
+  public static final class SCondition extends SAbstractObject {
+    private final ReentrantLock lock;
+    private final Condition     condition;
+
+    private SCondition(final ReentrantLock lock) {
+      this.lock      = lock;
+      this.condition = lock.newCondition();
+    }
+
+    /**
+     * Unlocks the mutex, waits to be signaled, and locks the mutex again.
+     *
+     * @return false, if the current thread does not hold the mutex
+     */
+    @TruffleBoundary
+    public boolean await() {
+      if (!lock.isHeldByCurrentThread()) {
+        return false;
+      }
+      condition.awaitUninterruptibly();
+      return true;
+    }
+
+    /** @return false, if the current thread does not hold the mutex */
+    @TruffleBoundary
+    public boolean signal() {
+      if (!lock.isHeldByCurrentThread()) {
+        return false;
+      }
+      condition.signal();
+      return true;
+    }
+
+    /** @return false, if the current thread does not hold the mutex */
+    @TruffleBoundary
+    public boolean signalAll() {
+      if (!lock.isHeldByCurrentThread()) {
+        return false;
+      }
+      condition.signalAll();
+      return true;
+    }
+
+    @Override
+    public DynamicObject getSOMClass() {
+      Universe current = Universe.getCurrent();
+      return current.getGlobal(current.symbolFor("Condition"));
+    }
+
+    @Override
+    public ForeignAccess getForeignAccess() {
+      return null;
+    }
+  }
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  @TruffleBoundary
+  public void lock() {
+    lock.lock();
+  }
+
+  /** @return false, if the current thread does not hold the lock */
+  @TruffleBoundary
+  public boolean unlock() {
+    if (!lock.isHeldByCurrentThread()) {
+      return false;
+    }
+    lock.unlock();
+    return true;
+  }
+
+  @TruffleBoundary
+  public boolean isLocked() {
+    return lock.isLocked();
+  }
+
+  @TruffleBoundary
+  public SCondition newCondition() {
+    return new SCondition(lock);
+  }
+
+  @Override
+  public DynamicObject getSOMClass() {
+    Universe current = Universe.getCurrent();
+    return current.getGlobal(current.symbolFor("Mutex"));
+  }
+
+  @Override
+  public ForeignAccess getForeignAccess() {
+    return null;
+  }
+}
@@ -0,0 +1,231 @@
+package som.vmobjects;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.interpreter.actors.Actor;
+import som.interpreter.actors.EventualMessage.CallbackMessage;
+import som.vm.Universe;
+
+/**
+ * The eventual value of a message sent with <code>eventualSend:</code>.
+ * A promise is resolved once, by the actor that executed the message, and
+ * can be used by all actors. Blocks registered with
+ * <code>whenResolved:</code> run on the actor that registered them.
+ * Resolving a promise with another promise resolves it with the value of
+ * the other one.
+ *
+ * <p>A promise is broken when its message failed. The promises that depend
+ * on it, because they were resolved with it, or are the result of a
+ * <code>whenResolved:</code> or of a message sent to it, are broken as well.
+ */
+public final class SPromise extends SAbstractObject {
+
+  /** Notified on the thread that resolves the promise, unless it is broken. */
+  public interface Listener {
+    void resolved(Object value, Actor owner);
+  }
+
+  /**
+   * A listener and the promise that depends on it. Without a listener, the
+   * promise takes over the value of this one.
+   */
+  private static final class Dependent {
+    private final Listener listener;
+    private final SPromise promise;
+
+    Dependent(final Listener listener, final SPromise promise) {
+      this.listener = listener;
+      this.promise  = promise;
+    }
+  }
+
+  private Object               value;
+  private Actor                owner;
+  private boolean              resolved;
+  private boolean              broken;
+  private ArrayList<Dependent> dependents;
+  private ArrayList<Thread>    waiters;
+
+  /**
+   * Resolves the promise.
+   *
+   * @param owner the actor <code>value</code> belongs to
+   */
+  @TruffleBoundary
+  public void resolve(final Object value, final Actor owner) {
+    if (value instanceof SPromise) {
+      ((SPromise) value).addDependent(new Dependent(null, this));
+      return;
+    }
+    settle(this, value, owner, false);
+  }
+
+  /**
+   * Breaks the promise, and the ones that depend on it.
+   *
+   * @param error the exception, or a description of the error
+   */
+  @TruffleBoundary
+  public void breakWith(final Object error, final Actor owner) {
+    settle(this, error, owner, true);
+  }
+
+  /**
+   * Settles <code>promise</code>, and then the promises that take over its
+   * value, or are broken with it, one after the other. Long chains of
+   * promises thus do not need a deep stack.
+   */
+  private static void settle(final SPromise promise, final Object value,
+      final Actor owner, final boolean broken) {
+    ArrayDeque<SPromise> pending = new ArrayDeque<>();
+    SPromise current = promise;
+    while (current != null) {
+      ArrayList<Dependent> toNotify;
+      ArrayList<Thread>    toWake;
+      synchronized (current) {
+        assert !current.resolved;
+        current.value    = value;
+        current.owner    = owner;
+        current.broken   = broken;
+        current.resolved = true;
+        toNotify = current.dependents;
+        current.dependents = null;
+        toWake = current.waiters;
+        current.waiters = null;
+      }
+      if (toWake != null) {
+        for (Thread t : toWake) {
+          LockSupport.unpark(t);
+        }
+      }
+      if (toNotify != null) {
+        for (Dependent d : toNotify) {
+          if (d.listener != null && !broken) {
+            d.listener.resolved(value, owner);
+          } else if (d.promise != null) {
+            pending.add(d.promise);
+          }
+        }
+      }
+      current = pending.poll();
+    }
+  }
+
+  /**
+   * Registers <code>listener</code>, and breaks <code>dependent</code>, if
+   * not null, when this promise is broken.
+   */
+  @TruffleBoundary
+  public void addListener(final Listener listener, final SPromise dependent) {
+    addDependent(new Dependent(listener, dependent));
+  }
+
+  private void addDependent(final Dependent dependent) {
+    synchronized (this) {
+      if (!resolved) {
+        if (dependents == null) {
+          dependents = new ArrayList<>(2);
+        }
+        dependents.add(dependent);
+        return;
+      }
+    }
+    if (dependent.listener != null && !broken) {
+      dependent.listener.resolved(value, owner);
+    } else if (dependent.promise != null) {
+      settle(dependent.promise, value, owner, broken);
+    }
+  }
+
+  /**
+   * Runs <code>block</code> with the value on the current actor.
+   *
+   * @return a promise for the value of the block
+   */
+  @TruffleBoundary
+  public SPromise whenResolved(final SBlock block) {
+    Actor actor = Actor.current();
+    SPromise result = new SPromise();
+    addListener((v, o) -> actor.send(
+        new CallbackMessage(block, o.wrapForUse(v, actor), result)), result);
+    return result;
+  }
+
+  /**
+   * Blocks the current thread until the promise is resolved. Meant for the
+   * main program, which can not otherwise wait for actors. Meanwhile, the
+   * thread processes the messages of the current actor, because the promise
+   * may depend on them, and the actor's turn does not end while it waits.
+   *
+   * @return false, if the thread was interrupted while waiting
+   */
+  @TruffleBoundary
+  public boolean await() {
+    Thread current = Thread.currentThread();
+    synchronized (this) {
+      if (resolved) {
+        return true;
+      }
+      if (waiters == null) {
+        waiters = new ArrayList<>(1);
+      }
+      waiters.add(current);
+    }
+    try {
+      Actor.current().processMessagesUntilResolved(this);
+      return true;
+    } catch (InterruptedException e) {
+      current.interrupt();
+      return false;
+    }
+  }
+
+  public synchronized boolean isResolved() {
+    return resolved;
+  }
+
+  /** @return whether the promise was broken, after it was resolved */
+  public synchronized boolean isBroken() {
+    return broken;
+  }
+
+  /** @return the value of the resolved promise, as the current actor sees it */
+  @TruffleBoundary
+  public Object getValue() {
+    assert resolved && !broken;
+    return owner.wrapForUse(value, Actor.current());
+  }
+
+  /** @return a description of the error that broke the promise */
+  @TruffleBoundary
+  public String describeError() {
+    assert resolved && broken;
+    return "The promise was broken: " + describe(value);
+  }
+
+  /** @return a description of <code>error</code>, which broke a promise */
+  public static String describe(final Object error) {
+    if (error instanceof DynamicObject) {
+      return "an exception of class "
+          + SClass.getName(SObject.getSOMClass((DynamicObject) error)).getString();
+    }
+    return error.toString();
+  }
+
+  @Override
+  public DynamicObject getSOMClass() {
+    Universe current = Universe.getCurrent();
+    return current.getGlobal(current.symbolFor("Promise"));
+  }
+
+  @Override
+  public ForeignAccess getForeignAccess() {
+    return null;
+  }
+}
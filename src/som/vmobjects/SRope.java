@@ -0,0 +1,113 @@
+package som.vmobjects;
+
+import java.util.ArrayDeque;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A string built by <code>concatenate:</code>. It only keeps references to
+ * its two parts, so building a long string by repeated concatenation takes
+ * linear instead of quadratic time. The characters are copied into a flat
+ * {@link String} the first time they are needed, and the parts are dropped
+ * afterwards. Parts and flat string are published through a single volatile
+ * field, so that a concurrent reader either sees both parts or the string.
+ *
+ * <p>For SOM code, a rope is just a String.
+ */
+public final class SRope {
+  /** Results shorter than this are copied right away. */
+  public static final int MIN_ROPE_LENGTH = 64;
+
+  private static final class Parts {
+    final Object left;  // String or SRope
+    final Object right; // String or SRope
+
+    Parts(final Object left, final Object right) {
+      this.left  = left;
+      this.right = right;
+    }
+  }
+
+  private final int length;
+  private volatile Object content; // Parts, or the flattened String
+
+  private SRope(final Object left, final Object right, final int length) {
+    this.content = new Parts(left, right);
+    this.length  = length;
+  }
+
+  /**
+   * @param left a String or SRope
+   * @param right a String or SRope
+   * @return a String or a SRope
+   */
+  @TruffleBoundary
+  public static Object concat(final Object left, final Object right) {
+    int length = lengthOf(left) + lengthOf(right);
+    if (length < MIN_ROPE_LENGTH) {
+      return asString(left).concat(asString(right));
+    }
+    return new SRope(left, right, length);
+  }
+
+  private static int lengthOf(final Object part) {
+    if (part instanceof SRope) {
+      return ((SRope) part).length;
+    }
+    return ((String) part).length();
+  }
+
+  private static String asString(final Object part) {
+    if (part instanceof SRope) {
+      return ((SRope) part).flatten();
+    }
+    return (String) part;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  public boolean isFlat() {
+    return content instanceof String;
+  }
+
+  public String flatten() {
+    Object current = content;
+    if (current instanceof String) {
+      return (String) current;
+    }
+    String flattened = doFlatten((Parts) current);
+    content = flattened;
+    return flattened;
+  }
+
+  @TruffleBoundary
+  private String doFlatten(final Parts rootParts) {
+    // ropes built by a loop are deeply nested, so we avoid recursion here
+    StringBuilder builder = new StringBuilder(length);
+    ArrayDeque<Object> parts = new ArrayDeque<>();
+    parts.push(rootParts.right);
+    parts.push(rootParts.left);
+    while (!parts.isEmpty()) {
+      Object part = parts.pop();
+      if (part instanceof String) {
+        builder.append((String) part);
+      } else {
+        Object partContent = ((SRope) part).content;
+        if (partContent instanceof String) {
+          builder.append((String) partContent);
+        } else {
+          parts.push(((Parts) partContent).right);
+          parts.push(((Parts) partContent).left);
+        }
+      }
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public String toString() {
+    return flatten();
+  }
+}
@@ -24,6 +24,7 @@
 
 package som.vmobjects;
 
+import som.vm.Symbols;
 import som.vm.constants.Classes;
 
 import com.oracle.truffle.api.interop.ForeignAccess;
@@ -32,11 +33,17 @@ import com.oracle.truffle.api.object.DynamicObject;
 public final class SSymbol extends SAbstractObject {
   private final String string;
   private final int    numberOfSignatureArguments;
+  private final int    id;
 
-  public SSymbol(final String value) {
+  /**
+   * Symbols are only to be created by {@link Symbols#symbolFor(String)},
+   * which interns them and assigns the id.
+   */
+  public SSymbol(final String value, final int id) {
     super();
     string = value;
     numberOfSignatureArguments = determineNumberOfSignatureArguments();
+    this.id = id;
   }
 
   @Override
@@ -45,6 +52,14 @@ public final class SSymbol extends SAbstractObject {
     return Classes.symbolClass;
   }
 
+  /**
+   * Dense, unique id of the symbol. Used as hash in the flattened method
+   * tables of classes.
+   */
+  public int getId() {
+    return id;
+  }
+
   public String getString() {
     // Get the string associated to this symbol
     return string;
@@ -0,0 +1,101 @@
+package som.vmobjects;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.object.DynamicObject;
+
+import som.interpreter.ReturnException;
+import som.vm.Universe;
+import som.vm.constants.ExecutionLevel;
+
+/**
+ * A SOM thread. It runs a block without arguments on a Java thread of its
+ * own, with the environment and execution level of the method that
+ * created it. The thread has its own stack and exception handlers, all
+ * objects are shared.
+ *
+ * <p>If the block terminates with an exception or a Java error, it is
+ * thrown again in the threads that join it.
+ */
+public final class SThread extends SAbstractObject implements Runnable {
+  private final SBlock         block;
+  private final DynamicObject  environment;
+  private final ExecutionLevel level;
+  private final Thread         thread;
+
+  // published to joining threads by Thread.join()
+  private Object    result;
+  private Throwable failure;
+
+  @TruffleBoundary
+  public SThread(final SBlock block, final DynamicObject environment,
+      final ExecutionLevel level) {
+    this.block       = block;
+    this.environment = environment;
+    this.level       = level;
+    this.thread      = Universe.getCurrent().createThread(this);
+  }
+
+  @TruffleBoundary
+  public void start() {
+    thread.start();
+  }
+
+  @Override
+  public void run() {
+    try {
+      result = SInvokable.invoke(block.getMethod(), environment, level, block);
+    } catch (ReturnException e) {
+      // the home method of the block is on the stack of another thread
+      result = SAbstractObject.sendEscapedBlock(block.getOuterSelf(), block);
+    } catch (Throwable e) {
+      failure = e;
+    }
+  }
+
+  /**
+   * Waits until the thread terminated.
+   *
+   * @return the value of its block
+   */
+  @TruffleBoundary
+  public Object join() {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        thread.join();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure instanceof Error) {
+      throw (Error) failure;
+    } else if (failure != null) {
+      throw new RuntimeException(failure);
+    }
+    return result;
+  }
+
+  @TruffleBoundary
+  public boolean isAlive() {
+    return thread.isAlive();
+  }
+
+  @Override
+  public DynamicObject getSOMClass() {
+    Universe current = Universe.getCurrent();
+    return current.getGlobal(current.symbolFor("Thread"));
+  }
+
+  @Override
+  public ForeignAccess getForeignAccess() {
+    return null;
+  }
+}
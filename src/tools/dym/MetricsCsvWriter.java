@@ -21,7 +21,6 @@ import som.interpreter.Invokable;
 import som.vm.NotYetImplementedException;
 import som.vmobjects.SClass;
 import som.vmobjects.SInvokable;
-import som.vmobjects.SSymbol;
 import tools.dym.Tags.ArrayRead;
 import tools.dym.Tags.ArrayWrite;
 import tools.dym.Tags.OpArithmetic;
@@ -480,9 +479,9 @@ public final class MetricsCsvWriter {
 
   private int numExecutedMethods(final DynamicObject clazz, final Collection<InvocationProfile> profiles) {
     int numMethodsExecuted = 0;
-    Map<SSymbol, DynamicObject> disps = SClass.getInvokablesTable(clazz);
-    for (DynamicObject d : disps.values()) {
-      int invokeCount = methodInvocationCount(d, profiles);
+    ValueProfile storageType = ValueProfile.createClassProfile();
+    for (Object d : SClass.getInstanceInvokables(clazz).getObjectStorage(storageType)) {
+      int invokeCount = methodInvocationCount((DynamicObject) d, profiles);
       if (invokeCount > 0) {
         numMethodsExecuted += 1;
       }
@@ -597,7 +596,7 @@ public final class MetricsCsvWriter {
       int result = a.toString().compareTo(b.toString());
       if (result == 0 && a != b) {
         assert SInvokable.getHolder(a) != null : "TODO: need to handle this case";
-        if (SClass.getInvokablesTable(SInvokable.getHolder(a)).values().contains(a)) {
+        if (SClass.getMethodTable(SInvokable.getHolder(a)).contains(a)) {
           return -1;
         } else {
           return 1;
@@ -21,14 +21,32 @@
  */
 package mate.tests;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 
 import som.tests.BasicInterpreterTests;
 
 @RunWith(Parameterized.class)
 public class MateBasicInterpreterTests extends BasicInterpreterTests {
 
+  @Parameters
+  public static Iterable<Object[]> data() {
+    List<Object[]> data = new ArrayList<>();
+    BasicInterpreterTests.data().forEach(data::add);
+    data.add(new Object[] {"LazyMateification", "readAfterWarmUp", 42, Long.class});
+    data.add(new Object[] {"LazyMateification", "readAfterActivatingFieldReads", 42, Long.class});
+    data.add(new Object[] {"MetaobjectUpdates", "replaceMetaobject", 43, Long.class});
+    data.add(new Object[] {"MetaobjectUpdates", "redefineMetaobjectMethod", 44, Long.class});
+    data.add(new Object[] {"MetaobjectUpdates", "redefineInheritedMetaobjectMethod", 45, Long.class});
+    data.add(new Object[] {"ContextAccess", "readAndWriteLocals", 42, Long.class});
+    data.add(new Object[] {"ContextAccess", "readUnknownLocal", 7, Long.class});
+    return data;
+  }
+
   public MateBasicInterpreterTests(final String testClass, final String testSelector,
       final Object expectedResult, final Class<?> resultType) {
     super(testClass, testSelector, expectedResult, resultType);
@@ -40,6 +58,6 @@ public class MateBasicInterpreterTests extends BasicInterpreterTests {
         "--mate",
         "-activateMate",
         "-cp",
-        "Smalltalk:Smalltalk/Mate:Smalltalk/Mate/MOP:Smalltalk/Mate/Compiler::Smalltalk/Exceptions:TestSuite/BasicInterpreterTests"};
+        "Smalltalk:Smalltalk/Mate:Smalltalk/Mate/MOP:Smalltalk/Mate/Compiler::Smalltalk/Exceptions:TestSuite/BasicInterpreterTests:tests/som/BasicInterpreterTests"};
   }
 }
@@ -85,6 +85,51 @@ public class BasicInterpreterTests {
         {"Arrays", "testPutAllNil",   "Nil", SClass.class },
         {"Arrays", "testNewWithAll",   1, Long.class },
 
+        {"ArrayPrimitives", "copyFromToBytes",        3098, Long.class },
+        {"ArrayPrimitives", "copyFromToChars",        3099, Long.class },
+        {"ArrayPrimitives", "copyFromToOutOfBounds",    30, Long.class },
+        {"ArrayPrimitives", "fillBytes",                28, Long.class },
+        {"ArrayPrimitives", "fillEmpty",               120, Long.class },
+        {"ArrayPrimitives", "indexOfBytes",              3, Long.class },
+        {"ArrayPrimitives", "indexOfChars",              5, Long.class },
+        {"ArrayPrimitives", "indexOfMissing",            0, Long.class },
+        {"ArrayPrimitives", "replaceBytes",            300, Long.class },
+        {"ArrayPrimitives", "replaceCharsFromString",  122, Long.class },
+        {"ArrayPrimitives", "replaceOutOfBounds",      497, Long.class },
+
+        {"ArrayLoops", "doNonLocalReturn",             30, Long.class },
+        {"ArrayLoops", "doEmpty",                      30, Long.class },
+        {"ArrayLoops", "doEmptyBecomesFilled",          5, Long.class },
+        {"ArrayLoops", "doPartiallyEmptyBecomesFull",   6, Long.class },
+        {"ArrayLoops", "doLongsBecomeObjects",      321.5, Double.class },
+        {"ArrayLoops", "doIndexesNonLocalReturn",       4, Long.class },
+        {"ArrayLoops", "doIndexesEmpty",                0, Long.class },
+        {"ArrayLoops", "doIndexesStrategyChange",     140, Long.class },
+        {"ArrayLoops", "putAllNonLocalReturn",          7, Long.class },
+        {"ArrayLoops", "putAllEmpty",                   0, Long.class },
+        {"ArrayLoops", "putAllStrategyChange",        105, Long.class },
+
+        {"ParallelArrays", "doPure",                     2000, Long.class },
+        {"ParallelArrays", "doImpure",                2001000, Long.class },
+        {"ParallelArrays", "collectPure",             4002001, Long.class },
+        {"ParallelArrays", "collectImpure",              2009, Long.class },
+        {"ParallelArrays", "injectPure",              2001005, Long.class },
+        {"ParallelArrays", "injectImpure",            2003005, Long.class },
+        {"ParallelArrays", "injectDoubles",         1000500.0, Double.class },
+        {"ParallelArrays", "injectNotAssociative",   -2001000, Long.class },
+
+        {"ExceptionHandling", "nestedInner",                1, Long.class },
+        {"ExceptionHandling", "nestedOuter",                2, Long.class },
+        {"ExceptionHandling", "nestedSignalInHandler",      4, Long.class },
+        {"ExceptionHandling", "retry",                      3, Long.class },
+        {"ExceptionHandling", "pass",                      42, Long.class },
+        {"ExceptionHandling", "passWithoutResume",          2, Long.class },
+        {"ExceptionHandling", "resumeAfterUnwind",          7, Long.class },
+        {"ExceptionHandling", "resumeRunsEnsureOnce",     115, Long.class },
+        {"ExceptionHandling", "selectorNotAClass",          5, Long.class },
+        {"ExceptionHandling", "selectorNotAClassDeclines",  6, Long.class },
+        {"ExceptionHandling", "controlOutsideHandler",     14, Long.class },
+
         {"BlockInlining", "testNoInlining",                           1, Long.class },
         {"BlockInlining", "testOneLevelInlining",                     1, Long.class },
         {"BlockInlining", "testOneLevelInliningWithLocalShadowTrue",  2, Long.class },
@@ -186,7 +231,7 @@ public class BasicInterpreterTests {
   protected String[] getVMArguments() {
     return new String[] {
         "-cp",
-        "Smalltalk:Smalltalk/Mate:Smalltalk/Mate/MOP:Smalltalk/Mate/Compiler::Smalltalk/Exceptions:TestSuite/BasicInterpreterTests"
+        "Smalltalk:Smalltalk/Mate:Smalltalk/Mate/MOP:Smalltalk/Mate/Compiler::Smalltalk/Exceptions:TestSuite/BasicInterpreterTests:tests/som/BasicInterpreterTests"
     };
   }
 }
@@ -0,0 +1,59 @@
+package som.tests;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.source.Source;
+
+import som.compiler.ClassCache;
+import som.vm.Universe;
+import som.vmobjects.SSymbol;
+
+public class ClassCacheTests {
+  private static final String[] VM_ARGUMENTS = new String[] {
+      "-cp",
+      "Smalltalk:TestSuite/BasicInterpreterTests:tests/som/BasicInterpreterTests"
+  };
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Source source;
+  private DynamicObject clazz;
+
+  @Before
+  public void initialize() {
+    if (Universe.getCurrent() == null) {
+      Universe.createVM(VM_ARGUMENTS);
+    } else {
+      Universe.getCurrent().updateArguments(VM_ARGUMENTS);
+    }
+    Universe vm = Universe.getCurrent();
+    SSymbol name = vm.symbolFor("ArrayLoops");
+    source = vm.getSourceForClassName(name);
+    clazz  = vm.loadClass(name);
+  }
+
+  @Test
+  public void testSameBuildHits() throws IOException {
+    File directory = folder.newFolder();
+    new ClassCache(directory, "build-1").store(source, clazz);
+    assertTrue(new ClassCache(directory, "build-1").contains(source));
+  }
+
+  @Test
+  public void testOtherBuildMisses() throws IOException {
+    File directory = folder.newFolder();
+    new ClassCache(directory, "build-1").store(source, clazz);
+    assertFalse(new ClassCache(directory, "build-2").contains(source));
+  }
+}